@@ -108,6 +108,17 @@ public class InMemoryTaskArtifactCache implements CacheDecorator {
         };
     }
 
+    /**
+     * Discards all cached entries, to release memory. Entries are reloaded from the persistent caches as they are needed.
+     */
+    public void clear() {
+        synchronized (lock) {
+            for (Cache<Object, Object> data : cache.asMap().values()) {
+                data.invalidateAll();
+            }
+        }
+    }
+
     private Cache<Object, Object> loadData(String cacheId, String cacheName) {
         Cache<Object, Object> theData;
         synchronized (lock) {
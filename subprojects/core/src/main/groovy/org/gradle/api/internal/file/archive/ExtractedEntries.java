@@ -0,0 +1,44 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.file.archive;
+
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
+
+import java.io.File;
+
+/**
+ * Counts the archive entries that had to be extracted to the temporary directory while visiting an archive tree.
+ * Entries that are only read through {@link org.gradle.api.file.FileTreeElement#open()} or copied are not extracted.
+ */
+class ExtractedEntries {
+    private static final Logger LOGGER = Logging.getLogger(ExtractedEntries.class);
+
+    private int count;
+    private long bytes;
+
+    void extracted(File file) {
+        count++;
+        bytes += file.length();
+    }
+
+    void logSummary(String archiveDisplayName, File tmpDir) {
+        if (count > 0) {
+            LOGGER.debug("Extracted {} entries ({} bytes) of {} to {}.", count, bytes, archiveDisplayName, tmpDir);
+        }
+    }
+}
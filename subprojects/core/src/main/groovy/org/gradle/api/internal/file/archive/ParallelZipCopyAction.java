@@ -0,0 +1,343 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.file.archive;
+
+import org.apache.tools.zip.UnixStat;
+import org.apache.tools.zip.Zip64RequiredException;
+import org.gradle.api.GradleException;
+import org.gradle.api.UncheckedIOException;
+import org.gradle.api.file.FileCopyDetails;
+import org.gradle.api.internal.DocumentationRegistry;
+import org.gradle.api.internal.file.CopyActionProcessingStreamAction;
+import org.gradle.api.internal.file.copy.CopyAction;
+import org.gradle.api.internal.file.copy.CopyActionProcessingStream;
+import org.gradle.api.internal.file.copy.FileCopyDetailsInternal;
+import org.gradle.api.internal.tasks.SimpleWorkResult;
+import org.gradle.api.tasks.WorkResult;
+import org.gradle.api.tasks.bundling.Zip;
+import org.gradle.internal.concurrent.ThreadFactoryImpl;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.LinkedList;
+import java.util.concurrent.*;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * Creates a ZIP archive, compressing its entries using a shared pool of threads. The content of each entry is read by the visiting thread and compressed
+ * into a buffer by the pool. The buffers are written to the archive in the order the entries are visited, so the archive does not depend on the
+ * number of threads. Entries bigger than {@value #MAX_BUFFERED_ENTRY_SIZE} bytes are compressed while they are written to the archive instead.
+ * The entries waiting to be written hold at most about {@value #MAX_PENDING_BYTES} bytes of content, whatever the number of threads.
+ *
+ * <p>Creates the same archives as {@link ZipCopyAction} does without the Zip64 extension.</p>
+ */
+public class ParallelZipCopyAction implements CopyAction {
+    public static final String PARALLEL_PROPERTY = "org.gradle.internal.archives.parallelZip";
+    private static final int MAX_BUFFERED_ENTRY_SIZE = 1024 * 1024;
+    private static final int MAX_THREADS = Runtime.getRuntime().availableProcessors();
+    private static final int MAX_PENDING_ENTRIES = 16 * MAX_THREADS;
+    private static final long MAX_PENDING_BYTES = 32 * 1024 * 1024;
+
+    private static ExecutorService compressionExecutor;
+
+    private final File zipFile;
+    private final int entryCompressionMethod;
+    private final DocumentationRegistry documentationRegistry;
+
+    /**
+     * @param deflate whether entries should be deflated, rather than stored
+     */
+    public ParallelZipCopyAction(File zipFile, boolean deflate, DocumentationRegistry documentationRegistry) {
+        this.zipFile = zipFile;
+        this.entryCompressionMethod = deflate ? ZipArchiveWriter.DEFLATED : ZipArchiveWriter.STORED;
+        this.documentationRegistry = documentationRegistry;
+    }
+
+    public WorkResult execute(CopyActionProcessingStream stream) {
+        ZipArchiveWriter writer;
+        try {
+            writer = new ZipArchiveWriter(zipFile);
+        } catch (Exception e) {
+            throw new GradleException(String.format("Could not create ZIP '%s'.", zipFile), e);
+        }
+
+        StreamAction action = new StreamAction(writer, getCompressionExecutor());
+        try {
+            try {
+                stream.process(action);
+                action.writePendingEntries();
+                writer.finish();
+            } finally {
+                action.cancelPendingEntries();
+                writer.close();
+            }
+        } catch (Zip64RequiredException e) {
+            throw zip64Required(e);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        return new SimpleWorkResult(true);
+    }
+
+    private RuntimeException zip64Required(Zip64RequiredException e) {
+        return new org.gradle.api.tasks.bundling.internal.Zip64RequiredException(
+                String.format("%s\n\nTo build this archive, please enable the zip64 extension.\nSee: %s", e.getMessage(), documentationRegistry.getDslRefForProperty(Zip.class, "zip64"))
+        );
+    }
+
+    private RuntimeException entryFailure(FileCopyDetails details, Throwable failure) {
+        if (failure instanceof Zip64RequiredException) {
+            return zip64Required((Zip64RequiredException) failure);
+        }
+        return new GradleException(String.format("Could not add %s to ZIP '%s'.", details, zipFile), failure);
+    }
+
+    private static synchronized ExecutorService getCompressionExecutor() {
+        if (compressionExecutor == null) {
+            final ThreadFactory threadFactory = new ThreadFactoryImpl("ZIP compression");
+            ThreadPoolExecutor executor = new ThreadPoolExecutor(MAX_THREADS, MAX_THREADS, 30, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>(), new ThreadFactory() {
+                public Thread newThread(Runnable runnable) {
+                    Thread thread = threadFactory.newThread(runnable);
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+            executor.allowCoreThreadTimeOut(true);
+            compressionExecutor = executor;
+        }
+        return compressionExecutor;
+    }
+
+    private class StreamAction implements CopyActionProcessingStreamAction {
+        private final ZipArchiveWriter writer;
+        private final ExecutorService executor;
+        private final LinkedList<PendingEntry> pendingEntries = new LinkedList<PendingEntry>();
+        private long pendingBytes;
+
+        public StreamAction(ZipArchiveWriter writer, ExecutorService executor) {
+            this.writer = writer;
+            this.executor = executor;
+        }
+
+        public void processFile(FileCopyDetailsInternal details) {
+            if (details.isDirectory()) {
+                visitDir(details);
+            } else {
+                visitFile(details);
+            }
+            writeCompletedEntries();
+        }
+
+        private void visitDir(FileCopyDetails dirDetails) {
+            // Trailing slash in name indicates that entry is a directory
+            ZipArchiveWriter.Entry entry = writer.createEntry(dirDetails.getRelativePath().getPathString() + '/', dirDetails.getLastModified(), UnixStat.DIR_FLAG | dirDetails.getMode(), true);
+            pendingEntries.add(new PendingEntry(dirDetails, entry, null, 0));
+        }
+
+        private void visitFile(FileCopyDetails fileDetails) {
+            ZipArchiveWriter.Entry entry = writer.createEntry(fileDetails.getRelativePath().getPathString(), fileDetails.getLastModified(), UnixStat.FILE_FLAG | fileDetails.getMode(), false);
+            EntryContent content = new EntryContent(entry);
+            try {
+                fileDetails.copyTo(content);
+                content.close();
+            } catch (Exception e) {
+                if (content.pendingEntryFailure != null) {
+                    throw content.pendingEntryFailure;
+                }
+                throw entryFailure(fileDetails, e);
+            }
+            if (content.buffer != null) {
+                // Count the buffer and the compressed copy of its content, which is rarely bigger than the content itself
+                long bytes = 2L * content.buffer.length;
+                pendingEntries.add(new PendingEntry(fileDetails, entry, executor.submit(new CompressEntry(content.buffer, content.count, entryCompressionMethod)), bytes));
+                pendingBytes += bytes;
+            }
+        }
+
+        private void writeCompletedEntries() {
+            while (!pendingEntries.isEmpty() && (pendingEntries.size() > MAX_PENDING_ENTRIES || pendingBytes > MAX_PENDING_BYTES || pendingEntries.getFirst().isDone())) {
+                write(removeFirstPendingEntry());
+            }
+        }
+
+        public void writePendingEntries() {
+            while (!pendingEntries.isEmpty()) {
+                write(removeFirstPendingEntry());
+            }
+        }
+
+        public void cancelPendingEntries() {
+            for (PendingEntry pendingEntry : pendingEntries) {
+                pendingEntry.cancel();
+            }
+            pendingEntries.clear();
+            pendingBytes = 0;
+        }
+
+        private PendingEntry removeFirstPendingEntry() {
+            PendingEntry pendingEntry = pendingEntries.removeFirst();
+            pendingBytes -= pendingEntry.bytes;
+            return pendingEntry;
+        }
+
+        private void write(PendingEntry pendingEntry) {
+            try {
+                if (pendingEntry.content == null) {
+                    writer.writeDirectory(pendingEntry.entry);
+                } else {
+                    CompressedContent content = pendingEntry.content.get();
+                    writer.writeEntry(pendingEntry.entry, content.method, content.crc, content.size, content.data, content.length);
+                }
+            } catch (ExecutionException e) {
+                throw entryFailure(pendingEntry.details, e.getCause());
+            } catch (Exception e) {
+                throw entryFailure(pendingEntry.details, e);
+            }
+        }
+
+        /**
+         * Collects the content of an entry. Once the content is too big to be buffered, the entries visited before are written, and the content is
+         * compressed straight into the archive.
+         */
+        private class EntryContent extends OutputStream {
+            private final ZipArchiveWriter.Entry entry;
+            private byte[] buffer = new byte[8192];
+            private int count;
+            private OutputStream streamedEntry;
+            private RuntimeException pendingEntryFailure;
+
+            private EntryContent(ZipArchiveWriter.Entry entry) {
+                this.entry = entry;
+            }
+
+            @Override
+            public void write(int b) throws IOException {
+                write(new byte[]{(byte) b}, 0, 1);
+            }
+
+            @Override
+            public void write(byte[] content, int offset, int length) throws IOException {
+                if (streamedEntry == null && count + length > MAX_BUFFERED_ENTRY_SIZE) {
+                    try {
+                        writePendingEntries();
+                    } catch (RuntimeException e) {
+                        pendingEntryFailure = e;
+                        throw e;
+                    }
+                    streamedEntry = writer.openEntry(entry, entryCompressionMethod);
+                    streamedEntry.write(buffer, 0, count);
+                    buffer = null;
+                }
+                if (streamedEntry != null) {
+                    streamedEntry.write(content, offset, length);
+                    return;
+                }
+                if (count + length > buffer.length) {
+                    byte[] newBuffer = new byte[Math.min(MAX_BUFFERED_ENTRY_SIZE, Math.max(buffer.length * 2, count + length))];
+                    System.arraycopy(buffer, 0, newBuffer, 0, count);
+                    buffer = newBuffer;
+                }
+                System.arraycopy(content, offset, buffer, count, length);
+                count += length;
+            }
+
+            @Override
+            public void close() throws IOException {
+                if (streamedEntry != null) {
+                    streamedEntry.close();
+                }
+            }
+        }
+    }
+
+    private static class PendingEntry {
+        private final FileCopyDetails details;
+        private final ZipArchiveWriter.Entry entry;
+        private final Future<CompressedContent> content;
+        private final long bytes;
+
+        private PendingEntry(FileCopyDetails details, ZipArchiveWriter.Entry entry, Future<CompressedContent> content, long bytes) {
+            this.details = details;
+            this.entry = entry;
+            this.content = content;
+            this.bytes = bytes;
+        }
+
+        public boolean isDone() {
+            return content == null || content.isDone();
+        }
+
+        public void cancel() {
+            if (content != null) {
+                content.cancel(false);
+            }
+        }
+    }
+
+    private static class CompressedContent {
+        private final int method;
+        private final long crc;
+        private final long size;
+        private final byte[] data;
+        private final int length;
+
+        private CompressedContent(int method, long crc, long size, byte[] data, int length) {
+            this.method = method;
+            this.crc = crc;
+            this.size = size;
+            this.data = data;
+            this.length = length;
+        }
+    }
+
+    private static class CompressEntry implements Callable<CompressedContent> {
+        private final byte[] content;
+        private final int length;
+        private final int method;
+
+        private CompressEntry(byte[] content, int length, int method) {
+            this.content = content;
+            this.length = length;
+            this.method = method;
+        }
+
+        public CompressedContent call() {
+            CRC32 crc = new CRC32();
+            crc.update(content, 0, length);
+            if (method == ZipArchiveWriter.STORED) {
+                return new CompressedContent(method, crc.getValue(), length, content, length);
+            }
+            Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+            try {
+                deflater.setInput(content, 0, length);
+                deflater.finish();
+                ByteArrayOutputStream compressed = new ByteArrayOutputStream(length / 2 + 64);
+                byte[] buffer = new byte[8192];
+                while (!deflater.finished()) {
+                    compressed.write(buffer, 0, deflater.deflate(buffer));
+                }
+                return new CompressedContent(method, crc.getValue(), length, compressed.toByteArray(), compressed.size());
+            } finally {
+                deflater.end();
+            }
+        }
+    }
+}
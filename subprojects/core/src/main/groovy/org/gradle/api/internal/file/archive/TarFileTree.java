@@ -82,29 +82,33 @@ public class TarFileTree implements MinimalFileTree, FileSystemMirroringFileTree
 
     private void visitImpl(FileVisitor visitor, InputStream inputStream) throws IOException {
         AtomicBoolean stopFlag = new AtomicBoolean();
+        ExtractedEntries extracted = new ExtractedEntries();
         NoCloseTarInputStream tar = new NoCloseTarInputStream(inputStream);
         TarEntry entry;
         while (!stopFlag.get() && (entry = tar.getNextEntry()) != null) {
             if (entry.isDirectory()) {
-                visitor.visitDir(new DetailsImpl(entry, tar, stopFlag, chmod));
+                visitor.visitDir(new DetailsImpl(entry, tar, stopFlag, extracted, chmod));
             } else {
-                visitor.visitFile(new DetailsImpl(entry, tar, stopFlag, chmod));
+                visitor.visitFile(new DetailsImpl(entry, tar, stopFlag, extracted, chmod));
             }
         }
+        extracted.logSummary(getDisplayName(), tmpDir);
     }
 
     private class DetailsImpl extends AbstractFileTreeElement implements FileVisitDetails {
         private final TarEntry entry;
         private final NoCloseTarInputStream tar;
         private final AtomicBoolean stopFlag;
+        private final ExtractedEntries extracted;
         private File file;
         private boolean read;
 
-        public DetailsImpl(TarEntry entry, NoCloseTarInputStream tar, AtomicBoolean stopFlag, Chmod chmod) {
+        public DetailsImpl(TarEntry entry, NoCloseTarInputStream tar, AtomicBoolean stopFlag, ExtractedEntries extracted, Chmod chmod) {
             super(chmod);
             this.entry = entry;
             this.tar = tar;
             this.stopFlag = stopFlag;
+            this.extracted = extracted;
         }
 
         public String getDisplayName() {
@@ -119,6 +123,7 @@ public class TarFileTree implements MinimalFileTree, FileSystemMirroringFileTree
             if (file == null) {
                 file = new File(tmpDir, entry.getName());
                 copyTo(file);
+                extracted.extracted(file);
             }
             return file;
         }
@@ -0,0 +1,321 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.file.archive;
+
+import org.apache.tools.zip.Zip64RequiredException;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.List;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * Writes a ZIP archive whose entries may be compressed before they are added, for example by other threads.
+ * Entries that are too big to be compressed up front are streamed into the archive, and their local header is updated once they are complete.
+ *
+ * <p>Writes the same subset of the ZIP format as {@link ZipCopyAction} does without the Zip64 extension: entries are named using the platform
+ * encoding, carry a Unix mode and have no extra fields.</p>
+ */
+class ZipArchiveWriter implements Closeable {
+    public static final int STORED = 0;
+    public static final int DEFLATED = 8;
+
+    private static final long MAX_SIZE = 0xFFFFFFFFL;
+    private static final int MAX_ENTRIES = 0xFFFF;
+    private static final int LOCAL_FILE_HEADER_SIGNATURE = 0x04034b50;
+    private static final int CENTRAL_FILE_HEADER_SIGNATURE = 0x02014b50;
+    private static final int END_OF_CENTRAL_DIRECTORY_SIGNATURE = 0x06054b50;
+    // Unix, version 2.0
+    private static final int VERSION_MADE_BY = (3 << 8) | 20;
+    private static final int VERSION_NEEDED_TO_EXTRACT = 20;
+    private static final int LANGUAGE_ENCODING_FLAG = 1 << 11;
+    private static final int CRC_OFFSET = 14;
+    private static final long DOS_TIME_MIN = 0x00210000L;
+
+    private final FileOutputStream fileOutputStream;
+    private final FileChannel channel;
+    private final OutputStream outputStream;
+    private final Charset charset = Charset.defaultCharset();
+    private final int generalPurposeFlags = charset.name().equals("UTF-8") ? LANGUAGE_ENCODING_FLAG : 0;
+    private final Calendar calendar = Calendar.getInstance();
+    private final List<Entry> entries = new ArrayList<Entry>();
+    private final ByteBuffer header = ByteBuffer.allocate(46).order(ByteOrder.LITTLE_ENDIAN);
+    private long written;
+
+    public ZipArchiveWriter(File zipFile) throws IOException {
+        fileOutputStream = new FileOutputStream(zipFile);
+        channel = fileOutputStream.getChannel();
+        outputStream = new BufferedOutputStream(fileOutputStream, 64 * 1024);
+    }
+
+    /**
+     * Creates an entry to be added to this archive. Must be called from the thread that writes the archive.
+     */
+    public Entry createEntry(String name, long lastModified, int unixMode, boolean isDirectory) {
+        long externalAttributes = ((long) unixMode << 16) | ((unixMode & 0200) == 0 ? 1 : 0) | (isDirectory ? 0x10 : 0);
+        return new Entry(name, name.getBytes(charset), toDosTime(lastModified), externalAttributes);
+    }
+
+    public void writeDirectory(Entry entry) throws IOException {
+        writeEntry(entry, STORED, 0, 0, new byte[0], 0);
+    }
+
+    /**
+     * Adds an entry with content that has already been compressed using the given method.
+     */
+    public void writeEntry(Entry entry, int method, long crc, long size, byte[] data, int length) throws IOException {
+        startEntry(entry, method);
+        entry.crc = crc;
+        entry.size = size;
+        entry.compressedSize = length;
+        checkSizes(entry);
+        writeLocalFileHeader(entry);
+        writeOut(data, 0, length);
+        entries.add(entry);
+    }
+
+    /**
+     * Adds an entry whose content is written to the returned stream, and compressed using the given method. The entry is complete once the stream is closed.
+     */
+    public OutputStream openEntry(Entry entry, int method) throws IOException {
+        startEntry(entry, method);
+        writeLocalFileHeader(entry);
+        return method == DEFLATED ? new DeflatingEntryOutputStream(entry) : new StoringEntryOutputStream(entry);
+    }
+
+    /**
+     * Writes the central directory. No further entries can be added.
+     */
+    public void finish() throws IOException {
+        long centralDirectoryOffset = written;
+        for (Entry entry : entries) {
+            writeCentralFileHeader(entry);
+        }
+        long centralDirectorySize = written - centralDirectoryOffset;
+        if (centralDirectoryOffset > MAX_SIZE || centralDirectorySize > MAX_SIZE) {
+            throw new Zip64RequiredException("archive's size exceeds the limit of 4GByte.");
+        }
+        header.clear();
+        header.putInt(END_OF_CENTRAL_DIRECTORY_SIGNATURE);
+        header.putShort((short) 0);
+        header.putShort((short) 0);
+        header.putShort((short) entries.size());
+        header.putShort((short) entries.size());
+        header.putInt((int) centralDirectorySize);
+        header.putInt((int) centralDirectoryOffset);
+        header.putShort((short) 0);
+        writeHeader();
+        outputStream.flush();
+    }
+
+    public void close() throws IOException {
+        outputStream.close();
+    }
+
+    private void startEntry(Entry entry, int method) throws IOException {
+        if (entries.size() >= MAX_ENTRIES) {
+            throw new Zip64RequiredException("archive contains more than 65535 entries.");
+        }
+        if (written > MAX_SIZE) {
+            throw new Zip64RequiredException("archive's size exceeds the limit of 4GByte.");
+        }
+        entry.method = method;
+        entry.offset = written;
+    }
+
+    private void finishStreamedEntry(Entry entry) throws IOException {
+        checkSizes(entry);
+        outputStream.flush();
+        ByteBuffer sizes = ByteBuffer.allocate(12).order(ByteOrder.LITTLE_ENDIAN);
+        sizes.putInt((int) entry.crc);
+        sizes.putInt((int) entry.compressedSize);
+        sizes.putInt((int) entry.size);
+        sizes.flip();
+        long position = entry.offset + CRC_OFFSET;
+        while (sizes.hasRemaining()) {
+            position += channel.write(sizes, position);
+        }
+        entries.add(entry);
+    }
+
+    private static void checkSizes(Entry entry) throws Zip64RequiredException {
+        if (entry.size > MAX_SIZE || entry.compressedSize > MAX_SIZE) {
+            throw new Zip64RequiredException(entry.name + "'s size exceeds the limit of 4GByte.");
+        }
+    }
+
+    private void writeLocalFileHeader(Entry entry) throws IOException {
+        header.clear();
+        header.putInt(LOCAL_FILE_HEADER_SIGNATURE);
+        header.putShort((short) VERSION_NEEDED_TO_EXTRACT);
+        header.putShort((short) generalPurposeFlags);
+        header.putShort((short) entry.method);
+        header.putInt((int) entry.dosTime);
+        header.putInt((int) entry.crc);
+        header.putInt((int) entry.compressedSize);
+        header.putInt((int) entry.size);
+        header.putShort((short) entry.rawName.length);
+        header.putShort((short) 0);
+        writeHeader();
+        writeOut(entry.rawName, 0, entry.rawName.length);
+    }
+
+    private void writeCentralFileHeader(Entry entry) throws IOException {
+        header.clear();
+        header.putInt(CENTRAL_FILE_HEADER_SIGNATURE);
+        header.putShort((short) VERSION_MADE_BY);
+        header.putShort((short) VERSION_NEEDED_TO_EXTRACT);
+        header.putShort((short) generalPurposeFlags);
+        header.putShort((short) entry.method);
+        header.putInt((int) entry.dosTime);
+        header.putInt((int) entry.crc);
+        header.putInt((int) entry.compressedSize);
+        header.putInt((int) entry.size);
+        header.putShort((short) entry.rawName.length);
+        // extra field, comment, disk number and internal attributes
+        header.putShort((short) 0);
+        header.putShort((short) 0);
+        header.putShort((short) 0);
+        header.putShort((short) 0);
+        header.putInt((int) entry.externalAttributes);
+        header.putInt((int) entry.offset);
+        writeHeader();
+        writeOut(entry.rawName, 0, entry.rawName.length);
+    }
+
+    private void writeHeader() throws IOException {
+        writeOut(header.array(), 0, header.position());
+    }
+
+    private void writeOut(byte[] buffer, int offset, int length) throws IOException {
+        outputStream.write(buffer, offset, length);
+        written += length;
+    }
+
+    private long toDosTime(long time) {
+        calendar.setTimeInMillis(time);
+        int year = calendar.get(Calendar.YEAR);
+        if (year < 1980) {
+            return DOS_TIME_MIN;
+        }
+        return ((long) (year - 1980) << 25)
+                | ((long) (calendar.get(Calendar.MONTH) + 1) << 21)
+                | (calendar.get(Calendar.DAY_OF_MONTH) << 16)
+                | (calendar.get(Calendar.HOUR_OF_DAY) << 11)
+                | (calendar.get(Calendar.MINUTE) << 5)
+                | (calendar.get(Calendar.SECOND) >> 1);
+    }
+
+    public static class Entry {
+        private final String name;
+        private final byte[] rawName;
+        private final long dosTime;
+        private final long externalAttributes;
+        private int method;
+        private long offset;
+        private long crc;
+        private long compressedSize;
+        private long size;
+
+        private Entry(String name, byte[] rawName, long dosTime, long externalAttributes) {
+            this.name = name;
+            this.rawName = rawName;
+            this.dosTime = dosTime;
+            this.externalAttributes = externalAttributes;
+        }
+    }
+
+    private class StoringEntryOutputStream extends OutputStream {
+        private final Entry entry;
+        private final CRC32 crc = new CRC32();
+
+        private StoringEntryOutputStream(Entry entry) {
+            this.entry = entry;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[]{(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] buffer, int offset, int length) throws IOException {
+            crc.update(buffer, offset, length);
+            writeOut(buffer, offset, length);
+            entry.size += length;
+        }
+
+        @Override
+        public void close() throws IOException {
+            entry.crc = crc.getValue();
+            entry.compressedSize = entry.size;
+            finishStreamedEntry(entry);
+        }
+    }
+
+    private class DeflatingEntryOutputStream extends OutputStream {
+        private final Entry entry;
+        private final CRC32 crc = new CRC32();
+        private final Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+        private final byte[] buffer = new byte[8192];
+
+        private DeflatingEntryOutputStream(Entry entry) {
+            this.entry = entry;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[]{(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] content, int offset, int length) throws IOException {
+            crc.update(content, offset, length);
+            entry.size += length;
+            deflater.setInput(content, offset, length);
+            while (!deflater.needsInput()) {
+                deflate();
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                deflater.finish();
+                while (!deflater.finished()) {
+                    deflate();
+                }
+            } finally {
+                deflater.end();
+            }
+            entry.crc = crc.getValue();
+            finishStreamedEntry(entry);
+        }
+
+        private void deflate() throws IOException {
+            int length = deflater.deflate(buffer);
+            writeOut(buffer, 0, length);
+            entry.compressedSize += length;
+        }
+    }
+}
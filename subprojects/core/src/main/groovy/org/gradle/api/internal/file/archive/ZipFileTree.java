@@ -69,6 +69,7 @@ public class ZipFileTree implements MinimalFileTree, FileSystemMirroringFileTree
         }
 
         AtomicBoolean stopFlag = new AtomicBoolean();
+        ExtractedEntries extracted = new ExtractedEntries();
 
         try {
             ZipFile zip = new ZipFile(zipFile);
@@ -85,9 +86,9 @@ public class ZipFileTree implements MinimalFileTree, FileSystemMirroringFileTree
                 while (!stopFlag.get() && sortedEntries.hasNext()) {
                     ZipEntry entry = sortedEntries.next();
                     if (entry.isDirectory()) {
-                        visitor.visitDir(new DetailsImpl(entry, zip, stopFlag, chmod));
+                        visitor.visitDir(new DetailsImpl(entry, zip, stopFlag, extracted, chmod));
                     } else {
-                        visitor.visitFile(new DetailsImpl(entry, zip, stopFlag, chmod));
+                        visitor.visitFile(new DetailsImpl(entry, zip, stopFlag, extracted, chmod));
                     }
                 }
             } finally {
@@ -96,19 +97,22 @@ public class ZipFileTree implements MinimalFileTree, FileSystemMirroringFileTree
         } catch (Exception e) {
             throw new GradleException(String.format("Could not expand %s.", getDisplayName()), e);
         }
+        extracted.logSummary(getDisplayName(), tmpDir);
     }
 
     private class DetailsImpl extends AbstractFileTreeElement implements FileVisitDetails {
         private final ZipEntry entry;
         private final ZipFile zip;
         private final AtomicBoolean stopFlag;
+        private final ExtractedEntries extracted;
         private File file;
 
-        public DetailsImpl(ZipEntry entry, ZipFile zip, AtomicBoolean stopFlag, Chmod chmod) {
+        public DetailsImpl(ZipEntry entry, ZipFile zip, AtomicBoolean stopFlag, ExtractedEntries extracted, Chmod chmod) {
             super(chmod);
             this.entry = entry;
             this.zip = zip;
             this.stopFlag = stopFlag;
+            this.extracted = extracted;
         }
 
         public String getDisplayName() {
@@ -123,6 +127,7 @@ public class ZipFileTree implements MinimalFileTree, FileSystemMirroringFileTree
             if (file == null) {
                 file = new File(tmpDir, entry.getName());
                 copyTo(file);
+                extracted.extracted(file);
             }
             return file;
         }
@@ -0,0 +1,260 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.api.internal.file.collections.jdk7;
+
+import org.gradle.api.GradleException;
+import org.gradle.api.file.FileTreeElement;
+import org.gradle.api.file.FileVisitDetails;
+import org.gradle.api.file.FileVisitor;
+import org.gradle.api.file.RelativePath;
+import org.gradle.api.internal.file.DefaultFileVisitDetails;
+import org.gradle.api.internal.file.collections.DirectoryWalker;
+import org.gradle.api.specs.Spec;
+import org.gradle.internal.UncheckedException;
+import org.gradle.internal.nativeintegration.filesystem.Chmod;
+import org.gradle.internal.nativeintegration.filesystem.FileSystem;
+import org.gradle.internal.nativeintegration.filesystem.Stat;
+import org.gradle.internal.nativeintegration.services.FileSystems;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.FileVisitOption;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * A {@link DirectoryWalker} that uses the Java 7 file APIs. The attributes of each file are read along with the directory that contains it,
+ * and are reused by the visit details rather than queried again for each property.
+ *
+ * <p>When the {@value #PARALLEL_PROPERTY} system property is set, the contents of sibling directories are read ahead using a shared pool.
+ * The visitor is still called from the walking thread, in the same order as a sequential walk.</p>
+ */
+public class Jdk7DirectoryWalker implements DirectoryWalker {
+    public static final String PARALLEL_PROPERTY = "org.gradle.internal.files.parallelWalk";
+
+    private static ForkJoinPool readAheadPool;
+
+    private final FileSystem fileSystem = FileSystems.getDefault();
+    private final boolean parallel;
+
+    public Jdk7DirectoryWalker() {
+        this(Boolean.getBoolean(PARALLEL_PROPERTY));
+    }
+
+    public Jdk7DirectoryWalker(boolean parallel) {
+        this.parallel = parallel;
+    }
+
+    public void walkDir(File file, RelativePath path, FileVisitor visitor, Spec<FileTreeElement> spec, AtomicBoolean stopFlag, boolean postfix) {
+        walkDir(file, null, path, visitor, spec, stopFlag, postfix);
+    }
+
+    private void walkDir(File file, Future<List<Entry>> readAhead, RelativePath path, FileVisitor visitor, Spec<FileTreeElement> spec, AtomicBoolean stopFlag, boolean postfix) {
+        List<Entry> children = readAhead == null ? readDir(file) : waitFor(readAhead);
+        List<FileVisitDetails> dirs = new ArrayList<FileVisitDetails>();
+        for (int i = 0; !stopFlag.get() && i < children.size(); i++) {
+            Entry child = children.get(i);
+            boolean isFile = child.isFile();
+            RelativePath childPath = path.append(isFile, child.file.getName());
+            FileVisitDetails details = child.attributes == null
+                    ? new DefaultFileVisitDetails(child.file, childPath, stopFlag, fileSystem, fileSystem)
+                    : new AttributeBasedFileVisitDetails(child.file, childPath, stopFlag, fileSystem, fileSystem, child.attributes);
+            if (spec.isSatisfiedBy(details)) {
+                if (isFile) {
+                    visitor.visitFile(details);
+                } else {
+                    dirs.add(details);
+                }
+            }
+        }
+
+        // now handle dirs
+        List<Future<List<Entry>>> dirContents = readAhead(dirs);
+        try {
+            for (int i = 0; !stopFlag.get() && i < dirs.size(); i++) {
+                FileVisitDetails dir = dirs.get(i);
+                Future<List<Entry>> contents = dirContents == null ? null : dirContents.get(i);
+                if (postfix) {
+                    walkDir(dir.getFile(), contents, dir.getRelativePath(), visitor, spec, stopFlag, postfix);
+                    visitor.visitDir(dir);
+                } else {
+                    visitor.visitDir(dir);
+                    walkDir(dir.getFile(), contents, dir.getRelativePath(), visitor, spec, stopFlag, postfix);
+                }
+            }
+        } finally {
+            if (dirContents != null) {
+                for (Future<List<Entry>> contents : dirContents) {
+                    contents.cancel(false);
+                }
+            }
+        }
+    }
+
+    private List<Future<List<Entry>>> readAhead(List<FileVisitDetails> dirs) {
+        if (!parallel || dirs.size() < 2) {
+            return null;
+        }
+        ForkJoinPool pool = getReadAheadPool();
+        List<Future<List<Entry>>> contents = new ArrayList<Future<List<Entry>>>(dirs.size());
+        for (FileVisitDetails dir : dirs) {
+            final File dirFile = dir.getFile();
+            contents.add(pool.submit(new Callable<List<Entry>>() {
+                public List<Entry> call() {
+                    return readDir(dirFile);
+                }
+            }));
+        }
+        return contents;
+    }
+
+    private static synchronized ForkJoinPool getReadAheadPool() {
+        if (readAheadPool == null) {
+            readAheadPool = new ForkJoinPool();
+        }
+        return readAheadPool;
+    }
+
+    private static List<Entry> waitFor(Future<List<Entry>> contents) {
+        try {
+            return contents.get();
+        } catch (InterruptedException e) {
+            throw UncheckedException.throwAsUncheckedException(e);
+        } catch (ExecutionException e) {
+            throw UncheckedException.throwAsUncheckedException(e.getCause());
+        }
+    }
+
+    private static List<Entry> readDir(File dir) {
+        DirectoryReader reader = new DirectoryReader(dir);
+        try {
+            Files.walkFileTree(dir.toPath(), EnumSet.of(FileVisitOption.FOLLOW_LINKS), 1, reader);
+        } catch (IOException e) {
+            reader.failure = e;
+        }
+        if (!reader.opened || reader.failure != null) {
+            if (dir.isDirectory() && !dir.canRead()) {
+                throw new GradleException(String.format("Could not list contents of directory '%s' as it is not readable.", dir));
+            }
+            // else, might be a link which points to nothing, or has been removed while we're visiting, or ...
+            throw new GradleException(String.format("Could not list contents of '%s'.", dir), reader.failure);
+        }
+        return reader.children;
+    }
+
+    private static class Entry {
+        final File file;
+        final BasicFileAttributes attributes;
+
+        Entry(File file, BasicFileAttributes attributes) {
+            this.file = file;
+            this.attributes = attributes;
+        }
+
+        boolean isFile() {
+            return attributes == null ? file.isFile() : attributes.isRegularFile();
+        }
+    }
+
+    /**
+     * Collects the direct children of a directory, along with their attributes.
+     */
+    private static class DirectoryReader extends SimpleFileVisitor<Path> {
+        private final File dir;
+        private final List<Entry> children = new ArrayList<Entry>();
+        private boolean opened;
+        private IOException failure;
+
+        DirectoryReader(File dir) {
+            this.dir = dir;
+        }
+
+        @Override
+        public FileVisitResult preVisitDirectory(Path path, BasicFileAttributes attributes) {
+            // Only called for the directory being read, once it has been opened
+            opened = true;
+            return FileVisitResult.CONTINUE;
+        }
+
+        @Override
+        public FileVisitResult visitFile(Path path, BasicFileAttributes attributes) {
+            if (opened) {
+                // A link which points to nothing is reported with the attributes of the link itself
+                children.add(new Entry(child(path), attributes.isSymbolicLink() ? null : attributes));
+            }
+            return FileVisitResult.CONTINUE;
+        }
+
+        @Override
+        public FileVisitResult visitFileFailed(Path path, IOException exc) {
+            if (opened) {
+                children.add(new Entry(child(path), null));
+            } else {
+                failure = exc;
+            }
+            return FileVisitResult.CONTINUE;
+        }
+
+        @Override
+        public FileVisitResult postVisitDirectory(Path path, IOException exc) {
+            if (exc != null) {
+                failure = exc;
+            }
+            return FileVisitResult.CONTINUE;
+        }
+
+        private File child(Path path) {
+            return new File(dir, path.getFileName().toString());
+        }
+    }
+
+    private static class AttributeBasedFileVisitDetails extends DefaultFileVisitDetails {
+        private final BasicFileAttributes attributes;
+
+        AttributeBasedFileVisitDetails(File file, RelativePath relativePath, AtomicBoolean stop, Chmod chmod, Stat stat, BasicFileAttributes attributes) {
+            super(file, relativePath, stop, chmod, stat);
+            this.attributes = attributes;
+        }
+
+        @Override
+        public boolean isDirectory() {
+            return attributes.isDirectory();
+        }
+
+        @Override
+        public long getLastModified() {
+            return attributes.lastModifiedTime().toMillis();
+        }
+
+        @Override
+        public long getSize() {
+            return attributes.size();
+        }
+    }
+}
@@ -22,6 +22,7 @@ import org.gradle.api.file.DuplicatesStrategy;
 import org.gradle.api.file.FileVisitDetails;
 import org.gradle.api.file.RelativePath;
 import org.gradle.api.internal.file.AbstractFileTreeElement;
+import org.gradle.api.internal.file.DefaultFileTreeElement;
 import org.gradle.internal.nativeintegration.filesystem.Chmod;
 
 import java.io.*;
@@ -47,6 +48,10 @@ public class DefaultFileCopyDetails extends AbstractFileTreeElement implements F
         return specResolver.getIncludeEmptyDirs();
     }
 
+    public boolean isUnfilteredLocalFile() {
+        return !filterChain.hasFilters() && fileDetails instanceof DefaultFileTreeElement && !fileDetails.isDirectory();
+    }
+
     public String getDisplayName() {
         return fileDetails.toString();
     }
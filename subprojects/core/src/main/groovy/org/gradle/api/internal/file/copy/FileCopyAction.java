@@ -19,29 +19,188 @@ import org.gradle.api.internal.file.CopyActionProcessingStreamAction;
 import org.gradle.api.internal.file.FileResolver;
 import org.gradle.api.internal.tasks.SimpleWorkResult;
 import org.gradle.api.tasks.WorkResult;
+import org.gradle.internal.UncheckedException;
+import org.gradle.internal.concurrent.ThreadFactoryImpl;
 
 import java.io.File;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.*;
 
+/**
+ * Copies the visited files to a destination directory.
+ *
+ * <p>When the {@value #PARALLEL_PROPERTY} system property is set, files that are copied unchanged from the local file system are copied by a shared,
+ * bounded pool of threads. Copies to the same target are still performed in the order they are visited, and all copies have completed when
+ * {@link #execute} returns.</p>
+ */
 public class FileCopyAction implements CopyAction {
+    public static final String PARALLEL_PROPERTY = "org.gradle.internal.files.parallelCopy";
+    private static final int MAX_THREADS = Math.min(8, Runtime.getRuntime().availableProcessors());
+    private static final int MAX_PENDING_COPIES = 64 * MAX_THREADS;
+
+    private static ExecutorService copyExecutor;
 
     private final FileResolver fileResolver;
+    private final boolean parallel;
 
     public FileCopyAction(FileResolver fileResolver) {
+        this(fileResolver, Boolean.getBoolean(PARALLEL_PROPERTY));
+    }
+
+    public FileCopyAction(FileResolver fileResolver, boolean parallel) {
         this.fileResolver = fileResolver;
+        this.parallel = parallel;
     }
 
     public WorkResult execute(CopyActionProcessingStream stream) {
-        FileCopyDetailsInternalAction action = new FileCopyDetailsInternalAction();
-        stream.process(action);
+        if (!parallel) {
+            FileCopyDetailsInternalAction action = new FileCopyDetailsInternalAction();
+            stream.process(action);
+            return new SimpleWorkResult(action.didWork);
+        }
+        ParallelFileCopyDetailsInternalAction action = new ParallelFileCopyDetailsInternalAction(getCopyExecutor());
+        boolean visited = false;
+        try {
+            stream.process(action);
+            visited = true;
+        } finally {
+            if (visited) {
+                action.waitForPendingCopies();
+            } else {
+                action.cancelPendingCopies();
+            }
+        }
         return new SimpleWorkResult(action.didWork);
     }
 
+    /**
+     * Copies the given file or directory to the given target, and returns true if the target has changed. May be called concurrently for files.
+     */
+    protected boolean copy(FileCopyDetailsInternal details, File target) {
+        return details.copyTo(target);
+    }
+
+    private static synchronized ExecutorService getCopyExecutor() {
+        if (copyExecutor == null) {
+            final ThreadFactory threadFactory = new ThreadFactoryImpl("File copy");
+            ThreadPoolExecutor executor = new ThreadPoolExecutor(MAX_THREADS, MAX_THREADS, 30, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>(), new ThreadFactory() {
+                public Thread newThread(Runnable runnable) {
+                    Thread thread = threadFactory.newThread(runnable);
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+            executor.allowCoreThreadTimeOut(true);
+            copyExecutor = executor;
+        }
+        return copyExecutor;
+    }
+
     private class FileCopyDetailsInternalAction implements CopyActionProcessingStreamAction {
         private boolean didWork;
 
         public void processFile(FileCopyDetailsInternal details) {
             File target = fileResolver.resolve(details.getRelativePath().getPathString());
-            boolean copied = details.copyTo(target);
+            boolean copied = copy(details, target);
+            if (copied) {
+                didWork = true;
+            }
+        }
+    }
+
+    private class ParallelFileCopyDetailsInternalAction implements CopyActionProcessingStreamAction {
+        private final ExecutorService executor;
+        private final Map<File, Future<Boolean>> pendingCopies = new LinkedHashMap<File, Future<Boolean>>();
+        private boolean didWork;
+
+        public ParallelFileCopyDetailsInternalAction(ExecutorService executor) {
+            this.executor = executor;
+        }
+
+        public void processFile(final FileCopyDetailsInternal details) {
+            final File target = fileResolver.resolve(details.getRelativePath().getPathString());
+            // A later file with the same path replaces the earlier one, so it must not be copied before the earlier copy has completed
+            Future<Boolean> previousCopy = pendingCopies.remove(target);
+            if (previousCopy != null) {
+                complete(previousCopy);
+            }
+            if (!details.isUnfilteredLocalFile()) {
+                complete(copy(details, target));
+                return;
+            }
+            if (pendingCopies.size() >= MAX_PENDING_COPIES) {
+                completeFinishedCopies();
+            }
+            if (pendingCopies.size() >= MAX_PENDING_COPIES) {
+                Iterator<Future<Boolean>> iterator = pendingCopies.values().iterator();
+                Future<Boolean> oldestCopy = iterator.next();
+                iterator.remove();
+                complete(oldestCopy);
+            }
+            pendingCopies.put(target, executor.submit(new Callable<Boolean>() {
+                public Boolean call() {
+                    return copy(details, target);
+                }
+            }));
+        }
+
+        private void completeFinishedCopies() {
+            Iterator<Future<Boolean>> iterator = pendingCopies.values().iterator();
+            while (iterator.hasNext()) {
+                Future<Boolean> copy = iterator.next();
+                if (copy.isDone()) {
+                    iterator.remove();
+                    complete(copy);
+                }
+            }
+        }
+
+        /**
+         * Waits for all pending copies to complete. When a copy has failed, the copies that have not started yet are cancelled and the failure is rethrown.
+         */
+        public void waitForPendingCopies() {
+            try {
+                Iterator<Future<Boolean>> iterator = pendingCopies.values().iterator();
+                while (iterator.hasNext()) {
+                    Future<Boolean> copy = iterator.next();
+                    iterator.remove();
+                    complete(copy);
+                }
+            } finally {
+                cancelPendingCopies();
+            }
+        }
+
+        /**
+         * Cancels the copies that have not started yet, and waits for the running copies to finish, ignoring their result.
+         */
+        public void cancelPendingCopies() {
+            for (Future<Boolean> copy : pendingCopies.values()) {
+                copy.cancel(false);
+            }
+            for (Future<Boolean> copy : pendingCopies.values()) {
+                try {
+                    copy.get();
+                } catch (Exception e) {
+                    // Ignore, the copy is abandoned
+                }
+            }
+            pendingCopies.clear();
+        }
+
+        private void complete(Future<Boolean> copy) {
+            try {
+                complete(copy.get());
+            } catch (InterruptedException e) {
+                throw UncheckedException.throwAsUncheckedException(e);
+            } catch (ExecutionException e) {
+                throw UncheckedException.throwAsUncheckedException(e.getCause());
+            }
+        }
+
+        private void complete(boolean copied) {
             if (copied) {
                 didWork = true;
             }
@@ -22,4 +22,10 @@ public interface FileCopyDetailsInternal extends FileCopyDetails {
 
     boolean isIncludeEmptyDirs();
 
+    /**
+     * Returns true when this is a regular file that is copied unchanged from the local file system. Such a file can be copied by another thread
+     * after it has been visited, and its size and timestamp are those of the copy.
+     */
+    boolean isUnfilteredLocalFile();
+
 }
@@ -0,0 +1,71 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.file.copy;
+
+import org.gradle.api.internal.file.FileResolver;
+import org.gradle.internal.nativeintegration.filesystem.Stat;
+
+import java.io.File;
+
+/**
+ * A {@link FileCopyAction} that does not copy a file again when the target already has the size, timestamp and mode of the source. Files are copied
+ * with the timestamp of their source, so that they are found unchanged by the next copy. Existing directories are left as they are when they have
+ * the expected mode.
+ *
+ * <p>Files that are filtered or read from archives are always copied.</p>
+ */
+public class IncrementalFileCopyAction extends FileCopyAction {
+    private final Stat stat;
+
+    public IncrementalFileCopyAction(FileResolver fileResolver, Stat stat) {
+        super(fileResolver);
+        this.stat = stat;
+    }
+
+    @Override
+    protected boolean copy(FileCopyDetailsInternal details, File target) {
+        if (details.isDirectory()) {
+            return !(target.isDirectory() && hasSameMode(details, target)) && super.copy(details, target);
+        }
+        if (!details.isUnfilteredLocalFile()) {
+            return super.copy(details, target);
+        }
+        if (isUpToDate(details, target)) {
+            return false;
+        }
+        boolean copied = super.copy(details, target);
+        target.setLastModified(details.getLastModified());
+        return copied;
+    }
+
+    private boolean isUpToDate(FileCopyDetailsInternal details, File target) {
+        if (!target.isFile() || target.length() != details.getSize()) {
+            return false;
+        }
+        long sourceLastModified = details.getLastModified();
+        long targetLastModified = target.lastModified();
+        // Some file systems only keep the timestamp to the second
+        if (targetLastModified != sourceLastModified && targetLastModified != sourceLastModified - sourceLastModified % 1000) {
+            return false;
+        }
+        return hasSameMode(details, target);
+    }
+
+    private boolean hasSameMode(FileCopyDetailsInternal details, File target) {
+        return (stat.getUnixMode(target) & 07777) == (details.getMode() & 07777);
+    }
+}
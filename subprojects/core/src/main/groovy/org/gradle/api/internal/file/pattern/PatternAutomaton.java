@@ -0,0 +1,201 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.api.internal.file.pattern;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Matches paths against a set of patterns in a single pass over the segments of the path.
+ *
+ * <p>The patterns are compiled into a single nondeterministic automaton, with one state per pattern step. A deterministic automaton is built
+ * from it lazily, as paths are matched, and the transitions taken for directory names are cached so that paths which share a parent directory
+ * do not have to match the parent directory's segments against the patterns again.</p>
+ */
+public class PatternAutomaton {
+    private static final int MAX_CACHED_TRANSITIONS = 10000;
+    private static final PatternStep GREEDY = new AnyWildcardPatternStep();
+
+    // The steps of all patterns, each pattern followed by a null entry marking the end of the pattern
+    private final List<PatternStep> steps = new ArrayList<PatternStep>();
+    private final Map<BitSet, State> states = new HashMap<BitSet, State>();
+    private final State start;
+    private final State dead;
+    private boolean hasNonEmptyPattern;
+    private int cachedTransitions;
+
+    public PatternAutomaton(Collection<String> patterns, boolean caseSensitive) {
+        BitSet initial = new BitSet();
+        for (String pattern : patterns) {
+            int patternStart = steps.size();
+            compile(pattern, caseSensitive);
+            addClosure(initial, patternStart);
+        }
+        start = state(initial);
+        dead = state(new BitSet());
+    }
+
+    private void compile(String pattern, boolean caseSensitive) {
+        if (pattern.length() > 0) {
+            hasNonEmptyPattern = true;
+            // trailing / or \ assumes **
+            if (pattern.endsWith("/") || pattern.endsWith("\\")) {
+                pattern = pattern + "**";
+            }
+            String[] parts = pattern.split("\\\\|/");
+            for (int i = 0; i < parts.length; i++) {
+                if (parts[i].equals("**")) {
+                    // consecutive ** are the same as a single **
+                    if (steps.isEmpty() || steps.get(steps.size() - 1) != GREEDY) {
+                        steps.add(GREEDY);
+                    }
+                } else {
+                    steps.add(PatternStepFactory.getStep(parts[i], caseSensitive));
+                }
+            }
+        }
+        steps.add(null);
+    }
+
+    /**
+     * Returns true if the given path matches at least one of the patterns.
+     *
+     * @param cacheLastSegment whether the last segment of the path is likely to be the parent of other matched paths, so the transition for it should be cached.
+     */
+    public synchronized boolean matches(String[] segments, boolean cacheLastSegment) {
+        if (segments.length == 0 || cacheLastSegment) {
+            return walk(segments, segments.length).accepting;
+        }
+        int last = segments.length - 1;
+        return walk(segments, last).acceptsSegment(segments[last]);
+    }
+
+    /**
+     * Returns true if the given path, or some path that starts with it, could match at least one of the patterns.
+     */
+    public synchronized boolean isPrefix(String[] segments) {
+        if (segments.length == 0) {
+            return hasNonEmptyPattern;
+        }
+        return walk(segments, segments.length) != dead;
+    }
+
+    private State walk(String[] segments, int count) {
+        State state = start;
+        for (int i = 0; i < count && state != dead; i++) {
+            state = next(state, segments[i]);
+        }
+        return state;
+    }
+
+    private State next(State state, String segment) {
+        State next = state.transitions == null ? null : state.transitions.get(segment);
+        if (next != null) {
+            return next;
+        }
+        BitSet nextStates = new BitSet();
+        for (int i = state.states.nextSetBit(0); i >= 0; i = state.states.nextSetBit(i + 1)) {
+            PatternStep step = steps.get(i);
+            if (step == GREEDY) {
+                addClosure(nextStates, i);
+            } else if (step != null && step.matches(segment)) {
+                addClosure(nextStates, i + 1);
+            }
+        }
+        next = state(nextStates);
+        if (cachedTransitions < MAX_CACHED_TRANSITIONS) {
+            if (state.transitions == null) {
+                state.transitions = new HashMap<String, State>();
+            }
+            state.transitions.put(segment, next);
+            cachedTransitions++;
+        }
+        return next;
+    }
+
+    private void addClosure(BitSet target, int index) {
+        target.set(index);
+        if (steps.size() > index && steps.get(index) == GREEDY) {
+            // ** can match no segments at all
+            target.set(index + 1);
+        }
+    }
+
+    private State state(BitSet nfaStates) {
+        State state = states.get(nfaStates);
+        if (state == null) {
+            boolean accepting = false;
+            for (int i = nfaStates.nextSetBit(0); i >= 0 && !accepting; i = nfaStates.nextSetBit(i + 1)) {
+                accepting = steps.get(i) == null;
+            }
+            state = new State(nfaStates, accepting, finalSteps(nfaStates));
+            states.put(nfaStates, state);
+        }
+        return state;
+    }
+
+    /**
+     * Returns the steps which complete a pattern when they match the next segment, or null when any next segment completes a pattern.
+     */
+    private List<PatternStep> finalSteps(BitSet nfaStates) {
+        List<PatternStep> finalSteps = new ArrayList<PatternStep>();
+        for (int i = nfaStates.nextSetBit(0); i >= 0; i = nfaStates.nextSetBit(i + 1)) {
+            PatternStep step = steps.get(i);
+            if (step == GREEDY) {
+                if (steps.get(i + 1) == null) {
+                    return null;
+                }
+            } else if (step != null && (steps.get(i + 1) == null || steps.get(i + 1) == GREEDY && steps.get(i + 2) == null)) {
+                finalSteps.add(step);
+            }
+        }
+        return finalSteps;
+    }
+
+    private static class State {
+        final BitSet states;
+        final boolean accepting;
+        final List<PatternStep> finalSteps;
+        Map<String, State> transitions;
+
+        State(BitSet states, boolean accepting, List<PatternStep> finalSteps) {
+            this.states = states;
+            this.accepting = accepting;
+            this.finalSteps = finalSteps;
+        }
+
+        /**
+         * Returns true if a path which ends with the given segment after reaching this state matches one of the patterns.
+         */
+        boolean acceptsSegment(String segment) {
+            if (finalSteps == null) {
+                return true;
+            }
+            for (int i = 0; i < finalSteps.size(); i++) {
+                if (finalSteps.get(i).matches(segment)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
@@ -19,6 +19,7 @@ import org.gradle.api.file.RelativePath;
 import org.gradle.api.specs.Spec;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 
 public class PatternMatcherFactory {
@@ -30,6 +31,14 @@ public class PatternMatcherFactory {
         return new PathMatcherBackedSpec(partialMatchDirs, pathMatcher);
     }
 
+    /**
+     * Returns a spec which is satisfied when at least one of the given patterns matches. All of the patterns are compiled into a single
+     * {@link PatternAutomaton}, which is cheaper than checking the patterns one at a time.
+     */
+    public static Spec<RelativePath> getPatternsMatcher(boolean partialMatchDirs, boolean caseSensitive, Collection<String> patterns) {
+        return new PatternAutomatonBackedSpec(partialMatchDirs, new PatternAutomaton(patterns, caseSensitive));
+    }
+
     private static PathMatcher compile(boolean caseSensitive, String pattern) {
         if (pattern.length() == 0) {
             return END_OF_PATH_MATCHER;
@@ -79,4 +88,24 @@ public class PatternMatcherFactory {
             }
         }
     }
+
+    private static class PatternAutomatonBackedSpec implements Spec<RelativePath> {
+        private final boolean partialMatchDirs;
+        private final PatternAutomaton automaton;
+
+        public PatternAutomatonBackedSpec(boolean partialMatchDirs, PatternAutomaton automaton) {
+            this.partialMatchDirs = partialMatchDirs;
+            this.automaton = automaton;
+        }
+
+        public boolean isSatisfiedBy(RelativePath element) {
+            if (element.isFile()) {
+                return automaton.matches(element.getSegments(), false);
+            } else if (!partialMatchDirs) {
+                return automaton.matches(element.getSegments(), true);
+            } else {
+                return automaton.isPrefix(element.getSegments());
+            }
+        }
+    }
 }
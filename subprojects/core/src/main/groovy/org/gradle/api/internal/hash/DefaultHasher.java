@@ -15,6 +15,7 @@
  */
 package org.gradle.api.internal.hash;
 
+import org.gradle.api.file.FileTreeElement;
 import org.gradle.internal.hash.HashUtil;
 
 import java.io.File;
@@ -23,4 +24,8 @@ public class DefaultHasher implements Hasher {
     public byte[] hash(File file) {
         return HashUtil.createHash(file, "MD5").asByteArray();
     }
+
+    public byte[] hash(FileTreeElement fileDetails) {
+        return HashUtil.createHash(fileDetails.open(), "MD5").asByteArray();
+    }
 }
\ No newline at end of file
@@ -15,8 +15,15 @@
  */
 package org.gradle.api.internal.hash;
 
+import org.gradle.api.file.FileTreeElement;
+
 import java.io.File;
 
 public interface Hasher {
     byte[] hash(File file);
+
+    /**
+     * Hashes the content of the given element, reading it through {@link FileTreeElement#open()} so that archive entries are not extracted.
+     */
+    byte[] hash(FileTreeElement fileDetails);
 }
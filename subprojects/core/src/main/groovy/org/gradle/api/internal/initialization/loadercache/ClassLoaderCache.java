@@ -28,4 +28,9 @@ public interface ClassLoaderCache {
 
     void remove(ClassLoaderId id);
 
+    /**
+     * Discards all cached class loaders, so that they can be garbage collected once no longer in use.
+     */
+    void clear();
+
 }
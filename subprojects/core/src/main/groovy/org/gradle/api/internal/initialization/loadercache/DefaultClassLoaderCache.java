@@ -19,6 +19,7 @@ package org.gradle.api.internal.initialization.loadercache;
 import com.google.common.base.Joiner;
 import com.google.common.base.Objects;
 import com.google.common.collect.HashMultiset;
+import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 import com.google.common.collect.Multiset;
 import org.gradle.api.Nullable;
@@ -68,6 +69,15 @@ public class DefaultClassLoaderCache implements ClassLoaderCache {
         }
     }
 
+    @Override
+    public void clear() {
+        synchronized (lock) {
+            for (ClassLoaderId id : Lists.newArrayList(byId.keySet())) {
+                remove(id);
+            }
+        }
+    }
+
     private CachedClassLoader getAndRetainLoader(ClassPath classPath, ClassLoaderSpec spec, ClassLoaderId id) {
         CachedClassLoader cachedLoader = bySpec.get(spec);
         if (cachedLoader == null) {
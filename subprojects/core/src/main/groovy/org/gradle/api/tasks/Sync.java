@@ -16,6 +16,7 @@
 
 package org.gradle.api.tasks;
 
+import org.gradle.api.Incubating;
 import org.gradle.api.InvalidUserDataException;
 import org.gradle.api.internal.file.FileResolver;
 import org.gradle.api.internal.file.copy.*;
@@ -28,13 +29,19 @@ import java.io.File;
  */
 public class Sync extends AbstractCopyTask {
 
+    private boolean skipUnchangedFiles;
+
     @Override
     protected CopyAction createCopyAction() {
         File destinationDir = getDestinationDir();
         if (destinationDir == null) {
             throw new InvalidUserDataException("No copy destination directory has been specified, use 'into' to specify a target directory.");
         }
-        return new SyncCopyActionDecorator(destinationDir, new FileCopyAction(getFileLookup().getFileResolver(destinationDir)));
+        FileResolver destinationResolver = getFileLookup().getFileResolver(destinationDir);
+        FileCopyAction copyAction = skipUnchangedFiles
+                ? new IncrementalFileCopyAction(destinationResolver, getFileSystem())
+                : new FileCopyAction(destinationResolver);
+        return new SyncCopyActionDecorator(destinationDir, copyAction);
     }
 
     @Override
@@ -69,4 +76,25 @@ public class Sync extends AbstractCopyTask {
         into(destinationDir);
     }
 
+    /**
+     * Returns whether files that are unchanged in the destination directory should be left as they are, instead of being copied again. A file is
+     * unchanged when it has the same size, timestamp and permissions as its source. Files that are filtered or read from an archive are always copied.
+     * When set, files are copied with the timestamp of their source. The default value is {@code false}.
+     *
+     * @since 2.5
+     */
+    @Incubating
+    public boolean isSkipUnchangedFiles() {
+        return skipUnchangedFiles;
+    }
+
+    /**
+     * Sets whether files that are unchanged in the destination directory should be left as they are, instead of being copied again.
+     *
+     * @since 2.5
+     */
+    @Incubating
+    public void setSkipUnchangedFiles(boolean skipUnchangedFiles) {
+        this.skipUnchangedFiles = skipUnchangedFiles;
+    }
 }
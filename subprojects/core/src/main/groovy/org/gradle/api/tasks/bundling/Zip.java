@@ -18,6 +18,7 @@ package org.gradle.api.tasks.bundling;
 import org.apache.tools.zip.ZipOutputStream;
 import org.gradle.api.Incubating;
 import org.gradle.api.internal.DocumentationRegistry;
+import org.gradle.api.internal.file.archive.ParallelZipCopyAction;
 import org.gradle.api.internal.file.archive.ZipCopyAction;
 import org.gradle.api.internal.file.copy.*;
 
@@ -50,6 +51,9 @@ public class Zip extends AbstractArchiveTask {
     @Override
     protected CopyAction createCopyAction() {
         DocumentationRegistry documentationRegistry = getServices().get(DocumentationRegistry.class);
+        if (!allowZip64 && Boolean.getBoolean(ParallelZipCopyAction.PARALLEL_PROPERTY)) {
+            return new ParallelZipCopyAction(getArchivePath(), entryCompression == ZipEntryCompression.DEFLATED, documentationRegistry);
+        }
         return new ZipCopyAction(getArchivePath(), getCompressor(), documentationRegistry);
     }
 
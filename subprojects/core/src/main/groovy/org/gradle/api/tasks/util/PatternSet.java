@@ -126,8 +126,8 @@ public class PatternSet implements AntBuilderAware, PatternFilterable {
 
     public Spec<FileTreeElement> getAsIncludeSpec() {
         List<Spec<FileTreeElement>> matchers = Lists.newArrayList();
-        for (String include : includes) {
-            Spec<RelativePath> patternMatcher = PatternMatcherFactory.getPatternMatcher(true, caseSensitive, include);
+        if (!includes.isEmpty()) {
+            Spec<RelativePath> patternMatcher = PatternMatcherFactory.getPatternsMatcher(true, caseSensitive, includes);
             matchers.add(new RelativePathSpec(patternMatcher));
         }
 
@@ -140,10 +140,8 @@ public class PatternSet implements AntBuilderAware, PatternFilterable {
         Collections.addAll(allExcludes, DirectoryScanner.getDefaultExcludes());
 
         List<Spec<FileTreeElement>> matchers = Lists.newArrayList();
-        for (String exclude : allExcludes) {
-            Spec<RelativePath> patternMatcher = PatternMatcherFactory.getPatternMatcher(false, caseSensitive, exclude);
-            matchers.add(new RelativePathSpec(patternMatcher));
-        }
+        Spec<RelativePath> patternMatcher = PatternMatcherFactory.getPatternsMatcher(false, caseSensitive, allExcludes);
+        matchers.add(new RelativePathSpec(patternMatcher));
 
         matchers.addAll(excludeSpecs);
         return Specs.or(false, matchers);
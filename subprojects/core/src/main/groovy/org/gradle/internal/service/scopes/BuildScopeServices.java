@@ -136,6 +136,9 @@ public class BuildScopeServices extends DefaultServiceRegistry {
     }
 
     protected ActorFactory createActorFactory() {
+        if (Boolean.getBoolean(DefaultActorFactory.POOLED_ACTORS_TOGGLE)) {
+            return new DefaultActorFactory(get(ExecutorFactory.class), Runtime.getRuntime().availableProcessors() * 2);
+        }
         return new DefaultActorFactory(get(ExecutorFactory.class));
     }
 
@@ -18,6 +18,7 @@ package org.gradle.internal.service.scopes;
 
 import com.google.common.collect.Iterables;
 import org.gradle.StartParameter;
+import org.gradle.api.Nullable;
 import org.gradle.api.internal.*;
 import org.gradle.api.internal.changedetection.state.CachingFileSnapshotter;
 import org.gradle.api.internal.changedetection.state.InMemoryTaskArtifactCache;
@@ -65,6 +66,7 @@ import org.gradle.model.persist.AlwaysNewModelRegistryStore;
 import org.gradle.model.persist.ModelRegistryStore;
 import org.gradle.model.persist.ReusingModelRegistryStore;
 
+import java.io.File;
 import java.util.List;
 
 /**
@@ -75,13 +77,22 @@ public class GlobalScopeServices {
     private static final Logger LOGGER = Logging.getLogger(GlobalScopeServices.class);
 
     private GradleBuildEnvironment environment;
+    private final File sharedMemoryDir;
 
     public GlobalScopeServices(final boolean longLiving) {
+        this(longLiving, null);
+    }
+
+    /**
+     * @param sharedMemoryDir the directory in which worker processes may be offered shared memory connections, or null to connect to them over TCP only
+     */
+    public GlobalScopeServices(final boolean longLiving, @Nullable File sharedMemoryDir) {
         this.environment = new GradleBuildEnvironment() {
             public boolean isLongLivingProcess() {
                 return longLiving;
             }
         };
+        this.sharedMemoryDir = sharedMemoryDir;
     }
 
     void configure(ServiceRegistration registration, ClassLoaderRegistry classLoaderRegistry) {
@@ -144,7 +155,7 @@ public class GlobalScopeServices {
     }
 
     MessagingServices createMessagingServices(ClassLoaderRegistry classLoaderRegistry) {
-        return new MessagingServices(getClass().getClassLoader());
+        return new MessagingServices(getClass().getClassLoader(), sharedMemoryDir);
     }
 
     MessagingServer createMessagingServer(MessagingServices messagingServices) {
@@ -220,10 +231,12 @@ public class GlobalScopeServices {
         return new ModelRuleSourceDetector();
     }
 
-    protected ModelRegistryStore createModelRegistryStore(GradleBuildEnvironment buildEnvironment, ModelRuleExtractor ruleExtractor) {
+    protected ModelRegistryStore createModelRegistryStore(GradleBuildEnvironment buildEnvironment, ModelRuleExtractor ruleExtractor, ClassPathSnapshotter classPathSnapshotter, ListenerManager listenerManager) {
         if (buildEnvironment.isLongLivingProcess() && Boolean.getBoolean(ReusingModelRegistryStore.TOGGLE)) {
             LOGGER.warn(ReusingModelRegistryStore.BANNER);
-            return new ReusingModelRegistryStore(ruleExtractor);
+            ReusingModelRegistryStore store = new ReusingModelRegistryStore(ruleExtractor, classPathSnapshotter);
+            listenerManager.addListener(store);
+            return store;
         } else {
             return new AlwaysNewModelRegistryStore(ruleExtractor);
         }
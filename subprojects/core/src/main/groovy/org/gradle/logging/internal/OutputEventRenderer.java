@@ -19,6 +19,7 @@ import net.jcip.annotations.ThreadSafe;
 import org.gradle.api.Action;
 import org.gradle.api.logging.LogLevel;
 import org.gradle.api.logging.StandardOutputListener;
+import org.gradle.internal.concurrent.ThreadFactoryImpl;
 import org.gradle.internal.nativeintegration.console.ConsoleMetaData;
 import org.gradle.internal.nativeintegration.console.FallbackConsoleMetaData;
 import org.gradle.internal.event.ListenerBroadcast;
@@ -26,28 +27,60 @@ import org.gradle.logging.ConsoleOutput;
 
 import java.io.OutputStream;
 import java.io.OutputStreamWriter;
+import java.util.Queue;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * A {@link org.gradle.logging.internal.OutputEventListener} implementation which renders output events to various
  * destinations. This implementation is thread-safe.
+ *
+ * <p>When the {@value #ASYNC_PROPERTY} system property is set, output events are rendered asynchronously. Threads that generate output events add
+ * them to a non-blocking queue, and a single shared thread renders the queued events in batches, in the order they were queued. Error events and
+ * log level changes are rendered on the calling thread, together with all events queued before them. Changes to the logging destinations
+ * also render the queued events first.</p>
  */
 @ThreadSafe
 public class OutputEventRenderer implements OutputEventListener, LoggingConfigurer, LoggingOutputInternal {
+    public static final String ASYNC_PROPERTY = "org.gradle.internal.logging.async";
+    private static ExecutorService renderExecutor;
     private final ListenerBroadcast<OutputEventListener> stdOutAndErrorFormatters = new ListenerBroadcast<OutputEventListener>(OutputEventListener.class);
     private final ListenerBroadcast<OutputEventListener> formatters = new ListenerBroadcast<OutputEventListener>(OutputEventListener.class);
     private final ListenerBroadcast<StandardOutputListener> stdoutListeners = new ListenerBroadcast<StandardOutputListener>(StandardOutputListener.class);
     private final ListenerBroadcast<StandardOutputListener> stderrListeners = new ListenerBroadcast<StandardOutputListener>(StandardOutputListener.class);
     private final Object lock = new Object();
     private final DefaultColorMap colourMap = new DefaultColorMap();
-    private LogLevel logLevel = LogLevel.LIFECYCLE;
+    private volatile LogLevel logLevel = LogLevel.LIFECYCLE;
     private final Action<? super OutputEventRenderer> consoleConfigureAction;
     private OutputStream originalStdOut;
     private OutputStream originalStdErr;
     private StreamBackedStandardOutputListener stdOutListener;
     private StreamBackedStandardOutputListener stdErrListener;
     private ConsoleOutput consoleOutput;
+    private final Queue<OutputEvent> pendingEvents;
+    private final AtomicBoolean renderScheduled = new AtomicBoolean();
+    private final Runnable renderTask = new Runnable() {
+        public void run() {
+            renderScheduled.set(false);
+            try {
+                synchronized (lock) {
+                    renderPendingEvents();
+                }
+            } finally {
+                // Events may remain when rendering failed
+                if (!pendingEvents.isEmpty() && renderScheduled.compareAndSet(false, true)) {
+                    scheduleRender();
+                }
+            }
+        }
+    };
 
     public OutputEventRenderer(Action<? super OutputEventRenderer> consoleConfigureAction) {
+        this(consoleConfigureAction, Boolean.getBoolean(ASYNC_PROPERTY));
+    }
+
+    public OutputEventRenderer(Action<? super OutputEventRenderer> consoleConfigureAction, boolean async) {
+        pendingEvents = async ? new ConcurrentLinkedQueue<OutputEvent>() : null;
         OutputEventListener stdOutChain = onNonError(new ProgressLogEventGenerator(new StyledTextOutputBackedRenderer(new StreamingStyledTextOutput(stdoutListeners.getSource())), false));
         stdOutAndErrorFormatters.add(stdOutChain);
         OutputEventListener stdErrChain = onError(new ProgressLogEventGenerator(new StyledTextOutputBackedRenderer(new StreamingStyledTextOutput(stderrListeners.getSource())), false));
@@ -73,6 +106,7 @@ public class OutputEventRenderer implements OutputEventListener, LoggingConfigur
 
     public void attachProcessConsole(ConsoleOutput consoleOutput) {
         synchronized (lock) {
+            renderPendingEvents();
             this.consoleOutput = consoleOutput;
             consoleConfigureAction.execute(this);
         }
@@ -80,6 +114,7 @@ public class OutputEventRenderer implements OutputEventListener, LoggingConfigur
 
     public void attachAnsiConsole(OutputStream outputStream) {
         synchronized (lock) {
+            renderPendingEvents();
             OutputStreamWriter writer = new OutputStreamWriter(outputStream);
             Console console = new AnsiConsole(writer, writer, colourMap, true);
             addConsole(console, true, true, new FallbackConsoleMetaData());
@@ -93,6 +128,7 @@ public class OutputEventRenderer implements OutputEventListener, LoggingConfigur
 
     private void addStandardOutputListener() {
         synchronized (lock) {
+            renderPendingEvents();
             originalStdOut = System.out;
             if (stdOutListener != null) {
                 stdoutListeners.remove(stdOutListener);
@@ -104,6 +140,7 @@ public class OutputEventRenderer implements OutputEventListener, LoggingConfigur
 
     private void addStandardErrorListener() {
         synchronized (lock) {
+            renderPendingEvents();
             originalStdErr = System.err;
             if(stdErrListener != null) {
                 stderrListeners.remove(stdErrListener);
@@ -120,6 +157,7 @@ public class OutputEventRenderer implements OutputEventListener, LoggingConfigur
 
     private void removeStandardOutputListener() {
         synchronized (lock) {
+            renderPendingEvents();
             if (stdOutListener != null) {
                 stdoutListeners.remove(stdOutListener);
                 stdOutListener = null;
@@ -129,6 +167,7 @@ public class OutputEventRenderer implements OutputEventListener, LoggingConfigur
 
     private void removeStandardErrorListener() {
         synchronized (lock) {
+            renderPendingEvents();
             if(stdErrListener != null) {
                 stderrListeners.remove(stdErrListener);
                 stdErrListener = null;
@@ -138,18 +177,21 @@ public class OutputEventRenderer implements OutputEventListener, LoggingConfigur
 
     public void addOutputEventListener(OutputEventListener listener) {
         synchronized (lock) {
+            renderPendingEvents();
             formatters.add(listener);
         }
     }
 
     public void removeOutputEventListener(OutputEventListener listener) {
         synchronized (lock) {
+            renderPendingEvents();
             formatters.remove(listener);
         }
     }
 
     public void removeAllOutputEventListeners() {
         synchronized (lock) {
+            renderPendingEvents();
             formatters.removeAll();
         }
     }
@@ -161,6 +203,7 @@ public class OutputEventRenderer implements OutputEventListener, LoggingConfigur
                 console,
                 new DefaultStatusBarFormatter(consoleMetaData));
         synchronized (lock) {
+            renderPendingEvents();
             if (stdout && stderr) {
                 formatters.add(consoleChain);
                 removeStandardOutputAndError();
@@ -198,12 +241,14 @@ public class OutputEventRenderer implements OutputEventListener, LoggingConfigur
 
     public void addStandardErrorListener(StandardOutputListener listener) {
         synchronized (lock) {
+            renderPendingEvents();
             stderrListeners.add(listener);
         }
     }
 
     public void addStandardOutputListener(StandardOutputListener listener) {
         synchronized (lock) {
+            renderPendingEvents();
             stdoutListeners.add(listener);
         }
     }
@@ -219,12 +264,14 @@ public class OutputEventRenderer implements OutputEventListener, LoggingConfigur
 
     public void removeStandardOutputListener(StandardOutputListener listener) {
         synchronized (lock) {
+            renderPendingEvents();
             stdoutListeners.remove(listener);
         }
     }
 
     public void removeStandardErrorListener(StandardOutputListener listener) {
         synchronized (lock) {
+            renderPendingEvents();
             stderrListeners.remove(listener);
         }
     }
@@ -234,20 +281,91 @@ public class OutputEventRenderer implements OutputEventListener, LoggingConfigur
     }
 
     public void onOutput(OutputEvent event) {
+        if (pendingEvents == null || event instanceof LogLevelChangeEvent || event.getLogLevel() == LogLevel.ERROR) {
+            synchronized (lock) {
+                renderPendingEvents();
+                render(event);
+            }
+            return;
+        }
+        if (event.getLogLevel() != null && event.getLogLevel().compareTo(logLevel) < 0) {
+            return;
+        }
+        pendingEvents.add(event);
+        if (renderScheduled.compareAndSet(false, true)) {
+            scheduleRender();
+        }
+    }
+
+    /**
+     * Renders the events that have been queued for asynchronous rendering. Does nothing when events are rendered synchronously.
+     */
+    public void flush() {
         synchronized (lock) {
-            if (event.getLogLevel() != null && event.getLogLevel().compareTo(logLevel) < 0) {
+            renderPendingEvents();
+        }
+    }
+
+    private void scheduleRender() {
+        try {
+            getRenderExecutor().execute(renderTask);
+        } catch (RejectedExecutionException e) {
+            // The JVM is shutting down, so render on this thread instead
+            renderScheduled.set(false);
+            flush();
+        }
+    }
+
+    private void renderPendingEvents() {
+        if (pendingEvents == null) {
+            return;
+        }
+        OutputEvent event;
+        while ((event = pendingEvents.poll()) != null) {
+            render(event);
+        }
+    }
+
+    private void render(OutputEvent event) {
+        if (event.getLogLevel() != null && event.getLogLevel().compareTo(logLevel) < 0) {
+            return;
+        }
+        if (event instanceof LogLevelChangeEvent) {
+            LogLevelChangeEvent changeEvent = (LogLevelChangeEvent) event;
+            LogLevel newLogLevel = changeEvent.getNewLogLevel();
+            if (newLogLevel == this.logLevel) {
                 return;
             }
-            if (event instanceof LogLevelChangeEvent) {
-                LogLevelChangeEvent changeEvent = (LogLevelChangeEvent) event;
-                LogLevel newLogLevel = changeEvent.getNewLogLevel();
-                if (newLogLevel == this.logLevel) {
-                    return;
+            this.logLevel = newLogLevel;
+        }
+        stdOutAndErrorFormatters.getSource().onOutput(event);
+        formatters.getSource().onOutput(event);
+    }
+
+    private static synchronized ExecutorService getRenderExecutor() {
+        if (renderExecutor == null) {
+            final ThreadFactory threadFactory = new ThreadFactoryImpl("Output event renderer");
+            final ThreadPoolExecutor executor = new ThreadPoolExecutor(1, 1, 30, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>(), new ThreadFactory() {
+                public Thread newThread(Runnable runnable) {
+                    Thread thread = threadFactory.newThread(runnable);
+                    thread.setDaemon(true);
+                    return thread;
                 }
-                this.logLevel = newLogLevel;
-            }
-            stdOutAndErrorFormatters.getSource().onOutput(event);
-            formatters.getSource().onOutput(event);
+            });
+            executor.allowCoreThreadTimeOut(true);
+            // Render whatever is still queued when the JVM exits
+            Runtime.getRuntime().addShutdownHook(new Thread(new Runnable() {
+                public void run() {
+                    executor.shutdown();
+                    try {
+                        executor.awaitTermination(5, TimeUnit.SECONDS);
+                    } catch (InterruptedException e) {
+                        // Ignore
+                    }
+                }
+            }, "Output event renderer shutdown"));
+            renderExecutor = executor;
         }
+        return renderExecutor;
     }
 }
@@ -17,18 +17,45 @@
 package org.gradle.model.persist;
 
 import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
 import net.jcip.annotations.NotThreadSafe;
+import org.gradle.BuildAdapter;
+import org.gradle.BuildResult;
+import org.gradle.api.GradleException;
+import org.gradle.api.Nullable;
+import org.gradle.api.Project;
+import org.gradle.api.internal.initialization.loadercache.ClassPathSnapshot;
+import org.gradle.api.internal.initialization.loadercache.ClassPathSnapshotter;
 import org.gradle.api.internal.project.ProjectIdentifier;
 import org.gradle.api.logging.Logger;
 import org.gradle.api.logging.Logging;
+import org.gradle.groovy.scripts.BasicScript;
+import org.gradle.groovy.scripts.Script;
+import org.gradle.groovy.scripts.ScriptExecutionListener;
+import org.gradle.internal.classloader.ClasspathUtil;
+import org.gradle.internal.classpath.DefaultClassPath;
 import org.gradle.model.internal.inspect.ModelRuleExtractor;
 import org.gradle.model.internal.registry.DefaultModelRegistry;
 import org.gradle.model.internal.registry.ModelRegistry;
 
+import java.io.File;
+import java.util.Iterator;
 import java.util.Map;
+import java.util.Set;
 
+/**
+ * Keeps the model registry of each project between builds in the same process, and reuses it while the rules that populate it are unchanged.
+ *
+ * <p>When a build finishes, the store snapshots the inputs of the rules of each registry the build used: the project's build script, the scripts applied
+ * to the project, and the classpath entries of the rule sources applied to the registry. A registry is not kept when any of these inputs cannot be
+ * snapshot, such as a script that is not backed by a file. A kept registry is only offered to a later build when these snapshots are unchanged.</p>
+ *
+ * <p>Rules may also depend on inputs that are not snapshot, such as project properties or the environment. The registry handed to a build therefore
+ * checks that the build registers the same rules as the previous build before it uses the kept registry, and uses a new registry otherwise. See
+ * {@link RuleCheckingModelRegistry}.</p>
+ */
 @NotThreadSafe
-public class ReusingModelRegistryStore implements ModelRegistryStore {
+public class ReusingModelRegistryStore extends BuildAdapter implements ModelRegistryStore, ScriptExecutionListener {
 
     private static final Logger LOGGER = Logging.getLogger(ReusingModelRegistryStore.class);
 
@@ -36,25 +63,111 @@ public class ReusingModelRegistryStore implements ModelRegistryStore {
     public static final String BANNER = "Experimental model reuse is enabled.";
 
     private final ModelRuleExtractor ruleExtractor;
-    private final Map<String, ModelRegistry> store = Maps.newHashMap();
+    private final ClassPathSnapshotter snapshotter;
+    private final Map<File, StoredRegistry> store = Maps.newHashMap();
 
-    public ReusingModelRegistryStore(ModelRuleExtractor ruleExtractor) {
+    public ReusingModelRegistryStore(ModelRuleExtractor ruleExtractor, ClassPathSnapshotter snapshotter) {
         this.ruleExtractor = ruleExtractor;
+        this.snapshotter = snapshotter;
     }
 
     @Override
     public ModelRegistry get(ProjectIdentifier projectIdentifier) {
-        ModelRegistry modelRegistry = store.get(projectIdentifier.getProjectDir().getAbsolutePath());
+        File projectDir = projectIdentifier.getProjectDir().getAbsoluteFile();
+        String projectPath = projectIdentifier.getPath();
+        StoredRegistry stored = store.get(projectDir);
+        RuleCheckingModelRegistry modelRegistry = null;
+        if (stored != null) {
+            DefaultModelRegistry previous = stored.current.getRegistry();
+            LOGGER.info("Model for project {} executed {} rules and reused {} rules during the previous build.", projectPath, previous.getRulesExecuted(), previous.getRulesReused());
+            if (previous.isRulesChanged()) {
+                LOGGER.info("Not reusing model for project {} as its rules have changed.", projectPath);
+            } else if (stored.inputsSnapshot == null || !stored.inputsSnapshot.equals(snapshotter.snapshot(new DefaultClassPath(stored.inputs)))) {
+                LOGGER.info("Not reusing model for project {} as the scripts or classes that define its rules have changed.", projectPath);
+            } else {
+                modelRegistry = new RuleCheckingModelRegistry(projectPath, ruleExtractor, previous, stored.current.getRules());
+            }
+        }
         if (modelRegistry == null) {
-            LOGGER.info("creating new model registry for project: " + projectIdentifier.getPath());
-            modelRegistry = new DefaultModelRegistry(ruleExtractor);
-            store.put(projectIdentifier.getProjectDir().getAbsolutePath(), modelRegistry);
-        } else {
-            LOGGER.info("reusing model for project: " + projectIdentifier.getPath());
-            // TODO - we should be doing this after the build, after the daemon has returned to the user doesn't wait for it
-            modelRegistry.prepareForReuse();
+            LOGGER.info("creating new model registry for project: " + projectPath);
+            modelRegistry = new RuleCheckingModelRegistry(projectPath, ruleExtractor, null, null);
         }
 
+        stored = new StoredRegistry(modelRegistry, stored == null ? null : stored.current.getRules());
+        stored.inputs.add(projectIdentifier.getBuildFile());
+        store.put(projectDir, stored);
         return modelRegistry;
     }
+
+    public void beforeScript(Script script) {
+        if (!(script instanceof BasicScript) || !(((BasicScript) script).getScriptTarget() instanceof Project)) {
+            return;
+        }
+        StoredRegistry stored = store.get(((Project) ((BasicScript) script).getScriptTarget()).getProjectDir().getAbsoluteFile());
+        if (stored == null || stored.inputsSnapshot != null) {
+            return;
+        }
+        File scriptFile = script.getScriptSource().getResource().getFile();
+        if (scriptFile == null) {
+            // The content of the script cannot be snapshot, for example when it is applied from a URL
+            LOGGER.info("Not keeping model as script {} is not backed by a file.", script.getScriptSource().getDisplayName());
+            stored.untracked = true;
+        } else {
+            stored.inputs.add(scriptFile);
+        }
+    }
+
+    public void afterScript(Script script, Throwable result) {
+    }
+
+    @Override
+    public void buildFinished(BuildResult result) {
+        // Only snapshot the registries used by the build that finished, as nested builds finish while the registries of the enclosing build are waiting to be reused
+        Iterator<StoredRegistry> iterator = store.values().iterator();
+        while (iterator.hasNext()) {
+            StoredRegistry stored = iterator.next();
+            if (stored.inputsSnapshot == null) {
+                // A failed build may have stopped part way through registering the rules
+                if (result.getFailure() != null || stored.untracked || !rulesUnchanged(stored) || !addRuleSourceClasspath(stored)) {
+                    iterator.remove();
+                } else {
+                    stored.inputsSnapshot = snapshotter.snapshot(new DefaultClassPath(stored.inputs));
+                }
+            }
+        }
+    }
+
+    private static boolean rulesUnchanged(StoredRegistry stored) {
+        // The rules registered after the model was first read were not compared before reusing the registry
+        if (stored.current.isReused() && !stored.current.getRules().sameAs(stored.previousRules)) {
+            LOGGER.info("Not keeping model as its rules have changed after it was first used.");
+            return false;
+        }
+        return true;
+    }
+
+    private static boolean addRuleSourceClasspath(StoredRegistry stored) {
+        for (Class<?> ruleSource : stored.current.getRegistry().getRuleSources()) {
+            try {
+                stored.inputs.add(ClasspathUtil.getClasspathForClass(ruleSource));
+            } catch (GradleException e) {
+                LOGGER.info("Not keeping model as the classpath of rule source {} cannot be determined.", ruleSource.getName());
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static class StoredRegistry {
+        private final RuleCheckingModelRegistry current;
+        private final RuleCheckingModelRegistry.RuleSet previousRules;
+        private final Set<File> inputs = Sets.newLinkedHashSet();
+        private boolean untracked;
+        private ClassPathSnapshot inputsSnapshot;
+
+        private StoredRegistry(RuleCheckingModelRegistry current, @Nullable RuleCheckingModelRegistry.RuleSet previousRules) {
+            this.current = current;
+            this.previousRules = previousRules;
+        }
+    }
 }
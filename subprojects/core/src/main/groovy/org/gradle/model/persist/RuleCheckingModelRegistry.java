@@ -0,0 +1,231 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+
+package org.gradle.model.persist;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
+import org.gradle.api.Action;
+import org.gradle.api.Nullable;
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
+import org.gradle.model.RuleSource;
+import org.gradle.model.internal.core.*;
+import org.gradle.model.internal.core.rule.describe.ModelRuleDescriptor;
+import org.gradle.model.internal.inspect.ModelRuleExtractor;
+import org.gradle.model.internal.registry.DefaultModelRegistry;
+import org.gradle.model.internal.registry.ModelRegistry;
+import org.gradle.model.internal.registry.UnboundModelRulesException;
+import org.gradle.model.internal.type.ModelType;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * The model registry handed to a project by {@link ReusingModelRegistryStore}. Decides whether the registry kept from the previous build can be reused
+ * by comparing the rules the project registers with the rules registered by the previous build.
+ *
+ * <p>Rules registered before the model is first read are held back. When the model is first read, they are compared with the rules that the previous
+ * build registered before its first read. When they are the same, the kept registry is reused. Otherwise a new registry is created and the held back
+ * rules are registered with it, so that the build never sees a model populated by different rules. Rules registered after the first read are recorded,
+ * and the kept registry is not reused by the next build when they differ from those of the previous build.</p>
+ */
+class RuleCheckingModelRegistry implements ModelRegistry {
+    private static final Logger LOGGER = Logging.getLogger(RuleCheckingModelRegistry.class);
+
+    private final String projectPath;
+    private final ModelRuleExtractor ruleExtractor;
+    private final DefaultModelRegistry candidate;
+    private final RuleSet previousRules;
+    private final RuleSet rules = new RuleSet();
+    private final List<Action<ModelRegistry>> heldBack = Lists.newArrayList();
+    private DefaultModelRegistry delegate;
+    private boolean read;
+
+    /**
+     * @param candidate the registry kept from the previous build, or null to always use a new registry
+     * @param previousRules the rules registered by the build that used the candidate registry
+     */
+    RuleCheckingModelRegistry(String projectPath, ModelRuleExtractor ruleExtractor, @Nullable DefaultModelRegistry candidate, @Nullable RuleSet previousRules) {
+        this.projectPath = projectPath;
+        this.ruleExtractor = ruleExtractor;
+        this.candidate = candidate;
+        this.previousRules = previousRules;
+        if (candidate == null) {
+            delegate = new DefaultModelRegistry(ruleExtractor, true);
+        }
+    }
+
+    /**
+     * Returns the registry used by this build, choosing it if the model has not been read yet.
+     */
+    DefaultModelRegistry getRegistry() {
+        if (delegate == null) {
+            if (rules.beforeFirstRead.equals(previousRules.beforeFirstRead)) {
+                LOGGER.info("reusing model for project: " + projectPath);
+                candidate.prepareForReuse();
+                delegate = candidate;
+            } else {
+                LOGGER.info("Not reusing model for project {} as its rules have changed.", projectPath);
+                delegate = new DefaultModelRegistry(ruleExtractor, true);
+            }
+            for (Action<ModelRegistry> registration : heldBack) {
+                registration.execute(delegate);
+            }
+            heldBack.clear();
+        }
+        return delegate;
+    }
+
+    /**
+     * Returns true when this build reused the registry of the previous build.
+     */
+    boolean isReused() {
+        return delegate != null && delegate == candidate;
+    }
+
+    RuleSet getRules() {
+        return rules;
+    }
+
+    private DefaultModelRegistry read() {
+        read = true;
+        return getRegistry();
+    }
+
+    private void register(List<Object> key, Action<ModelRegistry> registration) {
+        rules.all.add(key);
+        if (!read) {
+            rules.beforeFirstRead.add(key);
+        }
+        if (delegate == null) {
+            heldBack.add(registration);
+        } else {
+            registration.execute(delegate);
+        }
+    }
+
+    private static String describe(ModelRuleDescriptor descriptor) {
+        StringBuilder stringBuilder = new StringBuilder();
+        descriptor.describeTo(stringBuilder);
+        return stringBuilder.toString();
+    }
+
+    public ModelRegistry create(final ModelCreator creator) {
+        register(Arrays.<Object>asList("create", creator.getPath(), describe(creator.getDescriptor())), new Action<ModelRegistry>() {
+            public void execute(ModelRegistry registry) {
+                registry.create(creator);
+            }
+        });
+        return this;
+    }
+
+    public <T> ModelRegistry configure(final ModelActionRole role, final ModelAction<T> action) {
+        register(Arrays.<Object>asList("configure", role, action.getSubject(), describe(action.getDescriptor())), new Action<ModelRegistry>() {
+            public void execute(ModelRegistry registry) {
+                registry.configure(role, action);
+            }
+        });
+        return this;
+    }
+
+    public ModelRegistry apply(final Class<? extends RuleSource> ruleSource) {
+        // Rule source classes are compared by name, as their implementation is covered by the classpath snapshot of the store
+        register(Arrays.<Object>asList("apply", ruleSource.getName()), new Action<ModelRegistry>() {
+            public void execute(ModelRegistry registry) {
+                registry.apply(ruleSource);
+            }
+        });
+        return this;
+    }
+
+    public ModelRegistry replace(final ModelCreator newCreator) {
+        register(Arrays.<Object>asList("replace", newCreator.getPath(), describe(newCreator.getDescriptor())), new Action<ModelRegistry>() {
+            public void execute(ModelRegistry registry) {
+                registry.replace(newCreator);
+            }
+        });
+        return this;
+    }
+
+    public ModelRegistry createOrReplace(final ModelCreator newCreator) {
+        register(Arrays.<Object>asList("createOrReplace", newCreator.getPath(), describe(newCreator.getDescriptor())), new Action<ModelRegistry>() {
+            public void execute(ModelRegistry registry) {
+                registry.createOrReplace(newCreator);
+            }
+        });
+        return this;
+    }
+
+    public void remove(final ModelPath path) {
+        register(Arrays.<Object>asList("remove", path), new Action<ModelRegistry>() {
+            public void execute(ModelRegistry registry) {
+                registry.remove(path);
+            }
+        });
+    }
+
+    public <T> T realize(ModelPath path, ModelType<T> type) {
+        return read().realize(path, type);
+    }
+
+    public ModelNode realizeNode(ModelPath path) {
+        return read().realizeNode(path);
+    }
+
+    public <T> T find(ModelPath path, ModelType<T> type) {
+        return read().find(path, type);
+    }
+
+    public ModelNode atState(ModelPath path, ModelNode.State state) {
+        return read().atState(path, state);
+    }
+
+    public ModelNode atStateOrLater(ModelPath path, ModelNode.State state) {
+        return read().atStateOrLater(path, state);
+    }
+
+    public ModelNode.State state(ModelPath path) {
+        return read().state(path);
+    }
+
+    public ModelNode node(ModelPath path) {
+        return read().node(path);
+    }
+
+    public void bindAllReferences() throws UnboundModelRulesException {
+        read().bindAllReferences();
+    }
+
+    public void prepareForReuse() {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * The top level rules registered by a build, as comparable keys.
+     */
+    static class RuleSet {
+        private final Set<List<Object>> beforeFirstRead = Sets.newHashSet();
+        private final Set<List<Object>> all = Sets.newHashSet();
+
+        boolean sameAs(RuleSet other) {
+            return beforeFirstRead.equals(other.beforeFirstRead) && all.equals(other.all);
+        }
+    }
+}
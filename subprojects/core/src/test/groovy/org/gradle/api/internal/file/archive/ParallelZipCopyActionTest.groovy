@@ -0,0 +1,251 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.file.archive
+
+import org.apache.tools.zip.ZipOutputStream
+import org.gradle.api.file.RelativePath
+import org.gradle.api.internal.DocumentationRegistry
+import org.gradle.api.internal.file.CopyActionProcessingStreamAction
+import org.gradle.api.internal.file.TestFiles
+import org.gradle.api.internal.file.copy.CopyAction
+import org.gradle.api.internal.file.copy.CopyActionProcessingStream
+import org.gradle.api.internal.file.copy.DefaultZipCompressor
+import org.gradle.api.internal.file.copy.FileCopyDetailsInternal
+import org.gradle.api.tasks.bundling.Zip
+import org.gradle.api.tasks.bundling.internal.Zip64RequiredException
+import org.gradle.test.fixtures.file.TestFile
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.junit.Rule
+import spock.lang.Specification
+
+import java.util.zip.ZipFile
+
+import static org.gradle.api.file.FileVisitorUtil.assertVisitsPermissions
+import static org.gradle.api.internal.file.copy.CopyActionExecuterUtil.visit
+import static org.hamcrest.Matchers.equalTo
+
+class ParallelZipCopyActionTest extends Specification {
+
+    @Rule
+    public final TestNameTestDirectoryProvider tmpDir = new TestNameTestDirectoryProvider()
+
+    TestFile zipFile
+
+    def setup() {
+        zipFile = tmpDir.getTestDirectory().file("test.zip")
+    }
+
+    def "creates zip file"() {
+        given:
+        zip(new ParallelZipCopyAction(zipFile, deflate, new DocumentationRegistry()), dir("dir"), file("dir/file1"), file("file2"))
+
+        when:
+        TestFile expandDir = tmpDir.getTestDirectory().file("expanded")
+        zipFile.unzipTo(expandDir)
+
+        then:
+        expandDir.file("dir/file1").assertContents(equalTo("contents of dir/file1"))
+        expandDir.file("file2").assertContents(equalTo("contents of file2"))
+
+        where:
+        deflate << [true, false]
+    }
+
+    def "zip file contains expected permissions"() {
+        given:
+        zip(new ParallelZipCopyAction(zipFile, true, new DocumentationRegistry()), dir("dir"), file("file"))
+
+        when:
+        Map<String, Integer> expected = new HashMap<String, Integer>();
+        expected.put("dir", 2);
+        expected.put("file", 1);
+
+        then:
+        assertVisitsPermissions(new ZipFileTree(zipFile, null, TestFiles.fileSystem()), expected)
+    }
+
+    def "writes entries in the order they are visited"() {
+        given:
+        def content = new byte[3 * 1024 * 1024]
+        new Random(1).nextBytes(content)
+        def files = (0..<200).collect { file("file$it", it % 50 == 0 ? content : "contents of file$it".bytes) }
+
+        when:
+        zip(new ParallelZipCopyAction(zipFile, deflate, new DocumentationRegistry()), files as FileCopyDetailsInternal[])
+
+        then:
+        def zip = new ZipFile(zipFile)
+        try {
+            assert zip.entries().collect { it.name } == (0..<200).collect { "file$it" }
+            assert zip.getInputStream(zip.getEntry("file50")).bytes == content
+            assert zip.getInputStream(zip.getEntry("file51")).text == "contents of file51"
+        } finally {
+            zip.close()
+        }
+
+        where:
+        deflate << [true, false]
+    }
+
+    def "writes entries in order when the buffered entries exceed the pending content limit"() {
+        given:
+        def content = new byte[900 * 1024]
+        new Random(1).nextBytes(content)
+        def files = (0..<40).collect { file("file$it", content) }
+
+        when:
+        zip(new ParallelZipCopyAction(zipFile, false, new DocumentationRegistry()), files as FileCopyDetailsInternal[])
+
+        then:
+        def zip = new ZipFile(zipFile)
+        try {
+            assert zip.entries().collect { it.name } == (0..<40).collect { "file$it" }
+            assert zip.getInputStream(zip.getEntry("file39")).bytes == content
+        } finally {
+            zip.close()
+        }
+    }
+
+    def "creates the same entries as ZipCopyAction"() {
+        given:
+        def entries = fatJarEntries(500)
+
+        when:
+        zip(new ZipCopyAction(tmpDir.file("expected.zip"), new DefaultZipCompressor(false, ZipOutputStream.DEFLATED), new DocumentationRegistry()), entries)
+        zip(new ParallelZipCopyAction(zipFile, true, new DocumentationRegistry()), entries)
+
+        then:
+        def expected = new ZipFile(tmpDir.file("expected.zip"))
+        def actual = new ZipFile(zipFile)
+        try {
+            assert actual.entries().collect { [it.name, it.time, it.size, it.crc] } == expected.entries().collect { [it.name, it.time, it.size, it.crc] }
+        } finally {
+            expected.close()
+            actual.close()
+        }
+    }
+
+    def "wraps failure to open output file"() {
+        given:
+        def invalidZipFile = tmpDir.createDir("test.zip")
+        def action = new ParallelZipCopyAction(invalidZipFile, true, new DocumentationRegistry())
+
+        when:
+        zip(action)
+
+        then:
+        def e = thrown(Exception)
+        e.message == String.format("Could not create ZIP '%s'.", zipFile)
+    }
+
+    def "wraps failure to add element"() {
+        given:
+        Throwable failure = new RuntimeException("broken")
+        def brokenFile = brokenFile("dir/file1", failure)
+
+        when:
+        visit(new ParallelZipCopyAction(zipFile, true, new DocumentationRegistry()), brokenFile)
+
+        then:
+        def e = thrown(Exception)
+        e.message == String.format("Could not add $brokenFile to ZIP '%s'.", zipFile)
+        e.cause.is(failure)
+    }
+
+    def "fails when the archive requires zip64"() {
+        given:
+        def docRegistry = Mock(DocumentationRegistry)
+        1 * docRegistry.getDslRefForProperty(Zip, "zip64") >> "doc url"
+        def files = (0..65535).collect { dir("dir$it") }
+
+        when:
+        zip(new ParallelZipCopyAction(zipFile, true, docRegistry), files as FileCopyDetailsInternal[])
+
+        then:
+        def e = thrown(Zip64RequiredException)
+        e.message == "archive contains more than 65535 entries.\n\nTo build this archive, please enable the zip64 extension.\nSee: doc url"
+    }
+
+    /**
+     * Entries shaped like those of a fat jar: many small class files spread over packages, with a few bigger resources.
+     */
+    private FileCopyDetailsInternal[] fatJarEntries(int count) {
+        def random = new Random(1)
+        def tokens = ["java/lang/Object", "<init>", "()V", "Code", "LineNumberTable", "LocalVariableTable", "org/gradle/api/", "Ljava/lang/String;", "StackMapTable", "this"]*.bytes
+        def entries = []
+        count.times { i ->
+            if (i % 200 == 0) {
+                entries << dir("org/example/pkg${i.intdiv(200)}")
+            }
+            int size = i % 2000 == 1999 ? 2 * 1024 * 1024 : 300 + random.nextInt(random.nextInt(10) == 0 ? 40000 : 6000)
+            def content = new ByteArrayOutputStream(size)
+            while (content.size() < size) {
+                if (random.nextInt(3) == 0) {
+                    content.write(random.nextInt(256))
+                } else {
+                    content.write(tokens[random.nextInt(tokens.size())])
+                }
+            }
+            entries << file("org/example/pkg${i.intdiv(200)}/Class${i}.class", content.toByteArray())
+        }
+        return entries as FileCopyDetailsInternal[]
+    }
+
+    private static void zip(CopyAction action, final FileCopyDetailsInternal... files) {
+        action.execute(new CopyActionProcessingStream() {
+            public void process(CopyActionProcessingStreamAction copyAction) {
+                for (FileCopyDetailsInternal f : files) {
+                    copyAction.processFile(f);
+                }
+            }
+        });
+    }
+
+    private FileCopyDetailsInternal file(final String path, byte[] content = "contents of $path".bytes) {
+        def mock = Stub(FileCopyDetailsInternal)
+        mock.getRelativePath() >> RelativePath.parse(true, path)
+        mock.getLastModified() >> 1000L
+        mock.isDirectory() >> false
+        mock.getMode() >> 1
+        mock.copyTo(_ as OutputStream) >> { OutputStream out ->
+            out.write(content)
+        }
+        mock
+    }
+
+    private FileCopyDetailsInternal dir(final String path) {
+        def mock = Stub(FileCopyDetailsInternal)
+        mock.getRelativePath() >> RelativePath.parse(false, path)
+        mock.getLastModified() >> 1000L
+        mock.isDirectory() >> true
+        mock.getMode() >> 2
+        mock
+    }
+
+    private FileCopyDetailsInternal brokenFile(final String path, final Throwable failure) {
+        def mock = Mock(FileCopyDetailsInternal)
+        mock.getRelativePath() >> RelativePath.parse(false, path)
+        mock.getLastModified() >> 1000L
+        mock.isDirectory() >> false
+        mock.getMode() >> 1
+        mock.copyTo(_ as OutputStream) >> { OutputStream out ->
+            failure.fillInStackTrace()
+            throw failure
+        }
+        mock
+    }
+}
@@ -20,6 +20,7 @@ import org.gradle.api.file.FileVisitor;
 import org.gradle.api.file.RelativePath;
 import org.gradle.api.specs.Spec;
 import org.gradle.api.tasks.util.PatternSet;
+import org.gradle.internal.nativeintegration.services.FileSystems;
 import org.gradle.test.fixtures.file.TestFile;
 import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider;
 import org.gradle.testfixtures.internal.NativeServicesTestFixture;
@@ -65,7 +66,7 @@ public class DirectoryFileTreeTest {
         final MockFile root = new MockFile(context, "root", false);
         root.setExpectations();
 
-        DirectoryFileTree fileTree = new DirectoryFileTree(root.getMock());
+        DirectoryFileTree fileTree = fileTree(root.getMock());
         root.setExpectations();
 
         fileTree.visit(visitor);
@@ -97,7 +98,7 @@ public class DirectoryFileTreeTest {
             one(visitor).visitFile(with(file(fileToCopy)));
         }});
 
-        DirectoryFileTree fileTree = new DirectoryFileTree(fileToCopy.getMock());
+        DirectoryFileTree fileTree = fileTree(fileToCopy.getMock());
         fileTree.visit(visitor);
     }
 
@@ -136,7 +137,7 @@ public class DirectoryFileTreeTest {
             inSequence(visiting);
         }});
 
-        DirectoryFileTree fileTree = new DirectoryFileTree(root.getMock());
+        DirectoryFileTree fileTree = fileTree(root.getMock());
         fileTree.visit(visitor);
     }
 
@@ -165,7 +166,7 @@ public class DirectoryFileTreeTest {
             inSequence(visiting);
         }});
 
-        DirectoryFileTree fileTree = new DirectoryFileTree(root.getMock()).postfix();
+        DirectoryFileTree fileTree = fileTree(root.getMock()).postfix();
         fileTree.visit(visitor);
     }
 
@@ -191,7 +192,7 @@ public class DirectoryFileTreeTest {
         patterns.include("**/*2");
         PatternSet filter = new PatternSet();
         filter.include("dir1/**");
-        DirectoryFileTree fileTree = new DirectoryFileTree(root.getMock(), patterns).filter(filter);
+        DirectoryFileTree fileTree = fileTree(root.getMock(), patterns).filter(filter);
         fileTree.visit(visitor);
     }
 
@@ -211,7 +212,7 @@ public class DirectoryFileTreeTest {
             will(stopVisiting());
         }});
 
-        DirectoryFileTree fileTree = new DirectoryFileTree(root.getMock());
+        DirectoryFileTree fileTree = fileTree(root.getMock());
         fileTree.visit(visitor);
 
         final Sequence visiting = context.sequence("visiting");
@@ -268,6 +269,15 @@ public class DirectoryFileTreeTest {
         assertThat(treeWithExcludes.getDisplayName(), equalTo(String.format("directory '%s' exclude 'a/b', 'c'", tmpDir.getTestDirectory())));
     }
 
+    private DirectoryFileTree fileTree(File dir) {
+        return fileTree(dir, new PatternSet());
+    }
+
+    private DirectoryFileTree fileTree(File dir, PatternSet patterns) {
+        // The mock files only support the operations used by the default walker
+        return new DirectoryFileTree(dir, patterns, new DefaultDirectoryWalker(FileSystems.getDefault()));
+    }
+
     private Action stopVisiting() {
         return new Action() {
             public void describeTo(Description description) {
@@ -0,0 +1,118 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.api.internal.file.collections.jdk7
+
+import org.gradle.api.GradleException
+import org.gradle.api.file.FileVisitDetails
+import org.gradle.api.file.FileVisitor
+import org.gradle.api.file.RelativePath
+import org.gradle.api.internal.file.collections.DefaultDirectoryWalker
+import org.gradle.api.internal.file.collections.DirectoryWalker
+import org.gradle.api.specs.Specs
+import org.gradle.internal.nativeintegration.services.FileSystems
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.gradle.util.UsesNativeServices
+import org.junit.Rule
+import spock.lang.Specification
+import spock.lang.Unroll
+
+import java.util.concurrent.atomic.AtomicBoolean
+
+@UsesNativeServices
+class Jdk7DirectoryWalkerTest extends Specification {
+    @Rule TestNameTestDirectoryProvider tmpDir = new TestNameTestDirectoryProvider()
+
+    def setup() {
+        def root = tmpDir.createDir("root")
+        root.file("a.txt") << "a"
+        root.file("b/c.txt") << "content"
+        root.file("b/d/e.txt") << "e"
+        root.file("b/d/f/g.txt") << "g"
+        root.file("h/i.txt") << "i"
+        root.createDir("j")
+    }
+
+    @Unroll
+    def "visits files in the same order as the default walker when parallel is #parallel and postfix is #postfix"() {
+        expect:
+        visit(new Jdk7DirectoryWalker(parallel), postfix) == visit(new DefaultDirectoryWalker(FileSystems.default), postfix)
+
+        where:
+        parallel | postfix
+        false    | false
+        true     | false
+        false    | true
+        true     | true
+    }
+
+    @Unroll
+    def "visit details report the attributes of the file when parallel is #parallel"() {
+        def details = []
+
+        when:
+        walk(new Jdk7DirectoryWalker(parallel), false, { details << it }, new AtomicBoolean())
+
+        then:
+        details.size() == 10
+        details.every { FileVisitDetails file ->
+            file.directory == file.file.directory && file.lastModified == file.file.lastModified() && (file.directory || file.size == file.file.length())
+        }
+
+        where:
+        parallel << [false, true]
+    }
+
+    def "stops visiting when requested"() {
+        def visited = []
+
+        when:
+        walk(new Jdk7DirectoryWalker(true), false, { FileVisitDetails details ->
+            visited << details.relativePath.pathString
+            if (details.relativePath.pathString == "b/d") {
+                details.stopVisiting()
+            }
+        }, new AtomicBoolean())
+
+        then:
+        visited.last() == "b/d"
+        !visited.contains("b/d/e.txt")
+        !visited.contains("h")
+    }
+
+    def "fails when directory cannot be listed"() {
+        def file = tmpDir.file("root/a.txt")
+
+        when:
+        new Jdk7DirectoryWalker(false).walkDir(file, new RelativePath(false), Mock(FileVisitor), Specs.satisfyAll(), new AtomicBoolean(), false)
+
+        then:
+        GradleException e = thrown()
+        e.message == "Could not list contents of '$file'."
+    }
+
+    private List<String> visit(DirectoryWalker walker, boolean postfix) {
+        def visited = []
+        walk(walker, postfix, { FileVisitDetails details -> visited << details.relativePath.pathString }, new AtomicBoolean())
+        return visited
+    }
+
+    private void walk(DirectoryWalker walker, boolean postfix, Closure action, AtomicBoolean stopFlag) {
+        def visitor = [visitDir: action, visitFile: action] as FileVisitor
+        walker.walkDir(tmpDir.file("root"), new RelativePath(false), visitor, Specs.satisfyAll(), stopFlag, postfix)
+    }
+}
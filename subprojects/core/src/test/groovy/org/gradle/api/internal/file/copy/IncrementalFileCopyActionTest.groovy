@@ -0,0 +1,121 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.file.copy
+
+import org.gradle.api.internal.file.TestFiles
+import org.gradle.internal.reflect.DirectInstantiator
+import org.gradle.test.fixtures.file.TestFile
+import org.gradle.test.fixtures.file.WorkspaceTest
+
+class IncrementalFileCopyActionTest extends WorkspaceTest {
+
+    def "copies files with the timestamp of their source"() {
+        given:
+        file("src/a.txt").write("a").setLastModified(1000000000000L)
+
+        when:
+        def result = sync { from "src" }
+
+        then:
+        result.didWork
+        file("dest/a.txt").text == "a"
+        file("dest/a.txt").lastModified() == 1000000000000L
+    }
+
+    def "does not copy files that are unchanged"() {
+        given:
+        file("src/a.txt").write("a")
+        file("src/sub/b.txt").write("b")
+        sync { from "src" }
+        replaceContent(file("dest/a.txt"), "x")
+
+        when:
+        def result = sync { from "src" }
+
+        then:
+        !result.didWork
+        file("dest/a.txt").text == "x"
+        file("dest/sub/b.txt").text == "b"
+    }
+
+    def "copies files whose size or timestamp has changed"() {
+        given:
+        file("src/a.txt").write("a")
+        file("src/b.txt").write("b")
+        file("src/c.txt").write("c")
+        sync { from "src" }
+        file("src/a.txt").write("changed")
+        file("src/b.txt").setLastModified(file("src/b.txt").lastModified() - 10000)
+        replaceContent(file("dest/b.txt"), "x")
+        replaceContent(file("dest/c.txt"), "x")
+
+        when:
+        def result = sync { from "src" }
+
+        then:
+        result.didWork
+        file("dest/a.txt").text == "changed"
+        file("dest/b.txt").text == "b"
+        file("dest/c.txt").text == "x"
+    }
+
+    def "removes files that are no longer in the source"() {
+        given:
+        file("src/a.txt").write("a")
+        file("src/b.txt").write("b")
+        sync { from "src" }
+        file("src/b.txt").delete()
+
+        when:
+        def result = sync { from "src" }
+
+        then:
+        result.didWork
+        file("dest").assertHasDescendants("a.txt")
+    }
+
+    def "always copies filtered files"() {
+        given:
+        file("src/a.txt").write("a")
+        sync { from "src" }
+        replaceContent(file("dest/a.txt"), "x")
+
+        when:
+        sync {
+            from "src"
+            filter { String line -> line }
+        }
+
+        then:
+        file("dest/a.txt").text.trim() == "a"
+    }
+
+    private static void replaceContent(TestFile file, String content) {
+        long lastModified = file.lastModified()
+        file.write(content)
+        file.setLastModified(lastModified)
+    }
+
+    private sync(Closure spec) {
+        def action = new SyncCopyActionDecorator(file("dest"), new IncrementalFileCopyAction(TestFiles.resolver(file("dest")), TestFiles.fileSystem()))
+        def resolver = TestFiles.resolver(testDirectory)
+        def copySpec = new DestinationRootCopySpec(resolver, new DefaultCopySpec(resolver, DirectInstantiator.INSTANCE))
+        copySpec.into("dest")
+        copySpec.with(spec)
+        new CopyActionExecuter(DirectInstantiator.INSTANCE, TestFiles.fileSystem()).execute(copySpec, action)
+    }
+}
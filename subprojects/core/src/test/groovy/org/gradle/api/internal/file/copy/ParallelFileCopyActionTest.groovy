@@ -0,0 +1,125 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.file.copy
+
+import org.gradle.api.GradleException
+import org.gradle.api.file.DuplicatesStrategy
+import org.gradle.api.internal.file.TestFiles
+import org.gradle.internal.reflect.DirectInstantiator
+import org.gradle.test.fixtures.file.WorkspaceTest
+
+class ParallelFileCopyActionTest extends WorkspaceTest {
+
+    def "copies files and directories"() {
+        given:
+        file("src").with {
+            createFile("a.txt").write("a")
+            createFile("sub/b.txt").write("b")
+            createDir("empty")
+        }
+
+        when:
+        def result = copy(true) {
+            from "src"
+        }
+
+        then:
+        result.didWork
+        file("dest").assertHasDescendants("a.txt", "sub/b.txt")
+        file("dest/empty").directory
+        file("dest/a.txt").text == "a"
+        file("dest/sub/b.txt").text == "b"
+    }
+
+    def "file visited last replaces files with the same path"() {
+        given:
+        10.times { file("src$it/same.txt").write("content $it") }
+
+        when:
+        copy(true) {
+            duplicatesStrategy = DuplicatesStrategy.INCLUDE
+            10.times { from "src$it" }
+        }
+
+        then:
+        file("dest").assertHasDescendants("same.txt")
+        file("dest/same.txt").text == "content 9"
+    }
+
+    def "copies filtered files"() {
+        given:
+        file("src/a.txt").write("a")
+        file("src/b.txt").write("b")
+
+        when:
+        copy(true) {
+            from "src"
+            filesMatching("a.txt") { it.filter { String line -> line.toUpperCase() } }
+        }
+
+        then:
+        file("dest/a.txt").text.trim() == "A"
+        file("dest/b.txt").text == "b"
+    }
+
+    def "sync removes extra files once all files have been copied"() {
+        given:
+        100.times { file("src/file${it}.txt").write("content $it") }
+        file("dest/extra.txt").createFile()
+        file("dest/file1.txt").write("old")
+
+        when:
+        def result = sync(true) {
+            from "src"
+        }
+
+        then:
+        result.didWork
+        file("dest").assertHasDescendants((0..<100).collect { "file${it}.txt" } as String[])
+        file("dest/file1.txt").text == "content 1"
+    }
+
+    def "propagates copy failures"() {
+        given:
+        file("src/a.txt").write("a")
+        file("dest/a.txt").createDir()
+
+        when:
+        copy(true) {
+            from "src"
+        }
+
+        then:
+        thrown(GradleException)
+    }
+
+    private copy(boolean parallel, Closure spec) {
+        execute(spec, new FileCopyAction(TestFiles.resolver(file("dest")), parallel))
+    }
+
+    private sync(boolean parallel, Closure spec) {
+        execute(spec, new SyncCopyActionDecorator(file("dest"), new FileCopyAction(TestFiles.resolver(file("dest")), parallel)))
+    }
+
+    private execute(Closure spec, CopyAction action) {
+        def resolver = TestFiles.resolver(testDirectory)
+        def copySpec = new DestinationRootCopySpec(resolver, new DefaultCopySpec(resolver, DirectInstantiator.INSTANCE))
+        copySpec.into("dest")
+        copySpec.with(spec)
+        new CopyActionExecuter(DirectInstantiator.INSTANCE, TestFiles.fileSystem()).execute(copySpec, action)
+    }
+}
@@ -0,0 +1,113 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.api.internal.file.pattern
+
+import org.apache.tools.ant.DirectoryScanner
+import org.gradle.api.file.RelativePath
+import org.gradle.api.specs.Spec
+import spock.lang.Specification
+import spock.lang.Unroll
+
+class PatternAutomatonTest extends Specification {
+    @Unroll
+    def "matches path #path against #patterns"() {
+        def automaton = new PatternAutomaton(patterns, true)
+
+        expect:
+        automaton.matches(path as String[], false) == matches
+        automaton.matches(path as String[], true) == matches
+
+        where:
+        patterns                        | path                      | matches
+        []                              | ["a"]                     | false
+        [""]                            | []                        | true
+        [""]                            | ["a"]                     | false
+        ["a/b", "c"]                    | ["a", "b"]                | true
+        ["a/b", "c"]                    | ["c"]                     | true
+        ["a/b", "c"]                    | ["a"]                     | false
+        ["a/b", "c"]                    | ["a", "b", "c"]           | false
+        ["a\\b"]                        | ["a", "b"]                | true
+        ["a/"]                          | ["a", "b", "c"]           | true
+        ["**/*.java", "**/*.groovy"]    | ["a", "b", "C.groovy"]    | true
+        ["**/*.java", "**/*.groovy"]    | ["C.java"]                | true
+        ["**/*.java", "**/*.groovy"]    | ["a", "C.scala"]          | false
+        ["a/**/b", "**/c/**"]           | ["a", "b"]                | true
+        ["a/**/b", "**/c/**"]           | ["a", "x", "y", "b"]      | true
+        ["a/**/b", "**/c/**"]           | ["x", "c"]                | true
+        ["a/**/b", "**/c/**"]           | ["x", "c", "y"]           | true
+        ["a/**/b", "**/c/**"]           | ["x", "b"]                | false
+        ["**/**/a", "?b*"]              | ["x", "a"]                | true
+        ["**/**/a", "?b*"]              | ["abc"]                   | true
+        ["**/**/a", "?b*"]              | ["bbc", "d"]              | false
+    }
+
+    @Unroll
+    def "path #path could match #patterns when more segments are added"() {
+        def automaton = new PatternAutomaton(patterns, true)
+
+        expect:
+        automaton.isPrefix(path as String[]) == prefix
+
+        where:
+        patterns              | path                 | prefix
+        []                    | []                   | false
+        [""]                  | []                   | false
+        [""]                  | ["a"]                | false
+        ["a/b"]               | []                   | true
+        ["a/b"]               | ["a"]                | true
+        ["a/b"]               | ["a", "b"]           | true
+        ["a/b"]               | ["a", "b", "c"]      | false
+        ["a/b", "c/d"]        | ["c"]                | true
+        ["a/b", "c/d"]        | ["d"]                | false
+        ["a/**/b"]            | ["a", "x", "y"]      | true
+        ["**/a"]              | ["x", "y"]           | true
+    }
+
+    def "honours case sensitivity"() {
+        expect:
+        new PatternAutomaton(["a/*.java"], false).matches(["A", "B.JAVA"] as String[], false)
+        !new PatternAutomaton(["a/*.java"], true).matches(["A", "B.JAVA"] as String[], false)
+    }
+
+    def "agrees with the individual pattern matchers for many patterns and paths"() {
+        def random = new Random(42)
+        def patterns = []
+        30.times {
+            patterns << "**/module${it}/**/*.java".toString()
+            patterns << "src/generated${it}/**".toString()
+        }
+        patterns.addAll(DirectoryScanner.defaultExcludes)
+        def segments = ["src", "main", "java", "org", "gradle", ".git", "CVS", "build", "generated3"]
+        def paths = (0..<2000).collect {
+            def path = (0..random.nextInt(6)).collect { segments[random.nextInt(segments.size())] }
+            path.add(0, random.nextBoolean() ? "module${random.nextInt(40)}".toString() : "src")
+            path << (random.nextBoolean() ? "File${it}.java".toString() : "File${it}.txt".toString())
+            new RelativePath(random.nextInt(4) > 0, path as String[])
+        }
+
+        when:
+        def matchers = patterns.collect { PatternMatcherFactory.getPatternMatcher(true, true, it) }
+        def expected = paths.collect { path -> matchers.any { it.isSatisfiedBy(path) } }
+        def automatonMatcher = PatternMatcherFactory.getPatternsMatcher(true, true, patterns)
+        def actual = paths.collect { automatonMatcher.isSatisfiedBy(it) }
+
+        then:
+        patterns.size() > 50
+        actual == expected
+    }
+}
@@ -165,4 +165,19 @@ class DefaultClassLoaderCacheTest extends Specification {
         then:
         cache.size() == 0
     }
+    def "clearing releases all loaders"() {
+        def root = classLoader(classPath("root"))
+        def f1 = new FilteringClassLoader.Spec(["1"], [], [], [], [], [], [])
+        def loader = cache.get(id1, classPath("c1"), root, f1)
+        cache.get(id2, classPath("c1"), root, null)
+
+        when:
+        cache.clear()
+
+        then:
+        cache.size() == 0
+        cache.assertInternalIntegrity()
+        !cache.get(id1, classPath("c1"), root, f1).is(loader)
+        cache.size() == 2
+    }
 }
@@ -32,6 +32,11 @@ public class DummyClassLoaderCache implements ClassLoaderCache {
 
     }
 
+    @Override
+    public void clear() {
+
+    }
+
     @Override
     public int size() {
         return 0;
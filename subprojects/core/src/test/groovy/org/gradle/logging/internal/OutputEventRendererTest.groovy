@@ -294,6 +294,77 @@ class OutputEventRendererTest extends OutputSpecification {
         outputs.stdOut.readLines() == ['info']
         outputs.stdErr == ''
     }
+
+    def asyncRendererRendersEventsFromEachThreadInOrder() {
+        def renderer = asyncRenderer()
+        def received = []
+        renderer.addOutputEventListener({ if (it instanceof LogEvent) { received << it.message } } as OutputEventListener)
+
+        when:
+        def threads = (1..4).collect { thread ->
+            Thread.start {
+                100.times { renderer.onOutput(event("$thread-$it", LogLevel.INFO)) }
+            }
+        }
+        threads*.join()
+        renderer.flush()
+
+        then:
+        received.size() == 400
+        (1..4).each { thread ->
+            assert received.findAll { it.startsWith("$thread-") } == (0..<100).collect { "$thread-$it" }
+        }
+    }
+
+    def asyncRendererRendersQueuedEventsBeforeAnErrorEvent() {
+        def renderer = asyncRenderer()
+        def received = []
+        renderer.addOutputEventListener({ if (it instanceof LogEvent) { received << it.message } } as OutputEventListener)
+
+        when:
+        renderer.onOutput(event('info', LogLevel.INFO))
+        renderer.onOutput(event('lifecycle', LogLevel.LIFECYCLE))
+        renderer.onOutput(event('error', LogLevel.ERROR))
+
+        then:
+        received == ['info', 'lifecycle', 'error']
+    }
+
+    def asyncRendererRendersQueuedEventsBeforeDestinationsChange() {
+        def renderer = asyncRenderer()
+        def listener = new TestListener()
+        renderer.addStandardOutputListener(listener)
+
+        when:
+        renderer.onOutput(event('info', LogLevel.INFO))
+        renderer.removeStandardOutputListener(listener)
+        renderer.onOutput(event('ignored', LogLevel.INFO))
+        renderer.flush()
+
+        then:
+        listener.value.readLines() == ['info']
+    }
+
+    def asyncRendererDiscardsEventsBelowLogLevel() {
+        def renderer = asyncRenderer()
+        def received = []
+        renderer.addOutputEventListener({ if (it instanceof LogEvent) { received << it.message } } as OutputEventListener)
+
+        when:
+        renderer.onOutput(event('debug', LogLevel.DEBUG))
+        renderer.configure(LogLevel.DEBUG)
+        renderer.onOutput(event('debug', LogLevel.DEBUG))
+        renderer.flush()
+
+        then:
+        received == ['debug']
+    }
+
+    private OutputEventRenderer asyncRenderer() {
+        def renderer = new OutputEventRenderer(consoleConfigureAction, true)
+        renderer.configure(LogLevel.INFO)
+        return renderer
+    }
 }
 
 class TestListener implements StandardOutputListener {
@@ -0,0 +1,246 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.model.persist
+
+import org.gradle.BuildResult
+import org.gradle.api.Project
+import org.gradle.api.internal.changedetection.state.CachingFileSnapshotter
+import org.gradle.api.internal.hash.DefaultHasher
+import org.gradle.api.internal.initialization.loadercache.HashClassPathSnapshotter
+import org.gradle.api.internal.project.ProjectIdentifier
+import org.gradle.cache.internal.NonThreadsafeInMemoryStore
+import org.gradle.groovy.scripts.BasicScript
+import org.gradle.groovy.scripts.ScriptSource
+import org.gradle.internal.resource.Resource
+import org.gradle.model.RuleSource
+import org.gradle.model.internal.core.ModelCreators
+import org.gradle.model.internal.core.ModelPath
+import org.gradle.model.internal.core.ModelReference
+import org.gradle.model.internal.inspect.ModelRuleExtractor
+import org.gradle.model.internal.registry.DefaultModelRegistry
+import org.gradle.model.internal.registry.ModelRegistry
+import org.gradle.model.internal.type.ModelType
+import org.gradle.test.fixtures.file.TestFile
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.junit.Rule
+import spock.lang.Specification
+
+class ReusingModelRegistryStoreTest extends Specification {
+    @Rule TestNameTestDirectoryProvider tmpDir = new TestNameTestDirectoryProvider()
+
+    def ruleExtractor = Stub(ModelRuleExtractor) {
+        extract(_) >> []
+    }
+    def store = new ReusingModelRegistryStore(ruleExtractor, new HashClassPathSnapshotter(new CachingFileSnapshotter(new DefaultHasher(), new NonThreadsafeInMemoryStore())))
+    def project = Stub(ProjectIdentifier)
+    def buildFile
+    def appliedScript
+
+    def setup() {
+        buildFile = tmpDir.file("build.gradle") << "println 'hello'"
+        appliedScript = tmpDir.file("rules.gradle") << "model { }"
+        project.projectDir >> tmpDir.testDirectory
+        project.buildFile >> buildFile
+        project.path >> ":"
+    }
+
+    DefaultModelRegistry build(Closure action = {}) {
+        def registry = store.get(project)
+        action(registry)
+        store.buildFinished(new BuildResult(null, null))
+        registry.registry
+    }
+
+    void applyScript(File file) {
+        def resource = Stub(Resource) {
+            getFile() >> file
+        }
+        def source = Stub(ScriptSource) {
+            getResource() >> resource
+            getDisplayName() >> "script"
+        }
+        def target = Stub(Project) {
+            getProjectDir() >> tmpDir.testDirectory
+        }
+        def script = Stub(BasicScript) {
+            getScriptSource() >> source
+            getScriptTarget() >> target
+        }
+        store.beforeScript(script)
+    }
+
+    static void create(ModelRegistry registry, String path, String value) {
+        registry.create(ModelCreators.bridgedInstance(ModelReference.of(path, String), value).descriptor(path).build())
+    }
+
+    static String realize(ModelRegistry registry, String path) {
+        registry.realize(ModelPath.path(path), ModelType.of(String))
+    }
+
+    Class<?> loadRuleSource(TestFile classesDir) {
+        def name = TestRules.name
+        def resourceName = name.replace('.', '/') + ".class"
+        classesDir.file(resourceName).createFile().bytes = getClass().classLoader.getResourceAsStream(resourceName).bytes
+        def loader = new URLClassLoader([classesDir.toURI().toURL()] as URL[], getClass().classLoader) {
+            protected Class<?> loadClass(String className, boolean resolve) {
+                className == name ? findClass(className) : super.loadClass(className, resolve)
+            }
+        }
+        loader.loadClass(name)
+    }
+
+    def "reuses registry when the inputs of its rules are unchanged"() {
+        when:
+        def registry = build {
+            applyScript(appliedScript)
+            create(it, "foo", "1")
+        }
+
+        then:
+        build {
+            applyScript(appliedScript)
+            create(it, "foo", "1")
+        }.is(registry)
+    }
+
+    def "does not reuse registry when build script has changed"() {
+        when:
+        def registry = build()
+        buildFile << "println 'changed'"
+
+        then:
+        !build().is(registry)
+    }
+
+    def "build with a changed rule in an applied script does not see the model of the previous build"() {
+        when:
+        def registry = build {
+            applyScript(appliedScript)
+            create(it, "foo", "1")
+            assert realize(it, "foo") == "1"
+        }
+        appliedScript << "// value changed"
+        def next = build {
+            applyScript(appliedScript)
+            create(it, "foo", "2")
+        }
+
+        then:
+        !next.is(registry)
+        realize(next, "foo") == "2"
+    }
+
+    def "does not reuse registry when the classpath of an applied rule source has changed"() {
+        def classesDir = tmpDir.file("classes")
+        def ruleSource = loadRuleSource(classesDir)
+
+        when:
+        def registry = build {
+            it.apply(ruleSource)
+        }
+
+        then:
+        build {
+            it.apply(ruleSource)
+        }.is(registry)
+
+        when:
+        classesDir.file("Other.class") << "changed"
+
+        then:
+        !build().is(registry)
+    }
+
+    def "build that registers a rule the previous build did not register uses a new registry"() {
+        def registry = build {
+            create(it, "foo", "1")
+        }
+
+        when:
+        def next = build {
+            create(it, "foo", "1")
+            create(it, "bar", "2")
+            assert realize(it, "bar") == "2"
+        }
+
+        then:
+        !next.is(registry)
+        realize(next, "foo") == "1"
+    }
+
+    def "build that registers fewer rules than the previous build uses a new registry"() {
+        def registry = build {
+            create(it, "foo", "1")
+            create(it, "bar", "2")
+        }
+
+        when:
+        def next = build {
+            create(it, "foo", "1")
+            assert realize(it, "foo") == "1"
+        }
+
+        then:
+        !next.is(registry)
+        next.node(ModelPath.path("bar")) == null
+    }
+
+    def "does not keep registry when rules registered after the model was first read have changed"() {
+        def registry = build {
+            create(it, "foo", "1")
+            realize(it, "foo")
+            create(it, "bar", "2")
+        }
+
+        when:
+        def next = build {
+            create(it, "foo", "1")
+            realize(it, "foo")
+        }
+
+        then:
+        next.is(registry)
+        !build().is(registry)
+    }
+
+    def "does not keep registry when an applied script is not backed by a file"() {
+        when:
+        def registry = build {
+            applyScript(null)
+            create(it, "foo", "1")
+        }
+
+        then:
+        !build {
+            applyScript(null)
+            create(it, "foo", "1")
+        }.is(registry)
+    }
+
+    def "does not reuse registry after a failed build"() {
+        when:
+        def registry = store.get(project).registry
+        store.buildFinished(new BuildResult(null, new RuntimeException()))
+
+        then:
+        !build().is(registry)
+    }
+
+    static class TestRules extends RuleSource {
+    }
+}
@@ -36,7 +36,7 @@ public class EclipseModelBuilder implements ToolingModelBuilder {
     private DefaultEclipseProject result;
     private final Map<String, DefaultEclipseProject> projectMapping = new HashMap<String, DefaultEclipseProject>();
     private TasksFactory tasksFactory;
-    private DefaultGradleProject<?> rootGradleProject;
+    private Map<String, DefaultGradleProject<?>> gradleProjects;
     private Project currentProject;
 
     public EclipseModelBuilder(GradleProjectBuilder gradleProjectBuilder) {
@@ -54,7 +54,7 @@ public class EclipseModelBuilder implements ToolingModelBuilder {
         projectDependenciesOnly = modelName.equals("org.gradle.tooling.model.eclipse.HierarchicalEclipseProject");
         currentProject = project;
         Project root = project.getRootProject();
-        rootGradleProject = gradleProjectBuilder.buildAll(project);
+        gradleProjects = GradleProjectBuilder.indexByPath(gradleProjectBuilder.buildAll(project));
         tasksFactory.collectTasks(root);
         applyEclipsePlugin(root);
         buildHierarchy(root);
@@ -141,7 +141,7 @@ public class EclipseModelBuilder implements ToolingModelBuilder {
         String description = GUtil.elvis(internalProject.getComment(), null);
         DefaultEclipseProject eclipseProject =
                 new DefaultEclipseProject(name, project.getPath(), description, project.getProjectDir(), children)
-                .setGradleProject(rootGradleProject.findByPath(project.getPath()));
+                .setGradleProject(gradleProjects.get(project.getPath()));
 
         for (DefaultEclipseProject child : children) {
             child.setParent(eclipseProject);
@@ -21,12 +21,15 @@ import org.gradle.api.Task;
 import org.gradle.api.internal.tasks.PublicTaskSpecification;
 import org.gradle.api.internal.tasks.TaskContainerInternal;
 import org.gradle.tooling.internal.gradle.DefaultGradleProject;
+import org.gradle.tooling.internal.gradle.PartialGradleProject;
 import org.gradle.tooling.internal.impl.LaunchableGradleProjectTask;
 import org.gradle.tooling.internal.impl.LaunchableGradleTask;
 import org.gradle.tooling.provider.model.ToolingModelBuilder;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.SortedSet;
 
 /**
@@ -46,6 +49,22 @@ public class GradleProjectBuilder implements ToolingModelBuilder {
         return buildHierarchy(project.getRootProject());
     }
 
+    /**
+     * Returns the projects of the given hierarchy by path, so that builders do not need to search the hierarchy for each project of a large build.
+     */
+    public static Map<String, DefaultGradleProject<?>> indexByPath(DefaultGradleProject<?> root) {
+        Map<String, DefaultGradleProject<?>> index = new HashMap<String, DefaultGradleProject<?>>();
+        addToIndex(root, index);
+        return index;
+    }
+
+    private static void addToIndex(DefaultGradleProject<?> project, Map<String, DefaultGradleProject<?>> index) {
+        index.put(project.getPath(), project);
+        for (PartialGradleProject child : project.getChildren()) {
+            addToIndex((DefaultGradleProject<?>) child, index);
+        }
+    }
+
     private DefaultGradleProject<LaunchableGradleTask> buildHierarchy(Project project) {
         List<DefaultGradleProject<LaunchableGradleTask>> children = new ArrayList<DefaultGradleProject<LaunchableGradleTask>>();
         for (Project child : project.getChildProjects().values()) {
@@ -43,8 +43,8 @@ public class IdeaModelBuilder implements ToolingModelBuilder {
     public DefaultIdeaProject buildAll(String modelName, Project project) {
         Project root = project.getRootProject();
         applyIdeaPlugin(root);
-        DefaultGradleProject<?> rootGradleProject = gradleProjectBuilder.buildAll(project);
-        return build(root, rootGradleProject);
+        Map<String, DefaultGradleProject<?>> gradleProjects = GradleProjectBuilder.indexByPath(gradleProjectBuilder.buildAll(project));
+        return build(root, gradleProjects);
     }
 
     private void applyIdeaPlugin(Project root) {
@@ -55,7 +55,7 @@ public class IdeaModelBuilder implements ToolingModelBuilder {
         root.getPlugins().getPlugin(IdeaPlugin.class).makeSureModuleNamesAreUnique();
     }
 
-    private DefaultIdeaProject build(Project project, DefaultGradleProject rootGradleProject) {
+    private DefaultIdeaProject build(Project project, Map<String, DefaultGradleProject<?>> gradleProjects) {
         IdeaModel ideaModel = project.getPlugins().getPlugin(IdeaPlugin.class).getModel();
         IdeaProject projectModel = ideaModel.getProject();
 
@@ -66,7 +66,7 @@ public class IdeaModelBuilder implements ToolingModelBuilder {
 
         Map<String, DefaultIdeaModule> modules = new HashMap<String, DefaultIdeaModule>();
         for (IdeaModule module : projectModel.getModules()) {
-            appendModule(modules, module, out, rootGradleProject);
+            appendModule(modules, module, out, gradleProjects);
         }
         for (IdeaModule module : projectModel.getModules()) {
             buildDependencies(modules, module);
@@ -106,7 +106,7 @@ public class IdeaModelBuilder implements ToolingModelBuilder {
         modules.get(ideaModule.getName()).setDependencies(dependencies);
     }
 
-    private void appendModule(Map<String, DefaultIdeaModule> modules, IdeaModule ideaModule, DefaultIdeaProject ideaProject, DefaultGradleProject rootGradleProject) {
+    private void appendModule(Map<String, DefaultIdeaModule> modules, IdeaModule ideaModule, DefaultIdeaProject ideaProject, Map<String, DefaultGradleProject<?>> gradleProjects) {
         DefaultIdeaContentRoot contentRoot = new DefaultIdeaContentRoot()
             .setRootDirectory(ideaModule.getContentRoot())
             .setSourceDirectories(srcDirs(ideaModule.getSourceDirs(), ideaModule.getGeneratedSourceDirs()))
@@ -116,7 +116,7 @@ public class IdeaModelBuilder implements ToolingModelBuilder {
         DefaultIdeaModule defaultIdeaModule = new DefaultIdeaModule()
                 .setName(ideaModule.getName())
                 .setParent(ideaProject)
-                .setGradleProject(rootGradleProject.findByPath(ideaModule.getProject().getPath()))
+                .setGradleProject(gradleProjects.get(ideaModule.getProject().getPath()))
                 .setContentRoots(Collections.singletonList(contentRoot))
                 .setCompilerOutput(new DefaultIdeaCompilerOutput()
                     .setInheritOutputDirs(ideaModule.getInheritOutputDirs() != null ? ideaModule.getInheritOutputDirs() : false)
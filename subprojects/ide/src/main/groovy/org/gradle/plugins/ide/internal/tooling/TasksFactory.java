@@ -32,7 +32,9 @@ public class TasksFactory {
     }
 
     public void collectTasks(Project root) {
-        allTasks = root.getAllTasks(true);
+        if (includeTasks) {
+            allTasks = root.getAllTasks(true);
+        }
     }
 
     public Set<Task> getTasks(Project project) {
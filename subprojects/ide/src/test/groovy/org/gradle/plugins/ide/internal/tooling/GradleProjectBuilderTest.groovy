@@ -66,4 +66,18 @@ class GradleProjectBuilderTest extends Specification {
         model.tasks[0].description == "some description"
         model.tasks[0].path == ":placeholderTask"
     }
+
+    def "indexes project hierarchy by path"() {
+        def root = TestUtil.builder().withName("root").withProjectDir(tmpDir.testDirectory).build()
+        def child = TestUtil.builder().withName("child").withParent(root).withProjectDir(tmpDir.file("child")).build()
+        TestUtil.builder().withName("grandChild").withParent(child).withProjectDir(tmpDir.file("child/grandChild")).build()
+
+        when:
+        def index = GradleProjectBuilder.indexByPath(builder.buildAll(root))
+
+        then:
+        index.keySet() == [':', ':child', ':child:grandChild'] as Set
+        index[':child:grandChild'].name == 'grandChild'
+        index[':child:grandChild'].parent.is(index[':child'])
+    }
 }
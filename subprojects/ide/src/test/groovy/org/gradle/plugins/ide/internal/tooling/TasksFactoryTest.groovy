@@ -49,4 +49,14 @@ class TasksFactoryTest extends Specification {
         then:
         tasks.size() == 1
     }
+
+    def "does not collect tasks when tasks are not required"() {
+        TasksFactory factory = new TasksFactory(false)
+
+        when:
+        factory.collectTasks(project)
+
+        then:
+        0 * project._
+    }
 }
@@ -0,0 +1,86 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+
+package org.gradle.api.internal.tasks.compile;
+
+import com.google.common.collect.Lists;
+import org.gradle.api.internal.file.collections.SimpleFileCollection;
+import org.gradle.api.internal.tasks.compile.daemon.CompilerDaemonSerializerRegistry;
+import org.gradle.api.tasks.compile.CompileOptions;
+import org.gradle.internal.serialize.Decoder;
+import org.gradle.internal.serialize.DefaultSerializer;
+import org.gradle.internal.serialize.Encoder;
+import org.gradle.internal.serialize.ListSerializer;
+import org.gradle.internal.serialize.Serializer;
+
+import java.io.File;
+import java.util.List;
+
+import static org.gradle.internal.serialize.BaseSerializerFactory.FILE_SERIALIZER;
+
+/**
+ * Registers the compiler and spec sent to a compiler daemon for each forked Java compilation. The source files and classpath, which grow with the
+ * project, are written as lists of paths. The compiler and the compile options are small and have nested option types, so they are written using
+ * Java serialization.
+ */
+public class JavaCompilerDaemonSerializerRegistry extends CompilerDaemonSerializerRegistry {
+    public JavaCompilerDaemonSerializerRegistry() {
+        register(JdkJavaCompiler.class, new DefaultSerializer<JdkJavaCompiler>(JdkJavaCompiler.class.getClassLoader()));
+        register(DefaultJavaCompileSpecFactory.DefaultForkingJavaCompileSpec.class, new ForkingJavaCompileSpecSerializer());
+    }
+
+    private static class ForkingJavaCompileSpecSerializer implements Serializer<DefaultJavaCompileSpecFactory.DefaultForkingJavaCompileSpec> {
+        private final Serializer<List<File>> filesSerializer = new ListSerializer<File>(FILE_SERIALIZER);
+        private final Serializer<CompileOptions> compileOptionsSerializer = new DefaultSerializer<CompileOptions>(CompileOptions.class.getClassLoader());
+
+        public DefaultJavaCompileSpecFactory.DefaultForkingJavaCompileSpec read(Decoder decoder) throws Exception {
+            DefaultJavaCompileSpecFactory.DefaultForkingJavaCompileSpec spec = new DefaultJavaCompileSpecFactory.DefaultForkingJavaCompileSpec();
+            spec.setWorkingDir(readFile(decoder));
+            spec.setTempDir(readFile(decoder));
+            spec.setDestinationDir(readFile(decoder));
+            spec.setDependencyCacheDir(readFile(decoder));
+            spec.setSource(new SimpleFileCollection(filesSerializer.read(decoder)));
+            spec.setClasspath(filesSerializer.read(decoder));
+            spec.setSourceCompatibility(decoder.readNullableString());
+            spec.setTargetCompatibility(decoder.readNullableString());
+            spec.setCompileOptions(compileOptionsSerializer.read(decoder));
+            return spec;
+        }
+
+        public void write(Encoder encoder, DefaultJavaCompileSpecFactory.DefaultForkingJavaCompileSpec value) throws Exception {
+            writeFile(encoder, value.getWorkingDir());
+            writeFile(encoder, value.getTempDir());
+            writeFile(encoder, value.getDestinationDir());
+            writeFile(encoder, value.getDependencyCacheDir());
+            filesSerializer.write(encoder, Lists.newArrayList(value.getSource()));
+            filesSerializer.write(encoder, Lists.newArrayList(value.getClasspath()));
+            encoder.writeNullableString(value.getSourceCompatibility());
+            encoder.writeNullableString(value.getTargetCompatibility());
+            compileOptionsSerializer.write(encoder, value.getCompileOptions());
+        }
+
+        private static File readFile(Decoder decoder) throws Exception {
+            String path = decoder.readNullableString();
+            return path == null ? null : new File(path);
+        }
+
+        private static void writeFile(Encoder encoder, File file) throws Exception {
+            encoder.writeNullableString(file == null ? null : file.getPath());
+        }
+    }
+}
@@ -0,0 +1,72 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+
+package org.gradle.api.internal.tasks.compile
+
+import org.gradle.api.internal.file.collections.SimpleFileCollection
+import org.gradle.api.internal.tasks.compile.daemon.CompileResult
+import org.gradle.api.tasks.compile.CompileOptions
+import org.gradle.internal.serialize.SerializerSpec
+
+class JavaCompilerDaemonSerializerRegistryTest extends SerializerSpec {
+    def registry = new JavaCompilerDaemonSerializerRegistry()
+    def serializer = registry.build()
+
+    def "can serialize the compiler and spec of a forked compilation"() {
+        expect:
+        registry.canSerialize(JdkJavaCompiler)
+        registry.canSerialize(new DefaultJavaCompileSpecFactory(new CompileOptions(fork: true)).create().getClass())
+        registry.canSerialize(CompileResult)
+        !registry.canSerialize(DefaultJavaCompileSpec)
+    }
+
+    def "round trips forking java compile spec"() {
+        def options = new CompileOptions(fork: true, encoding: "UTF-8", compilerArgs: ["-Xlint"])
+        options.forkOptions.memoryMaximumSize = "256m"
+        def spec = new DefaultJavaCompileSpecFactory.DefaultForkingJavaCompileSpec()
+        spec.workingDir = new File("work")
+        spec.destinationDir = new File("classes")
+        spec.source = new SimpleFileCollection(new File("A.java"), new File("B.java"))
+        spec.classpath = [new File("lib.jar"), new File("other")]
+        spec.sourceCompatibility = "1.6"
+        spec.compileOptions = options
+
+        when:
+        def result = serialize(spec, serializer)
+
+        then:
+        result instanceof ForkingJavaCompileSpec
+        result.workingDir == new File("work")
+        result.tempDir == null
+        result.destinationDir == new File("classes")
+        result.dependencyCacheDir == null
+        result.source.files as List == [new File("A.java"), new File("B.java")]
+        result.classpath as List == [new File("lib.jar"), new File("other")]
+        result.sourceCompatibility == "1.6"
+        result.targetCompatibility == null
+        result.compileOptions.fork
+        result.compileOptions.encoding == "UTF-8"
+        result.compileOptions.compilerArgs == ["-Xlint"]
+        result.compileOptions.forkOptions.memoryMaximumSize == "256m"
+    }
+
+    def "round trips jdk java compiler"() {
+        expect:
+        serialize(new JdkJavaCompiler(new JavaHomeBasedJavaCompilerFactory()), serializer) instanceof JdkJavaCompiler
+    }
+}
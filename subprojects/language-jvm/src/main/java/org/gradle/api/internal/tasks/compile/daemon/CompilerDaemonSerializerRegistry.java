@@ -0,0 +1,54 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.api.internal.tasks.compile.daemon;
+
+import org.gradle.internal.serialize.Decoder;
+import org.gradle.internal.serialize.DefaultSerializerRegistry;
+import org.gradle.internal.serialize.Encoder;
+import org.gradle.internal.serialize.Serializer;
+import org.gradle.messaging.remote.internal.Message;
+
+/**
+ * The serializers for the parameters of the messages exchanged with a compiler daemon. The compilers and specs of each language are registered
+ * by a subclass, which is instantiated in both the build process and the compiler daemon and so must have a public no-arg constructor. A compile
+ * request whose compiler or spec is not registered is sent using Java serialization.
+ */
+public class CompilerDaemonSerializerRegistry extends DefaultSerializerRegistry<Object> {
+    public CompilerDaemonSerializerRegistry() {
+        register(CompileResult.class, new CompileResultSerializer());
+    }
+
+    private static class CompileResultSerializer implements Serializer<CompileResult> {
+        public CompileResult read(Decoder decoder) throws Exception {
+            boolean didWork = decoder.readBoolean();
+            Throwable exception = null;
+            if (decoder.readBoolean()) {
+                exception = (Throwable) Message.receive(decoder.getInputStream(), getClass().getClassLoader());
+            }
+            return new CompileResult(didWork, exception);
+        }
+
+        public void write(Encoder encoder, CompileResult value) throws Exception {
+            encoder.writeBoolean(value.getDidWork());
+            encoder.writeBoolean(value.getException() != null);
+            if (value.getException() != null) {
+                Message.send(value.getException(), encoder.getOutputStream());
+            }
+        }
+    }
+}
@@ -22,6 +22,7 @@ import org.gradle.api.logging.Logger;
 import org.gradle.api.logging.Logging;
 import org.gradle.api.tasks.WorkResult;
 import org.gradle.internal.UncheckedException;
+import org.gradle.internal.reflect.DirectInstantiator;
 import org.gradle.process.internal.WorkerProcessContext;
 
 import java.io.Serializable;
@@ -31,13 +32,19 @@ import java.util.concurrent.CountDownLatch;
 public class CompilerDaemonServer implements Action<WorkerProcessContext>, CompilerDaemonServerProtocol, Serializable {
     private static final Logger LOGGER = Logging.getLogger(CompilerDaemonServer.class);
     
+    private final Class<? extends CompilerDaemonSerializerRegistry> serializerRegistryType;
     private volatile CompilerDaemonClientProtocol client;
     private volatile CountDownLatch stop;
     
+    public CompilerDaemonServer(Class<? extends CompilerDaemonSerializerRegistry> serializerRegistryType) {
+        this.serializerRegistryType = serializerRegistryType;
+    }
+
     public void execute(WorkerProcessContext context) {
         stop = new CountDownLatch(1);
         client = context.getServerConnection().addOutgoing(CompilerDaemonClientProtocol.class);
         context.getServerConnection().addIncoming(CompilerDaemonServerProtocol.class, this);
+        context.getServerConnection().useParameterSerializers(DirectInstantiator.instantiate(serializerRegistryType));
         context.getServerConnection().connect();
         try {
             stop.await();
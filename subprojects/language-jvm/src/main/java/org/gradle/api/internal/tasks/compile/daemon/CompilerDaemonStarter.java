@@ -19,6 +19,7 @@ import org.gradle.StartParameter;
 import org.gradle.api.logging.Logger;
 import org.gradle.api.logging.Logging;
 import org.gradle.internal.Factory;
+import org.gradle.internal.reflect.DirectInstantiator;
 import org.gradle.process.internal.JavaExecHandleBuilder;
 import org.gradle.process.internal.WorkerProcess;
 import org.gradle.process.internal.WorkerProcessBuilder;
@@ -30,10 +31,12 @@ public class CompilerDaemonStarter {
     private final static Logger LOG = Logging.getLogger(CompilerDaemonStarter.class);
     private final Factory<WorkerProcessBuilder> workerFactory;
     private final StartParameter startParameter;
+    private final Class<? extends CompilerDaemonSerializerRegistry> serializerRegistryType;
 
-    public CompilerDaemonStarter(Factory<WorkerProcessBuilder> workerFactory, StartParameter startParameter) {
+    public CompilerDaemonStarter(Factory<WorkerProcessBuilder> workerFactory, StartParameter startParameter, Class<? extends CompilerDaemonSerializerRegistry> serializerRegistryType) {
         this.workerFactory = workerFactory;
         this.startParameter = startParameter;
+        this.serializerRegistryType = serializerRegistryType;
     }
 
     public CompilerDaemonClient startDaemon(File workingDir, DaemonForkOptions forkOptions) {
@@ -48,12 +51,13 @@ public class CompilerDaemonStarter {
         javaCommand.setMaxHeapSize(forkOptions.getMaxHeapSize());
         javaCommand.setJvmArgs(forkOptions.getJvmArgs());
         javaCommand.setWorkingDir(workingDir);
-        WorkerProcess process = builder.worker(new CompilerDaemonServer()).setBaseName("Gradle Compiler Daemon").build();
+        WorkerProcess process = builder.worker(new CompilerDaemonServer(serializerRegistryType)).setBaseName("Gradle Compiler Daemon").build();
         process.start();
 
         CompilerDaemonServerProtocol server = process.getConnection().addOutgoing(CompilerDaemonServerProtocol.class);
         CompilerDaemonClient client = new CompilerDaemonClient(forkOptions, process, server);
         process.getConnection().addIncoming(CompilerDaemonClientProtocol.class, client);
+        process.getConnection().useParameterSerializers(DirectInstantiator.instantiate(serializerRegistryType));
         process.getConnection().connect();
 
         LOG.info("Started Gradle compiler daemon ({}) with fork options {}.", clock.getTime(), forkOptions);
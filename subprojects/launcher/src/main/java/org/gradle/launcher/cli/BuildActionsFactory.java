@@ -36,6 +36,7 @@ import org.gradle.launcher.daemon.bootstrap.ForegroundDaemonAction;
 import org.gradle.launcher.daemon.client.DaemonClient;
 import org.gradle.launcher.daemon.client.DaemonClientFactory;
 import org.gradle.launcher.daemon.client.DaemonClientGlobalServices;
+import org.gradle.launcher.daemon.client.DaemonClientProcessServices;
 import org.gradle.launcher.daemon.client.DaemonStopClient;
 import org.gradle.launcher.daemon.configuration.CurrentProcess;
 import org.gradle.launcher.daemon.configuration.DaemonParameters;
@@ -153,7 +154,7 @@ class BuildActionsFactory implements CommandLineAction {
         ServiceRegistry clientSharedServices = createGlobalClientServices();
         ServiceRegistry clientServices = clientSharedServices.get(DaemonClientFactory.class).createBuildClientServices(loggingServices.get(OutputEventListener.class), daemonParameters, System.in);
         DaemonClient client = clientServices.get(DaemonClient.class);
-        return runBuild(startParameter, daemonParameters, new DaemonClientBuildActionExecuter(client));
+        return new ReportClientStatisticsAction(runBuild(startParameter, daemonParameters, new DaemonClientBuildActionExecuter(client)));
     }
 
     private boolean canUseCurrentProcess(DaemonParameters requiredBuildParameters) {
@@ -193,10 +194,11 @@ class BuildActionsFactory implements CommandLineAction {
     }
 
     private ServiceRegistry createGlobalClientServices() {
+        // The build runs in the daemon, so the client only needs the services used to find or start a daemon and talk to it
         return ServiceRegistryBuilder.builder()
                 .displayName("Daemon client global services")
                 .parent(NativeServices.getInstance())
-                .provider(new GlobalScopeServices(false))
+                .provider(new DaemonClientProcessServices())
                 .provider(new DaemonClientGlobalServices())
                 .build();
     }
@@ -0,0 +1,53 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.launcher.cli;
+
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+/**
+ * Reports how much work the client process did while a build ran in a daemon, so that the cost of the client itself can be tracked.
+ */
+class ReportClientStatisticsAction implements Runnable {
+    private static final Logger LOGGER = Logging.getLogger(ReportClientStatisticsAction.class);
+    private final Runnable action;
+
+    ReportClientStatisticsAction(Runnable action) {
+        this.action = action;
+    }
+
+    Runnable getAction() {
+        return action;
+    }
+
+    public void run() {
+        try {
+            action.run();
+        } finally {
+            if (LOGGER.isDebugEnabled()) {
+                ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+                long cpuTime = threadMXBean.isCurrentThreadCpuTimeSupported() ? threadMXBean.getCurrentThreadCpuTime() / 1000000 : -1;
+                long loadedClasses = ManagementFactory.getClassLoadingMXBean().getTotalLoadedClassCount();
+                LOGGER.debug("Client statistics: main thread CPU time {} ms, {} classes loaded.", cpuTime, loadedClasses);
+            }
+        }
+    }
+}
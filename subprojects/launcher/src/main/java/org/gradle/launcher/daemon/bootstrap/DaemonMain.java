@@ -19,6 +19,7 @@ import com.google.common.io.Files;
 import org.gradle.api.logging.LogLevel;
 import org.gradle.api.logging.Logger;
 import org.gradle.api.logging.Logging;
+import org.gradle.internal.concurrent.CompositeStoppable;
 import org.gradle.internal.nativeintegration.services.NativeServices;
 import org.gradle.launcher.bootstrap.EntryPoint;
 import org.gradle.launcher.bootstrap.ExecutionListener;
@@ -28,9 +29,12 @@ import org.gradle.launcher.daemon.context.DaemonContext;
 import org.gradle.launcher.daemon.logging.DaemonMessages;
 import org.gradle.launcher.daemon.server.Daemon;
 import org.gradle.launcher.daemon.server.DaemonServices;
+import org.gradle.launcher.daemon.server.health.DaemonHealthServices;
 import org.gradle.logging.LoggingManagerInternal;
 import org.gradle.logging.LoggingServiceRegistry;
 import org.gradle.messaging.remote.Address;
+import org.gradle.messaging.remote.internal.MessagingServices;
+import org.gradle.messaging.remote.internal.inet.SocketSelectorLoop;
 
 import java.io.ByteArrayInputStream;
 import java.io.File;
@@ -100,7 +104,7 @@ public class DaemonMain extends EntryPoint {
             // Block until idle
             daemon.requestStopOnIdleTimeout(parameters.getIdleTimeout(), TimeUnit.MILLISECONDS);
         } finally {
-            daemon.stop();
+            CompositeStoppable.stoppable(daemon, daemonServices.get(DaemonHealthServices.class), daemonServices.get(MessagingServices.class).get(SocketSelectorLoop.class)).stop();
         }
     }
 
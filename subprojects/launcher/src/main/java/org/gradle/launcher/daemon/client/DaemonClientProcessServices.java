@@ -0,0 +1,63 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.launcher.daemon.client;
+
+import org.gradle.api.internal.DocumentationRegistry;
+import org.gradle.cache.internal.DefaultFileLockManager;
+import org.gradle.cache.internal.DefaultProcessMetaDataProvider;
+import org.gradle.cache.internal.FileLockManager;
+import org.gradle.cache.internal.locklistener.DefaultFileLockContentionHandler;
+import org.gradle.cache.internal.locklistener.FileLockContentionHandler;
+import org.gradle.internal.concurrent.DefaultExecutorFactory;
+import org.gradle.internal.concurrent.ExecutorFactory;
+import org.gradle.internal.event.DefaultListenerManager;
+import org.gradle.internal.event.ListenerManager;
+import org.gradle.internal.nativeintegration.ProcessEnvironment;
+import org.gradle.messaging.remote.internal.inet.InetAddressFactory;
+
+/**
+ * The process-wide services required by a daemon client that runs in its own process, such as the command-line client.
+ *
+ * <p>Unlike {@link org.gradle.internal.service.scopes.GlobalScopeServices}, these do not include any of the services required to run a build,
+ * so that a client which hands the build off to a daemon does not have to load and initialize them.</p>
+ */
+public class DaemonClientProcessServices {
+    ListenerManager createListenerManager() {
+        return new DefaultListenerManager();
+    }
+
+    ExecutorFactory createExecutorFactory() {
+        return new DefaultExecutorFactory();
+    }
+
+    DocumentationRegistry createDocumentationRegistry() {
+        return new DocumentationRegistry();
+    }
+
+    InetAddressFactory createInetAddressFactory() {
+        return new InetAddressFactory();
+    }
+
+    FileLockContentionHandler createFileLockContentionHandler(ExecutorFactory executorFactory, InetAddressFactory inetAddressFactory) {
+        return new DefaultFileLockContentionHandler(executorFactory, inetAddressFactory);
+    }
+
+    FileLockManager createFileLockManager(ProcessEnvironment processEnvironment, FileLockContentionHandler fileLockContentionHandler) {
+        return new DefaultFileLockManager(new DefaultProcessMetaDataProvider(processEnvironment), fileLockContentionHandler);
+    }
+}
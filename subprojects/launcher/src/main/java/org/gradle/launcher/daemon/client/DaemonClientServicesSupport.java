@@ -29,6 +29,7 @@ import org.gradle.launcher.daemon.context.DaemonContextBuilder;
 import org.gradle.launcher.daemon.registry.DaemonRegistry;
 import org.gradle.logging.internal.OutputEventListener;
 import org.gradle.messaging.remote.internal.OutgoingConnector;
+import org.gradle.messaging.remote.internal.inet.SocketSelectorLoop;
 import org.gradle.messaging.remote.internal.inet.TcpOutgoingConnector;
 
 import java.io.InputStream;
@@ -81,11 +82,15 @@ abstract public class DaemonClientServicesSupport extends DefaultServiceRegistry
         return new CompositeIdGenerator(new UUIDGenerator().generateId(), new LongIdGenerator());
     }
 
-    OutgoingConnector createOutgoingConnector() {
-        return new TcpOutgoingConnector();
+    SocketSelectorLoop createSocketSelectorLoop() {
+        return new SocketSelectorLoop();
     }
 
-    DaemonConnector createDaemonConnector(DaemonRegistry daemonRegistry, OutgoingConnector outgoingConnector, DaemonStarter daemonStarter) {
-        return new DefaultDaemonConnector(daemonRegistry, outgoingConnector, daemonStarter);
+    OutgoingConnector createOutgoingConnector(SocketSelectorLoop selectorLoop) {
+        return new TcpOutgoingConnector(selectorLoop);
+    }
+
+    DaemonConnector createDaemonConnector(DaemonRegistry daemonRegistry, OutgoingConnector outgoingConnector, DaemonStarter daemonStarter, ExecutorFactory executorFactory) {
+        return new DefaultDaemonConnector(daemonRegistry, outgoingConnector, daemonStarter, executorFactory);
     }
 }
\ No newline at end of file
@@ -19,6 +19,8 @@ import org.gradle.api.internal.specs.ExplainingSpec;
 import org.gradle.api.logging.Logger;
 import org.gradle.api.logging.Logging;
 import org.gradle.internal.UncheckedException;
+import org.gradle.internal.concurrent.ExecutorFactory;
+import org.gradle.internal.concurrent.StoppableExecutor;
 import org.gradle.launcher.daemon.context.DaemonContext;
 import org.gradle.launcher.daemon.context.DaemonInstanceDetails;
 import org.gradle.launcher.daemon.diagnostics.DaemonStartupInfo;
@@ -28,7 +30,9 @@ import org.gradle.launcher.daemon.registry.DaemonRegistry;
 import org.gradle.messaging.remote.internal.ConnectException;
 import org.gradle.messaging.remote.internal.OutgoingConnector;
 import org.gradle.messaging.remote.internal.RemoteConnection;
+import org.gradle.util.Clock;
 
+import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -42,12 +46,14 @@ public class DefaultDaemonConnector implements DaemonConnector {
     private final DaemonRegistry daemonRegistry;
     protected final OutgoingConnector connector;
     private final DaemonStarter daemonStarter;
+    private final ExecutorFactory executorFactory;
     private long connectTimeout = DefaultDaemonConnector.DEFAULT_CONNECT_TIMEOUT;
 
-    public DefaultDaemonConnector(DaemonRegistry daemonRegistry, OutgoingConnector connector, DaemonStarter daemonStarter) {
+    public DefaultDaemonConnector(DaemonRegistry daemonRegistry, OutgoingConnector connector, DaemonStarter daemonStarter, ExecutorFactory executorFactory) {
         this.daemonRegistry = daemonRegistry;
         this.connector = connector;
         this.daemonStarter = daemonStarter;
+        this.executorFactory = executorFactory;
     }
 
     public void setConnectTimeout(long connectTimeout) {
@@ -63,7 +69,10 @@ public class DefaultDaemonConnector implements DaemonConnector {
     }
 
     public DaemonClientConnection maybeConnect(ExplainingSpec<DaemonContext> constraint) {
-        return findConnection(daemonRegistry.getAll(), constraint);
+        Clock clock = new Clock();
+        List<DaemonInfo> daemons = daemonRegistry.getAll();
+        LOGGER.debug("Read {} daemons from the registry in {}.", daemons.size(), clock.getTime());
+        return findConnection(daemons, constraint);
     }
 
     public DaemonClientConnection maybeConnect(DaemonInstanceDetails daemon) {
@@ -76,8 +85,12 @@ public class DefaultDaemonConnector implements DaemonConnector {
     }
 
     public DaemonClientConnection connect(ExplainingSpec<DaemonContext> constraint) {
-        DaemonClientConnection connection = findConnection(daemonRegistry.getIdle(), constraint);
+        Clock clock = new Clock();
+        List<DaemonInfo> daemons = daemonRegistry.getIdle();
+        LOGGER.debug("Read {} idle daemons from the registry in {}.", daemons.size(), clock.getTime());
+        DaemonClientConnection connection = findConnection(daemons, constraint);
         if (connection != null) {
+            LOGGER.debug("Connected to an existing daemon in {}.", clock.getTime());
             return connection;
         }
 
@@ -88,6 +101,7 @@ public class DefaultDaemonConnector implements DaemonConnector {
     }
 
     private DaemonClientConnection findConnection(List<DaemonInfo> daemons, ExplainingSpec<DaemonContext> constraint) {
+        List<DaemonInfo> candidates = new ArrayList<DaemonInfo>();
         for (DaemonInfo daemon : daemons) {
             if (!constraint.isSatisfiedBy(daemon.getContext())) {
                 LOGGER.debug("Found daemon {} however its context does not match the desired criteria.\n"
@@ -95,23 +109,56 @@ public class DefaultDaemonConnector implements DaemonConnector {
                         + "  Looking for a different daemon...", daemon);
                 continue;
             }
+            candidates.add(daemon);
+        }
 
-            try {
-                return connectToDaemon(daemon, new CleanupOnStaleAddress(daemon, true));
-            } catch (ConnectException e) {
-                LOGGER.debug("Cannot connect to daemon {} due to {}. Trying a different daemon...", daemon, e);
+        if (candidates.isEmpty()) {
+            return null;
+        }
+        if (candidates.size() == 1) {
+            return maybeConnectToCandidate(candidates.get(0));
+        }
+
+        // Try all compatible daemons at once, so that stale addresses do not add up their connect times
+        StoppableExecutor executor = executorFactory.create("Connect to daemon");
+        try {
+            final ConnectRace race = new ConnectRace(candidates.size());
+            for (final DaemonInfo candidate : candidates) {
+                executor.execute(new Runnable() {
+                    public void run() {
+                        DaemonClientConnection connection = null;
+                        try {
+                            connection = maybeConnectToCandidate(candidate);
+                        } finally {
+                            race.completed(connection);
+                        }
+                    }
+                });
             }
+            return race.waitForWinner();
+        } finally {
+            executor.requestStop();
+        }
+    }
+
+    private DaemonClientConnection maybeConnectToCandidate(DaemonInfo daemon) {
+        try {
+            return connectToDaemon(daemon, new CleanupOnStaleAddress(daemon, true));
+        } catch (ConnectException e) {
+            LOGGER.debug("Cannot connect to daemon {} due to {}. Trying a different daemon...", daemon, e);
+            return null;
         }
-        return null;
     }
 
     public DaemonClientConnection startDaemon(ExplainingSpec<DaemonContext> constraint) {
+        Clock clock = new Clock();
         final DaemonStartupInfo startupInfo = daemonStarter.startDaemon();
-        LOGGER.debug("Started Gradle daemon {}", startupInfo);
+        LOGGER.debug("Started Gradle daemon {} in {}", startupInfo, clock.getTime());
         long expiry = System.currentTimeMillis() + connectTimeout;
         do {
             DaemonClientConnection daemonConnection = connectToDaemonWithId(startupInfo, constraint);
             if (daemonConnection != null) {
+                LOGGER.debug("Connected to the new daemon in {}.", clock.getTime());
                 return daemonConnection;
             }
             try {
@@ -154,6 +201,43 @@ public class DefaultDaemonConnector implements DaemonConnector {
         return new DaemonClientConnection(connection, daemon, staleAddressDetector);
     }
 
+    /**
+     * Collects the outcome of concurrent connect attempts. The first successful connection wins and the others are closed.
+     */
+    private static class ConnectRace {
+        private int pending;
+        private DaemonClientConnection winner;
+
+        ConnectRace(int attempts) {
+            this.pending = attempts;
+        }
+
+        void completed(DaemonClientConnection connection) {
+            synchronized (this) {
+                pending--;
+                if (connection != null && winner == null) {
+                    winner = connection;
+                    connection = null;
+                }
+                notifyAll();
+            }
+            if (connection != null) {
+                connection.stop();
+            }
+        }
+
+        synchronized DaemonClientConnection waitForWinner() {
+            while (winner == null && pending > 0) {
+                try {
+                    wait();
+                } catch (InterruptedException e) {
+                    throw UncheckedException.throwAsUncheckedException(e);
+                }
+            }
+            return winner;
+        }
+    }
+
     private class CleanupOnStaleAddress implements DaemonClientConnection.StaleAddressDetector {
         private final DaemonInstanceDetails daemon;
         private final boolean exposeAsStale;
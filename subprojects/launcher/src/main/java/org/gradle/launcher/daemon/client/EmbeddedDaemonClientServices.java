@@ -42,6 +42,7 @@ import org.gradle.logging.internal.OutputEvent;
 import org.gradle.logging.internal.OutputEventListener;
 import org.gradle.messaging.remote.internal.MessagingServices;
 import org.gradle.messaging.remote.internal.inet.InetAddressFactory;
+import org.gradle.messaging.remote.internal.inet.SocketSelectorLoop;
 
 import java.io.File;
 import java.util.UUID;
@@ -99,7 +100,7 @@ public class EmbeddedDaemonClientServices extends DaemonClientServicesSupport {
     }
 
     protected DaemonServerConnector createDaemonServerConnector() {
-        return new DaemonTcpServerConnector(get(ExecutorFactory.class), get(MessagingServices.class).get(InetAddressFactory.class));
+        return new DaemonTcpServerConnector(get(ExecutorFactory.class), get(MessagingServices.class).get(InetAddressFactory.class), get(SocketSelectorLoop.class));
     }
 
     protected DaemonStarter createDaemonStarter() {
@@ -31,4 +31,7 @@ public class StubDaemonHealthServices implements DaemonHealthServices {
     public DaemonCommandAction getHealthTrackerAction() {
         return noOp;
     }
+
+    public void stop() {
+    }
 }
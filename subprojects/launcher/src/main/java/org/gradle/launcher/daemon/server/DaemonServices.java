@@ -15,6 +15,8 @@
  */
 package org.gradle.launcher.daemon.server;
 
+import org.gradle.api.internal.changedetection.state.InMemoryTaskArtifactCache;
+import org.gradle.api.internal.initialization.loadercache.ClassLoaderCache;
 import org.gradle.api.logging.Logger;
 import org.gradle.api.logging.Logging;
 import org.gradle.internal.concurrent.ExecutorFactory;
@@ -38,6 +40,7 @@ import org.gradle.launcher.exec.BuildActionParameters;
 import org.gradle.logging.LoggingManagerInternal;
 import org.gradle.messaging.remote.internal.MessagingServices;
 import org.gradle.messaging.remote.internal.inet.InetAddressFactory;
+import org.gradle.messaging.remote.internal.inet.SocketSelectorLoop;
 
 import java.io.File;
 import java.util.UUID;
@@ -56,7 +59,7 @@ public class DaemonServices extends DefaultServiceRegistry {
         this.loggingManager = loggingManager;
 
         addProvider(new DaemonRegistryServices(configuration.getBaseDir()));
-        addProvider(new GlobalScopeServices(true));
+        addProvider(new GlobalScopeServices(true, configuration.getBaseDir()));
     }
 
     protected DaemonContext createDaemonContext() {
@@ -80,14 +83,15 @@ public class DaemonServices extends DefaultServiceRegistry {
     }
 
     protected DaemonHealthServices createDaemonHealthServices() {
-        return new DefaultDaemonHealthServices();
+        return new DefaultDaemonHealthServices(get(InMemoryTaskArtifactCache.class), get(ClassLoaderCache.class));
     }
 
     protected Daemon createDaemon(BuildActionExecuter<BuildActionParameters> buildActionExecuter) {
         return new Daemon(
                 new DaemonTcpServerConnector(
                     get(ExecutorFactory.class),
-                    get(MessagingServices.class).get(InetAddressFactory.class)),
+                    get(MessagingServices.class).get(InetAddressFactory.class),
+                    get(MessagingServices.class).get(SocketSelectorLoop.class)),
                 get(DaemonRegistry.class),
                 get(DaemonContext.class),
                 "password",
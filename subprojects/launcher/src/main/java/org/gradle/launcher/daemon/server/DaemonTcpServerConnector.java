@@ -24,6 +24,7 @@ import org.gradle.messaging.remote.ConnectionAcceptor;
 import org.gradle.messaging.remote.internal.ConnectCompletion;
 import org.gradle.messaging.remote.internal.IncomingConnector;
 import org.gradle.messaging.remote.internal.inet.InetAddressFactory;
+import org.gradle.messaging.remote.internal.inet.SocketSelectorLoop;
 import org.gradle.messaging.remote.internal.inet.TcpIncomingConnector;
 
 import java.util.concurrent.locks.Lock;
@@ -40,11 +41,12 @@ public class DaemonTcpServerConnector implements DaemonServerConnector {
     private final Lock lifecycleLock = new ReentrantLock();
     private ConnectionAcceptor acceptor;
 
-    public DaemonTcpServerConnector(ExecutorFactory executorFactory, InetAddressFactory inetAddressFactory) {
+    public DaemonTcpServerConnector(ExecutorFactory executorFactory, InetAddressFactory inetAddressFactory, SocketSelectorLoop selectorLoop) {
         this.incomingConnector = new TcpIncomingConnector(
                 executorFactory,
                 inetAddressFactory,
-                new UUIDGenerator()
+                new UUIDGenerator(),
+                selectorLoop
         );
     }
 
@@ -16,9 +16,10 @@
 
 package org.gradle.launcher.daemon.server.health;
 
+import org.gradle.internal.concurrent.Stoppable;
 import org.gradle.launcher.daemon.server.api.DaemonCommandAction;
 
-public interface DaemonHealthServices {
+public interface DaemonHealthServices extends Stoppable {
 
     /**
      * gets the action that can perform gc hint after the build
@@ -29,4 +30,9 @@ public interface DaemonHealthServices {
      * gets the action that tracks daemon's health
      */
     DaemonCommandAction getHealthTrackerAction();
+
+    /**
+     * releases the resources used to track the daemon's health, when the daemon stops
+     */
+    void stop();
 }
\ No newline at end of file
@@ -28,11 +28,13 @@ class DaemonHealthTracker implements DaemonCommandAction {
     private final DaemonStats stats;
     private final DaemonStatus status;
     private final HealthLogger logger;
+    private final DaemonMemoryManager memoryManager;
 
-    DaemonHealthTracker(DaemonStats stats, DaemonStatus status, HealthLogger logger) {
+    DaemonHealthTracker(DaemonStats stats, DaemonStatus status, HealthLogger logger, DaemonMemoryManager memoryManager) {
         this.stats = stats;
         this.status = status;
         this.logger = logger;
+        this.memoryManager = memoryManager;
     }
 
     public void execute(DaemonCommandExecution execution) {
@@ -49,7 +51,9 @@ class DaemonHealthTracker implements DaemonCommandAction {
             stats.buildFinished();
         }
 
-        if(status.isDaemonTired(stats)) {
+        if (memoryManager.afterBuild()) {
+            execution.getDaemonStateControl().requestStop();
+        } else if (status.isDaemonTired(stats)) {
             execution.getDaemonStateControl().requestStop();
         }
     }
@@ -0,0 +1,105 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.launcher.daemon.server.health;
+
+import org.gradle.api.internal.changedetection.state.InMemoryTaskArtifactCache;
+import org.gradle.api.internal.initialization.loadercache.ClassLoaderCache;
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
+import org.gradle.internal.concurrent.Stoppable;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Watches the occupancy of the tenured heap, and releases the caches held by the daemon between builds when it gets too high.
+ * When releasing the caches does not help, the daemon is asked to stop so that the next build starts in a fresh daemon.
+ *
+ * <p>Off unless the {@value #TRIM_AT_PROPERTY} system property is set to a percentage. Stopping the daemon additionally requires {@value #RESTART_AT_PROPERTY}.</p>
+ */
+class DaemonMemoryManager implements Stoppable {
+
+    private final static Logger LOG = Logging.getLogger(DaemonMemoryManager.class);
+
+    public static final String TRIM_AT_PROPERTY = "org.gradle.daemon.memory.trim-at";
+    public static final String RESTART_AT_PROPERTY = "org.gradle.daemon.memory.restart-at";
+
+    private final MemoryInfo memory;
+    private final InMemoryTaskArtifactCache taskArtifactCache;
+    private final ClassLoaderCache classLoaderCache;
+    private final int trimAt;
+    private final int restartAt;
+    private final AtomicBoolean thresholdExceeded = new AtomicBoolean();
+    private Stoppable thresholdListener;
+
+    DaemonMemoryManager(MemoryInfo memory, InMemoryTaskArtifactCache taskArtifactCache, ClassLoaderCache classLoaderCache) {
+        this(memory, taskArtifactCache, classLoaderCache, Integer.getInteger(TRIM_AT_PROPERTY, 0), Integer.getInteger(RESTART_AT_PROPERTY, 0));
+    }
+
+    /**
+     * @param trimAt 0-100, the tenured heap occupancy after collection at which caches are released, zero means the feature is off
+     * @param restartAt 0-100, the tenured heap occupancy after releasing the caches at which the daemon is stopped, zero means never
+     */
+    DaemonMemoryManager(MemoryInfo memory, InMemoryTaskArtifactCache taskArtifactCache, ClassLoaderCache classLoaderCache, int trimAt, int restartAt) {
+        this.memory = memory;
+        this.taskArtifactCache = taskArtifactCache;
+        this.classLoaderCache = classLoaderCache;
+        this.trimAt = trimAt;
+        this.restartAt = restartAt;
+        if (trimAt != 0) {
+            thresholdListener = memory.onTenuredUsedAfterCollectionExceeds(trimAt, new Runnable() {
+                public void run() {
+                    thresholdExceeded.set(true);
+                }
+            });
+        }
+    }
+
+    /**
+     * Releases memory if the last build left the tenured heap too full.
+     *
+     * @return true when releasing memory was not enough, and the daemon should be stopped.
+     */
+    boolean afterBuild() {
+        boolean exceeded = thresholdExceeded.getAndSet(false);
+        int used = memory.getTenuredUsedAfterCollection();
+        if (trimAt == 0 || (!exceeded && used < trimAt)) {
+            return false;
+        }
+
+        LOG.info("Daemon tenured heap was {}% full after garbage collection. Releasing cached class loaders and task history.", used);
+        taskArtifactCache.clear();
+        classLoaderCache.clear();
+        memory.collectGarbage();
+        thresholdExceeded.set(false);
+
+        used = memory.getTenuredUsedAfterCollection();
+        if (restartAt != 0 && used >= restartAt) {
+            LOG.info("Daemon tenured heap is still {}% full after releasing caches. The daemon will stop after this build.", used);
+            return true;
+        }
+        LOG.info("Daemon tenured heap is {}% full after releasing caches.", used);
+        return false;
+    }
+
+    public void stop() {
+        if (thresholdListener != null) {
+            thresholdListener.stop();
+            thresholdListener = null;
+        }
+    }
+}
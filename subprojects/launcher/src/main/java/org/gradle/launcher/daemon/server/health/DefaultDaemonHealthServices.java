@@ -16,6 +16,8 @@
 
 package org.gradle.launcher.daemon.server.health;
 
+import org.gradle.api.internal.changedetection.state.InMemoryTaskArtifactCache;
+import org.gradle.api.internal.initialization.loadercache.ClassLoaderCache;
 import org.gradle.launcher.daemon.server.api.DaemonCommandAction;
 
 public class DefaultDaemonHealthServices implements DaemonHealthServices {
@@ -24,7 +26,13 @@ public class DefaultDaemonHealthServices implements DaemonHealthServices {
     private final DaemonStats stats = new DaemonStats();
     private final DaemonStatus status = new DaemonStatus();
     private final HealthLogger logger = new HealthLogger();
-    private final DaemonHealthTracker tracker = new DaemonHealthTracker(stats, status, logger);
+    private final DaemonHealthTracker tracker;
+    private final DaemonMemoryManager memoryManager;
+
+    public DefaultDaemonHealthServices(InMemoryTaskArtifactCache taskArtifactCache, ClassLoaderCache classLoaderCache) {
+        memoryManager = new DaemonMemoryManager(new MemoryInfo(), taskArtifactCache, classLoaderCache);
+        tracker = new DaemonHealthTracker(stats, status, logger, memoryManager);
+    }
 
     /**
      * {@inheritDoc}
@@ -39,4 +47,8 @@ public class DefaultDaemonHealthServices implements DaemonHealthServices {
     public DaemonCommandAction getHealthTrackerAction() {
         return tracker;
     }
+
+    public void stop() {
+        memoryManager.stop();
+    }
 }
\ No newline at end of file
@@ -16,15 +16,36 @@
 
 package org.gradle.launcher.daemon.server.health;
 
-import java.lang.management.GarbageCollectorMXBean;
-import java.lang.management.ManagementFactory;
+import org.gradle.api.Nullable;
+import org.gradle.internal.concurrent.Stoppable;
+import org.gradle.internal.util.NumberUtil;
+
+import javax.management.ListenerNotFoundException;
+import javax.management.Notification;
+import javax.management.NotificationEmitter;
+import javax.management.NotificationListener;
+import java.lang.management.*;
 
 class MemoryInfo {
 
     private final long totalMemory; //this does not change
+    private final MemoryPoolMXBean tenuredPool;
 
     MemoryInfo() {
         totalMemory = Runtime.getRuntime().maxMemory();
+        tenuredPool = findTenuredPool();
+    }
+
+    @Nullable
+    private static MemoryPoolMXBean findTenuredPool() {
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            //'Tenured Gen' for the serial collector, 'PS Old Gen', 'CMS Old Gen' and 'G1 Old Gen' for the others
+            if (pool.getType() == MemoryType.HEAP && pool.isCollectionUsageThresholdSupported()
+                    && (pool.getName().contains("Old Gen") || pool.getName().contains("Tenured"))) {
+                return pool;
+            }
+        }
+        return null;
     }
 
     /**
@@ -58,4 +79,63 @@ class MemoryInfo {
         //querying runtime for each invocation
         return Runtime.getRuntime().totalMemory();
     }
+
+    /**
+     * 0-100, the percentage of the tenured heap that was still in use after the most recent collection of it.
+     * Returns -1 when the jvm does not report it.
+     */
+    int getTenuredUsedAfterCollection() {
+        if (tenuredPool == null) {
+            return -1;
+        }
+        MemoryUsage usage = tenuredPool.getCollectionUsage();
+        if (usage == null) {
+            return -1;
+        }
+        long max = usage.getMax() > 0 ? usage.getMax() : totalMemory;
+        return NumberUtil.percentOf(usage.getUsed(), max);
+    }
+
+    /**
+     * Notifies the given action, from a jvm thread, whenever a collection leaves more than the given percentage of the tenured heap in use.
+     * Does nothing when the jvm does not report the usage of the tenured heap.
+     *
+     * @return stops the notifications, and must be stopped when the action is no longer interested in them.
+     */
+    Stoppable onTenuredUsedAfterCollectionExceeds(int percentage, final Runnable action) {
+        if (tenuredPool == null) {
+            return new Stoppable() {
+                public void stop() {
+                }
+            };
+        }
+        long max = tenuredPool.getUsage().getMax() > 0 ? tenuredPool.getUsage().getMax() : totalMemory;
+        tenuredPool.setCollectionUsageThreshold(max / 100 * percentage);
+        final NotificationEmitter emitter = (NotificationEmitter) ManagementFactory.getMemoryMXBean();
+        final NotificationListener listener = new NotificationListener() {
+            public void handleNotification(Notification notification, Object handback) {
+                if (MemoryNotificationInfo.MEMORY_COLLECTION_THRESHOLD_EXCEEDED.equals(notification.getType())) {
+                    action.run();
+                }
+            }
+        };
+        emitter.addNotificationListener(listener, null, null);
+        return new Stoppable() {
+            public void stop() {
+                tenuredPool.setCollectionUsageThreshold(0);
+                try {
+                    emitter.removeNotificationListener(listener);
+                } catch (ListenerNotFoundException e) {
+                    // Already removed
+                }
+            }
+        };
+    }
+
+    /**
+     * Requests a full collection, so that the memory released by the daemon is reflected in {@link #getTenuredUsedAfterCollection()}.
+     */
+    void collectGarbage() {
+        System.gc();
+    }
 }
@@ -141,6 +141,8 @@ class BuildActionsFactoryTest extends Specification {
     }
 
     void isDaemon(def action) {
+        assert action instanceof ReportClientStatisticsAction
+        action = action.action
         assert action instanceof RunBuildAction
         assert action.executer instanceof DaemonClientBuildActionExecuter
         assert ((DaemonClientBuildActionExecuter)action.executer).daemonClient instanceof DaemonClient
@@ -60,4 +60,18 @@ class DaemonClientServicesTest extends Specification {
         services.get(DaemonContext).daemonOpts.contains("-Duser.language=${Locale.default.language}".toString())
     }
 
+    def "can create a DaemonClient using only the daemon client process services"() {
+        def processServices = ServiceRegistryBuilder.builder()
+                .parent(NativeServicesTestFixture.instance)
+                .provider(new DaemonClientProcessServices())
+                .build()
+
+        when:
+        def clientServices = new DaemonClientServices(processServices, parameters, System.in)
+
+        then:
+        clientServices.get(DaemonClient) != null
+        clientServices.get(DaemonStopClient) != null
+    }
+
 }
@@ -17,6 +17,7 @@ package org.gradle.launcher.daemon.client
 
 import org.gradle.api.internal.specs.ExplainingSpec
 import org.gradle.api.internal.specs.ExplainingSpecs
+import org.gradle.internal.concurrent.DefaultExecutorFactory
 import org.gradle.launcher.daemon.context.DaemonContext
 import org.gradle.launcher.daemon.context.DefaultDaemonContext
 import org.gradle.launcher.daemon.diagnostics.DaemonStartupInfo
@@ -33,10 +34,16 @@ class DefaultDaemonConnectorTest extends Specification {
     def javaHome = new File("tmp")
     def connectTimeoutSecs = 1
     def daemonCounter = 0
+    def executorFactory = new DefaultExecutorFactory()
+    def stopped = Collections.synchronizedList([])
+
+    def cleanup() {
+        executorFactory.stop()
+    }
 
     class OutgoingConnectorStub implements OutgoingConnector {
         ConnectCompletion connect(Address address) throws ConnectException {
-            def connection = [:] as RemoteConnection
+            def connection = [stop: { stopped << address.num }] as RemoteConnection
             // unsure why I can't add this as property in the map-mock above
             connection.metaClass.num = address.num
             return { connection } as ConnectCompletion
@@ -55,7 +62,8 @@ class DefaultDaemonConnectorTest extends Specification {
         def connector = Spy(DefaultDaemonConnector, constructorArgs: [
                 new EmbeddedDaemonRegistry(),
                 Spy(OutgoingConnectorStub),
-                { startBusyDaemon() } as DaemonStarter]
+                { startBusyDaemon() } as DaemonStarter,
+                executorFactory]
         )
         connector.connectTimeout = connectTimeoutSecs * 1000
         connector
@@ -189,4 +197,39 @@ class DefaultDaemonConnectorTest extends Specification {
 
         registry.all.empty
     }
-}
\ No newline at end of file
+
+    def "connect() uses a compatible daemon that accepts the connection when other addresses are stale"() {
+        given:
+        startIdleDaemon()
+        startIdleDaemon()
+        startIdleDaemon()
+
+        connector.connector.connect({ it.num != 1 }) >> { throw new ConnectException("Problem!", new RuntimeException("foo")) }
+
+        when:
+        def connection = connector.connect({ true } as ExplainingSpec)
+        executorFactory.stop()
+
+        then:
+        connection.connection.num == 1
+
+        and:
+        registry.all*.address*.num == [1]
+    }
+
+    def "connect() closes the other connections when several compatible daemons accept the connection"() {
+        given:
+        startIdleDaemon()
+        startIdleDaemon()
+        startIdleDaemon()
+
+        when:
+        def connection = connector.connect({ true } as ExplainingSpec)
+        executorFactory.stop()
+
+        then:
+        connection.connection.num in [0, 1, 2]
+        stopped.sort() == ([0, 1, 2] - connection.connection.num)
+        numAllDaemons == 3
+    }
+}
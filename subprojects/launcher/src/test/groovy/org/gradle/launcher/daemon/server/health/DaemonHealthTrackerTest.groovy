@@ -29,7 +29,8 @@ class DaemonHealthTrackerTest extends Specification {
     def stats = Mock(DaemonStats)
     def status = Mock(DaemonStatus)
     def logger = Mock(HealthLogger)
-    def tracker = new DaemonHealthTracker(stats, status, logger)
+    def memoryManager = Mock(DaemonMemoryManager)
+    def tracker = new DaemonHealthTracker(stats, status, logger, memoryManager)
 
     def "tracks start and complete events"() {
         when: tracker.execute(exec)
@@ -38,6 +39,7 @@ class DaemonHealthTrackerTest extends Specification {
         then: 1 * logger.logHealth(stats, _)
         then: 1 * exec.proceed()
         then: 1 * stats.buildFinished()
+        then: 1 * memoryManager.afterBuild()
     }
 
     def "does not track single use daemon"() {
@@ -66,4 +68,13 @@ class DaemonHealthTrackerTest extends Specification {
         then:
         0 * control.requestStop()
     }
+
+    def "stops after the build when releasing memory is not enough"() {
+        1 * memoryManager.afterBuild() >> true
+
+        when: tracker.execute(exec)
+
+        then:
+        1 * control.requestStop()
+    }
 }
@@ -0,0 +1,143 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.launcher.daemon.server.health
+
+import org.gradle.api.internal.changedetection.state.InMemoryTaskArtifactCache
+import org.gradle.api.internal.initialization.loadercache.ClassLoaderCache
+import org.gradle.internal.concurrent.Stoppable
+import spock.lang.Specification
+
+class DaemonMemoryManagerTest extends Specification {
+
+    def memory = Mock(MemoryInfo)
+    def taskArtifactCache = Mock(InMemoryTaskArtifactCache)
+    def classLoaderCache = Mock(ClassLoaderCache)
+    Runnable thresholdListener
+
+    private DaemonMemoryManager manager(int trimAt = 75, int restartAt = 90) {
+        new DaemonMemoryManager(memory, taskArtifactCache, classLoaderCache, trimAt, restartAt)
+    }
+
+    def "listens for collections that exceed the trim threshold"() {
+        when:
+        manager()
+
+        then:
+        1 * memory.onTenuredUsedAfterCollectionExceeds(75, _)
+    }
+
+    def "does nothing while the tenured heap is below the threshold"() {
+        def manager = manager()
+        memory.getTenuredUsedAfterCollection() >> 50
+
+        when:
+        def stop = manager.afterBuild()
+
+        then:
+        !stop
+        0 * taskArtifactCache._
+        0 * classLoaderCache._
+        0 * memory.collectGarbage()
+    }
+
+    def "releases caches when the tenured heap is above the threshold"() {
+        def manager = manager()
+
+        when:
+        def stop = manager.afterBuild()
+
+        then:
+        1 * memory.getTenuredUsedAfterCollection() >> 80
+
+        then:
+        1 * taskArtifactCache.clear()
+        1 * classLoaderCache.clear()
+
+        then:
+        1 * memory.collectGarbage()
+
+        then:
+        1 * memory.getTenuredUsedAfterCollection() >> 40
+        !stop
+    }
+
+    def "releases caches when notified that a collection exceeded the threshold"() {
+        memory.onTenuredUsedAfterCollectionExceeds(75, _) >> { thresholdListener = it[1] }
+        def manager = manager()
+        memory.getTenuredUsedAfterCollection() >> 60
+
+        when:
+        thresholdListener.run()
+        def stop = manager.afterBuild()
+
+        then:
+        1 * taskArtifactCache.clear()
+        1 * classLoaderCache.clear()
+        !stop
+    }
+
+    def "requests stop when releasing caches is not enough"() {
+        def manager = manager()
+        memory.getTenuredUsedAfterCollection() >>> [95, 92]
+
+        expect:
+        manager.afterBuild()
+    }
+
+    def "does not request stop when restart is disabled"() {
+        def manager = manager(75, 0)
+        memory.getTenuredUsedAfterCollection() >> 95
+
+        expect:
+        !manager.afterBuild()
+    }
+
+    def "does nothing when disabled"() {
+        memory.getTenuredUsedAfterCollection() >> 95
+
+        when:
+        def stop = manager(0, 90).afterBuild()
+
+        then:
+        !stop
+        0 * memory.onTenuredUsedAfterCollectionExceeds(_, _)
+        0 * taskArtifactCache._
+        0 * classLoaderCache._
+    }
+
+    def "is off unless the trim threshold is configured"() {
+        when:
+        new DaemonMemoryManager(memory, taskArtifactCache, classLoaderCache)
+
+        then:
+        0 * memory.onTenuredUsedAfterCollectionExceeds(_, _)
+    }
+
+    def "stops listening for collections when stopped"() {
+        def listener = Mock(Stoppable)
+        memory.onTenuredUsedAfterCollectionExceeds(75, _) >> listener
+        def manager = manager()
+
+        when:
+        manager.stop()
+        manager.stop()
+
+        then:
+        1 * listener.stop()
+    }
+}
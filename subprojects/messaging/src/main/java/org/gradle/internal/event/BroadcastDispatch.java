@@ -17,6 +17,7 @@
 package org.gradle.internal.event;
 
 import org.gradle.api.Action;
+import org.gradle.internal.Cast;
 import org.gradle.internal.UncheckedException;
 import org.gradle.messaging.dispatch.Dispatch;
 import org.gradle.messaging.dispatch.MethodInvocation;
@@ -29,8 +30,10 @@ import java.util.List;
 import java.util.Map;
 
 public class BroadcastDispatch<T> implements Dispatch<MethodInvocation> {
+    private static final Object[] NO_HANDLERS = new Object[0];
     private final Class<T> type;
     private final Map<Object, Dispatch<MethodInvocation>> handlers = new LinkedHashMap<Object, Dispatch<MethodInvocation>>();
+    private volatile Object[] handlerSnapshot = NO_HANDLERS;
 
     public BroadcastDispatch(Class<T> type) {
         this.type = type;
@@ -46,15 +49,18 @@ public class BroadcastDispatch<T> implements Dispatch<MethodInvocation> {
 
     public void add(Dispatch<MethodInvocation> dispatch) {
         handlers.put(dispatch, dispatch);
+        handlersChanged();
     }
 
     public void add(T listener) {
-        handlers.put(listener, new ReflectionDispatch(listener));
+        handlers.put(listener, new ListenerDispatch(listener));
+        handlersChanged();
     }
 
     public void add(String methodName, Action<?> action) {
         assertIsMethod(methodName);
         handlers.put(action, new ActionInvocationHandler(methodName, action));
+        handlersChanged();
     }
 
     private void assertIsMethod(String methodName) {
@@ -69,10 +75,17 @@ public class BroadcastDispatch<T> implements Dispatch<MethodInvocation> {
 
     public void remove(Object listener) {
         handlers.remove(listener);
+        handlersChanged();
     }
 
     public void removeAll() {
         handlers.clear();
+        handlersChanged();
+    }
+
+    private void handlersChanged() {
+        // Notifications iterate over a snapshot, so that a handler can add or remove handlers while it is being notified
+        handlerSnapshot = handlers.isEmpty() ? NO_HANDLERS : handlers.values().toArray();
     }
 
     private String getErrorMessage() {
@@ -81,21 +94,61 @@ public class BroadcastDispatch<T> implements Dispatch<MethodInvocation> {
     }
 
     public void dispatch(MethodInvocation invocation) {
-        List<Throwable> failures = new ArrayList<Throwable>();
-        for (Dispatch<MethodInvocation> handler : new ArrayList<Dispatch<MethodInvocation>>(handlers.values())) {
+        List<Throwable> failures = null;
+        for (Object handler : handlerSnapshot) {
             try {
-                handler.dispatch(invocation);
-            } catch (UncheckedException e) {
-                failures.add(e.getCause());
+                Dispatch<MethodInvocation> dispatch = Cast.uncheckedCast(handler);
+                dispatch.dispatch(invocation);
             } catch (Throwable t) {
-                failures.add(t);
+                failures = failed(failures, t);
             }
         }
+        if (failures != null) {
+            rethrow(failures);
+        }
+    }
+
+    // The following methods are called by the broadcast classes generated by ListenerBroadcastClassGenerator
+
+    /**
+     * Returns the handlers to notify of an event, in the order they were added.
+     */
+    public Object[] getHandlers() {
+        return handlerSnapshot;
+    }
+
+    /**
+     * Returns the listener that the given handler delivers events to, or null when the handler does not wrap a listener
+     * and so must be notified using {@link #dispatch(Object, Method, Object[])}.
+     */
+    public Object getListener(Object handler) {
+        return handler instanceof ListenerDispatch ? ((ListenerDispatch) handler).listener : null;
+    }
+
+    public void dispatch(Object handler, Method method, Object[] arguments) {
+        Dispatch<MethodInvocation> dispatch = Cast.uncheckedCast(handler);
+        dispatch.dispatch(new MethodInvocation(method, arguments));
+    }
+
+    public List<Throwable> failed(List<Throwable> failures, Throwable failure) {
+        List<Throwable> result = failures == null ? new ArrayList<Throwable>() : failures;
+        result.add(failure instanceof UncheckedException ? failure.getCause() : failure);
+        return result;
+    }
+
+    public void rethrow(List<Throwable> failures) {
         if (failures.size() == 1 && failures.get(0) instanceof RuntimeException) {
             throw (RuntimeException) failures.get(0);
         }
-        if (!failures.isEmpty()) {
-            throw new ListenerNotificationException(getErrorMessage(), failures);
+        throw new ListenerNotificationException(getErrorMessage(), failures);
+    }
+
+    private static class ListenerDispatch extends ReflectionDispatch {
+        private final Object listener;
+
+        public ListenerDispatch(Object listener) {
+            super(listener);
+            this.listener = listener;
         }
     }
 
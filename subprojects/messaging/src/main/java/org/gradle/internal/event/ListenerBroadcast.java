@@ -31,14 +31,15 @@ import org.gradle.messaging.dispatch.ProxyDispatchAdapter;
  * @param <T> The listener type.
  */
 public class ListenerBroadcast<T> implements Dispatch<MethodInvocation> {
-    private final ProxyDispatchAdapter<T> source;
+    private final T source;
     private final BroadcastDispatch<T> broadcast;
     private final Class<T> type;
 
     public ListenerBroadcast(Class<T> type) {
         this.type = type;
         broadcast = new BroadcastDispatch<T>(type);
-        source = new ProxyDispatchAdapter<T>(broadcast, type);
+        T generatedSource = ListenerBroadcastClassGenerator.createSource(type, broadcast);
+        source = generatedSource != null ? generatedSource : new ProxyDispatchAdapter<T>(broadcast, type).getSource();
     }
 
     /**
@@ -47,7 +48,7 @@ public class ListenerBroadcast<T> implements Dispatch<MethodInvocation> {
      * @return The broadcaster.
      */
     public T getSource() {
-        return source.getSource();
+        return source;
     }
 
     /**
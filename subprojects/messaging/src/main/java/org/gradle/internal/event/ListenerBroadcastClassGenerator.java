@@ -0,0 +1,365 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.internal.event;
+
+import org.gradle.internal.reflect.JavaMethod;
+import org.gradle.internal.reflect.JavaReflectionUtil;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.Label;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.Type;
+
+import java.lang.ref.Reference;
+import java.lang.ref.WeakReference;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+
+/**
+ * Generates the source object of a {@link ListenerBroadcast}. The generated class implements the listener type and notifies each listener
+ * added to a {@link BroadcastDispatch} by calling the listener method directly, rather than reflectively through a
+ * {@link org.gradle.messaging.dispatch.MethodInvocation}. Only the handlers that are not listeners, such as a {@link org.gradle.messaging.dispatch.Dispatch}
+ * or an {@link org.gradle.api.Action}, receive a {@code MethodInvocation}.
+ *
+ * <p>A class is generated once per listener type, into the class loader of that type.</p>
+ */
+class ListenerBroadcastClassGenerator {
+    private static final String BROADCAST_FIELD_NAME = "broadcast";
+    private static final String METHODS_FIELD_NAME = "methods";
+    private static final String CONCRETE_SIGNATURE = null;
+    private static final String[] NO_EXCEPTIONS = new String[0];
+    private static final String OBJECT_TYPE = Type.getInternalName(Object.class);
+    private static final String LIST_TYPE = Type.getInternalName(List.class);
+    private static final Type BROADCAST_TYPE = Type.getType(BroadcastDispatch.class);
+    private static final Type METHOD_ARRAY_TYPE = Type.getType(Method[].class);
+    private static final String CONSTRUCTOR_DESCRIPTOR = Type.getMethodDescriptor(Type.VOID_TYPE, BROADCAST_TYPE, METHOD_ARRAY_TYPE);
+    private static final String GET_HANDLERS_DESCRIPTOR = Type.getMethodDescriptor(Type.getType(Object[].class));
+    private static final String GET_LISTENER_DESCRIPTOR = Type.getMethodDescriptor(Type.getType(Object.class), Type.getType(Object.class));
+    private static final String DISPATCH_DESCRIPTOR = Type.getMethodDescriptor(Type.VOID_TYPE, Type.getType(Object.class), Type.getType(Method.class), Type.getType(Object[].class));
+    private static final String FAILED_DESCRIPTOR = Type.getMethodDescriptor(Type.getType(List.class), Type.getType(List.class), Type.getType(Throwable.class));
+    private static final String RETHROW_DESCRIPTOR = Type.getMethodDescriptor(Type.VOID_TYPE, Type.getType(List.class));
+    private static final String TO_STRING_DESCRIPTOR = Type.getMethodDescriptor(Type.getType(String.class));
+
+    private static final Map<Class<?>, Reference<Class<?>>> GENERATED_CLASSES = new WeakHashMap<Class<?>, Reference<Class<?>>>();
+    private static final Reference<Class<?>> NOT_GENERATED = new WeakReference<Class<?>>(null);
+    private static JavaMethod<ClassLoader, Class> defineClassMethod;
+
+    /**
+     * Creates a source object for the given broadcast, or returns null when no broadcast class can be generated for the listener type.
+     */
+    public static <T> T createSource(Class<T> type, BroadcastDispatch<T> broadcast) {
+        List<Method> methods = getListenerMethods(type);
+        if (methods == null) {
+            return null;
+        }
+        Class<?> generatedClass = getGeneratedClass(type, methods);
+        if (generatedClass == null) {
+            return null;
+        }
+        try {
+            return type.cast(generatedClass.getConstructor(BroadcastDispatch.class, Method[].class).newInstance(broadcast, methods.toArray(new Method[methods.size()])));
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    private static synchronized Class<?> getGeneratedClass(Class<?> type, List<Method> methods) {
+        Reference<Class<?>> reference = GENERATED_CLASSES.get(type);
+        if (reference == NOT_GENERATED) {
+            return null;
+        }
+        Class<?> generatedClass = reference == null ? null : reference.get();
+        if (generatedClass == null) {
+            try {
+                generatedClass = generate(type, methods);
+                reference = new WeakReference<Class<?>>(generatedClass);
+            } catch (RuntimeException e) {
+                reference = NOT_GENERATED;
+            } catch (LinkageError e) {
+                reference = NOT_GENERATED;
+            }
+            GENERATED_CLASSES.put(type, reference);
+        }
+        return reference.get();
+    }
+
+    /**
+     * Returns the methods to generate, in a stable order, or null when the listener type cannot be implemented by a generated class.
+     */
+    private static List<Method> getListenerMethods(Class<?> type) {
+        if (!type.isInterface() || !canLoadBroadcastClasses(type.getClassLoader())) {
+            return null;
+        }
+        List<Method> methods = new ArrayList<Method>();
+        Set<String> signatures = new HashSet<String>();
+        for (Method method : type.getMethods()) {
+            if (isObjectMethod(method) || !signatures.add(method.getName() + Type.getMethodDescriptor(method))) {
+                continue;
+            }
+            if (method.getReturnType() != Void.TYPE) {
+                return null;
+            }
+            methods.add(method);
+        }
+        return methods;
+    }
+
+    private static boolean isObjectMethod(Method method) {
+        try {
+            Object.class.getMethod(method.getName(), method.getParameterTypes());
+            return true;
+        } catch (NoSuchMethodException e) {
+            return false;
+        }
+    }
+
+    private static boolean canLoadBroadcastClasses(ClassLoader classLoader) {
+        // The generated class is defined in the class loader of the listener type, and must see the same BroadcastDispatch class as this class does
+        if (classLoader == null) {
+            return false;
+        }
+        try {
+            return classLoader.loadClass(BroadcastDispatch.class.getName()) == BroadcastDispatch.class;
+        } catch (ClassNotFoundException e) {
+            return false;
+        }
+    }
+
+    private static Class<?> generate(Class<?> type, List<Method> methods) {
+        String typeName = Type.getInternalName(type);
+        Type generatedType = Type.getObjectType(typeName + "_Broadcast");
+        ClassWriter visitor = new ClassWriter(ClassWriter.COMPUTE_MAXS);
+        visitor.visit(Opcodes.V1_5, Opcodes.ACC_PUBLIC | Opcodes.ACC_FINAL | Opcodes.ACC_SYNTHETIC, generatedType.getInternalName(), null, OBJECT_TYPE, new String[]{typeName});
+        visitor.visitField(Opcodes.ACC_PRIVATE | Opcodes.ACC_FINAL, BROADCAST_FIELD_NAME, BROADCAST_TYPE.getDescriptor(), null, null);
+        visitor.visitField(Opcodes.ACC_PRIVATE | Opcodes.ACC_FINAL, METHODS_FIELD_NAME, METHOD_ARRAY_TYPE.getDescriptor(), null, null);
+        writeConstructor(visitor, generatedType);
+        writeToString(visitor, String.format("%s broadcast", type.getSimpleName()));
+        for (int i = 0; i < methods.size(); i++) {
+            writeListenerMethod(visitor, generatedType, typeName, methods.get(i), i);
+        }
+        visitor.visitEnd();
+
+        byte[] bytecode = visitor.toByteArray();
+        return getDefineClassMethod().invoke(type.getClassLoader(), generatedType.getClassName(), bytecode, 0, bytecode.length);
+    }
+
+    private static JavaMethod<ClassLoader, Class> getDefineClassMethod() {
+        if (defineClassMethod == null) {
+            defineClassMethod = JavaReflectionUtil.method(ClassLoader.class, Class.class, "defineClass", String.class, byte[].class, Integer.TYPE, Integer.TYPE);
+        }
+        return defineClassMethod;
+    }
+
+    private static void writeConstructor(ClassWriter visitor, Type generatedType) {
+        MethodVisitor methodVisitor = visitor.visitMethod(Opcodes.ACC_PUBLIC, "<init>", CONSTRUCTOR_DESCRIPTOR, CONCRETE_SIGNATURE, NO_EXCEPTIONS);
+        methodVisitor.visitCode();
+        methodVisitor.visitVarInsn(Opcodes.ALOAD, 0);
+        methodVisitor.visitMethodInsn(Opcodes.INVOKESPECIAL, OBJECT_TYPE, "<init>", Type.getMethodDescriptor(Type.VOID_TYPE), false);
+        methodVisitor.visitVarInsn(Opcodes.ALOAD, 0);
+        methodVisitor.visitVarInsn(Opcodes.ALOAD, 1);
+        methodVisitor.visitFieldInsn(Opcodes.PUTFIELD, generatedType.getInternalName(), BROADCAST_FIELD_NAME, BROADCAST_TYPE.getDescriptor());
+        methodVisitor.visitVarInsn(Opcodes.ALOAD, 0);
+        methodVisitor.visitVarInsn(Opcodes.ALOAD, 2);
+        methodVisitor.visitFieldInsn(Opcodes.PUTFIELD, generatedType.getInternalName(), METHODS_FIELD_NAME, METHOD_ARRAY_TYPE.getDescriptor());
+        methodVisitor.visitInsn(Opcodes.RETURN);
+        methodVisitor.visitMaxs(0, 0);
+        methodVisitor.visitEnd();
+    }
+
+    private static void writeToString(ClassWriter visitor, String displayName) {
+        MethodVisitor methodVisitor = visitor.visitMethod(Opcodes.ACC_PUBLIC, "toString", TO_STRING_DESCRIPTOR, CONCRETE_SIGNATURE, NO_EXCEPTIONS);
+        methodVisitor.visitCode();
+        methodVisitor.visitLdcInsn(displayName);
+        methodVisitor.visitInsn(Opcodes.ARETURN);
+        methodVisitor.visitMaxs(0, 0);
+        methodVisitor.visitEnd();
+    }
+
+    /**
+     * Generates the equivalent of:
+     * <pre>
+     * Object[] handlers = broadcast.getHandlers();
+     * List failures = null;
+     * for (int i = 0; i &lt; handlers.length; i++) {
+     *     Object handler = handlers[i];
+     *     try {
+     *         Object listener = broadcast.getListener(handler);
+     *         if (listener != null) {
+     *             ((Type) listener).method(params);
+     *         } else {
+     *             broadcast.dispatch(handler, methods[index], new Object[] {params});
+     *         }
+     *     } catch (Throwable t) {
+     *         failures = broadcast.failed(failures, t);
+     *     }
+     * }
+     * if (failures != null) {
+     *     broadcast.rethrow(failures);
+     * }
+     * </pre>
+     */
+    private static void writeListenerMethod(ClassWriter visitor, Type generatedType, String typeName, Method method, int index) {
+        String methodDescriptor = Type.getMethodDescriptor(method);
+        Type[] parameterTypes = Type.getArgumentTypes(method);
+        MethodVisitor methodVisitor = visitor.visitMethod(Opcodes.ACC_PUBLIC, method.getName(), methodDescriptor, CONCRETE_SIGNATURE, NO_EXCEPTIONS);
+        methodVisitor.visitCode();
+
+        int handlersVar = Type.getArgumentsAndReturnSizes(methodDescriptor) >> 2;
+        int failuresVar = handlersVar + 1;
+        int indexVar = handlersVar + 2;
+        int handlerVar = handlersVar + 3;
+        int listenerVar = handlersVar + 4;
+        int failureVar = handlersVar + 5;
+
+        Label loopStart = new Label();
+        Label loopEnd = new Label();
+        Label tryStart = new Label();
+        Label tryEnd = new Label();
+        Label catchHandler = new Label();
+        Label notListener = new Label();
+        Label next = new Label();
+        Label done = new Label();
+        methodVisitor.visitTryCatchBlock(tryStart, tryEnd, catchHandler, Type.getInternalName(Throwable.class));
+
+        putBroadcastOnStack(methodVisitor, generatedType);
+        methodVisitor.visitMethodInsn(Opcodes.INVOKEVIRTUAL, BROADCAST_TYPE.getInternalName(), "getHandlers", GET_HANDLERS_DESCRIPTOR, false);
+        methodVisitor.visitVarInsn(Opcodes.ASTORE, handlersVar);
+        methodVisitor.visitInsn(Opcodes.ACONST_NULL);
+        methodVisitor.visitVarInsn(Opcodes.ASTORE, failuresVar);
+        methodVisitor.visitInsn(Opcodes.ICONST_0);
+        methodVisitor.visitVarInsn(Opcodes.ISTORE, indexVar);
+
+        methodVisitor.visitLabel(loopStart);
+        methodVisitor.visitVarInsn(Opcodes.ILOAD, indexVar);
+        methodVisitor.visitVarInsn(Opcodes.ALOAD, handlersVar);
+        methodVisitor.visitInsn(Opcodes.ARRAYLENGTH);
+        methodVisitor.visitJumpInsn(Opcodes.IF_ICMPGE, loopEnd);
+        methodVisitor.visitVarInsn(Opcodes.ALOAD, handlersVar);
+        methodVisitor.visitVarInsn(Opcodes.ILOAD, indexVar);
+        methodVisitor.visitInsn(Opcodes.AALOAD);
+        methodVisitor.visitVarInsn(Opcodes.ASTORE, handlerVar);
+
+        methodVisitor.visitLabel(tryStart);
+        putBroadcastOnStack(methodVisitor, generatedType);
+        methodVisitor.visitVarInsn(Opcodes.ALOAD, handlerVar);
+        methodVisitor.visitMethodInsn(Opcodes.INVOKEVIRTUAL, BROADCAST_TYPE.getInternalName(), "getListener", GET_LISTENER_DESCRIPTOR, false);
+        methodVisitor.visitVarInsn(Opcodes.ASTORE, listenerVar);
+        methodVisitor.visitVarInsn(Opcodes.ALOAD, listenerVar);
+        methodVisitor.visitJumpInsn(Opcodes.IFNULL, notListener);
+
+        // Call the listener directly
+        methodVisitor.visitVarInsn(Opcodes.ALOAD, listenerVar);
+        methodVisitor.visitTypeInsn(Opcodes.CHECKCAST, typeName);
+        int var = 1;
+        for (Type parameterType : parameterTypes) {
+            methodVisitor.visitVarInsn(parameterType.getOpcode(Opcodes.ILOAD), var);
+            var += parameterType.getSize();
+        }
+        methodVisitor.visitMethodInsn(Opcodes.INVOKEINTERFACE, typeName, method.getName(), methodDescriptor, true);
+        methodVisitor.visitJumpInsn(Opcodes.GOTO, tryEnd);
+
+        // Some other kind of handler, which receives a MethodInvocation
+        methodVisitor.visitLabel(notListener);
+        putBroadcastOnStack(methodVisitor, generatedType);
+        methodVisitor.visitVarInsn(Opcodes.ALOAD, handlerVar);
+        methodVisitor.visitVarInsn(Opcodes.ALOAD, 0);
+        methodVisitor.visitFieldInsn(Opcodes.GETFIELD, generatedType.getInternalName(), METHODS_FIELD_NAME, METHOD_ARRAY_TYPE.getDescriptor());
+        methodVisitor.visitLdcInsn(index);
+        methodVisitor.visitInsn(Opcodes.AALOAD);
+        methodVisitor.visitLdcInsn(parameterTypes.length);
+        methodVisitor.visitTypeInsn(Opcodes.ANEWARRAY, OBJECT_TYPE);
+        var = 1;
+        for (int i = 0; i < parameterTypes.length; i++) {
+            methodVisitor.visitInsn(Opcodes.DUP);
+            methodVisitor.visitLdcInsn(i);
+            methodVisitor.visitVarInsn(parameterTypes[i].getOpcode(Opcodes.ILOAD), var);
+            box(methodVisitor, parameterTypes[i]);
+            methodVisitor.visitInsn(Opcodes.AASTORE);
+            var += parameterTypes[i].getSize();
+        }
+        methodVisitor.visitMethodInsn(Opcodes.INVOKEVIRTUAL, BROADCAST_TYPE.getInternalName(), "dispatch", DISPATCH_DESCRIPTOR, false);
+        methodVisitor.visitLabel(tryEnd);
+        methodVisitor.visitJumpInsn(Opcodes.GOTO, next);
+
+        methodVisitor.visitLabel(catchHandler);
+        methodVisitor.visitVarInsn(Opcodes.ASTORE, failureVar);
+        putBroadcastOnStack(methodVisitor, generatedType);
+        methodVisitor.visitVarInsn(Opcodes.ALOAD, failuresVar);
+        methodVisitor.visitVarInsn(Opcodes.ALOAD, failureVar);
+        methodVisitor.visitMethodInsn(Opcodes.INVOKEVIRTUAL, BROADCAST_TYPE.getInternalName(), "failed", FAILED_DESCRIPTOR, false);
+        methodVisitor.visitVarInsn(Opcodes.ASTORE, failuresVar);
+
+        methodVisitor.visitLabel(next);
+        methodVisitor.visitIincInsn(indexVar, 1);
+        methodVisitor.visitJumpInsn(Opcodes.GOTO, loopStart);
+
+        methodVisitor.visitLabel(loopEnd);
+        methodVisitor.visitVarInsn(Opcodes.ALOAD, failuresVar);
+        methodVisitor.visitJumpInsn(Opcodes.IFNULL, done);
+        putBroadcastOnStack(methodVisitor, generatedType);
+        methodVisitor.visitVarInsn(Opcodes.ALOAD, failuresVar);
+        methodVisitor.visitTypeInsn(Opcodes.CHECKCAST, LIST_TYPE);
+        methodVisitor.visitMethodInsn(Opcodes.INVOKEVIRTUAL, BROADCAST_TYPE.getInternalName(), "rethrow", RETHROW_DESCRIPTOR, false);
+        methodVisitor.visitLabel(done);
+        methodVisitor.visitInsn(Opcodes.RETURN);
+        methodVisitor.visitMaxs(0, 0);
+        methodVisitor.visitEnd();
+    }
+
+    private static void putBroadcastOnStack(MethodVisitor methodVisitor, Type generatedType) {
+        methodVisitor.visitVarInsn(Opcodes.ALOAD, 0);
+        methodVisitor.visitFieldInsn(Opcodes.GETFIELD, generatedType.getInternalName(), BROADCAST_FIELD_NAME, BROADCAST_TYPE.getDescriptor());
+    }
+
+    private static void box(MethodVisitor methodVisitor, Type type) {
+        Class<?> boxedType;
+        switch (type.getSort()) {
+            case Type.BOOLEAN:
+                boxedType = Boolean.class;
+                break;
+            case Type.CHAR:
+                boxedType = Character.class;
+                break;
+            case Type.BYTE:
+                boxedType = Byte.class;
+                break;
+            case Type.SHORT:
+                boxedType = Short.class;
+                break;
+            case Type.INT:
+                boxedType = Integer.class;
+                break;
+            case Type.LONG:
+                boxedType = Long.class;
+                break;
+            case Type.FLOAT:
+                boxedType = Float.class;
+                break;
+            case Type.DOUBLE:
+                boxedType = Double.class;
+                break;
+            default:
+                return;
+        }
+        methodVisitor.visitMethodInsn(Opcodes.INVOKESTATIC, Type.getInternalName(boxedType), "valueOf", Type.getMethodDescriptor(Type.getType(boxedType), type), false);
+    }
+}
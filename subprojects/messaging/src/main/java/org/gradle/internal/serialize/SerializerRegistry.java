@@ -20,4 +20,9 @@ public interface SerializerRegistry<T> {
     <U extends T> void register(Class<U> implementationType, Serializer<U> serializer);
 
     Serializer<T> build();
+
+    /**
+     * Returns true when the serializer returned by {@link #build()} can serialize values of the given type.
+     */
+    boolean canSerialize(Class<?> type);
 }
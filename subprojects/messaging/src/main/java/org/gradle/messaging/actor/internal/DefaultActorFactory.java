@@ -24,22 +24,47 @@ import org.gradle.internal.concurrent.ThreadSafe;
 import org.gradle.messaging.actor.Actor;
 import org.gradle.messaging.actor.ActorFactory;
 import org.gradle.messaging.dispatch.*;
+import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.IdentityHashMap;
+import java.util.LinkedList;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * A basic {@link ActorFactory} implementation. Currently cannot support creating both a blocking and non-blocking actor for the same target object.
+ *
+ * <p>By default, each non-blocking actor has a thread of its own. When created with a pool size, non-blocking actors are instead mailboxes whose
+ * messages are delivered by a shared pool of threads, one message at a time and in the order they were dispatched.</p>
  */
 public class DefaultActorFactory implements ActorFactory, Stoppable {
-    private final Map<Object, NonBlockingActor> nonBlockingActors = new IdentityHashMap<Object, NonBlockingActor>();
+    /**
+     * Enables the use of a shared pool of threads for the non-blocking actors of a build.
+     */
+    public static final String POOLED_ACTORS_TOGGLE = "org.gradle.actors.pooled";
+    private static final Logger LOGGER = LoggerFactory.getLogger(DefaultActorFactory.class);
+    private final Map<Object, Actor> nonBlockingActors = new IdentityHashMap<Object, Actor>();
     private final Map<Object, BlockingActor> blockingActors = new IdentityHashMap<Object, BlockingActor>();
     private final Object lock = new Object();
     private final ExecutorFactory executorFactory;
+    private final int poolSize;
+    private final MailboxStatistics statistics = new MailboxStatistics();
+    private StoppableExecutor pool;
 
     public DefaultActorFactory(ExecutorFactory executorFactory) {
+        this(executorFactory, 0);
+    }
+
+    /**
+     * @param poolSize the number of threads shared by the non-blocking actors, or 0 to use a thread per actor.
+     */
+    public DefaultActorFactory(ExecutorFactory executorFactory, int poolSize) {
         this.executorFactory = executorFactory;
+        this.poolSize = poolSize;
     }
 
     /**
@@ -48,24 +73,28 @@ public class DefaultActorFactory implements ActorFactory, Stoppable {
     public void stop() {
         synchronized (lock) {
             try {
-                CompositeStoppable.stoppable(nonBlockingActors.values()).add(blockingActors.values()).stop();
+                CompositeStoppable.stoppable(nonBlockingActors.values()).add(blockingActors.values()).add(pool).stop();
             } finally {
                 nonBlockingActors.clear();
+                if (pool != null) {
+                    pool = null;
+                    statistics.report();
+                }
             }
         }
     }
 
     public Actor createActor(Object target) {
-        if (target instanceof NonBlockingActor) {
-            return (NonBlockingActor) target;
+        if (target instanceof NonBlockingActor || target instanceof PooledActor) {
+            return (Actor) target;
         }
         synchronized (lock) {
             if (blockingActors.containsKey(target)) {
                 throw new UnsupportedOperationException("Cannot create a non-blocking and blocking actor for the same object. This is not implemented yet.");
             }
-            NonBlockingActor actor = nonBlockingActors.get(target);
+            Actor actor = nonBlockingActors.get(target);
             if (actor == null) {
-                actor = new NonBlockingActor(target);
+                actor = poolSize > 0 ? new PooledActor(target) : new NonBlockingActor(target);
                 nonBlockingActors.put(target, actor);
             }
             return actor;
@@ -86,7 +115,16 @@ public class DefaultActorFactory implements ActorFactory, Stoppable {
         }
     }
 
-    private void stopped(NonBlockingActor actor) {
+    private StoppableExecutor getPool() {
+        synchronized (lock) {
+            if (pool == null) {
+                pool = executorFactory.create("Actor dispatch", poolSize);
+            }
+            return pool;
+        }
+    }
+
+    private void stopped(Actor actor) {
         synchronized (lock) {
             nonBlockingActors.values().remove(actor);
         }
@@ -158,4 +196,121 @@ public class DefaultActorFactory implements ActorFactory, Stoppable {
             dispatch.dispatch(message);
         }
     }
+
+    private class PooledActor implements Actor, Runnable {
+        // The number of messages delivered before the thread is handed to the next actor in the pool's queue
+        private static final int MAX_BATCH_SIZE = 100;
+        private final Dispatch<MethodInvocation> dispatch;
+        private final ExceptionTrackingFailureHandler failureHandler;
+        private final Lock lock = new ReentrantLock();
+        private final Condition idle = lock.newCondition();
+        private final LinkedList<QueuedMessage> mailbox = new LinkedList<QueuedMessage>();
+        private final StoppableExecutor pool;
+        private boolean scheduled;
+        private boolean stopped;
+
+        public PooledActor(Object targetObject) {
+            pool = getPool();
+            failureHandler = new ExceptionTrackingFailureHandler(LoggerFactory.getLogger(PooledActor.class));
+            dispatch = new FailureHandlingDispatch<MethodInvocation>(new ReflectionDispatch(targetObject), failureHandler);
+        }
+
+        public <T> T getProxy(Class<T> type) {
+            return new ProxyDispatchAdapter<T>(this, type, ThreadSafe.class).getSource();
+        }
+
+        public void dispatch(MethodInvocation message) {
+            lock.lock();
+            try {
+                if (stopped) {
+                    throw new IllegalStateException("Cannot dispatch message, as this message dispatch has been stopped. Message: " + message);
+                }
+                mailbox.add(new QueuedMessage(message));
+                statistics.queued(mailbox.size());
+                if (!scheduled) {
+                    scheduled = true;
+                    pool.execute(this);
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        public void run() {
+            for (int i = 0; i < MAX_BATCH_SIZE; i++) {
+                QueuedMessage message;
+                lock.lock();
+                try {
+                    message = mailbox.poll();
+                    if (message == null) {
+                        scheduled = false;
+                        idle.signalAll();
+                        return;
+                    }
+                } finally {
+                    lock.unlock();
+                }
+                statistics.dispatched(System.nanoTime() - message.queuedAt);
+                dispatch.dispatch(message.invocation);
+            }
+            pool.execute(this);
+        }
+
+        public void stop() {
+            lock.lock();
+            try {
+                stopped = true;
+                while (scheduled) {
+                    idle.awaitUninterruptibly();
+                }
+            } finally {
+                lock.unlock();
+            }
+            try {
+                failureHandler.stop();
+            } finally {
+                stopped(this);
+            }
+        }
+    }
+
+    private static class QueuedMessage {
+        final MethodInvocation invocation;
+        final long queuedAt = System.nanoTime();
+
+        private QueuedMessage(MethodInvocation invocation) {
+            this.invocation = invocation;
+        }
+    }
+
+    /**
+     * Mailbox depth and dispatch latency of the pooled actors, reported at debug level when the factory is stopped.
+     */
+    private static class MailboxStatistics {
+        private long messages;
+        private int maxDepth;
+        private long totalLatency;
+        private long maxLatency;
+
+        synchronized void queued(int depth) {
+            maxDepth = Math.max(maxDepth, depth);
+        }
+
+        synchronized void dispatched(long latencyNanos) {
+            messages++;
+            totalLatency += latencyNanos;
+            maxLatency = Math.max(maxLatency, latencyNanos);
+        }
+
+        synchronized void report() {
+            if (messages > 0) {
+                LOGGER.debug("Pooled actors dispatched {} messages. Max mailbox depth: {}, average dispatch latency: {}us, max dispatch latency: {}us.",
+                        new Object[]{messages, maxDepth, TimeUnit.NANOSECONDS.toMicros(totalLatency / messages), TimeUnit.NANOSECONDS.toMicros(maxLatency)});
+            }
+            messages = 0;
+            maxDepth = 0;
+            totalLatency = 0;
+            maxLatency = 0;
+        }
+    }
 }
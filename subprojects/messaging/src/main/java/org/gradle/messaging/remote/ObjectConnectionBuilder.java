@@ -15,6 +15,7 @@
  */
 package org.gradle.messaging.remote;
 
+import org.gradle.internal.serialize.SerializerRegistry;
 import org.gradle.internal.serialize.kryo.StatefulSerializer;
 
 public interface ObjectConnectionBuilder {
@@ -45,6 +46,15 @@ public interface ObjectConnectionBuilder {
      */
     void useParameterSerializer(StatefulSerializer<Object[]> serializer);
 
+    /**
+     * Use the serializers of the specified registry for the parameters of incoming and outgoing method calls when every parameter is of a type
+     * known to the registry. The parameters of other method calls are serialized as specified by {@link #useParameterSerializer(StatefulSerializer)}
+     * or {@link #useDefaultSerialization(ClassLoader)}. Can be called multiple times.
+     *
+     * <p>Both ends of the connection must register the same serializers, in the same order.</p>
+     */
+    void useParameterSerializers(SerializerRegistry<Object> serializers);
+
     /**
      * Use Java serialization for the parameters of incoming and outgoing method calls, with the specified ClassLoader used to deserialize incoming
      * method parameters.
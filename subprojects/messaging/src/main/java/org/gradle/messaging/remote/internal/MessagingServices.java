@@ -15,12 +15,14 @@
  */
 package org.gradle.messaging.remote.internal;
 
+import org.gradle.api.Nullable;
 import org.gradle.internal.UncheckedException;
 import org.gradle.internal.concurrent.DefaultExecutorFactory;
 import org.gradle.internal.concurrent.ExecutorFactory;
 import org.gradle.internal.concurrent.Stoppable;
 import org.gradle.internal.id.IdGenerator;
 import org.gradle.internal.id.UUIDGenerator;
+import org.gradle.internal.os.OperatingSystem;
 import org.gradle.internal.service.DefaultServiceRegistry;
 import org.gradle.messaging.dispatch.DiscardingFailureHandler;
 import org.gradle.messaging.remote.MessagingClient;
@@ -30,8 +32,11 @@ import org.gradle.messaging.remote.internal.hub.MessageHubBackedServer;
 import org.gradle.messaging.remote.internal.inet.*;
 import org.gradle.messaging.remote.internal.protocol.DiscoveryMessage;
 import org.gradle.messaging.remote.internal.protocol.DiscoveryProtocolSerializer;
+import org.gradle.messaging.remote.internal.shm.SharedMemoryIncomingConnector;
+import org.gradle.messaging.remote.internal.shm.SharedMemoryOutgoingConnector;
 import org.slf4j.LoggerFactory;
 
+import java.io.File;
 import java.net.InetAddress;
 import java.net.UnknownHostException;
 import java.util.UUID;
@@ -56,19 +61,32 @@ public class MessagingServices extends DefaultServiceRegistry implements Stoppab
     private final ClassLoader messageClassLoader;
     private final String broadcastGroup;
     private final SocketInetAddress broadcastAddress;
+    private final File sharedMemoryDir;
 
     public MessagingServices(ClassLoader messageClassLoader) {
         this(messageClassLoader, "gradle");
     }
 
+    /**
+     * @param sharedMemoryDir the directory to create shared memory connection files in, or null to accept connections over TCP only
+     */
+    public MessagingServices(ClassLoader messageClassLoader, @Nullable File sharedMemoryDir) {
+        this(messageClassLoader, "gradle", defaultBroadcastAddress(), sharedMemoryDir);
+    }
+
     public MessagingServices(ClassLoader messageClassLoader, String broadcastGroup) {
         this(messageClassLoader, broadcastGroup, defaultBroadcastAddress());
     }
 
     public MessagingServices(ClassLoader messageClassLoader, String broadcastGroup, SocketInetAddress broadcastAddress) {
+        this(messageClassLoader, broadcastGroup, broadcastAddress, null);
+    }
+
+    private MessagingServices(ClassLoader messageClassLoader, String broadcastGroup, SocketInetAddress broadcastAddress, @Nullable File sharedMemoryDir) {
         this.messageClassLoader = messageClassLoader;
         this.broadcastGroup = broadcastGroup;
         this.broadcastAddress = broadcastAddress;
+        this.sharedMemoryDir = sharedMemoryDir;
     }
 
     private static SocketInetAddress defaultBroadcastAddress() {
@@ -97,16 +115,26 @@ public class MessagingServices extends DefaultServiceRegistry implements Stoppab
         return new InetAddressFactory();
     }
 
-    protected OutgoingConnector createOutgoingConnector() {
-        return new TcpOutgoingConnector();
+    protected SocketSelectorLoop createSocketSelectorLoop() {
+        return new SocketSelectorLoop();
     }
 
-    protected IncomingConnector createIncomingConnector(ExecutorFactory executorFactory, InetAddressFactory inetAddressFactory) {
-        return new TcpIncomingConnector(
+    protected OutgoingConnector createOutgoingConnector(SocketSelectorLoop selectorLoop) {
+        return new SharedMemoryOutgoingConnector(new TcpOutgoingConnector(selectorLoop));
+    }
+
+    protected IncomingConnector createIncomingConnector(ExecutorFactory executorFactory, InetAddressFactory inetAddressFactory, SocketSelectorLoop selectorLoop) {
+        IncomingConnector connector = new TcpIncomingConnector(
                 executorFactory,
                 inetAddressFactory,
-                idGenerator
+                idGenerator,
+                selectorLoop
         );
+        if (sharedMemoryDir != null && Boolean.getBoolean(SharedMemoryIncomingConnector.TOGGLE) && !OperatingSystem.current().isWindows()) {
+            // Shared memory files cannot be deleted on Windows while they are mapped
+            return new SharedMemoryIncomingConnector(connector, executorFactory, sharedMemoryDir, SharedMemoryIncomingConnector.DEFAULT_RING_CAPACITY);
+        }
+        return connector;
     }
 
     protected MessagingClient createMessagingClient(OutgoingConnector outgoingConnector, ExecutorFactory executorFactory) {
@@ -0,0 +1,108 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.messaging.remote.internal.hub;
+
+import org.gradle.internal.serialize.Decoder;
+import org.gradle.internal.serialize.Encoder;
+import org.gradle.internal.serialize.ObjectReader;
+import org.gradle.internal.serialize.ObjectWriter;
+import org.gradle.internal.serialize.Serializer;
+import org.gradle.internal.serialize.SerializerRegistry;
+import org.gradle.internal.serialize.kryo.StatefulSerializer;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Serializes the parameters of a method call using the serializers of the first registry that knows the types of all of the parameters, and
+ * using a fallback serializer, usually Java serialization, for method calls with parameters of any other type or null parameters.
+ */
+public class DefaultMethodArgsSerializer implements StatefulSerializer<Object[]> {
+    private static final int FALLBACK = 0;
+    private final List<SerializerRegistry<Object>> registries;
+    private final List<Serializer<Object>> serializers;
+    private final StatefulSerializer<Object[]> fallbackSerializer;
+
+    public DefaultMethodArgsSerializer(List<SerializerRegistry<Object>> registries, StatefulSerializer<Object[]> fallbackSerializer) {
+        this.registries = new ArrayList<SerializerRegistry<Object>>(registries);
+        this.fallbackSerializer = fallbackSerializer;
+        serializers = new ArrayList<Serializer<Object>>(registries.size());
+        for (SerializerRegistry<Object> registry : registries) {
+            serializers.add(registry.build());
+        }
+    }
+
+    public ObjectReader<Object[]> newReader(final Decoder decoder) {
+        final ObjectReader<Object[]> fallbackReader = fallbackSerializer.newReader(decoder);
+        return new ObjectReader<Object[]>() {
+            public Object[] read() throws Exception {
+                int tag = decoder.readSmallInt();
+                if (tag == FALLBACK) {
+                    return fallbackReader.read();
+                }
+                if (tag > serializers.size()) {
+                    throw new IllegalArgumentException(String.format("Unexpected parameter serializer %d found.", tag));
+                }
+                Serializer<Object> serializer = serializers.get(tag - 1);
+                Object[] params = new Object[decoder.readSmallInt()];
+                for (int i = 0; i < params.length; i++) {
+                    params[i] = serializer.read(decoder);
+                }
+                return params;
+            }
+        };
+    }
+
+    public ObjectWriter<Object[]> newWriter(final Encoder encoder) {
+        final ObjectWriter<Object[]> fallbackWriter = fallbackSerializer.newWriter(encoder);
+        return new ObjectWriter<Object[]>() {
+            public void write(Object[] params) throws Exception {
+                int index = findRegistry(params);
+                if (index < 0) {
+                    encoder.writeSmallInt(FALLBACK);
+                    fallbackWriter.write(params);
+                    return;
+                }
+                encoder.writeSmallInt(index + 1);
+                Serializer<Object> serializer = serializers.get(index);
+                encoder.writeSmallInt(params.length);
+                for (Object param : params) {
+                    serializer.write(encoder, param);
+                }
+            }
+        };
+    }
+
+    private int findRegistry(Object[] params) {
+        for (int i = 0; i < registries.size(); i++) {
+            if (canSerialize(registries.get(i), params)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static boolean canSerialize(SerializerRegistry<Object> registry, Object[] params) {
+        for (Object param : params) {
+            if (param == null || !registry.canSerialize(param.getClass())) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -28,12 +28,16 @@ import org.gradle.messaging.remote.internal.ConnectCompletion;
 import org.gradle.messaging.remote.internal.Connection;
 import org.gradle.messaging.remote.internal.MessageSerializer;
 import org.gradle.messaging.remote.internal.hub.protocol.InterHubMessage;
+import org.gradle.internal.serialize.SerializerRegistry;
 import org.gradle.internal.serialize.kryo.JavaSerializer;
 import org.gradle.internal.serialize.kryo.StatefulSerializer;
 import org.gradle.internal.serialize.kryo.TypeSafeSerializer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.ArrayList;
+import java.util.List;
+
 public class MessageHubBackedObjectConnection implements ObjectConnection {
     private static final Logger LOGGER = LoggerFactory.getLogger(MessageHubBackedObjectConnection.class);
     private final MessageHub hub;
@@ -41,6 +45,7 @@ public class MessageHubBackedObjectConnection implements ObjectConnection {
     private Connection<InterHubMessage> connection;
     private ClassLoader methodParamClassLoader;
     private StatefulSerializer<Object[]> paramSerializer;
+    private final List<SerializerRegistry<Object>> paramSerializers = new ArrayList<SerializerRegistry<Object>>();
 
     public MessageHubBackedObjectConnection(ExecutorFactory executorFactory, ConnectCompletion completion) {
         this.hub = new MessageHub(completion.toString(), executorFactory, new Action<Throwable>() {
@@ -74,6 +79,10 @@ public class MessageHubBackedObjectConnection implements ObjectConnection {
         this.paramSerializer = serializer;
     }
 
+    public void useParameterSerializers(SerializerRegistry<Object> serializers) {
+        paramSerializers.add(serializers);
+    }
+
     public void connect() {
         if (methodParamClassLoader == null) {
             methodParamClassLoader = getClass().getClassLoader();
@@ -83,6 +92,9 @@ public class MessageHubBackedObjectConnection implements ObjectConnection {
         if (paramSerializer == null) {
             paramSerializer = new JavaSerializer<Object[]>(methodParamClassLoader);
         }
+        if (!paramSerializers.isEmpty()) {
+            paramSerializer = new DefaultMethodArgsSerializer(paramSerializers, paramSerializer);
+        }
 
         MessageSerializer<InterHubMessage> serializer = new InterHubMessageSerializer(
                 new TypeSafeSerializer<MethodInvocation>(MethodInvocation.class, new MethodInvocationSerializer(
@@ -22,9 +22,11 @@ import java.nio.channels.SocketChannel;
 
 class SocketConnectCompletion implements ConnectCompletion {
     private final SocketChannel socket;
+    private final SocketSelectorLoop selectorLoop;
 
-    public SocketConnectCompletion(SocketChannel socket) {
+    public SocketConnectCompletion(SocketChannel socket, SocketSelectorLoop selectorLoop) {
         this.socket = socket;
+        this.selectorLoop = selectorLoop;
     }
 
     @Override
@@ -33,10 +35,10 @@ class SocketConnectCompletion implements ConnectCompletion {
     }
 
     public <T> RemoteConnection<T> create(ClassLoader messageClassLoader) {
-        return new SocketConnection<T>(socket, new DefaultMessageSerializer<T>(messageClassLoader));
+        return new SocketConnection<T>(socket, new DefaultMessageSerializer<T>(messageClassLoader), selectorLoop);
     }
 
     public <T> RemoteConnection<T> create(MessageSerializer<T> serializer) {
-        return new SocketConnection<T>(socket, serializer);
+        return new SocketConnection<T>(socket, serializer, selectorLoop);
     }
 }
@@ -31,12 +31,11 @@ import java.io.InputStream;
 import java.io.OutputStream;
 import java.net.InetSocketAddress;
 import java.nio.ByteBuffer;
-import java.nio.channels.ClosedSelectorException;
 import java.nio.channels.SelectionKey;
-import java.nio.channels.Selector;
 import java.nio.channels.SocketChannel;
 
 public class SocketConnection<T> implements RemoteConnection<T> {
+    private static final int BUFFER_SIZE = 4096;
     private final SocketChannel socket;
     private final SocketInetAddress localAddress;
     private final SocketInetAddress remoteAddress;
@@ -45,17 +44,18 @@ public class SocketConnection<T> implements RemoteConnection<T> {
     private final InputStream instr;
     private final OutputStream outstr;
 
-    public SocketConnection(SocketChannel socket, MessageSerializer<T> serializer) {
+    public SocketConnection(SocketChannel socket, MessageSerializer<T> serializer, SocketSelectorLoop selectorLoop) {
         this.socket = socket;
         try {
             // NOTE: we use non-blocking IO as there is no reliable way when using blocking IO to shutdown reads while
             // keeping writes active. For example, Socket.shutdownInput() does not work on Windows.
             socket.configureBlocking(false);
-            outstr = new SocketOutputStream(socket);
-            instr = new SocketInputStream(socket);
         } catch (IOException e) {
             throw UncheckedException.throwAsUncheckedException(e);
         }
+        SocketSelectorLoop.Registration registration = selectorLoop.register(socket);
+        outstr = new SocketOutputStream(socket, registration);
+        instr = new SocketInputStream(socket, registration);
         InetSocketAddress localSocketAddress = (InetSocketAddress) socket.socket().getLocalSocketAddress();
         localAddress = new SocketInetAddress(localSocketAddress.getAddress(), localSocketAddress.getPort());
         InetSocketAddress remoteSocketAddress = (InetSocketAddress) socket.socket().getRemoteSocketAddress();
@@ -116,16 +116,15 @@ public class SocketConnection<T> implements RemoteConnection<T> {
     }
 
     private static class SocketInputStream extends InputStream {
-        private final Selector selector;
+        private final SocketSelectorLoop.Registration registration;
         private final ByteBuffer buffer;
         private final SocketChannel socket;
         private final byte[] readBuffer = new byte[1];
 
-        public SocketInputStream(SocketChannel socket) throws IOException {
+        public SocketInputStream(SocketChannel socket, SocketSelectorLoop.Registration registration) {
             this.socket = socket;
-            selector = Selector.open();
-            socket.register(selector, SelectionKey.OP_READ);
-            buffer = ByteBuffer.allocateDirect(4096);
+            this.registration = registration;
+            buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
             buffer.limit(0);
         }
 
@@ -144,16 +143,12 @@ public class SocketConnection<T> implements RemoteConnection<T> {
                 return 0;
             }
 
-            if (buffer.remaining() == 0) {
-                try {
-                    selector.select();
-                } catch (ClosedSelectorException e) {
-                    return -1;
-                }
-                if (!selector.isOpen()) {
+            while (buffer.remaining() == 0) {
+                if (registration.isClosed(SelectionKey.OP_READ)) {
                     return -1;
                 }
 
+                // Attempt the read before waiting, as the data is often already available
                 buffer.clear();
                 int nread = socket.read(buffer);
                 buffer.flip();
@@ -161,6 +156,9 @@ public class SocketConnection<T> implements RemoteConnection<T> {
                 if (nread < 0) {
                     return -1;
                 }
+                if (nread == 0 && !registration.await(SelectionKey.OP_READ)) {
+                    return -1;
+                }
             }
 
             int count = Math.min(buffer.remaining(), max);
@@ -169,22 +167,21 @@ public class SocketConnection<T> implements RemoteConnection<T> {
         }
 
         @Override
-        public void close() throws IOException {
-            selector.close();
+        public void close() {
+            registration.close(SelectionKey.OP_READ);
         }
     }
 
     private static class SocketOutputStream extends OutputStream {
-        private final Selector selector;
+        private final SocketSelectorLoop.Registration registration;
         private final SocketChannel socket;
         private final ByteBuffer buffer;
         private final byte[] writeBuffer = new byte[1];
 
-        public SocketOutputStream(SocketChannel socket) throws IOException {
+        public SocketOutputStream(SocketChannel socket, SocketSelectorLoop.Registration registration) {
             this.socket = socket;
-            selector = Selector.open();
-            socket.register(selector, SelectionKey.OP_WRITE);
-            buffer = ByteBuffer.allocateDirect(4096);
+            this.registration = registration;
+            buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
         }
 
         @Override
@@ -213,19 +210,27 @@ public class SocketConnection<T> implements RemoteConnection<T> {
         @Override
         public void flush() throws IOException {
             buffer.flip();
+            try {
+                writeFully();
+            } finally {
+                buffer.clear();
+            }
+        }
+
+        private void writeFully() throws IOException {
             while (buffer.remaining() > 0) {
-                selector.select();
-                if (!selector.isOpen()) {
+                if (registration.isClosed(SelectionKey.OP_WRITE)) {
+                    throw new EOFException();
+                }
+                if (socket.write(buffer) == 0 && !registration.await(SelectionKey.OP_WRITE)) {
                     throw new EOFException();
                 }
-                socket.write(buffer);
             }
-            buffer.clear();
         }
 
         @Override
-        public void close() throws IOException {
-            selector.close();
+        public void close() {
+            registration.close(SelectionKey.OP_WRITE);
         }
     }
 }
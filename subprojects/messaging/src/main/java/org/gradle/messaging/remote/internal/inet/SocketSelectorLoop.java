@@ -0,0 +1,274 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.messaging.remote.internal.inet;
+
+import org.gradle.internal.UncheckedException;
+import org.gradle.internal.concurrent.Stoppable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.channels.CancelledKeyException;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A {@link Selector} shared by the non-blocking socket connections created by a set of connectors, and serviced by a single thread. A thread
+ * that cannot make progress reading from or writing to a socket waits for this loop to report the socket as ready, rather than each socket
+ * stream opening and selecting on a selector of its own.
+ *
+ * <p>The selector and its thread are started when the first connection is registered. Stopping the loop stops the thread and closes the
+ * connections that are still registered.</p>
+ */
+public class SocketSelectorLoop implements Stoppable {
+    private static final Logger LOGGER = LoggerFactory.getLogger(SocketSelectorLoop.class);
+    private static final int ALL_OPS = SelectionKey.OP_READ | SelectionKey.OP_WRITE;
+
+    private final Lock lock = new ReentrantLock();
+    private final List<Registration> pending = new ArrayList<Registration>();
+    private Selector selector;
+    private Thread thread;
+    private boolean stopped;
+
+    /**
+     * Creates a registration for the given channel, which must be in non-blocking mode. The channel is registered with the selector the
+     * first time a thread needs to wait for it.
+     */
+    Registration register(SocketChannel channel) {
+        lock.lock();
+        try {
+            if (stopped) {
+                throw new IllegalStateException("Cannot register a socket connection, as the socket selector has been stopped.");
+            }
+            if (selector == null) {
+                try {
+                    selector = Selector.open();
+                } catch (IOException e) {
+                    throw UncheckedException.throwAsUncheckedException(e);
+                }
+                thread = new Thread(new Runnable() {
+                    public void run() {
+                        selectUntilStopped();
+                    }
+                }, "Socket selector");
+                thread.setDaemon(true);
+                thread.start();
+            }
+            return new Registration(channel);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Stops the selector thread, and closes the connections that are still registered. Blocks until the thread has finished.
+     */
+    public void stop() {
+        Thread selectorThread;
+        lock.lock();
+        try {
+            stopped = true;
+            if (selector != null) {
+                selector.wakeup();
+            }
+            selectorThread = thread;
+        } finally {
+            lock.unlock();
+        }
+        if (selectorThread != null) {
+            try {
+                selectorThread.join();
+            } catch (InterruptedException e) {
+                throw UncheckedException.throwAsUncheckedException(e);
+            }
+        }
+    }
+
+    private void selectUntilStopped() {
+        try {
+            while (true) {
+                lock.lock();
+                try {
+                    if (stopped) {
+                        return;
+                    }
+                    for (Registration registration : pending) {
+                        registration.updateKey();
+                    }
+                    pending.clear();
+                } finally {
+                    lock.unlock();
+                }
+
+                selector.select();
+
+                lock.lock();
+                try {
+                    for (SelectionKey key : selector.selectedKeys()) {
+                        ((Registration) key.attachment()).ready(key);
+                    }
+                    selector.selectedKeys().clear();
+                } finally {
+                    lock.unlock();
+                }
+            }
+        } catch (Throwable t) {
+            LOGGER.error("Socket selector failed.", t);
+        } finally {
+            lock.lock();
+            try {
+                stopped = true;
+                for (SelectionKey key : selector.keys()) {
+                    ((Registration) key.attachment()).closed(ALL_OPS);
+                }
+                for (Registration registration : pending) {
+                    registration.closed(ALL_OPS);
+                }
+                pending.clear();
+            } finally {
+                lock.unlock();
+            }
+            try {
+                selector.close();
+            } catch (IOException e) {
+                LOGGER.debug("Could not close socket selector.", e);
+            }
+        }
+    }
+
+    private void schedule(Registration registration) {
+        if (stopped) {
+            registration.closed(ALL_OPS);
+            return;
+        }
+        pending.add(registration);
+        selector.wakeup();
+    }
+
+    /**
+     * The readiness state of a single channel. Each operation (read or write) is closed independently, so that reading can be stopped while
+     * writing continues.
+     */
+    class Registration {
+        private final SocketChannel channel;
+        private final Condition stateChanged = lock.newCondition();
+        private SelectionKey key;
+        private int interestOps;
+        private int readyOps;
+        private int closedOps;
+
+        private Registration(SocketChannel channel) {
+            this.channel = channel;
+        }
+
+        boolean isClosed(int op) {
+            lock.lock();
+            try {
+                return (closedOps & op) != 0;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        /**
+         * Blocks until the channel may be ready for the given operation.
+         *
+         * @return false when the operation has been closed while waiting.
+         */
+        boolean await(int op) {
+            lock.lock();
+            try {
+                while (true) {
+                    if ((closedOps & op) != 0) {
+                        return false;
+                    }
+                    if ((readyOps & op) != 0) {
+                        readyOps &= ~op;
+                        return true;
+                    }
+                    if ((interestOps & op) == 0) {
+                        interestOps |= op;
+                        schedule(this);
+                    }
+                    stateChanged.awaitUninterruptibly();
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        /**
+         * Closes the given operation, waking up any thread waiting for it.
+         */
+        void close(int op) {
+            lock.lock();
+            try {
+                closed(op);
+                schedule(this);
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void closed(int op) {
+            closedOps |= op;
+            stateChanged.signalAll();
+        }
+
+        private void updateKey() {
+            int ops = interestOps & ~closedOps;
+            try {
+                if (closedOps == ALL_OPS) {
+                    if (key != null) {
+                        key.cancel();
+                    }
+                } else if (key == null) {
+                    key = channel.register(selector, ops, this);
+                } else {
+                    key.interestOps(ops);
+                }
+            } catch (ClosedChannelException e) {
+                closed(ALL_OPS);
+            } catch (CancelledKeyException e) {
+                closed(ALL_OPS);
+            }
+        }
+
+        private void ready(SelectionKey key) {
+            int ops;
+            try {
+                ops = key.readyOps();
+            } catch (CancelledKeyException e) {
+                closed(ALL_OPS);
+                return;
+            }
+            // Selection is level triggered, so stop selecting for the ready operations until a thread finds it cannot make progress again
+            readyOps |= ops & interestOps;
+            interestOps &= ~ops;
+            updateKey();
+            stateChanged.signalAll();
+        }
+    }
+}
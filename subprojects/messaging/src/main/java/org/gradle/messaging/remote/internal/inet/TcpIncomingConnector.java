@@ -40,11 +40,13 @@ public class TcpIncomingConnector implements IncomingConnector {
     private final ExecutorFactory executorFactory;
     private final InetAddressFactory addressFactory;
     private final IdGenerator<?> idGenerator;
+    private final SocketSelectorLoop selectorLoop;
 
-    public TcpIncomingConnector(ExecutorFactory executorFactory, InetAddressFactory addressFactory, IdGenerator<?> idGenerator) {
+    public TcpIncomingConnector(ExecutorFactory executorFactory, InetAddressFactory addressFactory, IdGenerator<?> idGenerator, SocketSelectorLoop selectorLoop) {
         this.executorFactory = executorFactory;
         this.addressFactory = addressFactory;
         this.idGenerator = idGenerator;
+        this.selectorLoop = selectorLoop;
     }
 
     public ConnectionAcceptor accept(Action<ConnectCompletion> action, boolean allowRemote) {
@@ -106,7 +108,7 @@ public class TcpIncomingConnector implements IncomingConnector {
                             continue;
                         }
                         LOGGER.debug("Accepted connection from {} to {}.", socket.socket().getRemoteSocketAddress(), socket.socket().getLocalSocketAddress());
-                        action.execute(new SocketConnectCompletion(socket));
+                        action.execute(new SocketConnectCompletion(socket, selectorLoop));
                     }
                 } catch (ClosedChannelException e) {
                     // Ignore
@@ -31,6 +31,11 @@ import java.util.List;
 
 public class TcpOutgoingConnector implements OutgoingConnector {
     private static final Logger LOGGER = LoggerFactory.getLogger(TcpOutgoingConnector.class);
+    private final SocketSelectorLoop selectorLoop;
+
+    public TcpOutgoingConnector(SocketSelectorLoop selectorLoop) {
+        this.selectorLoop = selectorLoop;
+    }
 
     public ConnectCompletion connect(Address destinationAddress) throws ConnectException {
         if (!(destinationAddress instanceof InetEndpoint)) {
@@ -57,7 +62,7 @@ public class TcpOutgoingConnector implements OutgoingConnector {
                     continue;
                 }
                 LOGGER.debug("Connected to address {}.", socketChannel.socket().getRemoteSocketAddress());
-                return new SocketConnectCompletion(socketChannel);
+                return new SocketConnectCompletion(socketChannel, selectorLoop);
             }
             throw new ConnectException(String.format("Could not connect to server %s. Tried addresses: %s.",
                     destinationAddress, candidateAddresses), lastFailure);
@@ -0,0 +1,74 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.messaging.remote.internal.shm;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Waits for another process to make progress through shared memory. There is no way to signal a thread in another process through mapped
+ * memory, so the waiting thread first spins, then yields, and then parks for increasingly long periods, polling the shared state in between.
+ */
+class BackoffIdler {
+    private static final int SPINS = 1000;
+    private static final int YIELDS = 100;
+    private static final long MIN_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(1);
+    private static final long CHECK_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private final long maxParkNanos;
+    private int idleCount;
+    private long parkNanos;
+    private long parkedSinceCheck;
+
+    BackoffIdler(long maxPark, TimeUnit unit) {
+        this.maxParkNanos = unit.toNanos(maxPark);
+    }
+
+    /**
+     * Called each time the caller finds it cannot make progress.
+     *
+     * @return true roughly once a second while parking, when the caller should check whether the other process is still alive.
+     */
+    boolean idle() {
+        idleCount++;
+        if (idleCount <= SPINS) {
+            return false;
+        }
+        if (idleCount <= SPINS + YIELDS) {
+            Thread.yield();
+            return false;
+        }
+        parkNanos = Math.min(Math.max(parkNanos * 2, MIN_PARK_NANOS), maxParkNanos);
+        LockSupport.parkNanos(parkNanos);
+        parkedSinceCheck += parkNanos;
+        if (parkedSinceCheck >= CHECK_INTERVAL_NANOS) {
+            parkedSinceCheck = 0;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Called when the caller has made progress.
+     */
+    void reset() {
+        idleCount = 0;
+        parkNanos = 0;
+        parkedSinceCheck = 0;
+    }
+}
@@ -0,0 +1,75 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.messaging.remote.internal.shm;
+
+import org.gradle.api.Nullable;
+import org.gradle.messaging.remote.Address;
+
+import java.io.File;
+
+/**
+ * The address of an endpoint that accepts a connection through a shared memory file, and also through some other transport for peers
+ * that cannot use the file.
+ */
+public class SharedMemoryAddress implements Address {
+    private final File file;
+    private final Address fallbackAddress;
+
+    public SharedMemoryAddress(File file, @Nullable Address fallbackAddress) {
+        this.file = file;
+        this.fallbackAddress = fallbackAddress;
+    }
+
+    public File getFile() {
+        return file;
+    }
+
+    @Nullable
+    public Address getFallbackAddress() {
+        return fallbackAddress;
+    }
+
+    public String getDisplayName() {
+        if (fallbackAddress == null) {
+            return String.format("[shared memory file:%s]", file);
+        }
+        return String.format("[shared memory file:%s, fallback:%s]", file, fallbackAddress);
+    }
+
+    @Override
+    public String toString() {
+        return getDisplayName();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (o == this) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        SharedMemoryAddress other = (SharedMemoryAddress) o;
+        return other.file.equals(file);
+    }
+
+    @Override
+    public int hashCode() {
+        return file.hashCode();
+    }
+}
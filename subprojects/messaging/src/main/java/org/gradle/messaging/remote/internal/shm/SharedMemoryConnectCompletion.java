@@ -0,0 +1,44 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.messaging.remote.internal.shm;
+
+import org.gradle.messaging.remote.internal.ConnectCompletion;
+import org.gradle.messaging.remote.internal.DefaultMessageSerializer;
+import org.gradle.messaging.remote.internal.MessageSerializer;
+import org.gradle.messaging.remote.internal.RemoteConnection;
+
+class SharedMemoryConnectCompletion implements ConnectCompletion {
+    private final SharedMemoryFile file;
+
+    public SharedMemoryConnectCompletion(SharedMemoryFile file) {
+        this.file = file;
+    }
+
+    @Override
+    public String toString() {
+        return file.toString();
+    }
+
+    public <T> RemoteConnection<T> create(ClassLoader messageClassLoader) {
+        return new SharedMemoryConnection<T>(file, new DefaultMessageSerializer<T>(messageClassLoader));
+    }
+
+    public <T> RemoteConnection<T> create(MessageSerializer<T> serializer) {
+        return new SharedMemoryConnection<T>(file, serializer);
+    }
+}
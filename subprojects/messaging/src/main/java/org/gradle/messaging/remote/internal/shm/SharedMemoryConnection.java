@@ -0,0 +1,82 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.messaging.remote.internal.shm;
+
+import org.gradle.internal.concurrent.CompositeStoppable;
+import org.gradle.internal.serialize.ObjectReader;
+import org.gradle.internal.serialize.ObjectWriter;
+import org.gradle.messaging.remote.internal.MessageIOException;
+import org.gradle.messaging.remote.internal.MessageSerializer;
+import org.gradle.messaging.remote.internal.RemoteConnection;
+
+import java.io.EOFException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * A connection with a peer on the same machine, through a {@link SharedMemoryFile}.
+ */
+public class SharedMemoryConnection<T> implements RemoteConnection<T> {
+    private final SharedMemoryFile file;
+    private final SharedMemoryAddress address;
+    private final ObjectWriter<T> objectWriter;
+    private final ObjectReader<T> objectReader;
+    private final InputStream instr;
+    private final OutputStream outstr;
+
+    SharedMemoryConnection(SharedMemoryFile file, MessageSerializer<T> serializer) {
+        this.file = file;
+        address = new SharedMemoryAddress(file.getFile(), null);
+        instr = file.getInputStream();
+        outstr = file.getOutputStream();
+        objectReader = serializer.newReader(instr, address, address);
+        objectWriter = serializer.newWriter(outstr);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("shared memory connection using %s", file.getFile());
+    }
+
+    public T receive() throws MessageIOException {
+        try {
+            return objectReader.read();
+        } catch (EOFException e) {
+            return null;
+        } catch (Exception e) {
+            throw new MessageIOException(String.format("Could not read message from '%s'.", address), e);
+        }
+    }
+
+    public void dispatch(T message) throws MessageIOException {
+        try {
+            objectWriter.write(message);
+            outstr.flush();
+        } catch (Exception e) {
+            throw new MessageIOException(String.format("Could not write message %s to '%s'.", message, address), e);
+        }
+    }
+
+    public void requestStop() {
+        CompositeStoppable.stoppable(instr).stop();
+    }
+
+    public void stop() {
+        CompositeStoppable.stoppable(instr, outstr, file).stop();
+    }
+}
@@ -0,0 +1,185 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.messaging.remote.internal.shm;
+
+import org.gradle.api.Nullable;
+import org.gradle.internal.concurrent.CompositeStoppable;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+
+/**
+ * A memory mapped file shared by the two ends of a connection on the same machine, holding one {@link SharedMemoryRing} for each direction.
+ *
+ * <p>The server creates the file and the client attaches to it by setting a flag in the header. Each end holds a lock on its own byte of the
+ * file for as long as it uses the file, so that a waiting end can detect that the other process has gone away.</p>
+ */
+class SharedMemoryFile implements Closeable {
+    private static final int MAGIC = 0x47534d31;
+    private static final int MAGIC_OFFSET = 0;
+    private static final int CAPACITY_OFFSET = 4;
+    private static final int ATTACHED_OFFSET = 8;
+    private static final int HEADER_SIZE = 64;
+    private static final long SERVER_LOCK_POSITION = 16;
+    private static final long CLIENT_LOCK_POSITION = 17;
+
+    private final File file;
+    private final RandomAccessFile randomAccessFile;
+    private final MappedByteBuffer buffer;
+    private final FileLock ownLock;
+    private final long peerLockPosition;
+    private final SharedMemoryRing incoming;
+    private final SharedMemoryRing outgoing;
+
+    private SharedMemoryFile(File file, RandomAccessFile randomAccessFile, MappedByteBuffer buffer, FileLock ownLock, int capacity, boolean server) {
+        this.file = file;
+        this.randomAccessFile = randomAccessFile;
+        this.buffer = buffer;
+        this.ownLock = ownLock;
+        this.peerLockPosition = server ? CLIENT_LOCK_POSITION : SERVER_LOCK_POSITION;
+        SharedMemoryRing serverToClient = new SharedMemoryRing(region(HEADER_SIZE, capacity), capacity, this);
+        SharedMemoryRing clientToServer = new SharedMemoryRing(region(HEADER_SIZE + SharedMemoryRing.HEADER_SIZE + capacity, capacity), capacity, this);
+        this.incoming = server ? clientToServer : serverToClient;
+        this.outgoing = server ? serverToClient : clientToServer;
+    }
+
+    /**
+     * Creates a new file in the given directory, for a server to wait on for a client to attach.
+     *
+     * @param capacity the size of each ring. Must be a power of 2
+     */
+    static SharedMemoryFile create(File dir, int capacity) throws IOException {
+        if (Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException(String.format("Ring capacity must be a power of 2, was %s.", capacity));
+        }
+        File file = File.createTempFile("gradle-connection-", ".bin", dir);
+        RandomAccessFile randomAccessFile = new RandomAccessFile(file, "rw");
+        try {
+            long size = HEADER_SIZE + 2L * (SharedMemoryRing.HEADER_SIZE + capacity);
+            randomAccessFile.setLength(size);
+            FileChannel channel = randomAccessFile.getChannel();
+            FileLock lock = channel.lock(SERVER_LOCK_POSITION, 1, false);
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+            buffer.putInt(CAPACITY_OFFSET, capacity);
+            buffer.putInt(MAGIC_OFFSET, MAGIC);
+            return new SharedMemoryFile(file, randomAccessFile, buffer, lock, capacity, true);
+        } catch (IOException e) {
+            CompositeStoppable.stoppable(randomAccessFile).stop();
+            file.delete();
+            throw e;
+        }
+    }
+
+    /**
+     * Attaches a client to the given file.
+     *
+     * @return the file, or null when the file is not waiting for a client.
+     */
+    @Nullable
+    static SharedMemoryFile attach(File file) throws IOException {
+        RandomAccessFile randomAccessFile = new RandomAccessFile(file, "rw");
+        try {
+            FileChannel channel = randomAccessFile.getChannel();
+            FileLock lock = channel.tryLock(CLIENT_LOCK_POSITION, 1, false);
+            if (lock != null) {
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, channel.size());
+                int capacity = buffer.getInt(CAPACITY_OFFSET);
+                if (buffer.getInt(MAGIC_OFFSET) == MAGIC && buffer.getInt(ATTACHED_OFFSET) == 0
+                        && Integer.bitCount(capacity) == 1 && buffer.capacity() == HEADER_SIZE + 2L * (SharedMemoryRing.HEADER_SIZE + capacity)) {
+                    SharedMemoryFile sharedMemoryFile = new SharedMemoryFile(file, randomAccessFile, buffer, lock, capacity, false);
+                    buffer.putInt(ATTACHED_OFFSET, 1);
+                    return sharedMemoryFile;
+                }
+            }
+        } catch (IOException e) {
+            CompositeStoppable.stoppable(randomAccessFile).stop();
+            throw e;
+        } catch (OverlappingFileLockException e) {
+            // Another client in this process has attached
+        }
+        CompositeStoppable.stoppable(randomAccessFile).stop();
+        return null;
+    }
+
+    public File getFile() {
+        return file;
+    }
+
+    boolean isAttached() {
+        return buffer.getInt(ATTACHED_OFFSET) != 0;
+    }
+
+    boolean isPeerAlive() {
+        try {
+            FileLock lock = randomAccessFile.getChannel().tryLock(peerLockPosition, 1, false);
+            if (lock == null) {
+                return true;
+            }
+            lock.release();
+            return false;
+        } catch (OverlappingFileLockException e) {
+            // The other end is in this process
+            return true;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    InputStream getInputStream() {
+        return incoming.getInputStream();
+    }
+
+    OutputStream getOutputStream() {
+        return outgoing.getOutputStream();
+    }
+
+    /**
+     * Releases this end's lock and the file. The mapped memory remains valid until it is garbage collected, so any thread still using a
+     * stream of this file is not affected.
+     */
+    public void close() throws IOException {
+        try {
+            if (ownLock.isValid()) {
+                ownLock.release();
+            }
+        } finally {
+            randomAccessFile.close();
+        }
+    }
+
+    @Override
+    public String toString() {
+        return String.format("shared memory file %s", file);
+    }
+
+    private ByteBuffer region(int offset, int capacity) {
+        ByteBuffer region = buffer.duplicate();
+        region.position(offset);
+        region.limit(offset + SharedMemoryRing.HEADER_SIZE + capacity);
+        return region.slice();
+    }
+}
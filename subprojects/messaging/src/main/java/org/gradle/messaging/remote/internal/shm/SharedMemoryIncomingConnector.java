@@ -0,0 +1,155 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.messaging.remote.internal.shm;
+
+import org.gradle.api.Action;
+import org.gradle.internal.concurrent.CompositeStoppable;
+import org.gradle.internal.concurrent.ExecutorFactory;
+import org.gradle.internal.concurrent.StoppableExecutor;
+import org.gradle.messaging.remote.Address;
+import org.gradle.messaging.remote.ConnectionAcceptor;
+import org.gradle.messaging.remote.internal.ConnectCompletion;
+import org.gradle.messaging.remote.internal.IncomingConnector;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Accepts a connection from a peer on the same machine through a shared memory file, in addition to the connections accepted by the given
+ * connector. The address of the acceptor is a {@link SharedMemoryAddress} that falls back to the address of the given connector, so that a
+ * peer that cannot attach to the file connects as before. Each acceptor accepts at most one shared memory connection.
+ */
+public class SharedMemoryIncomingConnector implements IncomingConnector {
+    /**
+     * Enables shared memory connections for the worker processes started by this process.
+     */
+    public static final String TOGGLE = "org.gradle.messaging.sharedMemory";
+    public static final int DEFAULT_RING_CAPACITY = 1024 * 1024;
+    private static final Logger LOGGER = LoggerFactory.getLogger(SharedMemoryIncomingConnector.class);
+    private static final long MAX_ACCEPT_PARK_MILLIS = 10;
+    private final IncomingConnector fallbackConnector;
+    private final ExecutorFactory executorFactory;
+    private final File tmpDir;
+    private final int ringCapacity;
+
+    public SharedMemoryIncomingConnector(IncomingConnector fallbackConnector, ExecutorFactory executorFactory, File tmpDir, int ringCapacity) {
+        this.fallbackConnector = fallbackConnector;
+        this.executorFactory = executorFactory;
+        this.tmpDir = tmpDir;
+        this.ringCapacity = ringCapacity;
+    }
+
+    public ConnectionAcceptor accept(Action<ConnectCompletion> action, boolean allowRemote) {
+        final Action<ConnectCompletion> serializedAction = new SerializedAction(action);
+        final ConnectionAcceptor fallbackAcceptor = fallbackConnector.accept(serializedAction, allowRemote);
+        if (allowRemote) {
+            return fallbackAcceptor;
+        }
+
+        SharedMemoryFile file;
+        try {
+            file = SharedMemoryFile.create(tmpDir, ringCapacity);
+        } catch (Exception e) {
+            LOGGER.debug("Could not create shared memory file, accepting connections using the fallback connector only.", e);
+            return fallbackAcceptor;
+        }
+
+        final Address address = new SharedMemoryAddress(file.getFile(), fallbackAcceptor.getAddress());
+        LOGGER.debug("Listening on {}.", address);
+
+        final Receiver receiver = new Receiver(file, serializedAction);
+        final StoppableExecutor executor = executorFactory.create(String.format("Incoming shared memory connector on %s", file.getFile().getName()));
+        executor.execute(receiver);
+
+        return new ConnectionAcceptor() {
+            public Address getAddress() {
+                return address;
+            }
+
+            public void requestStop() {
+                receiver.requestStop();
+                fallbackAcceptor.requestStop();
+            }
+
+            public void stop() {
+                requestStop();
+                executor.stop();
+                fallbackAcceptor.stop();
+            }
+        };
+    }
+
+    private static class SerializedAction implements Action<ConnectCompletion> {
+        private final Action<ConnectCompletion> action;
+
+        public SerializedAction(Action<ConnectCompletion> action) {
+            this.action = action;
+        }
+
+        public synchronized void execute(ConnectCompletion completion) {
+            action.execute(completion);
+        }
+    }
+
+    private static class Receiver implements Runnable {
+        private final SharedMemoryFile file;
+        private final Action<ConnectCompletion> action;
+        private volatile boolean stopped;
+
+        public Receiver(SharedMemoryFile file, Action<ConnectCompletion> action) {
+            this.file = file;
+            this.action = action;
+        }
+
+        public void requestStop() {
+            stopped = true;
+        }
+
+        public void run() {
+            boolean attached = false;
+            try {
+                BackoffIdler idler = new BackoffIdler(MAX_ACCEPT_PARK_MILLIS, TimeUnit.MILLISECONDS);
+                while (!stopped && !attached) {
+                    attached = file.isAttached();
+                    if (!attached) {
+                        idler.idle();
+                    }
+                }
+            } finally {
+                // The mapping remains valid once the file has been deleted
+                file.getFile().delete();
+                if (!attached) {
+                    CompositeStoppable.stoppable(file).stop();
+                }
+            }
+            if (!attached) {
+                return;
+            }
+
+            LOGGER.debug("Accepted shared memory connection using {}.", file.getFile());
+            try {
+                action.execute(new SharedMemoryConnectCompletion(file));
+            } catch (Exception e) {
+                LOGGER.error("Could not accept shared memory connection.", e);
+                CompositeStoppable.stoppable(file).stop();
+            }
+        }
+    }
+}
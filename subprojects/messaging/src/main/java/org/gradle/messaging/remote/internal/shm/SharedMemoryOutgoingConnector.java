@@ -0,0 +1,60 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.messaging.remote.internal.shm;
+
+import org.gradle.messaging.remote.Address;
+import org.gradle.messaging.remote.internal.ConnectCompletion;
+import org.gradle.messaging.remote.internal.ConnectException;
+import org.gradle.messaging.remote.internal.OutgoingConnector;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Connects to a {@link SharedMemoryAddress} through its shared memory file when possible, and otherwise through its fallback address using
+ * the given connector. Other addresses are passed to the given connector.
+ */
+public class SharedMemoryOutgoingConnector implements OutgoingConnector {
+    private static final Logger LOGGER = LoggerFactory.getLogger(SharedMemoryOutgoingConnector.class);
+    private final OutgoingConnector fallbackConnector;
+
+    public SharedMemoryOutgoingConnector(OutgoingConnector fallbackConnector) {
+        this.fallbackConnector = fallbackConnector;
+    }
+
+    public ConnectCompletion connect(Address destinationAddress) throws ConnectException {
+        if (!(destinationAddress instanceof SharedMemoryAddress)) {
+            return fallbackConnector.connect(destinationAddress);
+        }
+        SharedMemoryAddress address = (SharedMemoryAddress) destinationAddress;
+        LOGGER.debug("Attempting to attach to {}.", address.getFile());
+        try {
+            SharedMemoryFile file = SharedMemoryFile.attach(address.getFile());
+            if (file != null) {
+                LOGGER.debug("Attached to {}.", address.getFile());
+                return new SharedMemoryConnectCompletion(file);
+            }
+            LOGGER.debug("Cannot attach to {} as it is not waiting for a connection.", address.getFile());
+        } catch (Exception e) {
+            LOGGER.debug(String.format("Cannot attach to %s.", address.getFile()), e);
+        }
+        if (address.getFallbackAddress() == null) {
+            throw new ConnectException(String.format("Could not attach to %s.", address.getFile()), null);
+        }
+        return fallbackConnector.connect(address.getFallbackAddress());
+    }
+}
@@ -0,0 +1,217 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.messaging.remote.internal.shm;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A single producer, single consumer ring of bytes in a region of a memory mapped file, where the producer and the consumer are in different
+ * processes. Each side publishes a running count of the bytes it has written or read, and the other side polls for it using a {@link BackoffIdler}.
+ */
+class SharedMemoryRing {
+    static final int HEADER_SIZE = 192;
+    // Keep the counts on separate cache lines, as they are written by different processes
+    private static final int WRITE_COUNT_OFFSET = 0;
+    private static final int READ_COUNT_OFFSET = 64;
+    private static final int WRITER_CLOSED_OFFSET = 128;
+    private static final int READER_CLOSED_OFFSET = 132;
+    // An idle end wakes up at most this often. As the backoff doubles, the delay before noticing new data is at most about as long as the wait so far
+    private static final long MAX_PARK_MILLIS = 100;
+
+    private static volatile int fence;
+
+    private final ByteBuffer region;
+    private final int capacity;
+    private final SharedMemoryFile owner;
+
+    /**
+     * @param region the header followed by the data of this ring
+     * @param capacity the size of the data. Must be a power of 2
+     */
+    SharedMemoryRing(ByteBuffer region, int capacity, SharedMemoryFile owner) {
+        this.region = region;
+        this.capacity = capacity;
+        this.owner = owner;
+    }
+
+    InputStream getInputStream() {
+        return new RingInputStream();
+    }
+
+    OutputStream getOutputStream() {
+        return new RingOutputStream();
+    }
+
+    /**
+     * Java 6 has no explicit memory fences. A volatile write followed by a volatile read prevents both the compiler and the CPU from moving
+     * accesses to the mapped memory across this call, which is what makes the published counts safe to use from another process.
+     */
+    private static int fullFence() {
+        fence = 0;
+        return fence;
+    }
+
+    private long readPublished(int offset) {
+        long value = region.getLong(offset);
+        fullFence();
+        return value;
+    }
+
+    private void publish(int offset, long value) {
+        fullFence();
+        region.putLong(offset, value);
+    }
+
+    private class RingInputStream extends InputStream {
+        private final ByteBuffer data = region.duplicate();
+        private final BackoffIdler idler = new BackoffIdler(MAX_PARK_MILLIS, TimeUnit.MILLISECONDS);
+        private final byte[] single = new byte[1];
+        private long readCount;
+        private volatile boolean closed;
+
+        @Override
+        public int read() throws IOException {
+            int nread = read(single, 0, 1);
+            if (nread <= 0) {
+                return nread;
+            }
+            return single[0] & 0xff;
+        }
+
+        @Override
+        public int read(byte[] dest, int offset, int max) throws IOException {
+            if (max == 0) {
+                return 0;
+            }
+            long available = readPublished(WRITE_COUNT_OFFSET) - readCount;
+            if (available == 0) {
+                available = awaitData();
+                if (available == 0) {
+                    return -1;
+                }
+            }
+
+            int index = (int) (readCount & (capacity - 1));
+            int count = (int) Math.min(Math.min(available, max), capacity - index);
+            data.position(HEADER_SIZE + index);
+            data.get(dest, offset, count);
+            readCount += count;
+            publish(READ_COUNT_OFFSET, readCount);
+            return count;
+        }
+
+        /**
+         * Returns the number of bytes available, or 0 at the end of the stream.
+         */
+        private long awaitData() {
+            idler.reset();
+            while (!closed) {
+                long available = readPublished(WRITE_COUNT_OFFSET) - readCount;
+                if (available > 0) {
+                    return available;
+                }
+                if (region.getInt(WRITER_CLOSED_OFFSET) != 0) {
+                    // The writer publishes its last bytes before marking the ring closed
+                    return readPublished(WRITE_COUNT_OFFSET) - readCount;
+                }
+                if (idler.idle() && !owner.isPeerAlive()) {
+                    return 0;
+                }
+            }
+            return 0;
+        }
+
+        @Override
+        public void close() {
+            closed = true;
+            region.putInt(READER_CLOSED_OFFSET, 1);
+        }
+    }
+
+    private class RingOutputStream extends OutputStream {
+        private final ByteBuffer data = region.duplicate();
+        private final BackoffIdler idler = new BackoffIdler(MAX_PARK_MILLIS, TimeUnit.MILLISECONDS);
+        private final byte[] single = new byte[1];
+        private long writeCount;
+        private long publishedCount;
+        private volatile boolean closed;
+
+        @Override
+        public void write(int b) throws IOException {
+            single[0] = (byte) b;
+            write(single, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] src, int offset, int length) throws IOException {
+            int currentOffset = offset;
+            int remaining = length;
+            while (remaining > 0) {
+                int free = capacity - (int) (writeCount - readPublished(READ_COUNT_OFFSET));
+                if (free == 0) {
+                    flush();
+                    awaitSpace();
+                    continue;
+                }
+                int index = (int) (writeCount & (capacity - 1));
+                int count = Math.min(Math.min(free, remaining), capacity - index);
+                data.position(HEADER_SIZE + index);
+                data.put(src, currentOffset, count);
+                writeCount += count;
+                currentOffset += count;
+                remaining -= count;
+            }
+        }
+
+        private void awaitSpace() throws IOException {
+            idler.reset();
+            while (writeCount - readPublished(READ_COUNT_OFFSET) == capacity) {
+                if (closed || region.getInt(READER_CLOSED_OFFSET) != 0) {
+                    throw new EOFException("The reader has closed the shared memory connection.");
+                }
+                if (idler.idle() && !owner.isPeerAlive()) {
+                    throw new EOFException("The process at the other end of the shared memory connection has stopped.");
+                }
+            }
+        }
+
+        @Override
+        public void flush() {
+            if (publishedCount != writeCount) {
+                publish(WRITE_COUNT_OFFSET, writeCount);
+                publishedCount = writeCount;
+            }
+        }
+
+        @Override
+        public void close() {
+            if (closed) {
+                return;
+            }
+            // Messages are published as they are dispatched, so the close does not flush, which could race with a writing thread
+            closed = true;
+            fullFence();
+            region.putInt(WRITER_CLOSED_OFFSET, 1);
+        }
+    }
+}
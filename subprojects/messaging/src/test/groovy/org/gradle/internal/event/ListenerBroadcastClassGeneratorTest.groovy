@@ -0,0 +1,94 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.internal.event
+
+import org.gradle.messaging.dispatch.Dispatch
+import org.gradle.messaging.dispatch.MethodInvocation
+import spock.lang.Specification
+
+import java.lang.reflect.Proxy
+
+class ListenerBroadcastClassGeneratorTest extends Specification {
+    def broadcast = new BroadcastDispatch<GeneratedTestListener>(GeneratedTestListener)
+
+    def "generates a broadcast class that calls listeners directly"() {
+        def listener1 = Mock(GeneratedTestListener)
+        def listener2 = Mock(GeneratedTestListener)
+        broadcast.add(listener1)
+        broadcast.add(listener2)
+
+        when:
+        def source = ListenerBroadcastClassGenerator.createSource(GeneratedTestListener, broadcast)
+        source.primitives(12L, 1.5d, true)
+        source.event("param")
+
+        then:
+        !Proxy.isProxyClass(source.getClass())
+        source.toString() == "GeneratedTestListener broadcast"
+
+        then:
+        1 * listener1.primitives(12L, 1.5d, true)
+        1 * listener2.primitives(12L, 1.5d, true)
+
+        then:
+        1 * listener1.event("param")
+        1 * listener2.event("param")
+        0 * _
+    }
+
+    def "passes boxed arguments to other kinds of handlers"() {
+        def dispatch = Mock(Dispatch)
+        broadcast.add(dispatch)
+
+        when:
+        ListenerBroadcastClassGenerator.createSource(GeneratedTestListener, broadcast).primitives(12L, 1.5d, true)
+
+        then:
+        1 * dispatch.dispatch(new MethodInvocation(GeneratedTestListener.getMethod("primitives", long, double, boolean), [12L, 1.5d, true] as Object[]))
+        0 * _
+    }
+
+    def "reuses the generated class for a listener type"() {
+        expect:
+        def source1 = ListenerBroadcastClassGenerator.createSource(GeneratedTestListener, broadcast)
+        def source2 = ListenerBroadcastClassGenerator.createSource(GeneratedTestListener, new BroadcastDispatch<GeneratedTestListener>(GeneratedTestListener))
+        source1.getClass() == source2.getClass()
+        !source1.is(source2)
+    }
+
+    def "does not generate a class for a listener type with methods that return a value"() {
+        expect:
+        ListenerBroadcastClassGenerator.createSource(ListenerWithResult, new BroadcastDispatch<ListenerWithResult>(ListenerWithResult)) == null
+        new ListenerBroadcast<ListenerWithResult>(ListenerWithResult).source instanceof ListenerWithResult
+    }
+
+    def "does not generate a class for a listener type that cannot see the broadcast classes"() {
+        expect:
+        ListenerBroadcastClassGenerator.createSource(Runnable, new BroadcastDispatch<Runnable>(Runnable)) == null
+        Proxy.isProxyClass(new ListenerBroadcast<Runnable>(Runnable).source.getClass())
+    }
+}
+
+interface GeneratedTestListener {
+    void event(String param)
+
+    void primitives(long value, double other, boolean flag)
+}
+
+interface ListenerWithResult {
+    String result()
+}
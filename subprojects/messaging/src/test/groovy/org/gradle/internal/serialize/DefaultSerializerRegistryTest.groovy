@@ -89,4 +89,37 @@ class DefaultSerializerRegistryTest extends SerializerSpec {
         then:
         thrown(IllegalArgumentException)
     }
+
+    def "can serialize registered types and subtypes of a registered throwable type"() {
+        given:
+        def registry = new DefaultSerializerRegistry()
+        registry.register(Long, longSerializer)
+
+        expect:
+        registry.canSerialize(Long)
+        !registry.canSerialize(Integer)
+        !registry.canSerialize(RuntimeException)
+
+        when:
+        registry.register(Throwable, Stub(Serializer))
+
+        then:
+        registry.canSerialize(RuntimeException)
+    }
+
+    def "cannot serialize a throwable type that is registered without a serializer for throwable"() {
+        given:
+        def registry = new DefaultSerializerRegistry()
+        registry.register(Long, longSerializer)
+        registry.register(RuntimeException, Stub(Serializer))
+
+        expect:
+        !registry.canSerialize(RuntimeException)
+
+        when:
+        toBytes(new RuntimeException(), registry.build())
+
+        then:
+        thrown(IllegalArgumentException)
+    }
 }
@@ -21,6 +21,8 @@ import org.gradle.messaging.dispatch.DispatchException
 import org.gradle.messaging.dispatch.MethodInvocation
 import org.gradle.test.fixtures.concurrent.ConcurrentSpec
 
+import java.util.concurrent.atomic.AtomicInteger
+
 class DefaultActorFactorySpec extends ConcurrentSpec {
     private final TargetObject target = Mock()
     private final DefaultActorFactory factory = new DefaultActorFactory(executorFactory)
@@ -299,6 +301,121 @@ class DefaultActorFactorySpec extends ConcurrentSpec {
         IllegalStateException e = thrown()
         e.message.startsWith('Cannot dispatch message, as this message dispatch has been stopped.')
     }
+
+    def pooledActorDeliversMethodCallsInOrderFromOneThreadAtATime() {
+        def pooledFactory = new DefaultActorFactory(executorFactory, 2)
+        def received = Collections.synchronizedList([])
+        def active = new AtomicInteger()
+        def actor = pooledFactory.createActor({ param ->
+            assert active.incrementAndGet() == 1
+            received << param
+            active.decrementAndGet()
+        } as TargetObject)
+        def proxy = actor.getProxy(TargetObject)
+
+        when:
+        async {
+            3.times { i ->
+                start {
+                    100.times { j -> proxy.doStuff("$i:$j") }
+                }
+            }
+        }
+        actor.stop()
+
+        then:
+        received.size() == 300
+        3.times { i ->
+            assert received.findAll { it.startsWith("$i:") } == (0..<100).collect { "$i:$it" }
+        }
+
+        cleanup:
+        pooledFactory.stop()
+    }
+
+    def pooledActorsShareTheThreadsOfThePool() {
+        def pooledFactory = new DefaultActorFactory(executorFactory, 2)
+        def threads = Collections.synchronizedSet(new HashSet())
+        def actors = (0..<10).collect {
+            pooledFactory.createActor({ param -> threads << Thread.currentThread() } as TargetObject)
+        }
+
+        when:
+        actors.each { actor -> 10.times { actor.getProxy(TargetObject).doStuff('param') } }
+        pooledFactory.stop()
+
+        then:
+        threads.size() <= 2
+    }
+
+    def pooledActorStopBlocksUntilAllMethodCallsComplete() {
+        def pooledFactory = new DefaultActorFactory(executorFactory, 2)
+        def actor = pooledFactory.createActor(target)
+        def proxy = actor.getProxy(TargetObject.class)
+
+        given:
+        target.doStuff('param') >> {
+            thread.block()
+            instant.param1
+        }
+        target.doStuff('param2') >> {
+            instant.param2
+        }
+
+        when:
+        operation.dispatchAndStop {
+            proxy.doStuff('param')
+            proxy.doStuff('param2')
+            actor.stop()
+        }
+
+        then:
+        operation.dispatchAndStop.end > instant.param1
+        operation.dispatchAndStop.end > instant.param2
+
+        cleanup:
+        pooledFactory.stop()
+    }
+
+    def pooledActorPropagatesMethodFailuresOnStop() {
+        def pooledFactory = new DefaultActorFactory(executorFactory, 2)
+        def actor = pooledFactory.createActor(target)
+        def proxy = actor.getProxy(TargetObject.class)
+        def failure = new RuntimeException()
+
+        given:
+        target.doStuff('param') >> { throw failure }
+
+        when:
+        proxy.doStuff('param')
+        actor.stop()
+
+        then:
+        DispatchException e = thrown()
+        e.cause == failure
+
+        cleanup:
+        pooledFactory.stop()
+    }
+
+    def cannotDispatchToPooledActorAfterItHasBeenStopped() {
+        def pooledFactory = new DefaultActorFactory(executorFactory, 2)
+        def actor = pooledFactory.createActor(target)
+        def proxy = actor.getProxy(TargetObject.class)
+
+        given:
+        actor.stop()
+
+        when:
+        proxy.doStuff('param')
+
+        then:
+        IllegalStateException e = thrown()
+        e.message.startsWith('Cannot dispatch message, as this message dispatch has been stopped.')
+
+        cleanup:
+        pooledFactory.stop()
+    }
 }
 
 interface TargetObject {
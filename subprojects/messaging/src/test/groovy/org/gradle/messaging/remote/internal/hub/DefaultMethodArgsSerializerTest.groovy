@@ -0,0 +1,85 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.messaging.remote.internal.hub
+
+import org.gradle.internal.serialize.BaseSerializerFactory
+import org.gradle.internal.serialize.DefaultSerializerRegistry
+import org.gradle.internal.serialize.kryo.JavaSerializer
+import org.gradle.internal.serialize.kryo.KryoBackedDecoder
+import org.gradle.internal.serialize.kryo.KryoBackedEncoder
+import spock.lang.Specification
+
+class DefaultMethodArgsSerializerTest extends Specification {
+    final javaSerializer = new JavaSerializer<Object[]>(getClass().classLoader)
+    final stringRegistry = new DefaultSerializerRegistry<Object>()
+    final longRegistry = new DefaultSerializerRegistry<Object>()
+    DefaultMethodArgsSerializer serializer
+
+    def setup() {
+        stringRegistry.register(String, BaseSerializerFactory.STRING_SERIALIZER)
+        longRegistry.register(Long, BaseSerializerFactory.LONG_SERIALIZER)
+        serializer = new DefaultMethodArgsSerializer([stringRegistry, longRegistry], javaSerializer)
+    }
+
+    def "serializes parameters using the first registry that knows all of their types"() {
+        when:
+        def result = deserialize(serialize(serializer, [["a", "b"] as Object[], [12L] as Object[], [] as Object[]]), 3)
+
+        then:
+        result[0] == ["a", "b"] as Object[]
+        result[1] == [12L] as Object[]
+        result[2] == [] as Object[]
+    }
+
+    def "uses fallback serializer for parameters of mixed or unknown types and null parameters"() {
+        when:
+        def result = deserialize(serialize(serializer, [["a", 12L] as Object[], [12] as Object[], ["a", null] as Object[]]), 3)
+
+        then:
+        result[0] == ["a", 12L] as Object[]
+        result[1] == [12] as Object[]
+        result[2] == ["a", null] as Object[]
+    }
+
+    def "registry serialization is more compact than java serialization"() {
+        def params = ["some value"] as Object[]
+
+        expect:
+        serialize(serializer, [params]).length < serialize(new DefaultMethodArgsSerializer([], javaSerializer), [params]).length
+    }
+
+    byte[] serialize(DefaultMethodArgsSerializer serializer, List<Object[]> params) {
+        def outStr = new ByteArrayOutputStream()
+        def encoder = new KryoBackedEncoder(outStr)
+        def writer = serializer.newWriter(encoder)
+        params.each {
+            writer.write(it)
+        }
+        encoder.flush()
+        return outStr.toByteArray()
+    }
+
+    List<Object[]> deserialize(byte[] data, int count) {
+        def reader = serializer.newReader(new KryoBackedDecoder(new ByteArrayInputStream(data)))
+        def result = []
+        count.times {
+            result << reader.read()
+        }
+        return result
+    }
+}
@@ -26,8 +26,13 @@ class TcpConnectorTest extends ConcurrentSpec {
     final def serializer = new DefaultMessageSerializer<String>(getClass().classLoader)
     final def idGenerator = new UUIDGenerator()
     final def addressFactory = new InetAddressFactory()
-    final def outgoingConnector = new TcpOutgoingConnector()
-    final def incomingConnector = new TcpIncomingConnector(executorFactory, addressFactory, idGenerator)
+    final def selectorLoop = new SocketSelectorLoop()
+    final def outgoingConnector = new TcpOutgoingConnector(selectorLoop)
+    final def incomingConnector = new TcpIncomingConnector(executorFactory, addressFactory, idGenerator, selectorLoop)
+
+    def cleanup() {
+        selectorLoop.stop()
+    }
 
     def "client can connect to server"() {
         Action action = Mock()
@@ -179,5 +184,83 @@ class TcpConnectorTest extends ConcurrentSpec {
         connection?.stop()
         acceptor?.stop()
     }
-}
 
+    def "can exchange messages larger than the connection buffers"() {
+        def message = "x" * 100000
+
+        when:
+        def acceptor = incomingConnector.accept({ ConnectCompletion event ->
+            def connection = event.create(serializer)
+            connection.dispatch(connection.receive() + "!")
+            connection.stop()
+        } as Action, false)
+
+        def connection = outgoingConnector.connect(acceptor.address).create(serializer)
+        connection.dispatch(message)
+
+        then:
+        connection.receive() == message + "!"
+
+        cleanup:
+        connection?.stop()
+        acceptor?.stop()
+    }
+
+    def "receive returns null once reading has been stopped"() {
+        Action action = Mock()
+
+        when:
+        def acceptor = incomingConnector.accept(action, false)
+        def connection = outgoingConnector.connect(acceptor.address).create(serializer)
+        start {
+            thread.blockUntil.waiting
+            connection.requestStop()
+        }
+        instant.waiting
+
+        then:
+        connection.receive() == null
+
+        cleanup:
+        connection?.stop()
+        acceptor?.stop()
+    }
+
+    def "receive returns null once the selector loop has been stopped"() {
+        Action action = Mock()
+
+        when:
+        def acceptor = incomingConnector.accept(action, false)
+        def connection = outgoingConnector.connect(acceptor.address).create(serializer)
+        start {
+            thread.blockUntil.waiting
+            selectorLoop.stop()
+        }
+        instant.waiting
+
+        then:
+        connection.receive() == null
+
+        cleanup:
+        connection?.stop()
+        acceptor?.stop()
+    }
+
+    def "cannot create connections once the selector loop has been stopped"() {
+        Action action = Mock()
+
+        given:
+        selectorLoop.stop()
+
+        when:
+        def acceptor = incomingConnector.accept(action, false)
+        outgoingConnector.connect(acceptor.address).create(serializer)
+
+        then:
+        IllegalStateException e = thrown()
+        e.message == "Cannot register a socket connection, as the socket selector has been stopped."
+
+        cleanup:
+        acceptor?.stop()
+    }
+}
@@ -0,0 +1,155 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.messaging.remote.internal.shm
+
+import org.gradle.api.Action
+import org.gradle.internal.id.UUIDGenerator
+import org.gradle.messaging.remote.internal.ConnectCompletion
+import org.gradle.messaging.remote.internal.DefaultMessageSerializer
+import org.gradle.messaging.remote.internal.inet.InetAddressFactory
+import org.gradle.messaging.remote.internal.inet.SocketSelectorLoop
+import org.gradle.messaging.remote.internal.inet.TcpIncomingConnector
+import org.gradle.messaging.remote.internal.inet.TcpOutgoingConnector
+import org.gradle.test.fixtures.concurrent.ConcurrentSpec
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.junit.Rule
+
+class SharedMemoryConnectorTest extends ConcurrentSpec {
+    @Rule TestNameTestDirectoryProvider tmpDir = new TestNameTestDirectoryProvider()
+    final def serializer = new DefaultMessageSerializer<String>(getClass().classLoader)
+    final def selectorLoop = new SocketSelectorLoop()
+    final def tcpIncomingConnector = new TcpIncomingConnector(executorFactory, new InetAddressFactory(), new UUIDGenerator(), selectorLoop)
+    final def incomingConnector = new SharedMemoryIncomingConnector(tcpIncomingConnector, executorFactory, tmpDir.testDirectory, 1024)
+    final def outgoingConnector = new SharedMemoryOutgoingConnector(new TcpOutgoingConnector(selectorLoop))
+
+    def cleanup() {
+        selectorLoop.stop()
+    }
+
+    def "client can exchange messages with server through shared memory"() {
+        def message = "x" * 5000
+
+        when:
+        def acceptor = incomingConnector.accept({ ConnectCompletion event ->
+            assert event instanceof SharedMemoryConnectCompletion
+            def connection = event.create(serializer)
+            connection.dispatch(connection.receive() + "!")
+            connection.stop()
+        } as Action, false)
+
+        def connection = outgoingConnector.connect(acceptor.address).create(serializer)
+        connection.dispatch(message)
+
+        then:
+        acceptor.address instanceof SharedMemoryAddress
+        connection.receive() == message + "!"
+        connection.receive() == null
+
+        cleanup:
+        connection?.stop()
+        acceptor?.stop()
+    }
+
+    def "deletes shared memory file once client has attached"() {
+        Action action = Mock()
+
+        when:
+        def acceptor = incomingConnector.accept(action, false)
+        def file = acceptor.address.file
+        def connection = outgoingConnector.connect(acceptor.address).create(serializer)
+        thread.blockUntil.accepted
+
+        then:
+        1 * action.execute({ it instanceof SharedMemoryConnectCompletion }) >> { instant.accepted }
+        !file.exists()
+
+        cleanup:
+        connection?.stop()
+        acceptor?.stop()
+    }
+
+    def "client falls back to the fallback address when it cannot attach to the shared memory file"() {
+        Action action = Mock()
+
+        when:
+        def acceptor = incomingConnector.accept(action, false)
+        acceptor.address.file.delete()
+        def connection = outgoingConnector.connect(acceptor.address).create(serializer)
+        thread.blockUntil.accepted
+
+        then:
+        1 * action.execute({ !(it instanceof SharedMemoryConnectCompletion) }) >> { instant.accepted }
+
+        cleanup:
+        connection?.stop()
+        acceptor?.stop()
+    }
+
+    def "writer fails when reader has stopped"() {
+        def server = SharedMemoryFile.create(tmpDir.testDirectory, 1024)
+        def client = SharedMemoryFile.attach(server.file)
+
+        when:
+        client.inputStream.close()
+        server.outputStream.write(new byte[2048])
+
+        then:
+        thrown(EOFException)
+
+        cleanup:
+        server?.close()
+        client?.close()
+    }
+
+    def "reader receives end of stream once writer has stopped and remaining bytes have been read"() {
+        def server = SharedMemoryFile.create(tmpDir.testDirectory, 1024)
+        def client = SharedMemoryFile.attach(server.file)
+        def outstr = server.outputStream
+        def instr = client.inputStream
+
+        when:
+        outstr.write([1, 2, 3] as byte[])
+        outstr.flush()
+        outstr.close()
+
+        then:
+        instr.read() == 1
+        instr.read(new byte[10]) == 2
+        instr.read() == -1
+
+        cleanup:
+        server?.close()
+        client?.close()
+    }
+
+    def "only one client can attach"() {
+        def server = SharedMemoryFile.create(tmpDir.testDirectory, 1024)
+
+        when:
+        def client = SharedMemoryFile.attach(server.file)
+
+        then:
+        client != null
+        server.attached
+        SharedMemoryFile.attach(server.file) == null
+
+        cleanup:
+        server?.close()
+        client?.close()
+    }
+}
@@ -54,14 +54,30 @@ public class DefaultModelRegistry implements ModelRegistry {
     private final ModelRuleExtractor ruleExtractor;
 
     private final Set<RuleBinder> binders = Sets.newIdentityHashSet();
-    private final List<MutatorRuleBinder<?>> pendingMutatorBinders = Lists.newLinkedList();
-    private final List<MutatorRuleBinder<?>> unboundSubjectMutatorBinders = Lists.newLinkedList();
+    private final Queue<MutatorRuleBinder<?>> pendingMutatorBinders = Lists.newLinkedList();
+    private final Set<MutatorRuleBinder<?>> unboundSubjectMutatorBinders = Sets.newIdentityHashSet();
     private final LinkedHashMap<ModelRule, ModelBinding<?>> rulesWithInputsBeingClosed = Maps.newLinkedHashMap();
 
     boolean reset;
 
+    // The rules registered by the build that populated this registry, used to detect that a build reusing it registers different rules
+    private final boolean trackRules;
+    private final Set<Object> registeredRules = Sets.newHashSet();
+    private final Set<Class<?>> ruleSources = Sets.newLinkedHashSet();
+    private boolean rulesChanged;
+    private int rulesExecuted;
+    private int rulesReused;
+
     public DefaultModelRegistry(ModelRuleExtractor ruleExtractor) {
+        this(ruleExtractor, false);
+    }
+
+    /**
+     * @param trackRules whether to remember the rules that populate this registry, so that {@link #isRulesChanged()} can tell whether a build reusing it registers the same rules
+     */
+    public DefaultModelRegistry(ModelRuleExtractor ruleExtractor, boolean trackRules) {
         this.ruleExtractor = ruleExtractor;
+        this.trackRules = trackRules;
         ModelCreator rootCreator = ModelCreators.of(ModelReference.of(ModelPath.ROOT), BiActions.doNothing()).descriptor("<root>").withProjection(EmptyModelProjection.INSTANCE).build();
         modelGraph = new ModelGraph(new ModelElementNode(toCreatorBinder(rootCreator)));
         modelGraph.getRoot().setState(Created);
@@ -88,12 +104,12 @@ public class DefaultModelRegistry implements ModelRegistry {
     }
 
     private ModelNodeInternal registerNode(ModelNodeInternal parent, ModelNodeInternal child) {
-        if (reset) {
-            return child;
-        }
-
         ModelCreator creator = child.getCreatorBinder().getCreator();
         ModelPath path = child.getPath();
+        if (reset && ruleReused(creator.getDescriptor(), path)) {
+            return child;
+        }
+        ruleRegistered(creator.getDescriptor(), path);
 
         // Disabled before 2.3 release due to not wanting to validate task names (which may contain invalid chars), at least not yet
         // ModelPath.validateName(name);
@@ -152,9 +168,10 @@ public class DefaultModelRegistry implements ModelRegistry {
     }
 
     private <T> void bind(ModelReference<T> subject, ModelActionRole role, ModelAction<T> mutator, ModelPath scope) {
-        if (reset) {
+        if (reset && ruleReused(mutator.getDescriptor(), role, subject, scope)) {
             return;
         }
+        ruleRegistered(mutator.getDescriptor(), role, subject, scope);
 
         MutatorRuleBinder<T> binder = new MutatorRuleBinder<T>(subject, role, mutator, scope, binders);
 
@@ -162,10 +179,8 @@ public class DefaultModelRegistry implements ModelRegistry {
     }
 
     private void flushPendingMutatorBinders() {
-        Iterator<MutatorRuleBinder<?>> iterator = pendingMutatorBinders.iterator();
-        while (iterator.hasNext()) {
-            MutatorRuleBinder<?> binder = iterator.next();
-            iterator.remove();
+        MutatorRuleBinder<?> binder;
+        while ((binder = pendingMutatorBinders.poll()) != null) {
             bindMutatorSubject(binder);
         }
     }
@@ -528,6 +543,7 @@ public class DefaultModelRegistry implements ModelRegistry {
 
         LOGGER.debug("Creating {} using {}", node.getPath(), creator.getDescriptor());
 
+        rulesExecuted++;
         try {
             creator.create(node, views);
         } catch (Exception e) {
@@ -548,6 +564,7 @@ public class DefaultModelRegistry implements ModelRegistry {
         LOGGER.debug("Mutating {} using {}", node.getPath(), mutator.getDescriptor());
 
         ModelView<? extends T> view = assertView(node, boundMutator.getSubjectReference(), descriptor, inputs);
+        rulesExecuted++;
         try {
             mutator.execute(node, view.getInstance(), inputs);
         } catch (Exception e) {
@@ -633,9 +650,75 @@ public class DefaultModelRegistry implements ModelRegistry {
         return modelGraph.find(path);
     }
 
+    private void ruleRegistered(Object rule, Object... target) {
+        if (trackRules) {
+            registeredRules.add(ruleKey(rule, target));
+        }
+    }
+
+    /**
+     * Returns true when the given rule was registered by the build that populated this registry, so that its results can be reused.
+     * Otherwise the rule has to be registered, and this registry is marked as changed.
+     */
+    private boolean ruleReused(Object rule, Object... target) {
+        if (trackRules && !registeredRules.contains(ruleKey(rule, target))) {
+            rulesChanged = true;
+            return false;
+        }
+        rulesReused++;
+        return true;
+    }
+
+    private static Object ruleKey(Object rule, Object... target) {
+        List<Object> key = Lists.newArrayList(target);
+        // Descriptors do not implement equality, so compare their descriptions instead.
+        // Rule source classes are compared by name, as a class reloaded from an unchanged classpath is the same rule source.
+        if (rule instanceof ModelRuleDescriptor) {
+            key.add(toString((ModelRuleDescriptor) rule));
+        } else if (rule instanceof Class) {
+            key.add(((Class<?>) rule).getName());
+        } else {
+            key.add(rule);
+        }
+        return key;
+    }
+
+    /**
+     * Returns true when a build reusing this registry registered a rule or applied a rule source that was not used when this registry was populated.
+     * Such a rule is registered as usual, but the registry may no longer reflect the rules of the build and should not be reused again.
+     */
+    public boolean isRulesChanged() {
+        return rulesChanged;
+    }
+
+    /**
+     * Returns the rule source classes applied since this registry was created or last prepared for reuse.
+     * The implementation of these classes is not tracked by this registry, so the owner must check that they are unchanged before reusing it.
+     */
+    public Set<Class<?>> getRuleSources() {
+        return Collections.unmodifiableSet(ruleSources);
+    }
+
+    /**
+     * Returns the number of creation and mutation rules executed since this registry was created or last prepared for reuse.
+     */
+    public int getRulesExecuted() {
+        return rulesExecuted;
+    }
+
+    /**
+     * Returns the number of rules registered since this registry was last prepared for reuse, whose results were reused rather than registered again.
+     */
+    public int getRulesReused() {
+        return rulesReused;
+    }
+
     @Override
     public void prepareForReuse() {
         reset = true;
+        rulesExecuted = 0;
+        rulesReused = 0;
+        ruleSources.clear();
 
         List<ModelNodeInternal> ephemerals = Lists.newLinkedList();
         collectEphemeralChildren(modelGraph.getRoot(), ephemerals);
@@ -926,6 +1009,12 @@ public class DefaultModelRegistry implements ModelRegistry {
         }
 
         public void apply(Class<? extends RuleSource> rules, ModelPath scope) {
+            if (trackRules) {
+                ruleSources.add(rules);
+            }
+            if (!reset || !ruleReused(rules, scope)) {
+                ruleRegistered(rules, scope);
+            }
             Iterable<ExtractedModelRule> extractedRules = ruleExtractor.extract(rules);
             for (ExtractedModelRule extractedRule : extractedRules) {
                 // TODO - remove this when we remove the 'rule dependencies' mechanism
@@ -16,22 +16,23 @@
 
 package org.gradle.model.internal.registry;
 
-import com.google.common.collect.LinkedHashMultimap;
 import com.google.common.collect.Maps;
-import com.google.common.collect.SetMultimap;
 import org.gradle.api.Nullable;
 import org.gradle.model.internal.core.ModelNode;
 import org.gradle.model.internal.core.ModelPath;
+import org.gradle.model.internal.core.ModelPromise;
+import org.gradle.model.internal.type.ModelType;
 
 import java.util.*;
 
 public class ModelGraph {
     private final ModelNodeInternal root;
     private final Map<ModelPath, ModelNodeInternal> flattened = Maps.newTreeMap();
-    private final SetMultimap<ModelPath, ModelCreationListener> pathListeners = LinkedHashMultimap.create();
-    private final SetMultimap<ModelPath, ModelCreationListener> parentListeners = LinkedHashMultimap.create();
-    private final SetMultimap<ModelPath, ModelCreationListener> scopeListeners = LinkedHashMultimap.create();
-    private final Set<ModelCreationListener> listeners = new LinkedHashSet<ModelCreationListener>();
+    private final Map<ModelPath, IndexedListeners> pathListeners = Maps.newHashMap();
+    private final Map<ModelPath, IndexedListeners> parentListeners = Maps.newHashMap();
+    private final Map<ModelPath, IndexedListeners> scopeListeners = Maps.newHashMap();
+    private final IndexedListeners listeners = new IndexedListeners(null, null);
+    private long nextListenerId;
     private boolean notifying;
     private final List<ModelCreationListener> pendingListeners = new ArrayList<ModelCreationListener>();
     private final List<ModelNodeInternal> pendingNodes = new ArrayList<ModelNodeInternal>();
@@ -63,22 +64,24 @@ public class ModelGraph {
         flattened.put(node.getPath(), node);
         notifying = true;
         try {
-            notifyListeners(node, pathListeners.get(node.getPath()));
-            notifyListeners(node, parentListeners.get(node.getPath().getParent()));
-            notifyListeners(node, scopeListeners.get(node.getPath()));
-            notifyListeners(node, scopeListeners.get(node.getPath().getParent()));
-            notifyListeners(node, listeners);
+            TypeMatches typeMatches = new TypeMatches(node.getPromise());
+            notifyListeners(node, pathListeners.get(node.getPath()), typeMatches);
+            notifyListeners(node, parentListeners.get(node.getPath().getParent()), typeMatches);
+            notifyListeners(node, scopeListeners.get(node.getPath()), typeMatches);
+            notifyListeners(node, scopeListeners.get(node.getPath().getParent()), typeMatches);
+            notifyListeners(node, listeners, typeMatches);
         } finally {
             notifying = false;
         }
     }
 
-    private void notifyListeners(ModelNodeInternal node, Iterable<ModelCreationListener> listeners) {
-        Iterator<ModelCreationListener> iterator = listeners.iterator();
-        while (iterator.hasNext()) {
-            ModelCreationListener listener = iterator.next();
-            if (maybeNotify(node, listener)) {
-                iterator.remove();
+    private void notifyListeners(ModelNodeInternal node, @Nullable IndexedListeners listeners, TypeMatches typeMatches) {
+        if (listeners == null) {
+            return;
+        }
+        for (ListenerRegistration registration : listeners.collectMatching(typeMatches)) {
+            if (registration.listener.onCreate(node)) {
+                registration.remove();
             }
         }
     }
@@ -103,7 +106,7 @@ public class ModelGraph {
                         return;
                     }
                 }
-                pathListeners.put(listener.matchPath(), listener);
+                register(pathListeners, listener.matchPath(), listener);
                 return;
             }
             if (listener.matchParent() != null) {
@@ -115,7 +118,7 @@ public class ModelGraph {
                         }
                     }
                 }
-                parentListeners.put(listener.matchParent(), listener);
+                register(parentListeners, listener.matchParent(), listener);
                 return;
             }
             if (listener.matchScope() != null) {
@@ -130,7 +133,7 @@ public class ModelGraph {
                         }
                     }
                 }
-                scopeListeners.put(listener.matchScope(), listener);
+                register(scopeListeners, listener.matchScope(), listener);
                 return;
             }
             for (ModelNodeInternal node : flattened.values()) {
@@ -138,12 +141,21 @@ public class ModelGraph {
                     return;
                 }
             }
-            listeners.add(listener);
+            listeners.add(new ListenerRegistration(nextListenerId++, listener, listeners));
         } finally {
             notifying = false;
         }
     }
 
+    private void register(Map<ModelPath, IndexedListeners> index, ModelPath key, ModelCreationListener listener) {
+        IndexedListeners listeners = index.get(key);
+        if (listeners == null) {
+            listeners = new IndexedListeners(index, key);
+            index.put(key, listeners);
+        }
+        listeners.add(new ListenerRegistration(nextListenerId++, listener, listeners));
+    }
+
     private void flush() {
         while (!pendingListeners.isEmpty()) {
             doAddListener(pendingListeners.remove(0));
@@ -183,4 +195,110 @@ public class ModelGraph {
 
         return flattened.remove(node.getPath());
     }
+
+    /**
+     * The listeners registered for a single path, parent or scope, grouped by the type they match so that each type is checked
+     * against a new node only once, regardless of how many listeners are interested in it.
+     */
+    private static class IndexedListeners {
+        private final Map<ModelPath, IndexedListeners> owner;
+        private final ModelPath key;
+        private final Map<ModelType<?>, Set<ListenerRegistration>> byType = new LinkedHashMap<ModelType<?>, Set<ListenerRegistration>>();
+        private final Set<ListenerRegistration> untyped = new LinkedHashSet<ListenerRegistration>();
+
+        IndexedListeners(@Nullable Map<ModelPath, IndexedListeners> owner, @Nullable ModelPath key) {
+            this.owner = owner;
+            this.key = key;
+        }
+
+        void add(ListenerRegistration registration) {
+            ModelType<?> type = registration.type;
+            if (type == null) {
+                untyped.add(registration);
+                return;
+            }
+            Set<ListenerRegistration> registrations = byType.get(type);
+            if (registrations == null) {
+                registrations = new LinkedHashSet<ListenerRegistration>();
+                byType.put(type, registrations);
+            }
+            registrations.add(registration);
+        }
+
+        void remove(ListenerRegistration registration) {
+            ModelType<?> type = registration.type;
+            if (type == null) {
+                untyped.remove(registration);
+            } else {
+                Set<ListenerRegistration> registrations = byType.get(type);
+                if (registrations != null && registrations.remove(registration) && registrations.isEmpty()) {
+                    byType.remove(type);
+                }
+            }
+            if (owner != null && untyped.isEmpty() && byType.isEmpty()) {
+                owner.remove(key);
+            }
+        }
+
+        /**
+         * Returns the listeners interested in a node with the given promise, in the order they were registered.
+         */
+        List<ListenerRegistration> collectMatching(TypeMatches typeMatches) {
+            List<ListenerRegistration> matches = new ArrayList<ListenerRegistration>(untyped);
+            boolean sort = false;
+            for (Map.Entry<ModelType<?>, Set<ListenerRegistration>> entry : byType.entrySet()) {
+                if (typeMatches.matches(entry.getKey())) {
+                    sort = sort || !matches.isEmpty();
+                    matches.addAll(entry.getValue());
+                }
+            }
+            if (sort) {
+                Collections.sort(matches);
+            }
+            return matches;
+        }
+    }
+
+    private static class ListenerRegistration implements Comparable<ListenerRegistration> {
+        private final long id;
+        private final ModelCreationListener listener;
+        private final ModelType<?> type;
+        private final IndexedListeners listeners;
+
+        ListenerRegistration(long id, ModelCreationListener listener, IndexedListeners listeners) {
+            this.id = id;
+            this.listener = listener;
+            this.type = listener.matchType();
+            this.listeners = listeners;
+        }
+
+        void remove() {
+            listeners.remove(this);
+        }
+
+        public int compareTo(ListenerRegistration other) {
+            return id < other.id ? -1 : id == other.id ? 0 : 1;
+        }
+    }
+
+    /**
+     * Remembers which types a node's promise can be viewed as, as the same types are typically matched by listeners at several paths.
+     */
+    private static class TypeMatches {
+        private final ModelPromise promise;
+        private final Map<ModelType<?>, Boolean> matches = new HashMap<ModelType<?>, Boolean>();
+
+        TypeMatches(ModelPromise promise) {
+            this.promise = promise;
+        }
+
+        boolean matches(ModelType<?> type) {
+            Boolean match = matches.get(type);
+            if (match == null) {
+                match = promise.canBeViewedAsWritable(type) || promise.canBeViewedAsReadOnly(type);
+                matches.put(type, match);
+            }
+            return match;
+        }
+    }
 }
@@ -344,6 +344,113 @@ class ModelGraphTest extends Specification {
         0 * listener1.onCreate(_)
     }
 
+    def "notifies listeners interested in the same node in the order they were added"() {
+        def listener1 = Mock(ModelCreationListener)
+        def listener2 = Mock(ModelCreationListener)
+        def listener3 = Mock(ModelCreationListener)
+        def listener4 = Mock(ModelCreationListener)
+        def a = node("a", String)
+
+        given:
+        listener1.matchType() >> ModelType.of(String)
+        listener3.matchType() >> ModelType.of(Long)
+        listener4.matchType() >> ModelType.of(String)
+        graph.addListener(listener1)
+        graph.addListener(listener2)
+        graph.addListener(listener3)
+        graph.addListener(listener4)
+
+        when:
+        graph.add(a)
+
+        then:
+        1 * listener1.onCreate(a)
+
+        then:
+        1 * listener2.onCreate(a)
+
+        then:
+        1 * listener4.onCreate(a)
+        0 * listener3.onCreate(_)
+    }
+
+    def "checks each type listened for once when node added"() {
+        def promise = Mock(ModelPromise)
+        def a = Stub(ModelNodeInternal) {
+            getPath() >> ModelPath.path("a")
+            getPromise() >> promise
+        }
+        def notified = []
+        def listeners = (1..10).collect { i ->
+            def listener = Stub(ModelCreationListener)
+            listener.matchType() >> ModelType.of(i % 2 == 0 ? String : Long)
+            listener.matchScope() >> (i % 3 == 0 ? a.path : ModelPath.ROOT)
+            listener.onCreate(_) >> { notified << i; false }
+            listener
+        }
+
+        given:
+        listeners.each { graph.addListener(it) }
+
+        when:
+        graph.add(a)
+
+        then:
+        1 * promise.canBeViewedAsWritable(ModelType.of(String)) >> true
+        1 * promise.canBeViewedAsWritable(ModelType.of(Long)) >> false
+        1 * promise.canBeViewedAsReadOnly(ModelType.of(Long)) >> false
+        0 * promise._
+        notified as Set == [2, 4, 6, 8, 10] as Set
+    }
+
+    def "stops notifying type matching listener after listener signals it is done"() {
+        def listener1 = Mock(ModelCreationListener)
+        def listener2 = Mock(ModelCreationListener)
+        def a = node("a", String)
+        def b = node("b", String)
+
+        given:
+        listener1.matchType() >> ModelType.of(String)
+        listener1.matchScope() >> ModelPath.ROOT
+        listener2.matchType() >> ModelType.of(String)
+        listener2.matchScope() >> ModelPath.ROOT
+        graph.addListener(listener1)
+        graph.addListener(listener2)
+
+        when:
+        graph.add(a)
+        graph.add(b)
+
+        then:
+        1 * listener1.onCreate(a) >> true
+        1 * listener2.onCreate(a)
+        1 * listener2.onCreate(b)
+        0 * _.onCreate(_)
+    }
+
+    def "notifies each type listener of every node of its type"() {
+        def types = [String, Integer, Long, Short]
+        def notified = []
+        def listeners = (0..<12).collect { i ->
+            def listener = Stub(ModelCreationListener)
+            listener.matchType() >> ModelType.of(types[i % types.size()])
+            listener.matchScope() >> ModelPath.ROOT
+            listener.onCreate(_) >> { ModelNodeInternal node -> notified << [i, node.path.name]; false }
+            listener
+        }
+        def added = (0..<40).collect { node("element$it", types[it % types.size()]) }
+
+        given:
+        listeners.each { graph.addListener(it) }
+
+        when:
+        added.each { graph.add(it) }
+
+        then:
+        notified.size() == 120
+        notified as Set == (0..<40).collectMany { n -> (0..<12).findAll { it % types.size() == n % types.size() }.collect { [it, "element$n".toString()] } } as Set
+    }
+
     def node(String path, Class<?> type = String) {
         return Stub(ModelNodeInternal) {
             getPath() >> ModelPath.path(path)
@@ -0,0 +1,124 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.model.internal.registry
+
+import org.gradle.internal.Factory
+import org.gradle.model.RuleSource
+import org.gradle.model.internal.fixture.ModelRegistryHelper
+import org.gradle.model.internal.inspect.DefaultModelCreatorFactory
+import org.gradle.model.internal.inspect.MethodModelRuleExtractors
+import org.gradle.model.internal.inspect.ModelRuleExtractor
+import org.gradle.model.internal.manage.schema.extract.DefaultModelSchemaStore
+import spock.lang.Specification
+
+class ModelRegistryReuseTest extends Specification {
+
+    def modelRegistry = new DefaultModelRegistry(new ModelRuleExtractor(MethodModelRuleExtractors.coreExtractors(DefaultModelSchemaStore.getInstance(), new DefaultModelCreatorFactory(DefaultModelSchemaStore.getInstance()))), true)
+    def registry = new ModelRegistryHelper(modelRegistry)
+
+    def rules(String... mutated) {
+        registry.create("foo") { it.ephemeral(true).unmanaged(List, { [] } as Factory) }
+        registry.create("bar") { it.unmanaged(String, "bar") }
+        mutated.each { value ->
+            registry.mutate(List) { it.add value }
+        }
+    }
+
+    def "counts rules executed and reused when registry is reused"() {
+        when:
+        rules("1")
+        registry.get("foo")
+        registry.get("bar")
+
+        then:
+        modelRegistry.rulesExecuted == 3
+        modelRegistry.rulesReused == 0
+        !modelRegistry.rulesChanged
+
+        when:
+        modelRegistry.prepareForReuse()
+        rules("1")
+
+        then:
+        registry.get("foo") == ["1"]
+        modelRegistry.rulesExecuted == 2
+        modelRegistry.rulesReused == 3
+        !modelRegistry.rulesChanged
+    }
+
+    def "registers a rule that was not registered when registry was populated"() {
+        when:
+        rules("1")
+        registry.get("foo")
+        modelRegistry.prepareForReuse()
+        rules("1")
+        registry.create("baz") { it.unmanaged(String, "baz") }
+
+        then:
+        registry.get("baz") == "baz"
+        registry.get("foo") == ["1"]
+        modelRegistry.rulesReused == 3
+        modelRegistry.rulesChanged
+    }
+
+    def "detects rule registered for a different subject than when registry was populated"() {
+        when:
+        rules("1")
+        registry.get("foo")
+        modelRegistry.prepareForReuse()
+        registry.create("foo") { it.ephemeral(true).unmanaged(List, { [] } as Factory) }
+        registry.create("bar") { it.unmanaged(String, "bar") }
+        registry.mutate(Set) { it.add "1" }
+
+        then:
+        modelRegistry.rulesReused == 2
+        modelRegistry.rulesChanged
+    }
+
+    def "records rule sources applied since registry was last prepared for reuse"() {
+        when:
+        modelRegistry.apply(TestRules)
+
+        then:
+        modelRegistry.ruleSources == [TestRules] as Set
+
+        when:
+        modelRegistry.prepareForReuse()
+
+        then:
+        modelRegistry.ruleSources.empty
+    }
+
+    def "does not track rules unless asked to"() {
+        def modelRegistry = new DefaultModelRegistry(Stub(ModelRuleExtractor))
+        def registry = new ModelRegistryHelper(modelRegistry)
+
+        when:
+        registry.create("foo") { it.unmanaged(String, "foo") }
+        modelRegistry.prepareForReuse()
+        registry.create("bar") { it.unmanaged(String, "bar") }
+
+        then:
+        modelRegistry.rulesReused == 1
+        !modelRegistry.rulesChanged
+        modelRegistry.ruleSources.empty
+    }
+
+    static class TestRules extends RuleSource {
+    }
+}
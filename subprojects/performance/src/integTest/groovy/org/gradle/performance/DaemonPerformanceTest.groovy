@@ -45,4 +45,22 @@ class DaemonPerformanceTest extends AbstractCrossVersionPerformanceTest {
         "small"     | millis(500)  | DataAmount.kbytes(150)
         "multi"     | millis(1000) | DataAmount.mbytes(10)
     }
+
+    // Measures the wall clock time and memory of the whole build. The client's own CPU time and loaded classes are only logged by the client at debug level
+    def "help with warm daemon"() {
+        given:
+        runner.testId = "daemon help small"
+        runner.testProject = "small"
+        runner.useDaemon = true
+        runner.tasksToRun = ['help']
+        runner.maxExecutionTimeRegression = millis(200)
+        runner.maxMemoryRegression = DataAmount.kbytes(150)
+        runner.targetVersions = ['2.4', 'last']
+
+        when:
+        def result = runner.run()
+
+        then:
+        result.assertCurrentVersionHasNotRegressed()
+    }
 }
@@ -16,6 +16,7 @@
 
 package org.gradle.api.internal.tasks.testing.detection;
 
+import org.gradle.api.Nullable;
 import org.gradle.api.file.FileTree;
 import org.gradle.api.internal.tasks.testing.TestClassProcessor;
 import org.gradle.api.internal.tasks.testing.TestFramework;
@@ -24,30 +25,66 @@ import org.gradle.api.internal.tasks.testing.WorkerTestClassProcessorFactory;
 import org.gradle.api.internal.tasks.testing.processors.MaxNParallelTestClassProcessor;
 import org.gradle.api.internal.tasks.testing.processors.RestartEveryNTestClassProcessor;
 import org.gradle.api.internal.tasks.testing.processors.TestMainAction;
+import org.gradle.api.internal.tasks.testing.selection.ImpactedTestClassProcessor;
 import org.gradle.api.internal.tasks.testing.worker.ForkingTestClassProcessor;
+import org.gradle.api.internal.tasks.testing.worker.PooledTestClassProcessor;
+import org.gradle.api.internal.tasks.testing.worker.TestWorkerPool;
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
 import org.gradle.api.tasks.testing.Test;
 import org.gradle.internal.Factory;
 import org.gradle.internal.TrueTimeProvider;
 import org.gradle.messaging.actor.ActorFactory;
 import org.gradle.process.internal.WorkerProcessBuilder;
 
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.Set;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
 /**
  * The default test class scanner factory.
  */
 public class DefaultTestExecuter implements TestExecuter {
+    private static final Logger LOGGER = Logging.getLogger(DefaultTestExecuter.class);
+    // The packages of the supported test frameworks and of the libraries their classes refer to, which the worker loads alongside its own classes
+    private static final String[] TEST_FRAMEWORK_PACKAGES = {"junit/", "org/junit/", "org/hamcrest/", "org/testng/", "com/beust/jcommander/", "bsh/"};
     private final Factory<WorkerProcessBuilder> workerFactory;
     private final ActorFactory actorFactor;
+    private final TestWorkerPool workerPool;
+    private final Set<String> affectedClasses;
 
     public DefaultTestExecuter(Factory<WorkerProcessBuilder> workerFactory, ActorFactory actorFactor) {
+        this(workerFactory, actorFactor, null, null);
+    }
+
+    /**
+     * @param workerPool the pool to reuse test workers from, or null to start new test workers.
+     * @param affectedClasses the classes to execute the tests of, or null to execute all tests.
+     */
+    public DefaultTestExecuter(Factory<WorkerProcessBuilder> workerFactory, ActorFactory actorFactor, @Nullable TestWorkerPool workerPool, @Nullable Set<String> affectedClasses) {
         this.workerFactory = workerFactory;
         this.actorFactor = actorFactor;
+        this.workerPool = workerPool;
+        this.affectedClasses = affectedClasses;
     }
 
     public void execute(final Test testTask, TestResultProcessor testResultProcessor) {
         final TestFramework testFramework = testTask.getTestFramework();
         final WorkerTestClassProcessorFactory testInstanceFactory = testFramework.getProcessorFactory();
+        final List<File> sharedClassPath = new ArrayList<File>();
+        final List<File> sessionClassPath = new ArrayList<File>();
+        final boolean reuseWorkers = workerPool != null && canReuseWorkers(testTask, sharedClassPath, sessionClassPath);
         final Factory<TestClassProcessor> forkingProcessorFactory = new Factory<TestClassProcessor>() {
             public TestClassProcessor create() {
+                if (reuseWorkers) {
+                    return new PooledTestClassProcessor(workerPool, workerFactory, testInstanceFactory, testTask,
+                            sharedClassPath, sessionClassPath, testFramework.getWorkerConfigurationAction());
+                }
                 return new ForkingTestClassProcessor(workerFactory, testInstanceFactory, testTask,
                         testTask.getClasspath(), testFramework.getWorkerConfigurationAction());
             }
@@ -60,6 +97,9 @@ public class DefaultTestExecuter implements TestExecuter {
 
         TestClassProcessor processor = new MaxNParallelTestClassProcessor(testTask.getMaxParallelForks(),
                 reforkingProcessorFactory, actorFactor);
+        if (affectedClasses != null) {
+            processor = new ImpactedTestClassProcessor(processor, affectedClasses);
+        }
 
         final FileTree testClassFiles = testTask.getCandidateClassFiles();
 
@@ -74,4 +114,66 @@ public class DefaultTestExecuter implements TestExecuter {
         }
         new TestMainAction(detector, processor, testResultProcessor, new TrueTimeProvider(), testTask.getPath(), String.format("Gradle Test Run %s", testTask.getPath())).run();
     }
+
+    /**
+     * Splits the test runtime classpath into the jars of the test framework, which a reused worker loads once alongside its own classes, and everything
+     * else, which a reused worker loads for each test task. Application libraries are not shared, so that their static state does not outlive the test
+     * task, and so that they can see the classes of the task.
+     */
+    private static void splitClassPath(Test testTask, List<File> sharedClassPath, List<File> sessionClassPath) {
+        for (File file : testTask.getClasspath()) {
+            if (file.isFile() && file.getName().endsWith(".jar") && isTestFrameworkJar(file)) {
+                sharedClassPath.add(file);
+            } else {
+                sessionClassPath.add(file);
+            }
+        }
+    }
+
+    private static boolean isTestFrameworkJar(File jar) {
+        try {
+            ZipFile zipFile = new ZipFile(jar);
+            try {
+                Enumeration<? extends ZipEntry> entries = zipFile.entries();
+                while (entries.hasMoreElements()) {
+                    String name = entries.nextElement().getName();
+                    for (String prefix : TEST_FRAMEWORK_PACKAGES) {
+                        if (name.startsWith(prefix)) {
+                            return true;
+                        }
+                    }
+                }
+                return false;
+            } finally {
+                zipFile.close();
+            }
+        } catch (IOException e) {
+            LOGGER.debug("Could not read {}, loading it for each test task.", jar);
+            return false;
+        }
+    }
+
+    private static boolean canReuseWorkers(Test testTask, List<File> sharedClassPath, List<File> sessionClassPath) {
+        splitClassPath(testTask, sharedClassPath, sessionClassPath);
+        String reason = null;
+        if (testTask.getForkEvery() > 0) {
+            reason = "forkEvery is set";
+        } else if (testTask.getDebug()) {
+            reason = "debugging is enabled";
+        } else if (sharedClassPath.isEmpty()) {
+            reason = "the test framework jars are not found on the test runtime classpath";
+        } else {
+            for (String jvmArg : testTask.getAllJvmArgs()) {
+                if (jvmArg.startsWith("-Djava.security.manager")) {
+                    reason = "a security manager is installed";
+                    break;
+                }
+            }
+        }
+        if (reason != null) {
+            LOGGER.info("{} - starting new test workers as {}.", testTask.getPath(), reason);
+            return false;
+        }
+        return true;
+    }
 }
@@ -23,6 +23,9 @@ import org.gradle.api.internal.tasks.testing.junit.result.TestMethodResult;
 import org.gradle.api.internal.tasks.testing.junit.result.TestResultsProvider;
 import org.gradle.api.logging.Logger;
 import org.gradle.api.logging.Logging;
+import org.gradle.api.tasks.testing.TestOutputEvent;
+import org.gradle.internal.UncheckedException;
+import org.gradle.internal.hash.HashValue;
 import org.gradle.reporting.HtmlReportBuilder;
 import org.gradle.reporting.HtmlReportRenderer;
 import org.gradle.reporting.ReportRenderer;
@@ -30,6 +33,10 @@ import org.gradle.util.Clock;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.UnsupportedEncodingException;
+import java.io.Writer;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.List;
 
 import static org.gradle.api.tasks.testing.TestResult.ResultType.SKIPPED;
@@ -70,24 +77,111 @@ public class DefaultTestReport implements TestReporter {
 
     private void generateFiles(AllTestResults model, final TestResultsProvider resultsProvider, File reportDir) {
         try {
+            final RenderedPageHashes pageHashes = RenderedPageHashes.load(reportDir);
             HtmlReportRenderer htmlRenderer = new HtmlReportRenderer();
             htmlRenderer.render(model, new ReportRenderer<AllTestResults, HtmlReportBuilder>() {
                 @Override
                 public void render(AllTestResults model, HtmlReportBuilder output) throws IOException {
                     PackagePageRenderer packagePageRenderer = new PackagePageRenderer();
                     ClassPageRenderer classPageRenderer = new ClassPageRenderer(resultsProvider);
+                    int classCount = 0;
+                    int renderedClassCount = 0;
 
                     output.renderHtmlPage("index.html", model, new OverviewPageRenderer());
                     for (PackageTestResults packageResults : model.getPackages()) {
-                        output.renderHtmlPage(packageResults.getBaseUrl(), packageResults, packagePageRenderer);
+                        ResultsHasher packageHasher = new ResultsHasher();
+                        packageHasher.putString(packageResults.getName());
                         for (ClassTestResults classResults : packageResults.getClasses()) {
-                            output.renderHtmlPage(classResults.getBaseUrl(), classResults, classPageRenderer);
+                            String classHash = hashClassResults(classResults, resultsProvider);
+                            packageHasher.putString(classHash);
+                            classCount++;
+                            if (!pageHashes.isUpToDate(classResults.getBaseUrl(), classHash)) {
+                                output.renderHtmlPage(classResults.getBaseUrl(), classResults, classPageRenderer);
+                                renderedClassCount++;
+                            }
+                        }
+                        if (!pageHashes.isUpToDate(packageResults.getBaseUrl(), packageHasher.hash())) {
+                            output.renderHtmlPage(packageResults.getBaseUrl(), packageResults, packagePageRenderer);
                         }
                     }
+                    LOG.info("Rendered {} of {} test class pages, the remaining pages are unchanged.", renderedClassCount, classCount);
                 }
             }, reportDir);
+            pageHashes.store();
         } catch (Exception e) {
             throw new GradleException(String.format("Could not generate test report to '%s'.", reportDir), e);
         }
     }
+
+    /**
+     * Calculates a hash of everything that is rendered on the page of the given class: its test results and its output.
+     */
+    private String hashClassResults(ClassTestResults classResults, TestResultsProvider resultsProvider) {
+        ResultsHasher hasher = new ResultsHasher();
+        hasher.putString(classResults.getName());
+        for (TestResult testResult : classResults.getTestResults()) {
+            hasher.putString(testResult.getName());
+            hasher.putString(testResult.getResultType().name());
+            hasher.putString(String.valueOf(testResult.getDuration()));
+            for (TestFailure failure : testResult.getFailures()) {
+                hasher.putString(String.valueOf(failure.getExceptionType()));
+                hasher.putString(String.valueOf(failure.getMessage()));
+                hasher.putString(String.valueOf(failure.getStackTrace()));
+            }
+        }
+        for (TestOutputEvent.Destination destination : TestOutputEvent.Destination.values()) {
+            hasher.putString(destination.name());
+            if (resultsProvider.hasOutput(classResults.getId(), destination)) {
+                resultsProvider.writeAllOutput(classResults.getId(), destination, hasher);
+            }
+        }
+        return hasher.hash();
+    }
+
+    /**
+     * A {@link Writer} that digests whatever is written to it.
+     */
+    private static class ResultsHasher extends Writer {
+        private final MessageDigest digest;
+
+        ResultsHasher() {
+            try {
+                digest = MessageDigest.getInstance("MD5");
+            } catch (NoSuchAlgorithmException e) {
+                throw UncheckedException.throwAsUncheckedException(e);
+            }
+        }
+
+        void putString(String value) {
+            write(value, 0, value.length());
+            // Separate values, so that adjacent values cannot run together
+            digest.update((byte) 0);
+        }
+
+        String hash() {
+            return new HashValue(digest.digest()).asHexString();
+        }
+
+        @Override
+        public void write(String str, int off, int len) {
+            try {
+                digest.update(str.substring(off, off + len).getBytes("utf-8"));
+            } catch (UnsupportedEncodingException e) {
+                throw UncheckedException.throwAsUncheckedException(e);
+            }
+        }
+
+        @Override
+        public void write(char[] cbuf, int off, int len) {
+            write(new String(cbuf, off, len), 0, len);
+        }
+
+        @Override
+        public void flush() {
+        }
+
+        @Override
+        public void close() {
+        }
+    }
 }
@@ -0,0 +1,103 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.testing.junit.report;
+
+import org.gradle.api.UncheckedIOException;
+import org.gradle.util.GradleVersion;
+
+import java.io.*;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Tracks a content hash for each page of an HTML test report, so that pages whose content has not changed since the previous render are not rewritten.
+ *
+ * <p>The hashes are kept in a file in the report directory. The file is removed before rendering starts and written again once rendering has completed,
+ * so that an interrupted render never leaves behind hashes for pages that were not fully written.</p>
+ */
+class RenderedPageHashes {
+    static final String FILE_NAME = ".page-hashes.bin";
+
+    private final File reportDir;
+    private final Map<String, String> previous;
+    private final Map<String, String> current = new HashMap<String, String>();
+
+    private RenderedPageHashes(File reportDir, Map<String, String> previous) {
+        this.reportDir = reportDir;
+        this.previous = previous;
+    }
+
+    /**
+     * Loads the hashes recorded by the previous render into the given directory, if any, and discards the persisted copy.
+     */
+    public static RenderedPageHashes load(File reportDir) {
+        File hashesFile = new File(reportDir, FILE_NAME);
+        Map<String, String> previous = new HashMap<String, String>();
+        if (hashesFile.isFile()) {
+            try {
+                DataInputStream inputStream = new DataInputStream(new BufferedInputStream(new FileInputStream(hashesFile)));
+                try {
+                    if (inputStream.readUTF().equals(GradleVersion.current().getVersion())) {
+                        int count = inputStream.readInt();
+                        for (int i = 0; i < count; i++) {
+                            previous.put(inputStream.readUTF(), inputStream.readUTF());
+                        }
+                    }
+                } finally {
+                    inputStream.close();
+                }
+            } catch (IOException e) {
+                // Unreadable state - render every page
+                previous.clear();
+            }
+            if (!hashesFile.delete()) {
+                throw new UncheckedIOException(String.format("Could not delete test report state file '%s'.", hashesFile));
+            }
+        }
+        return new RenderedPageHashes(reportDir, previous);
+    }
+
+    /**
+     * Records the hash of the given page for this render, and returns true when the page on disk was rendered from content with the same hash.
+     */
+    public boolean isUpToDate(String page, String hash) {
+        current.put(page, hash);
+        return hash.equals(previous.get(page)) && new File(reportDir, page).isFile();
+    }
+
+    /**
+     * Persists the hashes recorded for this render.
+     */
+    public void store() {
+        File hashesFile = new File(reportDir, FILE_NAME);
+        try {
+            DataOutputStream outputStream = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(hashesFile)));
+            try {
+                outputStream.writeUTF(GradleVersion.current().getVersion());
+                outputStream.writeInt(current.size());
+                for (Map.Entry<String, String> entry : current.entrySet()) {
+                    outputStream.writeUTF(entry.getKey());
+                    outputStream.writeUTF(entry.getValue());
+                }
+            } finally {
+                outputStream.close();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -21,24 +21,49 @@ import com.esotericsoftware.kryo.io.Output;
 import com.google.common.collect.ImmutableMap;
 import org.gradle.api.UncheckedIOException;
 import org.gradle.api.tasks.testing.TestOutputEvent;
-import org.gradle.internal.io.RandomAccessFileInputStream;
 import org.gradle.internal.UncheckedException;
-import org.gradle.internal.serialize.kryo.KryoBackedDecoder;
+import org.gradle.internal.os.OperatingSystem;
 import org.gradle.internal.serialize.kryo.KryoBackedEncoder;
 
 import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
 import java.util.LinkedHashMap;
 import java.util.Map;
 
 public class TestOutputStore {
 
+    private static final int DEFAULT_MAPPED_WINDOW_SIZE = 64 * 1024 * 1024;
+    private static final int DEFAULT_READ_WINDOW_SIZE = 64 * 1024;
+
     private final File resultsDir;
     private final Charset messageStorageCharset;
+    private final boolean mapOutputs;
+    private final int windowSize;
 
     public TestOutputStore(File resultsDir) {
+        // Memory mapped files cannot be deleted on Windows until the mapping is garbage collected, so read through a buffer there
+        this(resultsDir, !OperatingSystem.current().isWindows());
+    }
+
+    private TestOutputStore(File resultsDir, boolean mapOutputs) {
+        this(resultsDir, mapOutputs, mapOutputs ? DEFAULT_MAPPED_WINDOW_SIZE : DEFAULT_READ_WINDOW_SIZE);
+    }
+
+    /**
+     * @param mapOutputs whether to read outputs through memory mapped windows of the outputs file, or through a buffer
+     * @param windowSize the number of bytes of the outputs file mapped or buffered at a time, unless a single output event is larger
+     */
+    TestOutputStore(File resultsDir, boolean mapOutputs, int windowSize) {
         this.resultsDir = resultsDir;
         this.messageStorageCharset = Charset.forName("UTF-8");
+        this.mapOutputs = mapOutputs;
+        this.windowSize = windowSize;
     }
 
     File getOutputsFile() {
@@ -71,6 +96,8 @@ public class TestOutputStore {
 
     public class Writer implements Closeable {
         private final KryoBackedEncoder output;
+        // The encoder counts its position as an int, which overflows for outputs larger than 2GB
+        private long writePosition;
 
         private final Map<Long, Map<Long, TestCaseRegion>> index = new LinkedHashMap<Long, Map<Long, TestCaseRegion>>();
 
@@ -107,6 +134,8 @@ public class TestOutputStore {
             }
             output.writeSmallInt(bytes.length);
             output.writeBytes(bytes, 0, bytes.length);
+
+            writePosition += 1 + varLongSize(classId) + varLongSize(testId) + varLongSize(bytes.length) + bytes.length;
         }
 
         private void mark(long classId, long testId, boolean isStdout) {
@@ -124,11 +153,10 @@ public class TestOutputStore {
 
             Region streamRegion = isStdout ? region.stdOutRegion : region.stdErrRegion;
 
-            int total = output.getWritePosition();
             if (streamRegion.start < 0) {
-                streamRegion.start = total;
+                streamRegion.start = writePosition;
             }
-            streamRegion.stop = total;
+            streamRegion.stop = writePosition;
         }
 
         private void writeIndex() {
@@ -218,7 +246,11 @@ public class TestOutputStore {
 
     public class Reader implements Closeable {
         private final Index index;
-        private final RandomAccessFile dataFile;
+        private final OutputsFile dataFile;
+        private final CharsetDecoder decoder = messageStorageCharset.newDecoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        private final CharBuffer chars = CharBuffer.allocate(8192);
 
         public Reader() {
             File indexFile = getIndexFile();
@@ -262,7 +294,7 @@ public class TestOutputStore {
                 index = rootBuilder.build();
 
                 try {
-                    dataFile = new RandomAccessFile(getOutputsFile(), "r");
+                    dataFile = new OutputsFile(new RandomAccessFile(getOutputsFile(), "r"), mapOutputs, windowSize);
                 } catch (FileNotFoundException e) {
                     throw new UncheckedIOException(e);
                 }
@@ -334,45 +366,33 @@ public class TestOutputStore {
 
             try {
                 dataFile.seek(region.start);
-                long maxPos = region.stop - region.start;
-                KryoBackedDecoder decoder = new KryoBackedDecoder(new RandomAccessFileInputStream(dataFile));
-                while (decoder.getReadPosition() <= maxPos) {
-                    boolean readStdout = decoder.readBoolean();
-                    long readClassId = decoder.readSmallLong();
-                    long readTestId = decoder.readSmallLong();
-                    int readLength = decoder.readSmallInt();
+                while (dataFile.getPosition() <= region.stop) {
+                    boolean readStdout = dataFile.readBoolean();
+                    long readClassId = dataFile.readSmallLong();
+                    long readTestId = dataFile.readSmallLong();
+                    int readLength = dataFile.readSmallInt();
 
                     boolean isClassLevel = readTestId == 0;
 
                     if (stdout != readStdout || classId != readClassId) {
-                        decoder.skipBytes(readLength);
+                        dataFile.skipBytes(readLength);
                         continue;
                     }
 
                     if (ignoreClassLevel && isClassLevel) {
-                        decoder.skipBytes(readLength);
+                        dataFile.skipBytes(readLength);
                         continue;
                     }
 
                     if (ignoreTestLevel && !isClassLevel) {
-                        decoder.skipBytes(readLength);
+                        dataFile.skipBytes(readLength);
                         continue;
                     }
 
                     if (testId == 0 || testId == readTestId) {
-                        byte[] stringBytes = new byte[readLength];
-                        decoder.readBytes(stringBytes);
-                        String message;
-                        try {
-                            message = new String(stringBytes, messageStorageCharset.name());
-                        } catch (UnsupportedEncodingException e) {
-                            // shouldn't happen
-                            throw UncheckedException.throwAsUncheckedException(e);
-                        }
-
-                        writer.write(message);
+                        dataFile.readText(readLength, decoder, chars, writer);
                     } else {
-                        decoder.skipBytes(readLength);
+                        dataFile.skipBytes(readLength);
                     }
                 }
             } catch (IOException e1) {
@@ -385,4 +405,139 @@ public class TestOutputStore {
     public Reader reader() {
         return new Reader();
     }
+
+    private static int varLongSize(long value) {
+        int size = 1;
+        while ((value >>>= 7) != 0 && size < 9) {
+            size++;
+        }
+        return size;
+    }
+
+    /**
+     * Reads the outputs file through a window, which is either memory mapped or buffered. Output events are decoded straight from the window into the
+     * target writer, and skipped events are never read.
+     */
+    private static class OutputsFile implements Closeable {
+        private final RandomAccessFile file;
+        private final FileChannel channel;
+        private final boolean mapped;
+        private final int windowSize;
+        private final long size;
+        private ByteBuffer window;
+        private long windowStart;
+        private long position;
+
+        OutputsFile(RandomAccessFile file, boolean mapped, int windowSize) {
+            this.file = file;
+            this.channel = file.getChannel();
+            this.mapped = mapped;
+            this.windowSize = windowSize;
+            try {
+                this.size = channel.size();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        long getPosition() {
+            return position;
+        }
+
+        void seek(long position) {
+            this.position = position;
+        }
+
+        void skipBytes(int count) {
+            position += count;
+        }
+
+        boolean readBoolean() throws IOException {
+            boolean value = require(1).get() != 0;
+            position++;
+            return value;
+        }
+
+        long readSmallLong() throws IOException {
+            ByteBuffer buffer = require((int) Math.min(9, size - position));
+            long result = 0;
+            int count = 0;
+            for (int shift = 0; shift < 56; shift += 7) {
+                byte b = buffer.get();
+                count++;
+                result |= (long) (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    position += count;
+                    return result;
+                }
+            }
+            result |= (long) (buffer.get() & 0xFF) << 56;
+            position += count + 1;
+            return result;
+        }
+
+        int readSmallInt() throws IOException {
+            return (int) readSmallLong();
+        }
+
+        void readText(int length, CharsetDecoder decoder, CharBuffer chars, java.io.Writer writer) throws IOException {
+            ByteBuffer bytes = require(length).slice();
+            bytes.limit(length);
+            decoder.reset();
+            CoderResult result;
+            do {
+                result = decoder.decode(bytes, chars, true);
+                drain(chars, writer);
+            } while (result.isOverflow());
+            while (decoder.flush(chars).isOverflow()) {
+                drain(chars, writer);
+            }
+            drain(chars, writer);
+            position += length;
+        }
+
+        private static void drain(CharBuffer chars, java.io.Writer writer) throws IOException {
+            chars.flip();
+            writer.write(chars.array(), chars.arrayOffset() + chars.position(), chars.remaining());
+            chars.clear();
+        }
+
+        /**
+         * Returns the window, positioned at the current position and holding at least the given number of bytes.
+         */
+        private ByteBuffer require(int count) throws IOException {
+            if (count < 0 || position + count > size) {
+                throw new EOFException(String.format("Unexpected end of test outputs file at offset %s.", position));
+            }
+            if (window == null || position < windowStart || position + count > windowStart + window.limit()) {
+                load(position, (int) Math.min(Math.max(count, windowSize), size - position));
+            }
+            window.position((int) (position - windowStart));
+            return window;
+        }
+
+        private void load(long start, int length) throws IOException {
+            if (mapped) {
+                window = channel.map(FileChannel.MapMode.READ_ONLY, start, length);
+            } else {
+                if (window == null || window.capacity() < length) {
+                    window = ByteBuffer.allocate(length);
+                }
+                window.clear();
+                window.limit(length);
+                while (window.hasRemaining()) {
+                    if (channel.read(window, start + window.position()) < 0) {
+                        throw new EOFException(String.format("Unexpected end of test outputs file at offset %s.", start + window.position()));
+                    }
+                }
+                window.flip();
+            }
+            windowStart = start;
+        }
+
+        public void close() throws IOException {
+            window = null;
+            file.close();
+        }
+    }
 }
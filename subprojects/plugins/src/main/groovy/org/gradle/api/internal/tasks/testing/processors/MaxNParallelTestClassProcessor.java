@@ -32,6 +32,9 @@ import java.util.List;
 /**
  * Manages a set of parallel TestClassProcessors. Uses a simple round-robin algorithm to assign test classes to
  * processors.
+ *
+ * <p>Stopping a processor can block for a long time while its worker process finishes, so processors are stopped from the calling thread once their
+ * actors have delivered all outstanding test classes, rather than by the actors themselves, whose threads may be shared with other actors.</p>
  */
 public class MaxNParallelTestClassProcessor implements TestClassProcessor {
     private final int maxProcessors;
@@ -40,6 +43,7 @@ public class MaxNParallelTestClassProcessor implements TestClassProcessor {
     private TestResultProcessor resultProcessor;
     private int pos;
     private List<TestClassProcessor> processors = new ArrayList<TestClassProcessor>();
+    private List<TestClassProcessor> rawProcessors = new ArrayList<TestClassProcessor>();
     private List<Actor> actors = new ArrayList<Actor>();
     private Actor resultProcessorActor;
 
@@ -58,6 +62,7 @@ public class MaxNParallelTestClassProcessor implements TestClassProcessor {
         TestClassProcessor processor;
         if (processors.size() < maxProcessors) {
             processor = factory.create();
+            rawProcessors.add(processor);
             Actor actor = actorFactory.createActor(processor);
             processor = actor.getProxy(TestClassProcessor.class);
             actors.add(actor);
@@ -72,7 +77,7 @@ public class MaxNParallelTestClassProcessor implements TestClassProcessor {
 
     public void stop() {
         try {
-            CompositeStoppable.stoppable(processors).add(actors).add(resultProcessorActor).stop();
+            CompositeStoppable.stoppable(actors).add(rawProcessors).add(resultProcessorActor).stop();
         } catch (DispatchException e) {
             throw UncheckedException.throwAsUncheckedException(e.getCause());
         }
@@ -0,0 +1,52 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.testing.selection;
+
+import org.gradle.api.internal.tasks.testing.TestClassProcessor;
+import org.gradle.api.internal.tasks.testing.TestClassRunInfo;
+import org.gradle.api.internal.tasks.testing.TestResultProcessor;
+
+import java.util.Set;
+
+/**
+ * Passes on only those test classes that are affected by a change, or that are nested in a class affected by a change.
+ */
+public class ImpactedTestClassProcessor implements TestClassProcessor {
+    private final TestClassProcessor delegate;
+    private final Set<String> affectedClasses;
+
+    public ImpactedTestClassProcessor(TestClassProcessor delegate, Set<String> affectedClasses) {
+        this.delegate = delegate;
+        this.affectedClasses = affectedClasses;
+    }
+
+    public void startProcessing(TestResultProcessor resultProcessor) {
+        delegate.startProcessing(resultProcessor);
+    }
+
+    public void processTestClass(TestClassRunInfo testClass) {
+        String className = testClass.getTestClassName();
+        int nested = className.indexOf('$');
+        if (affectedClasses.contains(className) || nested > 0 && affectedClasses.contains(className.substring(0, nested))) {
+            delegate.processTestClass(testClass);
+        }
+    }
+
+    public void stop() {
+        delegate.stop();
+    }
+}
@@ -0,0 +1,40 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.testing.selection;
+
+import org.gradle.api.internal.cache.Loader;
+import org.gradle.api.internal.cache.SingleOperationPersistentStore;
+import org.gradle.api.internal.cache.Stash;
+import org.gradle.cache.CacheRepository;
+
+//Keeps the test impact snapshot of the given Test task
+public class LocalTestImpactSnapshotStore implements Loader<TestImpactSnapshot>, Stash<TestImpactSnapshot> {
+
+    private final SingleOperationPersistentStore<TestImpactSnapshot> store;
+
+    public LocalTestImpactSnapshotStore(CacheRepository cacheRepository, Object scope) {
+        this.store = new SingleOperationPersistentStore<TestImpactSnapshot>(cacheRepository, scope, "local test impact snapshot", new TestImpactSnapshot.Serializer());
+    }
+
+    public void put(TestImpactSnapshot snapshot) {
+        store.putAndClose(snapshot);
+    }
+
+    public TestImpactSnapshot get() {
+        return store.getAndClose();
+    }
+}
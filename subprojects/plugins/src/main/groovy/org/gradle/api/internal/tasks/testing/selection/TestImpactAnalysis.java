@@ -0,0 +1,153 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.testing.selection;
+
+import org.gradle.api.internal.tasks.compile.incremental.deps.ClassSetAnalysisData;
+import org.gradle.api.internal.tasks.compile.incremental.deps.DefaultDependentsSet;
+import org.gradle.api.internal.tasks.compile.incremental.deps.DependencyToAll;
+import org.gradle.api.internal.tasks.compile.incremental.deps.DependentsSet;
+import org.gradle.api.internal.tasks.compile.incremental.jar.JarSnapshot;
+import org.gradle.api.internal.tasks.compile.incremental.jar.JarSnapshotCache;
+
+import java.io.File;
+import java.util.*;
+
+/**
+ * The current state of a test runtime classpath, together with the class dependencies found in it.
+ */
+public class TestImpactAnalysis {
+
+    private final TestImpactSnapshot snapshot;
+    private final List<ClassSetAnalysisData> dependencyData = new ArrayList<ClassSetAnalysisData>();
+    private final Map<String, JarSnapshot> jarSnapshots;
+    private final JarSnapshotCache jarSnapshotCache;
+
+    public TestImpactAnalysis(TestImpactSnapshot snapshot, ClassSetAnalysisData directoryClasses, Map<String, JarSnapshot> jarSnapshots, JarSnapshotCache jarSnapshotCache) {
+        this.snapshot = snapshot;
+        this.jarSnapshots = jarSnapshots;
+        this.jarSnapshotCache = jarSnapshotCache;
+        dependencyData.add(directoryClasses);
+        for (JarSnapshot jarSnapshot : jarSnapshots.values()) {
+            dependencyData.add(jarSnapshot.getAnalysis().getData());
+        }
+    }
+
+    public TestImpactSnapshot getSnapshot() {
+        return snapshot;
+    }
+
+    /**
+     * Returns the classes that changed since the given snapshot was taken, together with all classes that transitively depend on them.
+     * Returns a {@link DependencyToAll} when the change cannot be traced to individual classes.
+     */
+    public DependentsSet getAffectedClassesSince(TestImpactSnapshot previous) {
+        if (previous == TestImpactSnapshot.INCOMPLETE) {
+            return new DependencyToAll("the previous execution did not complete successfully");
+        }
+        if (!Arrays.equals(previous.configurationHash, snapshot.configurationHash)) {
+            return new DependencyToAll("the test task configuration has changed");
+        }
+        String changedResource = findChanged(previous.resourceHashes, snapshot.resourceHashes);
+        if (changedResource != null) {
+            return new DependencyToAll(String.format("'%s' has changed", changedResource));
+        }
+
+        Set<String> changedClasses = new HashSet<String>();
+        collectChanged(previous.classHashes, snapshot.classHashes, changedClasses);
+        DependentsSet jarChanges = collectChangedJarClasses(previous, changedClasses);
+        if (jarChanges != null) {
+            return jarChanges;
+        }
+        return collectDependents(changedClasses);
+    }
+
+    private DependentsSet collectChangedJarClasses(TestImpactSnapshot previous, Set<String> changedClasses) {
+        Set<String> jars = new HashSet<String>(previous.archiveHashes.keySet());
+        jars.addAll(snapshot.archiveHashes.keySet());
+        for (String jar : jars) {
+            byte[] previousHash = previous.archiveHashes.get(jar);
+            JarSnapshot current = jarSnapshots.get(jar);
+            if (previousHash == null) {
+                changedClasses.addAll(current.getClasses());
+                continue;
+            }
+            if (current != null && Arrays.equals(previousHash, current.getHash())) {
+                continue;
+            }
+            JarSnapshot previousJar = jarSnapshotCache.getJarSnapshots(Collections.singletonMap(new File(jar), previousHash)).get(new File(jar));
+            if (previousJar == null || previousJar.getData() == null) {
+                return new DependencyToAll(String.format("no class analysis is available for the previous version of '%s'", jar));
+            }
+            if (current == null) {
+                changedClasses.addAll(previousJar.getClasses());
+            } else {
+                collectChanged(previousJar.getHashes(), current.getHashes(), changedClasses);
+            }
+        }
+        return null;
+    }
+
+    private DependentsSet collectDependents(Set<String> changedClasses) {
+        Set<String> result = new HashSet<String>(changedClasses);
+        LinkedList<String> queue = new LinkedList<String>(changedClasses);
+        for (String changedClass : changedClasses) {
+            for (ClassSetAnalysisData data : dependencyData) {
+                DependentsSet dependents = data.getDependents(changedClass);
+                if (dependents != null && dependents.isDependencyToAll()) {
+                    return new DependencyToAll(String.format("%s is a dependency of all classes", changedClass));
+                }
+            }
+        }
+        while (!queue.isEmpty()) {
+            String className = queue.removeFirst();
+            for (ClassSetAnalysisData data : dependencyData) {
+                DependentsSet dependents = data.getDependents(className);
+                if (dependents == null) {
+                    continue;
+                }
+                if (dependents instanceof DependencyToAll) {
+                    return new DependencyToAll(String.format("the dependents of %s are not known", className));
+                }
+                for (String dependent : dependents.getDependentClasses()) {
+                    if (result.add(dependent)) {
+                        queue.add(dependent);
+                    }
+                }
+            }
+        }
+        return new DefaultDependentsSet(result);
+    }
+
+    private static void collectChanged(Map<String, byte[]> previous, Map<String, byte[]> current, Set<String> changed) {
+        for (Map.Entry<String, byte[]> entry : current.entrySet()) {
+            if (!Arrays.equals(entry.getValue(), previous.get(entry.getKey()))) {
+                changed.add(entry.getKey());
+            }
+        }
+        for (String name : previous.keySet()) {
+            if (!current.containsKey(name)) {
+                changed.add(name);
+            }
+        }
+    }
+
+    private static String findChanged(Map<String, byte[]> previous, Map<String, byte[]> current) {
+        Set<String> changed = new TreeSet<String>();
+        collectChanged(previous, current, changed);
+        return changed.isEmpty() ? null : changed.iterator().next();
+    }
+}
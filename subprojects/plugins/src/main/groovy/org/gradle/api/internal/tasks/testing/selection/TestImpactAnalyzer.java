@@ -0,0 +1,90 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.testing.selection;
+
+import org.gradle.api.file.FileVisitDetails;
+import org.gradle.api.file.FileVisitor;
+import org.gradle.api.internal.file.FileOperations;
+import org.gradle.api.internal.hash.Hasher;
+import org.gradle.api.internal.tasks.compile.incremental.analyzer.ClassDependenciesAnalyzer;
+import org.gradle.api.internal.tasks.compile.incremental.analyzer.ClassFilesAnalyzer;
+import org.gradle.api.internal.tasks.compile.incremental.jar.JarArchive;
+import org.gradle.api.internal.tasks.compile.incremental.jar.JarSnapshot;
+import org.gradle.api.internal.tasks.compile.incremental.jar.JarSnapshotCache;
+import org.gradle.api.internal.tasks.compile.incremental.jar.JarSnapshotter;
+
+import java.io.File;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Snapshots the test runtime classpath of a test task, reusing the class dependency analysis of the incremental Java compiler.
+ */
+public class TestImpactAnalyzer {
+
+    private final FileOperations fileOperations;
+    private final Hasher hasher;
+    private final ClassDependenciesAnalyzer analyzer;
+    private final JarSnapshotter jarSnapshotter;
+    private final JarSnapshotCache jarSnapshotCache;
+
+    public TestImpactAnalyzer(FileOperations fileOperations, Hasher hasher, ClassDependenciesAnalyzer analyzer, JarSnapshotter jarSnapshotter, JarSnapshotCache jarSnapshotCache) {
+        this.fileOperations = fileOperations;
+        this.hasher = hasher;
+        this.analyzer = analyzer;
+        this.jarSnapshotter = jarSnapshotter;
+        this.jarSnapshotCache = jarSnapshotCache;
+    }
+
+    public TestImpactAnalysis analyze(Iterable<File> classpath, byte[] configurationHash) {
+        final Map<String, byte[]> classHashes = new HashMap<String, byte[]>();
+        final Map<String, byte[]> resourceHashes = new HashMap<String, byte[]>();
+        Map<String, byte[]> archiveHashes = new HashMap<String, byte[]>();
+        Map<String, JarSnapshot> jarSnapshots = new HashMap<String, JarSnapshot>();
+        final ClassFilesAnalyzer classFilesAnalyzer = new ClassFilesAnalyzer(analyzer);
+
+        for (final File entry : classpath) {
+            if (entry.isDirectory()) {
+                fileOperations.fileTree(entry).visit(new FileVisitor() {
+                    public void visitDir(FileVisitDetails dirDetails) {
+                    }
+
+                    public void visitFile(FileVisitDetails fileDetails) {
+                        String path = fileDetails.getPath();
+                        byte[] hash = hasher.hash(fileDetails.getFile());
+                        if (path.endsWith(".class")) {
+                            classFilesAnalyzer.visitFile(fileDetails);
+                            classHashes.put(path.replaceAll("/", ".").replaceAll("\\.class$", ""), hash);
+                        } else {
+                            resourceHashes.put(entry.getAbsolutePath() + "!" + path, hash);
+                        }
+                    }
+                });
+            } else if (entry.getName().endsWith(".jar")) {
+                JarSnapshot jarSnapshot = jarSnapshotter.createSnapshot(new JarArchive(entry, fileOperations.zipTree(entry)));
+                archiveHashes.put(entry.getAbsolutePath(), jarSnapshot.getHash());
+                jarSnapshots.put(entry.getAbsolutePath(), jarSnapshot);
+            } else if (entry.isFile()) {
+                // Some other kind of classpath entry, which we cannot analyze
+                resourceHashes.put(entry.getAbsolutePath(), hasher.hash(entry));
+            }
+        }
+
+        TestImpactSnapshot snapshot = new TestImpactSnapshot(configurationHash, classHashes, resourceHashes, archiveHashes);
+        return new TestImpactAnalysis(snapshot, classFilesAnalyzer.getAnalysis(), jarSnapshots, jarSnapshotCache);
+    }
+}
@@ -0,0 +1,74 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.testing.selection;
+
+import org.gradle.api.Nullable;
+import org.gradle.api.internal.tasks.compile.incremental.deps.DependentsSet;
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
+import org.gradle.util.Clock;
+
+import java.io.File;
+import java.util.Set;
+
+/**
+ * Selects the test classes of a test task that are affected by the changes made since the last successful execution of the task.
+ */
+public class TestImpactSelector {
+
+    private static final Logger LOG = Logging.getLogger(TestImpactSelector.class);
+
+    private final TestImpactAnalyzer analyzer;
+    private final LocalTestImpactSnapshotStore store;
+    private TestImpactAnalysis analysis;
+
+    public TestImpactSelector(TestImpactAnalyzer analyzer, LocalTestImpactSnapshotStore store) {
+        this.analyzer = analyzer;
+        this.store = store;
+    }
+
+    /**
+     * Returns the names of the classes affected by changes to the given classpath, or null when all tests should be executed.
+     * Until {@link #executionSucceeded()} is called, the next execution will execute all tests.
+     */
+    @Nullable
+    public Set<String> selectAffectedClasses(String displayName, Iterable<File> classpath, byte[] configurationHash) {
+        Clock clock = new Clock();
+        analysis = analyzer.analyze(classpath, configurationHash);
+        TestImpactSnapshot previous = store.get();
+        store.put(TestImpactSnapshot.INCOMPLETE);
+
+        if (previous == null) {
+            LOG.info("{} - executing all tests as there is no record of a previous successful execution.", displayName);
+            return null;
+        }
+        DependentsSet affectedClasses = analysis.getAffectedClassesSince(previous);
+        if (affectedClasses.isDependencyToAll()) {
+            LOG.info("{} - executing all tests as {}.", displayName, affectedClasses.getDescription());
+            return null;
+        }
+        LOG.info("{} - {} classes are affected by changes since the last successful execution (analysis took {}).", displayName, affectedClasses.getDependentClasses().size(), clock.getTime());
+        return affectedClasses.getDependentClasses();
+    }
+
+    /**
+     * Records the classpath analyzed by {@link #selectAffectedClasses} as tested, so that later executions only select the classes affected by subsequent changes.
+     */
+    public void executionSucceeded() {
+        store.put(analysis.getSnapshot());
+    }
+}
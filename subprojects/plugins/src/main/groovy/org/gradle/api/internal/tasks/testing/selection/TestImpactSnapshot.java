@@ -0,0 +1,83 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.testing.selection;
+
+import org.gradle.internal.serialize.Decoder;
+import org.gradle.internal.serialize.Encoder;
+import org.gradle.internal.serialize.MapSerializer;
+
+import java.util.Collections;
+import java.util.Map;
+
+import static org.gradle.internal.serialize.BaseSerializerFactory.BYTE_ARRAY_SERIALIZER;
+import static org.gradle.internal.serialize.BaseSerializerFactory.STRING_SERIALIZER;
+
+/**
+ * The state of the test runtime classpath of a test task, as of the last execution that completed without failures.
+ */
+public class TestImpactSnapshot {
+
+    /**
+     * Marks that the last execution did not complete successfully, so nothing is known about which tests are up-to-date.
+     */
+    public static final TestImpactSnapshot INCOMPLETE = new TestImpactSnapshot(new byte[0], Collections.<String, byte[]>emptyMap(), Collections.<String, byte[]>emptyMap(), Collections.<String, byte[]>emptyMap());
+
+    final byte[] configurationHash;
+    final Map<String, byte[]> classHashes;
+    final Map<String, byte[]> resourceHashes;
+    final Map<String, byte[]> archiveHashes;
+
+    /**
+     * @param configurationHash hash of the task configuration that influences which tests run and how
+     * @param classHashes class name to hash, for the classes found in classpath directories
+     * @param resourceHashes path to hash, for the other files found in classpath directories
+     * @param archiveHashes absolute path to hash, for the files on the classpath
+     */
+    public TestImpactSnapshot(byte[] configurationHash, Map<String, byte[]> classHashes, Map<String, byte[]> resourceHashes, Map<String, byte[]> archiveHashes) {
+        this.configurationHash = configurationHash;
+        this.classHashes = classHashes;
+        this.resourceHashes = resourceHashes;
+        this.archiveHashes = archiveHashes;
+    }
+
+    public static class Serializer implements org.gradle.internal.serialize.Serializer<TestImpactSnapshot> {
+
+        private final MapSerializer<String, byte[]> mapSerializer = new MapSerializer<String, byte[]>(STRING_SERIALIZER, BYTE_ARRAY_SERIALIZER);
+
+        public TestImpactSnapshot read(Decoder decoder) throws Exception {
+            if (!decoder.readBoolean()) {
+                return INCOMPLETE;
+            }
+            byte[] configurationHash = decoder.readBinary();
+            Map<String, byte[]> classHashes = mapSerializer.read(decoder);
+            Map<String, byte[]> resourceHashes = mapSerializer.read(decoder);
+            Map<String, byte[]> archiveHashes = mapSerializer.read(decoder);
+            return new TestImpactSnapshot(configurationHash, classHashes, resourceHashes, archiveHashes);
+        }
+
+        public void write(Encoder encoder, TestImpactSnapshot value) throws Exception {
+            encoder.writeBoolean(value != INCOMPLETE);
+            if (value == INCOMPLETE) {
+                return;
+            }
+            encoder.writeBinary(value.configurationHash);
+            mapSerializer.write(encoder, value.classHashes);
+            mapSerializer.write(encoder, value.resourceHashes);
+            mapSerializer.write(encoder, value.archiveHashes);
+        }
+    }
+}
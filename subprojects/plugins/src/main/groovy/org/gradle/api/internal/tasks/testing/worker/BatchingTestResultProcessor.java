@@ -0,0 +1,202 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.testing.worker;
+
+import org.gradle.api.internal.tasks.testing.TestCompleteEvent;
+import org.gradle.api.internal.tasks.testing.TestDescriptorInternal;
+import org.gradle.api.internal.tasks.testing.TestResultProcessor;
+import org.gradle.api.internal.tasks.testing.TestStartEvent;
+import org.gradle.api.tasks.testing.TestOutputEvent;
+import org.gradle.internal.UncheckedException;
+import org.gradle.internal.concurrent.ExecutorFactory;
+import org.gradle.internal.concurrent.Stoppable;
+import org.gradle.internal.concurrent.StoppableExecutor;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Collects the test events of a worker into batches, instead of sending each event as a separate message. A batch is sent when a test class or other
+ * composite test completes, when it reaches a maximum size, and periodically while it holds events, so that progress is still reported for long running
+ * tests. Pending events are also sent when the worker's JVM exits before this processor is stopped, for example when a test calls {@code System.exit()}.
+ */
+public class BatchingTestResultProcessor implements TestResultProcessor, Stoppable {
+    private final RemoteTestResultProcessor target;
+    private final int maxBatchSize;
+    private final long flushIntervalMillis;
+    private final StoppableExecutor executor;
+    private final Lock lock = new ReentrantLock();
+    private final Condition condition = lock.newCondition();
+    private final Set<Object> compositeTests = new HashSet<Object>();
+    private final Thread shutdownHook = new Thread("Test event batch shutdown flush") {
+        @Override
+        public void run() {
+            flushBeforeExit();
+        }
+    };
+    private TestEventBatch batch = new TestEventBatch();
+    private boolean stopped;
+
+    public BatchingTestResultProcessor(RemoteTestResultProcessor target, ExecutorFactory executorFactory) {
+        this(target, executorFactory, 1000, 100);
+    }
+
+    BatchingTestResultProcessor(RemoteTestResultProcessor target, ExecutorFactory executorFactory, int maxBatchSize, long flushIntervalMillis) {
+        this.target = target;
+        this.maxBatchSize = maxBatchSize;
+        this.flushIntervalMillis = flushIntervalMillis;
+        this.executor = executorFactory.create("Test event batch flush");
+        executor.execute(new Runnable() {
+            public void run() {
+                flushPeriodically();
+            }
+        });
+        Runtime.getRuntime().addShutdownHook(shutdownHook);
+    }
+
+    private void flushPeriodically() {
+        lock.lock();
+        try {
+            while (!stopped) {
+                if (batch.isEmpty()) {
+                    // Sleep until the first event of the next batch is added
+                    condition.await();
+                } else {
+                    long remaining = TimeUnit.MILLISECONDS.toNanos(flushIntervalMillis);
+                    while (remaining > 0 && !stopped) {
+                        remaining = condition.awaitNanos(remaining);
+                    }
+                    flush();
+                }
+            }
+        } catch (InterruptedException e) {
+            throw UncheckedException.throwAsUncheckedException(e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void flushBeforeExit() {
+        try {
+            // Do not hang the exit if the thread that called System.exit() holds the lock
+            if (lock.tryLock(1, TimeUnit.SECONDS)) {
+                try {
+                    flush();
+                } finally {
+                    lock.unlock();
+                }
+            }
+        } catch (InterruptedException e) {
+            throw UncheckedException.throwAsUncheckedException(e);
+        }
+    }
+
+    public void started(TestDescriptorInternal test, TestStartEvent event) {
+        lock.lock();
+        try {
+            if (test.isComposite()) {
+                compositeTests.add(test.getId());
+            }
+            add(TestEventBatch.STARTED, test, event);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void completed(Object testId, TestCompleteEvent event) {
+        lock.lock();
+        try {
+            add(TestEventBatch.COMPLETED, testId, event);
+            if (compositeTests.remove(testId)) {
+                flush();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void output(Object testId, TestOutputEvent event) {
+        lock.lock();
+        try {
+            add(TestEventBatch.OUTPUT, testId, event);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void failure(Object testId, Throwable result) {
+        lock.lock();
+        try {
+            add(TestEventBatch.FAILURE, testId, result);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void add(byte type, Object first, Object second) {
+        if (batch.isEmpty()) {
+            condition.signalAll();
+        }
+        batch.add(type, first, second);
+        if (batch.size() >= maxBatchSize) {
+            flush();
+        }
+    }
+
+    /**
+     * Sends the pending events now. Called after each test class, so that the events of a class that failed part way through are not held back.
+     */
+    public void flushPending() {
+        lock.lock();
+        try {
+            flush();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void flush() {
+        if (!batch.isEmpty()) {
+            target.events(batch);
+            batch = new TestEventBatch();
+        }
+    }
+
+    /**
+     * Sends the pending events and stops the periodic flush.
+     */
+    public void stop() {
+        lock.lock();
+        try {
+            flush();
+            stopped = true;
+            condition.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        executor.stop();
+        try {
+            Runtime.getRuntime().removeShutdownHook(shutdownHook);
+        } catch (IllegalStateException e) {
+            // The JVM is already exiting, and the hook flushes nothing more
+        }
+    }
+}
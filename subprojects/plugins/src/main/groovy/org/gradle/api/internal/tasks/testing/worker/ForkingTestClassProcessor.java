@@ -73,7 +73,11 @@ public class ForkingTestClassProcessor implements TestClassProcessor {
 
         ObjectConnection connection = workerProcess.getConnection();
         connection.useParameterSerializer(new TestEventSerializer());
-        connection.addIncoming(TestResultProcessor.class, resultProcessor);
+        connection.addIncoming(RemoteTestResultProcessor.class, new RemoteTestResultProcessor() {
+            public void events(TestEventBatch batch) {
+                batch.dispatchTo(resultProcessor);
+            }
+        });
         RemoteTestClassProcessor remoteProcessor = connection.addOutgoing(RemoteTestClassProcessor.class);
         connection.connect();
         remoteProcessor.startProcessing();
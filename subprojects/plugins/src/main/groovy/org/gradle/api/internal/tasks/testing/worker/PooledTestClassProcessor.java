@@ -0,0 +1,98 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.testing.worker;
+
+import org.gradle.api.Action;
+import org.gradle.api.internal.tasks.testing.TestClassProcessor;
+import org.gradle.api.internal.tasks.testing.TestClassRunInfo;
+import org.gradle.api.internal.tasks.testing.TestResultProcessor;
+import org.gradle.api.internal.tasks.testing.WorkerTestClassProcessorFactory;
+import org.gradle.internal.Factory;
+import org.gradle.process.JavaForkOptions;
+import org.gradle.process.internal.WorkerProcessBuilder;
+
+import java.io.File;
+import java.util.List;
+
+/**
+ * Executes tests in a worker reserved from a {@link TestWorkerPool}, instead of in a new worker process.
+ */
+public class PooledTestClassProcessor implements TestClassProcessor {
+    private final TestWorkerPool workerPool;
+    private final Factory<WorkerProcessBuilder> workerFactory;
+    private final WorkerTestClassProcessorFactory processorFactory;
+    private final JavaForkOptions options;
+    private final Iterable<File> sharedClassPath;
+    private final List<File> sessionClassPath;
+    private final Action<WorkerProcessBuilder> buildConfigAction;
+    private PooledTestWorker worker;
+    private TestResultProcessor resultProcessor;
+
+    /**
+     * @param sharedClassPath the part of the test runtime classpath loaded by the system ClassLoader of the worker, and shared with other test tasks
+     * @param sessionClassPath the part of the test runtime classpath loaded for this test task only
+     */
+    public PooledTestClassProcessor(TestWorkerPool workerPool, Factory<WorkerProcessBuilder> workerFactory, WorkerTestClassProcessorFactory processorFactory, JavaForkOptions options,
+                                    Iterable<File> sharedClassPath, List<File> sessionClassPath, Action<WorkerProcessBuilder> buildConfigAction) {
+        this.workerPool = workerPool;
+        this.workerFactory = workerFactory;
+        this.processorFactory = processorFactory;
+        this.options = options;
+        this.sharedClassPath = sharedClassPath;
+        this.sessionClassPath = sessionClassPath;
+        this.buildConfigAction = buildConfigAction;
+    }
+
+    public void startProcessing(TestResultProcessor resultProcessor) {
+        this.resultProcessor = resultProcessor;
+    }
+
+    public void processTestClass(TestClassRunInfo testClass) {
+        if (worker == null) {
+            worker = startSession();
+        }
+
+        worker.processTestClass(testClass);
+    }
+
+    PooledTestWorker startSession() {
+        PooledTestWorker worker = workerPool.reserveWorker(workerFactory, new Action<WorkerProcessBuilder>() {
+            public void execute(WorkerProcessBuilder builder) {
+                builder.applicationClasspath(sharedClassPath);
+                options.copyTo(builder.getJavaCommand());
+                buildConfigAction.execute(builder);
+            }
+        });
+        try {
+            worker.startSession(new TestWorkerSession(workerPool.nextSessionId(), sessionClassPath, processorFactory), resultProcessor);
+        } catch (RuntimeException e) {
+            workerPool.release(worker);
+            throw e;
+        }
+        return worker;
+    }
+
+    public void stop() {
+        if (worker != null) {
+            try {
+                worker.stopSession();
+            } finally {
+                workerPool.release(worker);
+            }
+        }
+    }
+}
@@ -0,0 +1,176 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.testing.worker;
+
+import org.gradle.api.GradleException;
+import org.gradle.api.internal.tasks.testing.TestClassRunInfo;
+import org.gradle.api.internal.tasks.testing.TestResultProcessor;
+import org.gradle.internal.UncheckedException;
+import org.gradle.internal.concurrent.Stoppable;
+import org.gradle.messaging.remote.ObjectConnection;
+import org.gradle.process.internal.WorkerProcess;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * The build side of a {@link TestWorkerHost}. Routes the results of the current session to the result processor of the test task that owns the session.
+ */
+class PooledTestWorker implements TestWorkerHostClient, Stoppable {
+    private final Object key;
+    private final WorkerProcess workerProcess;
+    private final Lock lock = new ReentrantLock();
+    private final Condition condition = lock.newCondition();
+    private RemoteTestWorkerHost host;
+    private volatile TestResultProcessor resultProcessor;
+    private boolean sessionRunning;
+    private boolean exited;
+    private Throwable processFailure;
+
+    PooledTestWorker(Object key, WorkerProcess workerProcess) {
+        this.key = key;
+        this.workerProcess = workerProcess;
+    }
+
+    Object getKey() {
+        return key;
+    }
+
+    void connect(Executor executor) {
+        ObjectConnection connection = workerProcess.getConnection();
+        connection.useParameterSerializer(new TestEventSerializer());
+        connection.addIncoming(TestWorkerHostClient.class, this);
+        host = connection.addOutgoing(RemoteTestWorkerHost.class);
+        connection.connect();
+        executor.execute(new Runnable() {
+            public void run() {
+                waitForExit();
+            }
+        });
+    }
+
+    private void waitForExit() {
+        Throwable failure = null;
+        try {
+            workerProcess.waitForStop();
+        } catch (Throwable t) {
+            failure = t;
+        }
+        lock.lock();
+        try {
+            exited = true;
+            processFailure = failure;
+            condition.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns true when this worker is alive and not executing a session.
+     */
+    boolean isIdle() {
+        lock.lock();
+        try {
+            return !exited && !sessionRunning;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    void startSession(TestWorkerSession session, TestResultProcessor resultProcessor) {
+        lock.lock();
+        try {
+            this.resultProcessor = resultProcessor;
+            sessionRunning = true;
+        } finally {
+            lock.unlock();
+        }
+        host.startSession(session);
+    }
+
+    void processTestClass(TestClassRunInfo testClass) {
+        host.processTestClass(testClass);
+    }
+
+    /**
+     * Stops the current session, blocking until all its results have been received.
+     */
+    void stopSession() {
+        host.stopSession();
+        lock.lock();
+        try {
+            while (sessionRunning && !exited) {
+                try {
+                    condition.await();
+                } catch (InterruptedException e) {
+                    throw UncheckedException.throwAsUncheckedException(e);
+                }
+            }
+            resultProcessor = null;
+            if (sessionRunning) {
+                sessionRunning = false;
+                if (processFailure != null) {
+                    throw UncheckedException.throwAsUncheckedException(processFailure);
+                }
+                throw new GradleException("Test worker process stopped before all tests were executed.");
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void sessionStopped() {
+        lock.lock();
+        try {
+            sessionRunning = false;
+            condition.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void events(TestEventBatch batch) {
+        batch.dispatchTo(resultProcessor);
+    }
+
+    public void stop() {
+        lock.lock();
+        try {
+            if (exited) {
+                return;
+            }
+        } finally {
+            lock.unlock();
+        }
+        host.shutdown();
+        lock.lock();
+        try {
+            while (!exited) {
+                try {
+                    condition.await();
+                } catch (InterruptedException e) {
+                    throw UncheckedException.throwAsUncheckedException(e);
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+}
@@ -0,0 +1,44 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.testing.worker;
+
+import org.gradle.api.internal.tasks.testing.TestClassRunInfo;
+
+/**
+ * The protocol of a long-lived test worker, which executes the tests of several test tasks one session after another.
+ */
+public interface RemoteTestWorkerHost {
+    /**
+     * Does not block.
+     */
+    void startSession(TestWorkerSession session);
+
+    /**
+     * Does not block.
+     */
+    void processTestClass(TestClassRunInfo testClass);
+
+    /**
+     * Does not block. The worker notifies {@link TestWorkerHostClient#sessionStopped()} once the session has been cleaned up.
+     */
+    void stopSession();
+
+    /**
+     * Does not block.
+     */
+    void shutdown();
+}
@@ -0,0 +1,94 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.testing.worker;
+
+import org.gradle.api.internal.tasks.testing.TestCompleteEvent;
+import org.gradle.api.internal.tasks.testing.TestDescriptorInternal;
+import org.gradle.api.internal.tasks.testing.TestResultProcessor;
+import org.gradle.api.internal.tasks.testing.TestStartEvent;
+import org.gradle.api.tasks.testing.TestOutputEvent;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A sequence of calls to a {@link TestResultProcessor}, sent from a test worker as a single message.
+ */
+public class TestEventBatch {
+    static final byte STARTED = 0;
+    static final byte COMPLETED = 1;
+    static final byte OUTPUT = 2;
+    static final byte FAILURE = 3;
+
+    private final List<Byte> types = new ArrayList<Byte>();
+    private final List<Object> arguments = new ArrayList<Object>();
+
+    /**
+     * Adds a call, each of which takes exactly two arguments.
+     */
+    void add(byte type, Object first, Object second) {
+        if (type < STARTED || type > FAILURE) {
+            throw new IllegalArgumentException(String.format("Unexpected test event type %d.", type));
+        }
+        types.add(type);
+        arguments.add(first);
+        arguments.add(second);
+    }
+
+    public int size() {
+        return types.size();
+    }
+
+    public boolean isEmpty() {
+        return types.isEmpty();
+    }
+
+    byte getType(int index) {
+        return types.get(index);
+    }
+
+    Object getFirstArgument(int index) {
+        return arguments.get(2 * index);
+    }
+
+    Object getSecondArgument(int index) {
+        return arguments.get(2 * index + 1);
+    }
+
+    /**
+     * Replays the calls of this batch on the given processor, in order.
+     */
+    public void dispatchTo(TestResultProcessor processor) {
+        for (int i = 0; i < types.size(); i++) {
+            Object first = getFirstArgument(i);
+            Object second = getSecondArgument(i);
+            switch (types.get(i)) {
+                case STARTED:
+                    processor.started((TestDescriptorInternal) first, (TestStartEvent) second);
+                    break;
+                case COMPLETED:
+                    processor.completed(first, (TestCompleteEvent) second);
+                    break;
+                case OUTPUT:
+                    processor.output(first, (TestOutputEvent) second);
+                    break;
+                default:
+                    processor.failure(first, (Throwable) second);
+            }
+        }
+    }
+}
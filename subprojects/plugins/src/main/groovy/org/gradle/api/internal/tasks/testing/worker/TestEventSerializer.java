@@ -24,6 +24,10 @@ import org.gradle.internal.serialize.*;
 import org.gradle.messaging.remote.internal.Message;
 import org.gradle.internal.serialize.kryo.StatefulSerializer;
 
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
 public class TestEventSerializer implements StatefulSerializer<Object[]> {
     private final Serializer<Object> paramSerializer;
 
@@ -40,6 +44,8 @@ public class TestEventSerializer implements StatefulSerializer<Object[]> {
         registry.register(TestCompleteEvent.class, new TestCompleteEventSerializer());
         registry.register(DefaultTestOutputEvent.class, new DefaultTestOutputEventSerializer());
         registry.register(Throwable.class, new ThrowableSerializer());
+        registry.register(TestWorkerSession.class, new TestWorkerSessionSerializer());
+        registry.register(TestEventBatch.class, new TestEventBatchSerializer());
         paramSerializer = registry.build();
     }
 
@@ -101,12 +107,16 @@ public class TestEventSerializer implements StatefulSerializer<Object[]> {
 
     private static class IdSerializer implements Serializer<CompositeIdGenerator.CompositeId> {
         public CompositeIdGenerator.CompositeId read(Decoder decoder) throws Exception {
-            return new CompositeIdGenerator.CompositeId(decoder.readLong(), decoder.readLong());
+            long zigZagScope = decoder.readSmallLong();
+            long scope = (zigZagScope >>> 1) ^ -(zigZagScope & 1);
+            return new CompositeIdGenerator.CompositeId(scope, decoder.readSmallLong());
         }
 
         public void write(Encoder encoder, CompositeIdGenerator.CompositeId value) throws Exception {
-            encoder.writeLong((Long) value.getScope());
-            encoder.writeLong((Long) value.getId());
+            // The scope is the id of the worker, or a negative id for a session of a reused worker
+            long scope = (Long) value.getScope();
+            encoder.writeSmallLong((scope << 1) ^ (scope >> 63));
+            encoder.writeSmallLong((Long) value.getId());
         }
     }
 
@@ -124,13 +134,13 @@ public class TestEventSerializer implements StatefulSerializer<Object[]> {
         final Serializer<CompositeIdGenerator.CompositeId> idSerializer = new NullableSerializer<CompositeIdGenerator.CompositeId>(new IdSerializer());
 
         public TestStartEvent read(Decoder decoder) throws Exception {
-            long time = decoder.readLong();
+            long time = decoder.readSmallLong();
             Object id = idSerializer.read(decoder);
             return new TestStartEvent(time, id);
         }
 
         public void write(Encoder encoder, TestStartEvent value) throws Exception {
-            encoder.writeLong(value.getStartTime());
+            encoder.writeSmallLong(value.getStartTime());
             idSerializer.write(encoder, (CompositeIdGenerator.CompositeId) value.getParentId());
         }
     }
@@ -139,13 +149,13 @@ public class TestEventSerializer implements StatefulSerializer<Object[]> {
         private final Serializer<TestResult.ResultType> typeSerializer = new NullableSerializer<TestResult.ResultType>(new BaseSerializerFactory().getSerializerFor(TestResult.ResultType.class));
 
         public TestCompleteEvent read(Decoder decoder) throws Exception {
-            long endTime = decoder.readLong();
+            long endTime = decoder.readSmallLong();
             TestResult.ResultType result = typeSerializer.read(decoder);
             return new TestCompleteEvent(endTime, result);
         }
 
         public void write(Encoder encoder, TestCompleteEvent value) throws Exception {
-            encoder.writeLong(value.getEndTime());
+            encoder.writeSmallLong(value.getEndTime());
             typeSerializer.write(encoder, value.getResultType());
         }
     }
@@ -243,4 +253,49 @@ public class TestEventSerializer implements StatefulSerializer<Object[]> {
             encoder.writeString(value.getName());
         }
     }
+
+    private static class TestWorkerSessionSerializer implements Serializer<TestWorkerSession> {
+        public TestWorkerSession read(Decoder decoder) throws Exception {
+            long id = decoder.readLong();
+            int count = decoder.readSmallInt();
+            List<File> classpath = new ArrayList<File>(count);
+            for (int i = 0; i < count; i++) {
+                classpath.add(new File(decoder.readString()));
+            }
+            WorkerTestClassProcessorFactory processorFactory = (WorkerTestClassProcessorFactory) Message.receive(decoder.getInputStream(), getClass().getClassLoader());
+            return new TestWorkerSession(id, classpath, processorFactory);
+        }
+
+        public void write(Encoder encoder, TestWorkerSession value) throws Exception {
+            encoder.writeLong(value.getId());
+            encoder.writeSmallInt(value.getClasspath().size());
+            for (File file : value.getClasspath()) {
+                encoder.writeString(file.getPath());
+            }
+            Message.send(value.getProcessorFactory(), encoder.getOutputStream());
+        }
+    }
+
+    private class TestEventBatchSerializer implements Serializer<TestEventBatch> {
+        public TestEventBatch read(Decoder decoder) throws Exception {
+            int count = decoder.readSmallInt();
+            TestEventBatch batch = new TestEventBatch();
+            for (int i = 0; i < count; i++) {
+                byte type = decoder.readByte();
+                Object first = paramSerializer.read(decoder);
+                Object second = paramSerializer.read(decoder);
+                batch.add(type, first, second);
+            }
+            return batch;
+        }
+
+        public void write(Encoder encoder, TestEventBatch value) throws Exception {
+            encoder.writeSmallInt(value.size());
+            for (int i = 0; i < value.size(); i++) {
+                encoder.writeByte(value.getType(i));
+                paramSerializer.write(encoder, value.getFirstArgument(i));
+                paramSerializer.write(encoder, value.getSecondArgument(i));
+            }
+        }
+    }
 }
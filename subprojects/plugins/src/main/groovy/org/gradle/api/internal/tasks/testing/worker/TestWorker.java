@@ -19,7 +19,6 @@ package org.gradle.api.internal.tasks.testing.worker;
 import org.gradle.api.Action;
 import org.gradle.api.internal.tasks.testing.TestClassProcessor;
 import org.gradle.api.internal.tasks.testing.TestClassRunInfo;
-import org.gradle.api.internal.tasks.testing.TestResultProcessor;
 import org.gradle.api.internal.tasks.testing.WorkerTestClassProcessorFactory;
 import org.gradle.internal.TimeProvider;
 import org.gradle.internal.TrueTimeProvider;
@@ -48,7 +47,7 @@ public class TestWorker implements Action<WorkerProcessContext>, RemoteTestClass
     private final WorkerTestClassProcessorFactory factory;
     private CountDownLatch completed;
     private TestClassProcessor processor;
-    private TestResultProcessor resultProcessor;
+    private BatchingTestResultProcessor resultProcessor;
 
     public TestWorker(WorkerTestClassProcessorFactory factory) {
         this.factory = factory;
@@ -61,7 +60,7 @@ public class TestWorker implements Action<WorkerProcessContext>, RemoteTestClass
 
         System.setProperty(WORKER_ID_SYS_PROPERTY, workerProcessContext.getWorkerId().toString());
 
-        DefaultServiceRegistry testServices = new TestFrameworkServiceRegistry(workerProcessContext);
+        DefaultServiceRegistry testServices = new TestFrameworkServiceRegistry(workerProcessContext.getWorkerId());
         startReceivingTests(workerProcessContext, testServices);
 
         try {
@@ -90,7 +89,7 @@ public class TestWorker implements Action<WorkerProcessContext>, RemoteTestClass
 
         ObjectConnection serverConnection = workerProcessContext.getServerConnection();
         serverConnection.useParameterSerializer(new TestEventSerializer());
-        this.resultProcessor = serverConnection.addOutgoing(TestResultProcessor.class);
+        this.resultProcessor = new BatchingTestResultProcessor(serverConnection.addOutgoing(RemoteTestResultProcessor.class), testServices.get(ExecutorFactory.class));
         serverConnection.addIncoming(RemoteTestClassProcessor.class, this);
         serverConnection.connect();
     }
@@ -107,23 +106,29 @@ public class TestWorker implements Action<WorkerProcessContext>, RemoteTestClass
         } finally {
             // Clean the interrupted status
             Thread.interrupted();
+            // Do not hold back the events of a test class that failed part way through
+            resultProcessor.flushPending();
         }
     }
 
     public void stop() {
         Thread.currentThread().setName("Test worker");
         try {
-            processor.stop();
+            try {
+                processor.stop();
+            } finally {
+                resultProcessor.stop();
+            }
         } finally {
             completed.countDown();
         }
     }
 
-    private static class TestFrameworkServiceRegistry extends DefaultServiceRegistry {
-        private final WorkerProcessContext workerProcessContext;
+    static class TestFrameworkServiceRegistry extends DefaultServiceRegistry {
+        private final Object idScope;
 
-        public TestFrameworkServiceRegistry(WorkerProcessContext workerProcessContext) {
-            this.workerProcessContext = workerProcessContext;
+        public TestFrameworkServiceRegistry(Object idScope) {
+            this.idScope = idScope;
         }
 
         protected TimeProvider createTimeProvider() {
@@ -131,7 +136,7 @@ public class TestWorker implements Action<WorkerProcessContext>, RemoteTestClass
         }
 
         protected IdGenerator<Object> createIdGenerator() {
-            return new CompositeIdGenerator(workerProcessContext.getWorkerId(), new LongIdGenerator());
+            return new CompositeIdGenerator(idScope, new LongIdGenerator());
         }
 
         protected ExecutorFactory createExecutorFactory() {
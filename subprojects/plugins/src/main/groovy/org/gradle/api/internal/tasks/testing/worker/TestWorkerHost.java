@@ -0,0 +1,149 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.testing.worker;
+
+import org.gradle.api.Action;
+import org.gradle.api.internal.tasks.testing.TestClassProcessor;
+import org.gradle.api.internal.tasks.testing.TestClassRunInfo;
+import org.gradle.internal.TimeProvider;
+import org.gradle.internal.UncheckedException;
+import org.gradle.internal.classpath.DefaultClassPath;
+import org.gradle.internal.concurrent.CompositeStoppable;
+import org.gradle.internal.concurrent.ExecutorFactory;
+import org.gradle.internal.id.IdGenerator;
+import org.gradle.internal.service.DefaultServiceRegistry;
+import org.gradle.messaging.dispatch.ContextClassLoaderProxy;
+import org.gradle.messaging.remote.ObjectConnection;
+import org.gradle.process.internal.WorkerProcessContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Serializable;
+import java.net.URLClassLoader;
+import java.util.Properties;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * A test worker that stays alive between test tasks. The classes shared by all sessions, such as the test framework, are loaded by the system
+ * ClassLoader of the worker. The test classes of each session are loaded by a ClassLoader that is discarded when the session stops, and
+ * closed when running on Java 7 or later, so that it does not keep the session's jars open.
+ */
+public class TestWorkerHost implements Action<WorkerProcessContext>, RemoteTestWorkerHost, Serializable {
+    private static final Logger LOGGER = LoggerFactory.getLogger(TestWorkerHost.class);
+    private WorkerProcessContext workerProcessContext;
+    private CountDownLatch completed;
+    private TestWorkerHostClient client;
+    private Properties initialSystemProperties;
+    private DefaultServiceRegistry sessionServices;
+    private URLClassLoader sessionClassLoader;
+    private TestClassProcessor processor;
+    private BatchingTestResultProcessor resultProcessor;
+
+    public void execute(WorkerProcessContext workerProcessContext) {
+        LOGGER.info("{} started.", workerProcessContext.getDisplayName());
+
+        this.workerProcessContext = workerProcessContext;
+        completed = new CountDownLatch(1);
+
+        System.setProperty(TestWorker.WORKER_ID_SYS_PROPERTY, workerProcessContext.getWorkerId().toString());
+        initialSystemProperties = new Properties();
+        initialSystemProperties.putAll(System.getProperties());
+
+        ObjectConnection serverConnection = workerProcessContext.getServerConnection();
+        serverConnection.useParameterSerializer(new TestEventSerializer());
+        client = serverConnection.addOutgoing(TestWorkerHostClient.class);
+        serverConnection.addIncoming(RemoteTestWorkerHost.class, this);
+        serverConnection.connect();
+
+        try {
+            completed.await();
+        } catch (InterruptedException e) {
+            throw new UncheckedException(e);
+        } finally {
+            LOGGER.info("{} stopped.", workerProcessContext.getDisplayName());
+        }
+    }
+
+    public void startSession(TestWorkerSession session) {
+        Thread.currentThread().setName("Test worker");
+        LOGGER.info("{} started executing tests of session {}.", workerProcessContext.getDisplayName(), session.getId());
+
+        sessionServices = new TestWorker.TestFrameworkServiceRegistry(session.getId());
+        sessionClassLoader = new URLClassLoader(new DefaultClassPath(session.getClasspath()).getAsURLArray(), workerProcessContext.getApplicationClassLoader());
+
+        TestClassProcessor targetProcessor = session.getProcessorFactory().create(sessionServices);
+        IdGenerator<Object> idGenerator = sessionServices.get(IdGenerator.class);
+        targetProcessor = new WorkerTestClassProcessor(targetProcessor, idGenerator.generateId(),
+                workerProcessContext.getDisplayName(), sessionServices.get(TimeProvider.class));
+        ContextClassLoaderProxy<TestClassProcessor> proxy = new ContextClassLoaderProxy<TestClassProcessor>(
+                TestClassProcessor.class, targetProcessor, sessionClassLoader);
+        processor = proxy.getSource();
+        resultProcessor = new BatchingTestResultProcessor(client, sessionServices.get(ExecutorFactory.class));
+        processor.startProcessing(resultProcessor);
+    }
+
+    public void processTestClass(TestClassRunInfo testClass) {
+        Thread.currentThread().setName("Test worker");
+        try {
+            processor.processTestClass(testClass);
+        } finally {
+            // Clean the interrupted status
+            Thread.interrupted();
+            // Do not hold back the events of a test class that failed part way through
+            resultProcessor.flushPending();
+        }
+    }
+
+    public void stopSession() {
+        Thread.currentThread().setName("Test worker");
+        try {
+            try {
+                processor.stop();
+            } finally {
+                resultProcessor.stop();
+            }
+        } finally {
+            try {
+                cleanUpSession();
+            } finally {
+                client.sessionStopped();
+            }
+        }
+    }
+
+    private void cleanUpSession() {
+        LOGGER.info("{} finished executing tests.", workerProcessContext.getDisplayName());
+        processor = null;
+        resultProcessor = null;
+        // Clean out any security manager and system properties the tests might have installed
+        System.setSecurityManager(null);
+        Properties systemProperties = new Properties();
+        systemProperties.putAll(initialSystemProperties);
+        System.setProperties(systemProperties);
+        try {
+            // URLClassLoader is only Closeable from Java 7, earlier versions leave it to be garbage collected
+            CompositeStoppable.stoppable(sessionServices, sessionClassLoader).stop();
+        } finally {
+            sessionServices = null;
+            sessionClassLoader = null;
+        }
+    }
+
+    public void shutdown() {
+        completed.countDown();
+    }
+}
@@ -0,0 +1,146 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.testing.worker;
+
+import net.jcip.annotations.ThreadSafe;
+import org.gradle.api.Action;
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
+import org.gradle.internal.Factory;
+import org.gradle.internal.concurrent.CompositeStoppable;
+import org.gradle.internal.concurrent.ExecutorFactory;
+import org.gradle.internal.concurrent.Stoppable;
+import org.gradle.internal.concurrent.StoppableExecutor;
+import org.gradle.process.internal.JavaExecHandleBuilder;
+import org.gradle.process.internal.WorkerProcess;
+import org.gradle.process.internal.WorkerProcessBuilder;
+import org.gradle.util.Clock;
+
+import java.io.File;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps test worker processes alive between test tasks and builds, so that test tasks with compatible settings can reuse them. Workers are
+ * compatible when they have the same JVM settings and the same shared classpath, with unchanged contents.
+ */
+@ThreadSafe
+public class TestWorkerPool implements Stoppable {
+    private static final Logger LOGGER = Logging.getLogger(TestWorkerPool.class);
+
+    private final Object lock = new Object();
+    private final List<PooledTestWorker> idleWorkers = new LinkedList<PooledTestWorker>();
+    private final AtomicLong sessionCount = new AtomicLong();
+    private final StoppableExecutor executor;
+    private final int maxIdleWorkers;
+    private boolean stopped;
+
+    public TestWorkerPool(ExecutorFactory executorFactory) {
+        this(executorFactory, Runtime.getRuntime().availableProcessors());
+    }
+
+    TestWorkerPool(ExecutorFactory executorFactory, int maxIdleWorkers) {
+        this.executor = executorFactory.create("Test worker pool");
+        this.maxIdleWorkers = maxIdleWorkers;
+    }
+
+    /**
+     * Returns an id for a new session. Session ids are negative, so that they never clash with the ids of the workers started by a build.
+     */
+    long nextSessionId() {
+        return -sessionCount.incrementAndGet();
+    }
+
+    /**
+     * Reserves an idle worker that is compatible with the given configuration, or starts a new one.
+     */
+    PooledTestWorker reserveWorker(Factory<WorkerProcessBuilder> workerFactory, Action<? super WorkerProcessBuilder> configAction) {
+        WorkerProcessBuilder builder = workerFactory.create();
+        builder.setBaseName("Gradle Test Worker");
+        builder.setLoadApplicationInSystemClassLoader(true);
+        builder.worker(new TestWorkerHost());
+        configAction.execute(builder);
+        Object key = keyFor(builder);
+
+        synchronized (lock) {
+            Iterator<PooledTestWorker> iterator = idleWorkers.iterator();
+            while (iterator.hasNext()) {
+                PooledTestWorker candidate = iterator.next();
+                if (!candidate.isIdle()) {
+                    // Has exited while idle
+                    iterator.remove();
+                } else if (candidate.getKey().equals(key)) {
+                    iterator.remove();
+                    return candidate;
+                }
+            }
+        }
+
+        Clock clock = new Clock();
+        WorkerProcess workerProcess = builder.build();
+        workerProcess.start();
+        PooledTestWorker worker = new PooledTestWorker(key, workerProcess);
+        worker.connect(executor);
+        LOGGER.info("Started reusable test worker ({}).", clock.getTime());
+        return worker;
+    }
+
+    /**
+     * Returns a worker to the pool, or stops it if it cannot be reused.
+     */
+    void release(PooledTestWorker worker) {
+        PooledTestWorker evicted = worker;
+        synchronized (lock) {
+            if (!stopped && worker.isIdle()) {
+                idleWorkers.add(worker);
+                evicted = idleWorkers.size() > maxIdleWorkers ? idleWorkers.remove(0) : null;
+            }
+        }
+        if (evicted != null) {
+            evicted.stop();
+        }
+    }
+
+    public void stop() {
+        List<PooledTestWorker> workers;
+        synchronized (lock) {
+            stopped = true;
+            workers = new ArrayList<PooledTestWorker>(idleWorkers);
+            idleWorkers.clear();
+        }
+        LOGGER.debug("Stopping {} test worker(s).", workers.size());
+        CompositeStoppable.stoppable(workers).add(executor).stop();
+        LOGGER.info("Stopped {} test worker(s).", workers.size());
+    }
+
+    private static Object keyFor(WorkerProcessBuilder builder) {
+        JavaExecHandleBuilder javaCommand = builder.getJavaCommand();
+        List<Object> key = new ArrayList<Object>();
+        key.add(javaCommand.getExecutable());
+        key.add(javaCommand.getAllJvmArgs());
+        key.add(new TreeMap<String, Object>(javaCommand.getEnvironment()).toString());
+        key.add(javaCommand.getWorkingDir());
+        key.add(builder.getLogLevel());
+        key.add(new TreeSet<String>(builder.getSharedPackages()));
+        for (File file : builder.getApplicationClasspath()) {
+            key.add(file);
+            key.add(file.length());
+            key.add(file.lastModified());
+        }
+        return key;
+    }
+}
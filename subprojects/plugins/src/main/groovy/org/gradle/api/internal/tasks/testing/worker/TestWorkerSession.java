@@ -0,0 +1,54 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.testing.worker;
+
+import org.gradle.api.internal.tasks.testing.WorkerTestClassProcessorFactory;
+
+import java.io.File;
+import java.util.List;
+
+/**
+ * The tests of a single test task, executed by a reused test worker.
+ */
+public class TestWorkerSession {
+    private final long id;
+    private final List<File> classpath;
+    private final WorkerTestClassProcessorFactory processorFactory;
+
+    /**
+     * @param id the scope of the ids generated for the tests of this session
+     * @param classpath the classpath to load the test classes from, on top of the classpath of the worker
+     * @param processorFactory the factory for the test framework processor of the session
+     */
+    public TestWorkerSession(long id, List<File> classpath, WorkerTestClassProcessorFactory processorFactory) {
+        this.id = id;
+        this.classpath = classpath;
+        this.processorFactory = processorFactory;
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public List<File> getClasspath() {
+        return classpath;
+    }
+
+    public WorkerTestClassProcessorFactory getProcessorFactory() {
+        return processorFactory;
+    }
+}
@@ -24,8 +24,17 @@ import org.gradle.api.file.FileCollection;
 import org.gradle.api.file.FileTree;
 import org.gradle.api.file.FileTreeElement;
 import org.gradle.api.internal.ConventionTask;
+import org.gradle.api.internal.changedetection.state.FilesSnapshotSet;
+import org.gradle.api.internal.file.FileOperations;
 import org.gradle.api.internal.file.FileResolver;
+import org.gradle.api.internal.hash.DefaultHasher;
+import org.gradle.api.internal.hash.Hasher;
 import org.gradle.api.internal.initialization.loadercache.ClassLoaderCache;
+import org.gradle.api.internal.tasks.compile.incremental.analyzer.CachingClassDependenciesAnalyzer;
+import org.gradle.api.internal.tasks.compile.incremental.analyzer.ClassDependenciesAnalyzer;
+import org.gradle.api.internal.tasks.compile.incremental.analyzer.DefaultClassDependenciesAnalyzer;
+import org.gradle.api.internal.tasks.compile.incremental.cache.GeneralCompileCaches;
+import org.gradle.api.internal.tasks.compile.incremental.jar.CachingJarSnapshotter;
 import org.gradle.api.internal.tasks.options.Option;
 import org.gradle.api.internal.tasks.testing.DefaultTestTaskReports;
 import org.gradle.api.internal.tasks.testing.NoMatchingTestsReporter;
@@ -40,7 +49,11 @@ import org.gradle.api.internal.tasks.testing.junit.report.TestReporter;
 import org.gradle.api.internal.tasks.testing.junit.result.*;
 import org.gradle.api.internal.tasks.testing.logging.*;
 import org.gradle.api.internal.tasks.testing.results.TestListenerAdapter;
+import org.gradle.api.internal.tasks.testing.selection.LocalTestImpactSnapshotStore;
+import org.gradle.api.internal.tasks.testing.selection.TestImpactAnalyzer;
+import org.gradle.api.internal.tasks.testing.selection.TestImpactSelector;
 import org.gradle.api.internal.tasks.testing.testng.TestNGTestFramework;
+import org.gradle.api.internal.tasks.testing.worker.TestWorkerPool;
 import org.gradle.api.logging.LogLevel;
 import org.gradle.api.reporting.DirectoryReport;
 import org.gradle.api.reporting.Reporting;
@@ -50,8 +63,10 @@ import org.gradle.api.tasks.testing.logging.TestLogging;
 import org.gradle.api.tasks.testing.logging.TestLoggingContainer;
 import org.gradle.api.tasks.util.PatternFilterable;
 import org.gradle.api.tasks.util.PatternSet;
+import org.gradle.cache.CacheRepository;
 import org.gradle.internal.Factory;
 import org.gradle.internal.concurrent.CompositeStoppable;
+import org.gradle.internal.hash.HashUtil;
 import org.gradle.internal.reflect.Instantiator;
 import org.gradle.listener.ClosureBackedMethodInvocationDispatch;
 import org.gradle.internal.event.ListenerBroadcast;
@@ -65,6 +80,7 @@ import org.gradle.process.ProcessForkOptions;
 import org.gradle.process.internal.DefaultJavaForkOptions;
 import org.gradle.process.internal.WorkerProcessBuilder;
 import org.gradle.util.ConfigureUtil;
+import org.gradle.util.SingleMessageLogger;
 
 import javax.inject.Inject;
 import java.io.File;
@@ -136,6 +152,8 @@ public class Test extends ConventionTask implements JavaForkOptions, PatternFilt
     private boolean scanForTestClasses = true;
     private long forkEvery;
     private int maxParallelForks = 1;
+    private boolean selectTestsByChangeImpact;
+    private boolean reuseTestWorkers;
     private TestReporter testReporter;
 
     @Nested
@@ -197,6 +215,21 @@ public class Test extends ConventionTask implements JavaForkOptions, PatternFilt
         throw new UnsupportedOperationException();
     }
 
+    @Inject
+    protected GeneralCompileCaches getGeneralCompileCaches() {
+        throw new UnsupportedOperationException();
+    }
+
+    @Inject
+    protected CacheRepository getCacheRepository() {
+        throw new UnsupportedOperationException();
+    }
+
+    @Inject
+    protected TestWorkerPool getTestWorkerPool() {
+        throw new UnsupportedOperationException();
+    }
+
     /**
      * ATM. for testing only
      */
@@ -479,10 +512,6 @@ public class Test extends ConventionTask implements JavaForkOptions, PatternFilt
         TestEventLogger eventLogger = new TestEventLogger(getTextOutputFactory(), currentLevel, levelLogging, exceptionFormatter);
         addTestListener(eventLogger);
         addTestOutputListener(eventLogger);
-        if (!getFilter().getIncludePatterns().isEmpty()) {
-            addTestListener(new NoMatchingTestsReporter("No tests found for given includes: " + getFilter().getIncludePatterns()));
-        }
-
         File binaryResultsDir = getBinResultsDir();
         getProject().delete(binaryResultsDir);
         getProject().mkdir(binaryResultsDir);
@@ -502,8 +531,34 @@ public class Test extends ConventionTask implements JavaForkOptions, PatternFilt
         TestResultProcessor resultProcessor = new TestListenerAdapter(
                 getTestListenerBroadcaster().getSource(), testOutputListenerBroadcaster.getSource());
 
+        TestImpactSelector impactSelector = null;
+        Set<String> affectedClasses = null;
+        if (selectTestsByChangeImpact) {
+            SingleMessageLogger.incubatingFeatureUsed("Test selection by change impact");
+            impactSelector = createTestImpactSelector();
+            Set<File> testRuntimeClasspath = new LinkedHashSet<File>();
+            testRuntimeClasspath.add(getTestClassesDir());
+            testRuntimeClasspath.addAll(getClasspath().getFiles());
+            affectedClasses = impactSelector.selectAffectedClasses(getPath(), testRuntimeClasspath, getTestImpactConfigurationHash());
+        }
+
+        if (!getFilter().getIncludePatterns().isEmpty()) {
+            if (affectedClasses == null) {
+                addTestListener(new NoMatchingTestsReporter("No tests found for given includes: " + getFilter().getIncludePatterns()));
+            } else {
+                // The included tests may all be unaffected by the changes, which is not an error
+                getLogger().info("Not checking that tests match the given includes {}, as only tests affected by changes are executed.", getFilter().getIncludePatterns());
+            }
+        }
+
+        TestWorkerPool workerPool = null;
+        if (reuseTestWorkers) {
+            SingleMessageLogger.incubatingFeatureUsed("Test worker reuse");
+            workerPool = getTestWorkerPool();
+        }
+
         if (testExecuter == null) {
-            testExecuter = new DefaultTestExecuter(getProcessBuilderFactory(), getActorFactory());
+            testExecuter = new DefaultTestExecuter(getProcessBuilderFactory(), getActorFactory(), workerPool, affectedClasses);
         }
 
         try {
@@ -547,9 +602,35 @@ public class Test extends ConventionTask implements JavaForkOptions, PatternFilt
 
         if (testCountLogger.hadFailures()) {
             handleTestFailures();
+        } else if (impactSelector != null) {
+            impactSelector.executionSucceeded();
         }
     }
 
+    private TestImpactSelector createTestImpactSelector() {
+        GeneralCompileCaches compileCaches = getGeneralCompileCaches();
+        Hasher hasher = new DefaultHasher();
+        ClassDependenciesAnalyzer analyzer = new CachingClassDependenciesAnalyzer(new DefaultClassDependenciesAnalyzer(), hasher, compileCaches.getClassAnalysisCache());
+        CachingJarSnapshotter jarSnapshotter = new CachingJarSnapshotter(hasher, analyzer, compileCaches.getJarSnapshotCache(), FilesSnapshotSet.EMPTY);
+        TestImpactAnalyzer impactAnalyzer = new TestImpactAnalyzer((FileOperations) getProject(), hasher, analyzer, jarSnapshotter, compileCaches.getJarSnapshotCache());
+        return new TestImpactSelector(impactAnalyzer, new LocalTestImpactSnapshotStore(getCacheRepository(), this));
+    }
+
+    /**
+     * The settings that determine which tests are candidates for execution and how they behave, besides the test runtime classpath.
+     */
+    private byte[] getTestImpactConfigurationHash() {
+        StringBuilder configuration = new StringBuilder();
+        configuration.append(getTestFramework().getClass().getName()).append('\n');
+        configuration.append(isScanForTestClasses()).append('\n');
+        configuration.append(getIncludes()).append('\n');
+        configuration.append(getExcludes()).append('\n');
+        configuration.append(getFilter().getIncludePatterns()).append('\n');
+        configuration.append(getAllJvmArgs()).append('\n');
+        configuration.append(new TreeMap<String, Object>(getEnvironment())).append('\n');
+        return HashUtil.createHash(configuration.toString(), "MD5").asByteArray();
+    }
+
     /**
      * Returns the {@link org.gradle.api.tasks.testing.TestListener} broadcaster.  This broadcaster will send messages to all listeners that have been registered with the ListenerManager.
      */
@@ -996,6 +1077,59 @@ public class Test extends ConventionTask implements JavaForkOptions, PatternFilt
         this.maxParallelForks = maxParallelForks;
     }
 
+    /**
+     * Specifies whether only the test classes affected by changes since the last successful execution of this task should be executed. A test class is
+     * affected when it, or any class it transitively depends on, has changed on the test runtime classpath. The dependencies are found using the class
+     * analysis of incremental Java compilation. The default value is {@code false}.
+     *
+     * <p>All tests are executed whenever the affected classes cannot be determined, for example when a resource on the test runtime classpath, the test
+     * filter or the JVM settings have changed, or when the previous execution had failures. The test reports only contain the tests that were executed.</p>
+     *
+     * @since 2.5
+     */
+    @Incubating
+    @Input
+    public boolean isSelectTestsByChangeImpact() {
+        return selectTestsByChangeImpact;
+    }
+
+    /**
+     * Sets whether only the test classes affected by changes since the last successful execution of this task should be executed.
+     *
+     * @since 2.5
+     */
+    @Incubating
+    public void setSelectTestsByChangeImpact(boolean selectTestsByChangeImpact) {
+        this.selectTestsByChangeImpact = selectTestsByChangeImpact;
+    }
+
+    /**
+     * Specifies whether the test worker processes of this task should be reused by later test tasks and builds, instead of being stopped when the task
+     * completes. A test worker is only reused by tasks with the same JVM settings and the same test framework jars on their test runtime classpath. The
+     * test framework is loaded once by the worker, while the test classes and all other libraries are loaded again for each task.
+     * The default value is {@code false}.
+     *
+     * <p>New test workers are started when {@link #getForkEvery()} is set, when debugging, or when a security manager is installed. System properties
+     * and the security manager are reset between tasks, but other global state set up by the tests, such as the static state of the test framework,
+     * JVM wide settings or threads that keep running, carries over to the next task that reuses the worker.</p>
+     *
+     * @since 2.5
+     */
+    @Incubating
+    public boolean isReuseTestWorkers() {
+        return reuseTestWorkers;
+    }
+
+    /**
+     * Sets whether the test worker processes of this task should be reused by later test tasks and builds.
+     *
+     * @since 2.5
+     */
+    @Incubating
+    public void setReuseTestWorkers(boolean reuseTestWorkers) {
+        this.reuseTestWorkers = reuseTestWorkers;
+    }
+
     /**
      * Returns the classes files to scan for test classes.
      *
@@ -477,6 +477,63 @@ class DefaultTestReportTest extends Specification {
         testClassFile.assertHasStandardError('err:\u0102')
     }
 
+    def rerendersOnlyThePagesOfClassesWhoseResultsHaveChanged() {
+        given:
+        report.generateReport(passingBuildResults(), reportDir)
+        def unchangedClassFile = reportDir.file('classes/org.gradle.passing.Passed.html')
+        def unchangedPackageFile = reportDir.file('packages/org.gradle.passing.html')
+        def changedClassFile = reportDir.file('classes/org.gradle.passing.subpackage.AlsoPassed.html')
+        def changedPackageFile = reportDir.file('packages/org.gradle.passing.subpackage.html')
+        [unchangedClassFile, unchangedPackageFile, changedClassFile, changedPackageFile]*.setLastModified(0)
+
+        when:
+        report.generateReport(buildResults {
+            testClassResult("org.gradle.passing.Passed") {
+                testcase("passed") {
+                    duration = 1000;
+                }
+            }
+            testClassResult("org.gradle.passing.subpackage.AlsoPassed") {
+                testcase("passedToo") {
+                    duration = 1000;
+                    stdout "this is\nstandard output"
+                    stderr "this is\nstandard error"
+                    failure("something failed", "this is the failure\nat someClass")
+                }
+            }
+        }, reportDir)
+
+        then:
+        unchangedClassFile.lastModified() == 0
+        unchangedPackageFile.lastModified() == 0
+        changedClassFile.lastModified() != 0
+        changedPackageFile.lastModified() != 0
+
+        def index = results(indexFile)
+        index.assertHasTests(2)
+        index.assertHasFailures(1)
+        index.assertHasFailedTest('classes/org.gradle.passing.subpackage.AlsoPassed', 'passedToo')
+
+        def changedClass = results(changedClassFile)
+        changedClass.assertHasFailures(1)
+        changedClass.assertHasStandardOutput('this is\nstandard output')
+
+        results(changedPackageFile).assertHasFailures(1)
+    }
+
+    def rerendersAllPagesWhenPreviousPagesHaveBeenRemoved() {
+        given:
+        report.generateReport(passingBuildResults(), reportDir)
+        def classFile = reportDir.file('classes/org.gradle.passing.Passed.html')
+        classFile.delete()
+
+        when:
+        report.generateReport(passingBuildResults(), reportDir)
+
+        then:
+        results(classFile).assertHasTests(1)
+    }
+
     TestResultsProvider buildResults(Closure closure) {
         ConfigureUtil.configure(closure, new BuildableTestResultsProvider())
     }
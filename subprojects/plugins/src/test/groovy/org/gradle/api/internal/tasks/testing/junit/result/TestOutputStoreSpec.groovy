@@ -19,6 +19,7 @@ import org.gradle.api.internal.tasks.testing.DefaultTestOutputEvent
 import org.gradle.api.internal.tasks.testing.TestDescriptorInternal
 import org.gradle.api.tasks.testing.TestOutputEvent
 import org.gradle.test.fixtures.file.WorkspaceTest
+import spock.lang.Unroll
 
 import static org.gradle.api.tasks.testing.TestOutputEvent.Destination.StdErr
 import static org.gradle.api.tasks.testing.TestOutputEvent.Destination.StdOut
@@ -89,6 +90,33 @@ class TestOutputStoreSpec extends WorkspaceTest {
         collectOutput(reader, 2, StdOut) == "[out-6]"
     }
 
+    @Unroll
+    def "reads output through a window smaller than the output when mapped is #mapped"() {
+        def store = new TestOutputStore(testDirectory, mapped, 16)
+        def longMessage = "[" + ("\u00e9\u4e2d\ud83d\ude00x" * 100) + "]"
+
+        when:
+        def writer = store.writer()
+        writer.onOutput(1, 1, output(StdOut, "[out-1]"))
+        writer.onOutput(2, 1, output(StdOut, longMessage))
+        writer.onOutput(1, 2, output(StdOut, longMessage))
+        writer.onOutput(1, output(StdErr, "[err-\u00e9]"))
+        writer.close()
+        def reader = store.reader()
+
+        then:
+        collectAllOutput(reader, 1, StdOut) == "[out-1]" + longMessage
+        collectOutput(reader, 2, 1, StdOut) == longMessage
+        collectOutput(reader, 1, StdErr) == "[err-\u00e9]"
+        collectOutput(reader, 1, 1, StdOut) == "[out-1]"
+
+        cleanup:
+        reader?.close()
+
+        where:
+        mapped << [true, false]
+    }
+
     def DefaultTestOutputEvent output(TestOutputEvent.Destination destination, String msg) {
         new DefaultTestOutputEvent(destination, msg)
     }
@@ -80,9 +80,14 @@ class MaxNParallelTestClassProcessorTest extends Specification {
         processor.stop()
 
         then:
-        1 * asyncProcessor1.stop()
         1 * actor1.stop()
+
+        then:
+        1 * processor1.stop()
+
+        then:
         1 * resultProcessorActor.stop()
+        0 * asyncProcessor1.stop()
     }
 
     def startsMultipleProcessorsOnDemandAndStopsAtEnd() {
@@ -120,8 +125,8 @@ class MaxNParallelTestClassProcessorTest extends Specification {
         processor.stop()
 
         then:
-        1 * asyncProcessor1.stop()
-        1 * asyncProcessor2.stop()
+        1 * processor1.stop()
+        1 * processor2.stop()
     }
 
     def roundRobinsTestClassesToProcessors() {
@@ -0,0 +1,137 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.testing.selection
+
+import org.gradle.api.internal.tasks.compile.incremental.deps.ClassSetAnalysisData
+import org.gradle.api.internal.tasks.compile.incremental.deps.DefaultDependentsSet
+import org.gradle.api.internal.tasks.compile.incremental.deps.DependentsSet
+import org.gradle.api.internal.tasks.compile.incremental.jar.JarSnapshot
+import org.gradle.api.internal.tasks.compile.incremental.jar.JarSnapshotCache
+import org.gradle.api.internal.tasks.compile.incremental.jar.JarSnapshotData
+import spock.lang.Specification
+
+import static org.gradle.api.internal.tasks.compile.incremental.deps.DefaultDependentsSet.dependents
+
+class TestImpactAnalysisTest extends Specification {
+
+    def jarSnapshotCache = Mock(JarSnapshotCache)
+    def config = "config".bytes
+
+    private TestImpactSnapshot snapshot(Map<String, String> classes, Map<String, String> resources = [:], Map<String, String> jars = [:], byte[] configuration = config) {
+        new TestImpactSnapshot(configuration, hashes(classes), hashes(resources), hashes(jars))
+    }
+
+    private TestImpactAnalysis analysis(TestImpactSnapshot snapshot, Map<String, DependentsSet> dependents, Map<String, JarSnapshot> jars = [:]) {
+        new TestImpactAnalysis(snapshot, new ClassSetAnalysisData(dependents), jars, jarSnapshotCache)
+    }
+
+    private static JarSnapshot jar(String hash, Map<String, String> classes, Map<String, DependentsSet> dependents = [:]) {
+        new JarSnapshot(new JarSnapshotData(hash.bytes, hashes(classes), new ClassSetAnalysisData(dependents)))
+    }
+
+    private static Map<String, byte[]> hashes(Map<String, String> values) {
+        values.collectEntries { key, value -> [key, value.bytes] } as Map<String, byte[]>
+    }
+
+    def "selects nothing when nothing has changed"() {
+        def previous = snapshot(["FooTest": "1", "Foo": "1"])
+        def current = analysis(snapshot(["FooTest": "1", "Foo": "1"]), ["Foo": dependents("FooTest")])
+
+        expect:
+        current.getAffectedClassesSince(previous).dependentClasses.isEmpty()
+    }
+
+    def "selects changed classes and their transitive dependents"() {
+        def previous = snapshot(["FooTest": "1", "Foo": "1", "Bar": "1", "BarTest": "1", "Other": "1", "OtherTest": "1"])
+        def current = analysis(snapshot(["FooTest": "1", "Foo": "1", "Bar": "2", "BarTest": "1", "Other": "1", "OtherTest": "1"]), [
+                "Bar": dependents("Foo", "BarTest"),
+                "Foo": dependents("FooTest"),
+                "Other": dependents("OtherTest")
+        ])
+
+        expect:
+        current.getAffectedClassesSince(previous).dependentClasses == ["Bar", "Foo", "FooTest", "BarTest"] as Set
+    }
+
+    def "selects added and dependents of removed classes"() {
+        def previous = snapshot(["FooTest": "1", "Removed": "1"])
+        def current = analysis(snapshot(["FooTest": "1", "NewTest": "1"]), ["Removed": dependents("FooTest")])
+
+        expect:
+        current.getAffectedClassesSince(previous).dependentClasses == ["Removed", "FooTest", "NewTest"] as Set
+    }
+
+    def "selects dependents of changed classes in a jar"() {
+        def oldJar = jar("old", ["lib.A": "1", "lib.B": "1"])
+        def newJar = jar("new", ["lib.A": "2", "lib.B": "1"], ["lib.A": dependents("lib.B")])
+        def previous = snapshot(["FooTest": "1", "BarTest": "1"], [:], ["lib.jar": "old"])
+        def current = analysis(snapshot(["FooTest": "1", "BarTest": "1"], [:], ["lib.jar": "new"]),
+                ["lib.B": dependents("FooTest")], ["lib.jar": newJar])
+
+        when:
+        def affected = current.getAffectedClassesSince(previous)
+
+        then:
+        1 * jarSnapshotCache.getJarSnapshots(_) >> [(new File("lib.jar")): oldJar]
+        affected.dependentClasses == ["lib.A", "lib.B", "FooTest"] as Set
+    }
+
+    def "selects all tests when the previous version of a jar is not known"() {
+        def previous = snapshot(["FooTest": "1"], [:], ["lib.jar": "old"])
+        def current = analysis(snapshot(["FooTest": "1"], [:], ["lib.jar": "new"]), [:], ["lib.jar": jar("new", ["lib.A": "1"])])
+
+        when:
+        def affected = current.getAffectedClassesSince(previous)
+
+        then:
+        1 * jarSnapshotCache.getJarSnapshots(_) >> [(new File("lib.jar")): new JarSnapshot(null)]
+        affected.dependencyToAll
+    }
+
+    def "selects all tests when a resource has changed"() {
+        def previous = snapshot(["FooTest": "1"], ["dir!foo.properties": "1"])
+        def current = analysis(snapshot(["FooTest": "1"], ["dir!foo.properties": "2"]), [:])
+
+        expect:
+        def affected = current.getAffectedClassesSince(previous)
+        affected.dependencyToAll
+        affected.description == "'dir!foo.properties' has changed"
+    }
+
+    def "selects all tests when the configuration has changed"() {
+        def previous = snapshot(["FooTest": "1"], [:], [:], "other".bytes)
+        def current = analysis(snapshot(["FooTest": "1"]), [:])
+
+        expect:
+        current.getAffectedClassesSince(previous).dependencyToAll
+    }
+
+    def "selects all tests when the previous execution did not complete"() {
+        def current = analysis(snapshot(["FooTest": "1"]), [:])
+
+        expect:
+        current.getAffectedClassesSince(TestImpactSnapshot.INCOMPLETE).dependencyToAll
+    }
+
+    def "selects all tests when a changed class is a dependency to all"() {
+        def previous = snapshot(["Constants": "1", "FooTest": "1"])
+        def current = analysis(snapshot(["Constants": "2", "FooTest": "1"]), ["Constants": new DefaultDependentsSet(true, ["FooTest"])])
+
+        expect:
+        current.getAffectedClassesSince(previous).dependencyToAll
+    }
+}
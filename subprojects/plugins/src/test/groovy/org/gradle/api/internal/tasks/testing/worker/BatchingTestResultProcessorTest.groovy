@@ -0,0 +1,177 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.testing.worker
+
+import org.gradle.api.internal.tasks.testing.DefaultTestDescriptor
+import org.gradle.api.internal.tasks.testing.DefaultTestOutputEvent
+import org.gradle.api.internal.tasks.testing.DefaultTestSuiteDescriptor
+import org.gradle.api.internal.tasks.testing.TestCompleteEvent
+import org.gradle.api.internal.tasks.testing.TestResultProcessor
+import org.gradle.api.internal.tasks.testing.TestStartEvent
+import org.gradle.api.tasks.testing.TestOutputEvent
+import org.gradle.internal.concurrent.DefaultExecutorFactory
+import org.gradle.test.fixtures.ConcurrentTestUtil
+import spock.lang.Specification
+
+import java.util.concurrent.CopyOnWriteArrayList
+
+class BatchingTestResultProcessorTest extends Specification {
+    def executorFactory = new DefaultExecutorFactory()
+    def batches = new CopyOnWriteArrayList<TestEventBatch>()
+    def target = { TestEventBatch batch -> batches << batch } as RemoteTestResultProcessor
+    def delegate = Mock(TestResultProcessor)
+
+    def cleanup() {
+        executorFactory.stop()
+    }
+
+    def "sends events in a single batch when a composite test completes"() {
+        def processor = new BatchingTestResultProcessor(target, executorFactory, 100, 60000)
+        def suite = new DefaultTestSuiteDescriptor("suite", "Suite")
+        def test = new DefaultTestDescriptor("test", "Suite", "test")
+        def output = new DefaultTestOutputEvent(TestOutputEvent.Destination.StdOut, "out")
+        def failure = new RuntimeException()
+
+        when:
+        processor.started(suite, new TestStartEvent(1))
+        processor.started(test, new TestStartEvent(2, "suite"))
+        processor.output("test", output)
+        processor.failure("test", failure)
+        processor.completed("test", new TestCompleteEvent(3))
+
+        then:
+        batches.empty
+
+        when:
+        processor.completed("suite", new TestCompleteEvent(4))
+
+        then:
+        batches.size() == 1
+
+        when:
+        batches[0].dispatchTo(delegate)
+
+        then:
+        1 * delegate.started(suite, { it.startTime == 1 })
+
+        then:
+        1 * delegate.started(test, { it.startTime == 2 })
+
+        then:
+        1 * delegate.output("test", output)
+
+        then:
+        1 * delegate.failure("test", failure)
+
+        then:
+        1 * delegate.completed("test", { it.endTime == 3 })
+
+        then:
+        1 * delegate.completed("suite", { it.endTime == 4 })
+        0 * delegate._
+
+        cleanup:
+        processor.stop()
+    }
+
+    def "sends batch when it reaches the maximum size"() {
+        def processor = new BatchingTestResultProcessor(target, executorFactory, 2, 60000)
+
+        when:
+        processor.output("test", new DefaultTestOutputEvent(TestOutputEvent.Destination.StdOut, "1"))
+        processor.output("test", new DefaultTestOutputEvent(TestOutputEvent.Destination.StdOut, "2"))
+        processor.output("test", new DefaultTestOutputEvent(TestOutputEvent.Destination.StdOut, "3"))
+
+        then:
+        batches.size() == 1
+        batches[0].size() == 2
+
+        when:
+        processor.stop()
+
+        then:
+        batches.size() == 2
+        batches[1].size() == 1
+    }
+
+    def "sends pending events periodically"() {
+        def processor = new BatchingTestResultProcessor(target, executorFactory, 100, 10)
+
+        when:
+        processor.output("test", new DefaultTestOutputEvent(TestOutputEvent.Destination.StdOut, "1"))
+        ConcurrentTestUtil.poll(5) {
+            assert batches.size() == 1
+        }
+
+        then:
+        batches[0].size() == 1
+
+        cleanup:
+        processor.stop()
+    }
+
+    def "sends events added after the periodic flush has been idle"() {
+        def processor = new BatchingTestResultProcessor(target, executorFactory, 100, 10)
+
+        when:
+        processor.output("test", new DefaultTestOutputEvent(TestOutputEvent.Destination.StdOut, "1"))
+        ConcurrentTestUtil.poll(5) {
+            assert batches.size() == 1
+        }
+        processor.output("test", new DefaultTestOutputEvent(TestOutputEvent.Destination.StdOut, "2"))
+        ConcurrentTestUtil.poll(5) {
+            assert batches.size() == 2
+        }
+
+        then:
+        batches[1].size() == 1
+
+        cleanup:
+        processor.stop()
+    }
+
+    def "sends pending events when asked to"() {
+        def processor = new BatchingTestResultProcessor(target, executorFactory, 100, 60000)
+
+        when:
+        processor.output("test", new DefaultTestOutputEvent(TestOutputEvent.Destination.StdOut, "1"))
+        processor.flushPending()
+
+        then:
+        batches.size() == 1
+        batches[0].size() == 1
+
+        when:
+        processor.flushPending()
+
+        then:
+        batches.size() == 1
+
+        cleanup:
+        processor.stop()
+    }
+
+    def "sends nothing when there are no events"() {
+        def processor = new BatchingTestResultProcessor(target, executorFactory, 100, 60000)
+
+        when:
+        processor.stop()
+
+        then:
+        batches.empty
+    }
+}
@@ -0,0 +1,83 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.testing.worker
+
+import org.gradle.api.Action
+import org.gradle.api.internal.tasks.testing.TestClassRunInfo
+import org.gradle.api.internal.tasks.testing.WorkerTestClassProcessorFactory
+import org.gradle.internal.Factory
+import org.gradle.process.JavaForkOptions
+import spock.lang.Specification
+import spock.lang.Subject
+
+class PooledTestClassProcessorTest extends Specification {
+
+    def workerPool = Mock(TestWorkerPool)
+    def worker = Mock(PooledTestWorker)
+    @Subject processor = Spy(PooledTestClassProcessor, constructorArgs: [workerPool, Mock(Factory), Mock(WorkerTestClassProcessorFactory), Mock(JavaForkOptions), [new File("junit.jar")], [new File("classes")], Mock(Action)])
+
+    def "starts session on first test"() {
+        def test1 = Mock(TestClassRunInfo)
+        def test2 = Mock(TestClassRunInfo)
+
+        when:
+        processor.processTestClass(test1)
+        processor.processTestClass(test2)
+
+        then:
+        1 * processor.startSession() >> worker
+        1 * worker.processTestClass(test1)
+        1 * worker.processTestClass(test2)
+        0 * worker._
+    }
+
+    def "stops session and returns worker to the pool"() {
+        when:
+        processor.processTestClass(Mock(TestClassRunInfo))
+        processor.stop()
+
+        then:
+        1 * processor.startSession() >> worker
+        1 * worker.stopSession()
+
+        then:
+        1 * workerPool.release(worker)
+    }
+
+    def "returns worker to the pool when session fails"() {
+        def failure = new RuntimeException()
+
+        when:
+        processor.processTestClass(Mock(TestClassRunInfo))
+        processor.stop()
+
+        then:
+        1 * processor.startSession() >> worker
+        1 * worker.stopSession() >> { throw failure }
+        1 * workerPool.release(worker)
+        def e = thrown(RuntimeException)
+        e == failure
+    }
+
+    def "does not reserve a worker when there are no tests"() {
+        when:
+        processor.stop()
+
+        then:
+        0 * workerPool._
+    }
+}
@@ -23,13 +23,16 @@ import org.gradle.api.internal.tasks.testing.DefaultTestDescriptor
 import org.gradle.api.internal.tasks.testing.DefaultTestMethodDescriptor
 import org.gradle.api.internal.tasks.testing.DefaultTestOutputEvent
 import org.gradle.api.internal.tasks.testing.DefaultTestSuiteDescriptor
+import org.gradle.api.internal.tasks.testing.TestClassProcessor
 import org.gradle.api.internal.tasks.testing.TestCompleteEvent
 import org.gradle.api.internal.tasks.testing.TestStartEvent
+import org.gradle.api.internal.tasks.testing.WorkerTestClassProcessorFactory
 import org.gradle.api.tasks.testing.TestOutputEvent
 import org.gradle.api.tasks.testing.TestResult
 import org.gradle.internal.id.CompositeIdGenerator
 import org.gradle.internal.serialize.InputStreamBackedDecoder
 import org.gradle.internal.serialize.OutputStreamBackedEncoder
+import org.gradle.internal.service.ServiceRegistry
 import spock.lang.Specification
 
 class TestEventSerializerTest extends Specification {
@@ -59,6 +62,17 @@ class TestEventSerializerTest extends Specification {
         result[0] == id
     }
 
+    def "serializes CompositeId with negative scope"() {
+        def id = new CompositeIdGenerator.CompositeId(-12L, 2L)
+
+        when:
+        def result = serialize(id)
+
+        then:
+        result.length == 1
+        result[0] == id
+    }
+
     def "serializes DefaultTestSuiteDescriptor"() {
         def id = new CompositeIdGenerator.CompositeId(1L, 2L)
         def descriptor = new DefaultTestSuiteDescriptor(id, "some-test")
@@ -193,10 +207,59 @@ class TestEventSerializerTest extends Specification {
         result[0].cause.message == "cause"
     }
 
+    def "serializes TestWorkerSession"() {
+        def session = new TestWorkerSession(-3L, [new File("classes"), new File("lib.jar")], new SerializableProcessorFactory(name: "junit"))
+
+        when:
+        def result = serialize(session)
+
+        then:
+        result.length == 1
+        result[0] instanceof TestWorkerSession
+        result[0].id == -3L
+        result[0].classpath == [new File("classes"), new File("lib.jar")]
+        result[0].processorFactory instanceof SerializableProcessorFactory
+        result[0].processorFactory.name == "junit"
+    }
+
+    def "serializes TestEventBatch"() {
+        def suite = new DefaultTestSuiteDescriptor(new CompositeIdGenerator.CompositeId(1L, 2L), "suite")
+        def testId = new CompositeIdGenerator.CompositeId(1L, 3L)
+        def batch = new TestEventBatch()
+        batch.add(TestEventBatch.STARTED, suite, new TestStartEvent(123L, null))
+        batch.add(TestEventBatch.OUTPUT, testId, new DefaultTestOutputEvent(TestOutputEvent.Destination.StdOut, "hi"))
+        batch.add(TestEventBatch.FAILURE, testId, new RuntimeException("broken"))
+        batch.add(TestEventBatch.COMPLETED, suite.id, new TestCompleteEvent(456L, TestResult.ResultType.FAILURE))
+
+        when:
+        def result = serialize(batch)
+
+        then:
+        result.length == 1
+        result[0] instanceof TestEventBatch
+        result[0].size() == 4
+        (0..3).collect { result[0].getType(it) } == [TestEventBatch.STARTED, TestEventBatch.OUTPUT, TestEventBatch.FAILURE, TestEventBatch.COMPLETED]
+        result[0].getFirstArgument(0).name == "suite"
+        result[0].getSecondArgument(0).startTime == 123L
+        result[0].getFirstArgument(1) == testId
+        result[0].getSecondArgument(1).message == "hi"
+        result[0].getSecondArgument(2).message == "broken"
+        result[0].getFirstArgument(3) == suite.id
+        result[0].getSecondArgument(3).resultType == TestResult.ResultType.FAILURE
+    }
+
     def Object[] serialize(Object... source) {
         def outstr = new ByteArrayOutputStream()
         serializer.newWriter(new OutputStreamBackedEncoder(outstr)).write(source)
 
         return serializer.newReader(new InputStreamBackedDecoder(new ByteArrayInputStream(outstr.toByteArray()))).read()
     }
+
+    static class SerializableProcessorFactory implements WorkerTestClassProcessorFactory, Serializable {
+        String name
+
+        TestClassProcessor create(ServiceRegistry serviceRegistry) {
+            throw new UnsupportedOperationException()
+        }
+    }
 }
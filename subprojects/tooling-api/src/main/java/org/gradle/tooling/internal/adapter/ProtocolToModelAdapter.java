@@ -46,6 +46,7 @@ public class ProtocolToModelAdapter implements Serializable {
     private static final Pattern IS_METHOD = Pattern.compile("is(\\w+)");
     private final TargetTypeProvider targetTypeProvider;
     private final CollectionMapper collectionMapper = new CollectionMapper();
+    private transient Map<MethodSignature, Method> methodCache;
 
     public ProtocolToModelAdapter() {
         this(IDENTITY_TYPE_PROVIDER);
@@ -323,8 +324,7 @@ public class ProtocolToModelAdapter implements Serializable {
 
     private class ReflectionMethodInvoker implements MethodInvoker {
         public void invoke(MethodInvocation invocation) throws Throwable {
-            // TODO - cache method lookup
-            Method targetMethod = locateMethod(invocation);
+            Method targetMethod = lookupMethod(invocation);
             if (targetMethod == null) {
                 return;
             }
@@ -339,8 +339,23 @@ public class ProtocolToModelAdapter implements Serializable {
             invocation.setResult(returnValue);
         }
 
-        private Method locateMethod(MethodInvocation invocation) {
-            Class<?> sourceClass = invocation.getDelegate().getClass();
+        private Method lookupMethod(MethodInvocation invocation) {
+            MethodSignature signature = new MethodSignature(invocation.getDelegate().getClass(), invocation.getName(), invocation.getParameterTypes());
+            synchronized (ProtocolToModelAdapter.this) {
+                if (methodCache == null) {
+                    methodCache = new HashMap<MethodSignature, Method>();
+                } else if (methodCache.containsKey(signature)) {
+                    return methodCache.get(signature);
+                }
+            }
+            Method method = locateMethod(signature.sourceClass, invocation);
+            synchronized (ProtocolToModelAdapter.this) {
+                methodCache.put(signature, method);
+            }
+            return method;
+        }
+
+        private Method locateMethod(Class<?> sourceClass, MethodInvocation invocation) {
             Method match;
             try {
                 match = sourceClass.getMethod(invocation.getName(), invocation.getParameterTypes());
@@ -369,6 +384,38 @@ public class ProtocolToModelAdapter implements Serializable {
         }
     }
 
+    /**
+     * Identifies a method of a source class, so that the result of locating it can be cached.
+     */
+    private static class MethodSignature {
+        private final Class<?> sourceClass;
+        private final String name;
+        private final Class<?>[] parameterTypes;
+
+        private MethodSignature(Class<?> sourceClass, String name, Class<?>[] parameterTypes) {
+            this.sourceClass = sourceClass;
+            this.name = name;
+            this.parameterTypes = parameterTypes;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (obj == this) {
+                return true;
+            }
+            if (obj == null || obj.getClass() != getClass()) {
+                return false;
+            }
+            MethodSignature other = (MethodSignature) obj;
+            return sourceClass.equals(other.sourceClass) && name.equals(other.name) && Arrays.equals(parameterTypes, other.parameterTypes);
+        }
+
+        @Override
+        public int hashCode() {
+            return sourceClass.hashCode() ^ name.hashCode() ^ Arrays.hashCode(parameterTypes);
+        }
+    }
+
     private static class PropertyCachingMethodInvoker implements MethodInvoker {
         private final Map<String, Object> properties = new HashMap<String, Object>();
         private final Set<String> unknown = new HashSet<String>();
@@ -416,6 +416,25 @@ class ProtocolToModelAdapterTest extends Specification {
         copiedModel.name == "name"
     }
 
+    def "locates methods separately for each type of source object"() {
+        given:
+        def first = adapter.adapt(TestProject.class, new TestProtocolProjectImpl())
+        def second = adapter.adapt(TestProject.class, new TestProtocolProjectImpl(name: "second"))
+        def other = adapter.adapt(TestProject.class, new OtherTestProtocolProjectImpl())
+        def missing = adapter.adapt(TestProject.class, new Object())
+
+        expect:
+        first.name == "name"
+        second.name == "second"
+        other.name == "other"
+
+        when:
+        missing.name
+
+        then:
+        thrown(UnsupportedMethodException)
+    }
+
     def "unpacks source object from view"() {
         def source = new Object()
 
@@ -492,6 +511,12 @@ class TestProtocolProjectImpl implements Serializable {
     String name = "name"
 }
 
+class OtherTestProtocolProjectImpl {
+    String getName() {
+        return "other"
+    }
+}
+
 class ConfigMixin {
     TestModel model
 